@@ -32,6 +32,7 @@ import cn.taketoday.aop.Advisor;
 import cn.taketoday.aop.AopInfrastructureBean;
 import cn.taketoday.aop.Pointcut;
 import cn.taketoday.aop.TargetSource;
+import cn.taketoday.aop.support.AdvisorIndex;
 import cn.taketoday.aop.support.AopUtils;
 import cn.taketoday.aop.target.SingletonTargetSource;
 import cn.taketoday.aop.target.TargetSourceCreator;
@@ -75,6 +76,8 @@ public abstract class AbstractAutoProxyCreator
   private transient TargetSourceCreator[] targetSourceCreators;
   private transient ClassLoader proxyClassLoader = ClassUtils.getClassLoader();
   private List<Advisor> candidateAdvisors;
+  /** @since 3.0.3 */
+  private transient AdvisorIndex advisorIndex;
 
   /**
    * Set custom {@code TargetSourceCreators} to be applied in this order.
@@ -269,7 +272,22 @@ public abstract class AbstractAutoProxyCreator
 
   protected List<Advisor> filterAdvisors(final List<Advisor> candidateAdvisors,
                                          BeanDefinition def, TargetSource targetSource) {
-    return AopUtils.filterAdvisors(candidateAdvisors, def.getBeanClass());
+    return getAdvisorIndex(candidateAdvisors).filterAdvisors(def.getBeanClass());
+  }
+
+  /**
+   * Get the {@link AdvisorIndex} of the given candidate advisors,
+   * rebuild it when the candidate advisors changed
+   *
+   * @since 3.0.3
+   */
+  protected AdvisorIndex getAdvisorIndex(List<Advisor> candidateAdvisors) {
+    AdvisorIndex advisorIndex = this.advisorIndex;
+    if (advisorIndex == null || !advisorIndex.isIndexed(candidateAdvisors)) {
+      advisorIndex = new AdvisorIndex(candidateAdvisors);
+      this.advisorIndex = advisorIndex;
+    }
+    return advisorIndex;
   }
 
   protected List<Advisor> getCandidateAdvisors() {
@@ -45,6 +45,7 @@ import cn.taketoday.aop.target.SingletonTargetSource;
 import cn.taketoday.context.utils.Assert;
 import cn.taketoday.context.utils.ClassUtils;
 import cn.taketoday.context.utils.CollectionUtils;
+import cn.taketoday.context.utils.ConcurrentCache;
 import cn.taketoday.context.utils.OrderUtils;
 
 /**
@@ -80,9 +81,23 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
   /** Whether the Advisors are already filtered for the specific target class. */
   private boolean preFiltered = false;
 
+  /**
+   * Interceptor chains shared by all configurations that hold the same advisors,
+   * e.g. the ProxyFactory of every instance of a proxied prototype bean.
+   * Cleared when a context is closed, so that its advisors and classes are
+   * not kept reachable.
+   *
+   * @since 3.0.3
+   */
+  private static final ConcurrentCache<InterceptorChainKey, MethodInterceptor[]>
+          sharedInterceptorCache = ConcurrentCache.create(1024);
+
   /** Cache with Method as key and advisor chain List as value. */
   private transient ConcurrentHashMap<MethodCacheKey, MethodInterceptor[]> methodCache;
 
+  /** Snapshot of the advisors, used as the key of shared interceptor chains */
+  private transient Advisor[] advisorsSnapshot;
+
   /**
    * Interfaces to be implemented by the proxy. Held in List to keep the order
    * of registration, to create JDK proxy with specified order of interfaces.
@@ -475,18 +490,47 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
     MethodCacheKey cacheKey = new MethodCacheKey(method);
     MethodInterceptor[] cached = this.methodCache.get(cacheKey);
     if (cached == null) {
-      cached = AopUtils.getInterceptorsArray(this, method, targetClass);
-      OrderUtils.reversedSort(cached);
+      final InterceptorChainKey chainKey = new InterceptorChainKey(
+              method, targetClass, getAdvisorsSnapshot(), isPreFiltered());
+      cached = sharedInterceptorCache.get(chainKey);
+      if (cached == null) {
+        cached = AopUtils.getInterceptorsArray(this, method, targetClass);
+        OrderUtils.reversedSort(cached);
+        sharedInterceptorCache.put(chainKey, cached);
+      }
       this.methodCache.put(cacheKey, cached);
     }
     return cached;
   }
 
+  private Advisor[] getAdvisorsSnapshot() {
+    Advisor[] ret = this.advisorsSnapshot;
+    if (ret == null || ret.length != advisors.size()) {
+      ret = this.advisorsSnapshot = getAdvisors();
+    }
+    return ret;
+  }
+
   /**
    * Invoked when advice has changed.
    */
   protected void adviceChanged() {
     this.methodCache.clear();
+    this.advisorsSnapshot = null;
+  }
+
+  /**
+   * Clear the interceptor chains shared across configurations.
+   * <p>
+   * Chains are shared by advisor identity, call this method if an
+   * advisor's pointcut or advice has been changed in place. Called when
+   * a context is closed.
+   * </p>
+   *
+   * @since 3.0.3
+   */
+  public static void clearSharedInterceptorCache() {
+    sharedInterceptorCache.clear();
   }
 
   /**
@@ -609,4 +653,63 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
     }
   }
 
+  /**
+   * Key of a shared interceptor chain: the method, the target class
+   * and the advisor configuration fingerprint (advisors compared by identity).
+   */
+  static final class InterceptorChainKey {
+    private final int hashCode;
+    private final Method method;
+    private final Class<?> targetClass;
+    private final Advisor[] advisors;
+    private final boolean preFiltered;
+
+    InterceptorChainKey(Method method, Class<?> targetClass, Advisor[] advisors, boolean preFiltered) {
+      this.method = method;
+      this.advisors = advisors;
+      this.targetClass = targetClass;
+      this.preFiltered = preFiltered;
+      int hashCode = method.hashCode();
+      hashCode = 31 * hashCode + System.identityHashCode(targetClass);
+      for (final Advisor advisor : advisors) {
+        hashCode = 31 * hashCode + System.identityHashCode(advisor);
+      }
+      this.hashCode = 31 * hashCode + (preFiltered ? 1 : 0);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof InterceptorChainKey)) {
+        return false;
+      }
+      final InterceptorChainKey that = (InterceptorChainKey) other;
+      if (hashCode != that.hashCode
+              || method != that.method
+              || targetClass != that.targetClass
+              || preFiltered != that.preFiltered
+              || advisors.length != that.advisors.length) {
+        return false;
+      }
+      for (int i = 0; i < advisors.length; i++) {
+        if (advisors[i] != that.advisors[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return this.method.toString();
+    }
+  }
+
 }
@@ -20,7 +20,7 @@
 
 package cn.taketoday.aop.proxy;
 
-import cn.taketoday.context.NamedThreadLocal;
+import cn.taketoday.context.factory.ScopeContext;
 
 /**
  * Class containing static methods used to obtain information about the current AOP invocation.
@@ -46,13 +46,13 @@ import cn.taketoday.context.NamedThreadLocal;
 public final class AopContext {
 
   /**
-   * ThreadLocal holder for AOP proxy associated with this thread.
+   * {@link ScopeContext} slot of the AOP proxy associated with this thread.
    * Will contain {@code null} unless the "exposeProxy" property on
    * the controlling proxy configuration has been set to "true".
    *
    * @see ProxyConfig#setExposeProxy
    */
-  private static final ThreadLocal<Object> currentProxy = new NamedThreadLocal<>("Current AOP proxy");
+  private static final int currentProxy = ScopeContext.allocateLocalSlot();
 
   /**
    * Try to return the current AOP proxy. This method is usable only if the
@@ -67,7 +67,8 @@ public final class AopContext {
    *         AOP framework has not been configured to expose the proxy
    */
   public static Object currentProxy() {
-    Object proxy = currentProxy.get();
+    final ScopeContext context = ScopeContext.current();
+    final Object proxy = context != null ? context.get(currentProxy) : null;
     if (proxy == null) {
       throw new IllegalStateException(
               "Cannot find current proxy: Set 'exposeProxy' property on Advised to 'true' to make it available, and " +
@@ -88,14 +89,8 @@ public final class AopContext {
    * @see #currentProxy()
    */
   static Object setCurrentProxy(Object proxy) {
-    Object old = currentProxy.get();
-    if (proxy != null) {
-      currentProxy.set(proxy);
-    }
-    else {
-      currentProxy.remove();
-    }
-    return old;
+    final ScopeContext context = proxy != null ? ScopeContext.obtain() : ScopeContext.current();
+    return context != null ? context.set(currentProxy, proxy) : null;
   }
 
 }
@@ -30,6 +30,7 @@ import java.util.function.Function;
 
 import cn.taketoday.aop.TargetSource;
 import cn.taketoday.aop.proxy.std.DefaultProxyMethodGenerator;
+import cn.taketoday.aop.proxy.std.FusedProxyMethodGenerator;
 import cn.taketoday.aop.proxy.std.GeneratorContext;
 import cn.taketoday.aop.proxy.std.NoneProxyMethodGenerator;
 import cn.taketoday.aop.proxy.std.ProxyMethodGenerator;
@@ -42,6 +43,7 @@ import cn.taketoday.context.cglib.core.ClassEmitter;
 import cn.taketoday.context.cglib.core.CodeEmitter;
 import cn.taketoday.context.cglib.core.CodeGenerationException;
 import cn.taketoday.context.cglib.core.EmitUtils;
+import cn.taketoday.context.cglib.core.GeneratedClassScope;
 import cn.taketoday.context.cglib.core.KeyFactory;
 import cn.taketoday.context.cglib.core.MethodInfo;
 import cn.taketoday.context.cglib.core.Signature;
@@ -144,6 +146,11 @@ public class StandardAopProxy extends AbstractSubclassesAopProxy implements AopP
       return targetSource;
     }
 
+    @Override
+    protected boolean isDefinableInScope() {
+      return GeneratedClassScope.isDefinable(targetClass);
+    }
+
     @Override
     protected ClassLoader getDefaultClassLoader() {
       return targetClass.getClassLoader();
@@ -221,10 +228,11 @@ public class StandardAopProxy extends AbstractSubclassesAopProxy implements AopP
       return instance;
     }
 
-    static List<ProxyMethodGenerator> methodGenerators = new ArrayList<>(2);
+    static List<ProxyMethodGenerator> methodGenerators = new ArrayList<>(3);
 
     static {
       methodGenerators.add(new NoneProxyMethodGenerator());
+      methodGenerators.add(new FusedProxyMethodGenerator());
       methodGenerators.add(new DefaultProxyMethodGenerator());
     }
 
@@ -249,6 +257,7 @@ public class StandardAopProxy extends AbstractSubclassesAopProxy implements AopP
       generateConstructor(ce, targetType, targetSourceStatic);
 
       final GeneratorContext context = new GeneratorContext(targetType, config, ce, targetClass);
+      context.setClassLoader(getClassLoader());
 
       for (Method method : targetClass.getDeclaredMethods()) {
 //      for (Method method : ReflectionUtils.getUniqueDeclaredMethods(targetClass)) {
@@ -21,6 +21,7 @@
 package cn.taketoday.aop.proxy;
 
 import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
 
 import java.lang.reflect.Method;
 
@@ -50,6 +51,23 @@ public abstract class StandardProxyInvoker {
     }
   }
 
+  /**
+   * Expose the proxy and proceed a pre-built invocation, used by the fused
+   * invocations that generated by {@link cn.taketoday.aop.proxy.std.FusedProxyMethodGenerator}
+   *
+   * @since 3.0.3
+   */
+  public static Object staticExposeProceed(Object proxy, MethodInvocation invocation) throws Throwable {
+    Object oldProxy = null;
+    try {
+      oldProxy = AopContext.setCurrentProxy(proxy);
+      return invocation.proceed();
+    }
+    finally {
+      AopContext.setCurrentProxy(oldProxy);
+    }
+  }
+
   public static Object dynamicExposeProceed(
           Object proxy, TargetSource targetSource, TargetInvocation targetInv, Object[] args) throws Throwable {
 
@@ -24,9 +24,8 @@ import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import cn.taketoday.aop.TargetClassAware;
 import cn.taketoday.context.reflect.MethodInvoker;
@@ -37,7 +36,8 @@ import cn.taketoday.context.reflect.MethodInvoker;
  */
 public class TargetInvocation implements TargetClassAware {
 
-  private static final Map<String, TargetInvocation> targetMap = new HashMap<>();
+  /** Accessed by the static initializers of generated proxy classes, may be concurrently */
+  private static final ConcurrentHashMap<String, TargetInvocation> targetMap = new ConcurrentHashMap<>();
 
   private final Method method;
   private final Class<?> targetClass;
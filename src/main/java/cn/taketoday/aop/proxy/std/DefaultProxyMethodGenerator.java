@@ -123,7 +123,8 @@ public class DefaultProxyMethodGenerator implements ProxyMethodGenerator {
     return true;
   }
 
-  void generateProxyMethod(Method method, String targetInvField, GeneratorContext context, CodeEmitter codeEmitter) {
+  protected void generateProxyMethod(
+          Method method, String targetInvField, GeneratorContext context, CodeEmitter codeEmitter) {
     final AdvisedSupport config = context.getConfig();
     final boolean exposeProxy = config.isExposeProxy();
     final boolean isStatic = config.getTargetSource().isStatic();
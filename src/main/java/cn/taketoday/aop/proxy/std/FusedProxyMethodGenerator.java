@@ -0,0 +1,310 @@
+/*
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+
+package cn.taketoday.aop.proxy.std;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+
+import cn.taketoday.aop.proxy.AdvisedSupport;
+import cn.taketoday.aop.proxy.StandardMethodInvocation;
+import cn.taketoday.aop.proxy.StandardProxyInvoker;
+import cn.taketoday.aop.proxy.TargetInvocation;
+import cn.taketoday.context.Constant;
+import cn.taketoday.context.asm.ClassVisitor;
+import cn.taketoday.context.asm.Label;
+import cn.taketoday.context.asm.Type;
+import cn.taketoday.context.cglib.core.CglibReflectUtils;
+import cn.taketoday.context.cglib.core.ClassEmitter;
+import cn.taketoday.context.cglib.core.ClassGenerator;
+import cn.taketoday.context.cglib.core.CodeEmitter;
+import cn.taketoday.context.cglib.core.CodeGenerationException;
+import cn.taketoday.context.cglib.core.DefaultGeneratorStrategy;
+import cn.taketoday.context.cglib.core.Local;
+import cn.taketoday.context.cglib.core.ProcessSwitchCallback;
+import cn.taketoday.context.cglib.core.Signature;
+import cn.taketoday.context.cglib.core.TypeUtils;
+import cn.taketoday.context.utils.ObjectUtils;
+
+import static cn.taketoday.context.asm.Opcodes.ACC_FINAL;
+import static cn.taketoday.context.asm.Opcodes.ACC_PUBLIC;
+import static cn.taketoday.context.asm.Opcodes.JAVA_VERSION;
+
+/**
+ * Generate a dedicated {@link StandardMethodInvocation} class per advised method
+ * whose interceptor chain cannot change after the proxy is created
+ * ({@link AdvisedSupport#isOpaque() opaque} configuration with a static target).
+ * <p>
+ * The ordered interceptors are held in {@code static final} fields of the generated
+ * class and invoked through a {@code tableswitch}, so every call site is monomorphic.
+ * The proxy method allocates the generated invocation directly, which lets the JIT
+ * inline the whole advised call and scalar-replace the invocation object.
+ * </p>
+ *
+ * <pre class="code">
+ *   public final class Bean$$Invocation$$hello7a3c extends StandardMethodInvocation {
+ *     private static final MethodInterceptor advice0;
+ *     private static final MethodInterceptor advice1;
+ *
+ *     static {
+ *       MethodInterceptor[] chain = TargetInvocation.getTarget("hello7a3c").getInterceptors();
+ *       advice0 = chain[0];
+ *       advice1 = chain[1];
+ *     }
+ *
+ *     protected boolean hasInterceptor() {
+ *       return currentAdviceIndex < 2;
+ *     }
+ *
+ *     protected Object executeInterceptor() throws Throwable {
+ *       switch (currentAdviceIndex++) {
+ *         case 0: return advice0.invoke(this);
+ *         case 1: return advice1.invoke(this);
+ *         default: throw new IllegalStateException();
+ *       }
+ *     }
+ *   }
+ * </pre>
+ *
+ * @author TODAY 2021/3/20 16:08
+ * @see DefaultProxyMethodGenerator
+ * @since 3.0.3
+ */
+public class FusedProxyMethodGenerator extends DefaultProxyMethodGenerator {
+
+  static final String FIELD_CURRENT_ADVICE_INDEX = "currentAdviceIndex";
+  static final String FIELD_ADVICE_PREFIX = "advice";
+
+  private static final Type invocationSuperType = Type.getType(StandardMethodInvocation.class);
+  private static final Type methodInterceptorType = Type.getType(MethodInterceptor.class);
+  private static final Type methodInterceptorArrayType = Type.getType(MethodInterceptor[].class);
+  private static final Type targetInvocationType = Type.getType(TargetInvocation.class);
+  private static final Type stdProxyInvoker = Type.getType(StandardProxyInvoker.class);
+  private static final Type illegalStateType = Type.getType(IllegalStateException.class);
+
+  private static final Signature invocationConstructor = TypeUtils.parseConstructor(
+          new Type[] { Constant.TYPE_OBJECT, targetInvocationType, Constant.TYPE_OBJECT_ARRAY });
+
+  private static final Signature invoke;
+  private static final Signature proceed;
+  private static final Signature getTarget;
+  private static final Signature getInterceptors;
+  private static final Signature hasInterceptor;
+  private static final Signature executeInterceptor;
+  private static final Signature staticExposeProceed;
+
+  static {
+    try {
+      invoke = new Signature(MethodInterceptor.class.getMethod("invoke", MethodInvocation.class));
+      proceed = new Signature(MethodInvocation.class.getMethod("proceed"));
+      getTarget = new Signature(TargetInvocation.class.getMethod("getTarget", String.class));
+      getInterceptors = new Signature(TargetInvocation.class.getMethod("getInterceptors"));
+      hasInterceptor = new Signature("hasInterceptor", Type.BOOLEAN_TYPE, Constant.TYPES_EMPTY_ARRAY);
+      executeInterceptor = new Signature("executeInterceptor", Constant.TYPE_OBJECT, Constant.TYPES_EMPTY_ARRAY);
+      staticExposeProceed = new Signature(StandardProxyInvoker.class.getMethod("staticExposeProceed",
+                                                                               Object.class,
+                                                                               MethodInvocation.class));
+    }
+    catch (NoSuchMethodException e) {
+      throw new CodeGenerationException(e);
+    }
+  }
+
+  @Override
+  public boolean generate(Method method, GeneratorContext context) {
+    final AdvisedSupport config = context.getConfig();
+    if (config.isOpaque() && config.getTargetSource().isStatic()) {
+      final MethodInterceptor[] interceptors = config.getInterceptors(method, context.getTargetClass());
+      if (ObjectUtils.isNotEmpty(interceptors)) {
+        return super.generate(method, context);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * <pre class="code">
+   *   return new Bean$$Invocation$$hello7a3c(this.target, hello7a3c, args).proceed();
+   * </pre>
+   */
+  @Override
+  protected void generateProxyMethod(
+          Method method, String targetInvField, GeneratorContext context, CodeEmitter codeEmitter) {
+
+    final Type invocationType = generateInvocation(targetInvField, context);
+    final boolean exposeProxy = context.getConfig().isExposeProxy();
+    if (exposeProxy) {
+      codeEmitter.load_this();
+    }
+
+    codeEmitter.new_instance(invocationType);
+    codeEmitter.dup();
+    codeEmitter.load_this();
+    codeEmitter.getfield(FIELD_TARGET);
+    codeEmitter.getfield(targetInvField);
+    prepareArgs(method, codeEmitter);
+    codeEmitter.invoke_constructor(invocationType, invocationConstructor);
+
+    if (exposeProxy) {
+      codeEmitter.invoke_static(stdProxyInvoker, staticExposeProceed);
+    }
+    else {
+      codeEmitter.invoke_virtual(invocationType, proceed);
+    }
+  }
+
+  /**
+   * Generate and define the fused {@link StandardMethodInvocation} for the given
+   * {@link TargetInvocation} key
+   *
+   * @return Type of the generated invocation class
+   */
+  protected Type generateInvocation(String targetInvField, GeneratorContext context) {
+    final TargetInvocation targetInv = TargetInvocation.getTarget(targetInvField);
+    final int adviceLength = targetInv.getInterceptors().length;
+
+    String prefix = context.getTargetClass().getName();
+    if (prefix.startsWith("java")) {
+      prefix = '$' + prefix;
+    }
+    final String className = prefix + "$$Invocation$$" + targetInvField;
+    final InvocationClassGenerator generator = new InvocationClassGenerator(className, targetInvField, adviceLength);
+    try {
+      final byte[] bytes = DefaultGeneratorStrategy.INSTANCE.generate(generator);
+      CglibReflectUtils.defineClass(className, bytes, context.getClassLoader(),
+                                    CglibReflectUtils.getProtectionDomain(context.getTargetClass()));
+    }
+    catch (Exception e) {
+      throw new CodeGenerationException(e);
+    }
+    return generator.classType;
+  }
+
+  static final class InvocationClassGenerator implements ClassGenerator {
+
+    final Type classType;
+    final String className;
+    final int adviceLength;
+    final String targetInvField;
+
+    InvocationClassGenerator(String className, String targetInvField, int adviceLength) {
+      this.className = className;
+      this.adviceLength = adviceLength;
+      this.targetInvField = targetInvField;
+      this.classType = Type.getType('L' + className.replace('.', '/') + ';');
+    }
+
+    @Override
+    public void generateClass(ClassVisitor v) {
+      final ClassEmitter ce = new ClassEmitter(v);
+      ce.beginClass(JAVA_VERSION, ACC_PUBLIC | ACC_FINAL,
+                    className, invocationSuperType, Constant.TYPES_EMPTY_ARRAY, Constant.AOP_SOURCE_FILE);
+
+      for (int i = 0; i < adviceLength; i++) {
+        ce.declare_field(Constant.PRIVATE_FINAL_STATIC, FIELD_ADVICE_PREFIX + i, methodInterceptorType, null);
+      }
+
+      generateStaticBlock(ce);
+      generateConstructor(ce);
+      generateHasInterceptor(ce);
+      generateExecuteInterceptor(ce);
+
+      ce.endClass();
+    }
+
+    void generateStaticBlock(ClassEmitter ce) {
+      final CodeEmitter staticBlock = ce.begin_static(false);
+      staticBlock.visitLdcInsn(targetInvField);
+      staticBlock.invoke_static(targetInvocationType, getTarget);
+      staticBlock.invoke_virtual(targetInvocationType, getInterceptors);
+
+      final Local chain = staticBlock.make_local(methodInterceptorArrayType);
+      staticBlock.store_local(chain);
+      for (int i = 0; i < adviceLength; i++) {
+        staticBlock.load_local(chain);
+        staticBlock.aaload(i);
+        staticBlock.putfield(FIELD_ADVICE_PREFIX + i);
+      }
+    }
+
+    void generateConstructor(ClassEmitter ce) {
+      final CodeEmitter code = ce.beginMethod(ACC_PUBLIC, invocationConstructor);
+      code.load_this();
+      code.load_args();
+      code.super_invoke_constructor(invocationConstructor);
+      code.return_value();
+      code.end_method();
+    }
+
+    void generateHasInterceptor(ClassEmitter ce) {
+      final CodeEmitter code = ce.beginMethod(Constant.ACC_PROTECTED, hasInterceptor);
+      final Label hasNext = code.make_label();
+      code.load_this();
+      code.super_getfield(FIELD_CURRENT_ADVICE_INDEX, Type.INT_TYPE);
+      code.push(adviceLength);
+      code.if_icmp(CodeEmitter.LT, hasNext);
+      code.push(false);
+      code.return_value();
+      code.mark(hasNext);
+      code.push(true);
+      code.return_value();
+      code.end_method();
+    }
+
+    void generateExecuteInterceptor(ClassEmitter ce) {
+      final CodeEmitter code = ce.beginMethod(Constant.ACC_PROTECTED, executeInterceptor, Constant.TYPE_THROWABLE);
+      // int index = this.currentAdviceIndex++;
+      final Local index = code.make_local(Type.INT_TYPE);
+      code.load_this();
+      code.super_getfield(FIELD_CURRENT_ADVICE_INDEX, Type.INT_TYPE);
+      code.dup();
+      code.store_local(index);
+      code.push(1);
+      code.math(CodeEmitter.ADD, Type.INT_TYPE);
+      code.load_this();
+      code.swap();
+      code.super_putfield(FIELD_CURRENT_ADVICE_INDEX, Type.INT_TYPE);
+
+      final int[] keys = new int[adviceLength];
+      for (int i = 0; i < adviceLength; i++) {
+        keys[i] = i;
+      }
+      code.load_local(index);
+      code.process_switch(keys, new ProcessSwitchCallback() {
+        @Override
+        public void processCase(int key, Label end) {
+          code.getfield(FIELD_ADVICE_PREFIX + key);
+          code.load_this();
+          code.invoke_interface(methodInterceptorType, invoke);
+          code.return_value();
+        }
+
+        @Override
+        public void processDefault() {
+          code.throw_exception(illegalStateType, "No more interceptors");
+        }
+      }, true);
+      code.end_method();
+    }
+  }
+
+}
@@ -37,6 +37,8 @@ public class GeneratorContext {
   final Class<?> targetClass;
   final AdvisedSupport config;
   final ClassEmitter classEmitter;
+  /** @since 3.0.3 */
+  private ClassLoader classLoader;
 
   final List<String> fields = new ArrayList<>();
 
@@ -63,6 +65,20 @@ public class GeneratorContext {
     return classEmitter;
   }
 
+  /**
+   * ClassLoader that the proxy class will be defined into
+   *
+   * @since 3.0.3
+   */
+  public ClassLoader getClassLoader() {
+    return classLoader;
+  }
+
+  /** @since 3.0.3 */
+  public void setClassLoader(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
   public void addField(String field) {
     fields.add(field);
   }
@@ -0,0 +1,274 @@
+/*
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+
+package cn.taketoday.aop.support;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.taketoday.aop.Advisor;
+import cn.taketoday.aop.IntroductionAdvisor;
+import cn.taketoday.aop.MethodMatcher;
+import cn.taketoday.aop.Pointcut;
+import cn.taketoday.aop.PointcutAdvisor;
+import cn.taketoday.context.utils.Assert;
+import cn.taketoday.context.utils.ClassUtils;
+import cn.taketoday.context.utils.ReflectionUtils;
+
+/**
+ * Precomputed index over a fixed list of candidate {@link Advisor Advisors}
+ * <p>
+ * {@link AopUtils#filterAdvisors(List, Class)} evaluates every advisor against
+ * every method of the target class hierarchy. This index groups advisors whose
+ * pointcut matches methods by a non-inherited {@link AnnotationMethodMatcher}
+ * under their annotation type, and scans each target class only once to collect
+ * the annotation types declared on its methods. Those advisors are then found
+ * with one map lookup per annotation type instead of a method scan per advisor.
+ * Advisors with {@link MethodMatcher#TRUE} only need their class filter, other
+ * advisors fall back to {@link AopUtils#canApply(Advisor, Class, boolean)}.
+ * </p>
+ * The result is identical to {@link AopUtils#filterAdvisors(List, Class)},
+ * including the order of the eligible advisors.
+ *
+ * @author TODAY 2021/3/21 10:42
+ * @see AopUtils#filterAdvisors(List, Class)
+ * @see AnnotationMatchingPointcut#forMethodAnnotation(Class)
+ * @since 3.0.3
+ */
+public class AdvisorIndex {
+
+  private final List<Advisor> advisors;
+  /** advisor count when this index was built */
+  private final int advisorCount;
+
+  /** indices of IntroductionAdvisors */
+  private final int[] introductions;
+  /** indices of advisors that needs a full {@link AopUtils#canApply} */
+  private final int[] generics;
+  /** indices of advisors whose method matcher is {@link MethodMatcher#TRUE} */
+  private final int[] classFiltered;
+  /** method annotation type -> indices of advisors */
+  private final Map<Class<? extends Annotation>, int[]> methodAnnotationIndex;
+
+  /** per-class cache of annotation types declared on its methods */
+  private final ConcurrentHashMap<Class<?>, Set<Class<? extends Annotation>>> methodAnnotations
+          = new ConcurrentHashMap<>();
+
+  public AdvisorIndex(List<Advisor> candidateAdvisors) {
+    Assert.notNull(candidateAdvisors, "candidateAdvisors must not be null");
+    this.advisors = candidateAdvisors;
+    this.advisorCount = candidateAdvisors.size();
+
+    final ArrayList<Integer> introductions = new ArrayList<>();
+    final ArrayList<Integer> generics = new ArrayList<>();
+    final ArrayList<Integer> classFiltered = new ArrayList<>();
+    final HashMap<Class<? extends Annotation>, List<Integer>> methodAnnotationIndex = new HashMap<>();
+
+    int index = 0;
+    for (final Advisor advisor : candidateAdvisors) {
+      if (advisor instanceof IntroductionAdvisor) {
+        introductions.add(index);
+      }
+      else if (advisor instanceof PointcutAdvisor) {
+        final MethodMatcher methodMatcher = ((PointcutAdvisor) advisor).getPointcut().getMethodMatcher();
+        if (methodMatcher == MethodMatcher.TRUE) {
+          classFiltered.add(index);
+        }
+        else if (isIndexable(methodMatcher)) {
+          final Class<? extends Annotation> annotationType = ((AnnotationMethodMatcher) methodMatcher).getAnnotationType();
+          methodAnnotationIndex.computeIfAbsent(annotationType, key -> new ArrayList<>()).add(index);
+        }
+        else {
+          generics.add(index);
+        }
+      }
+      else {
+        // It doesn't have a pointcut so we assume it applies.
+        classFiltered.add(index);
+      }
+      index++;
+    }
+
+    this.generics = toArray(generics);
+    this.introductions = toArray(introductions);
+    this.classFiltered = toArray(classFiltered);
+
+    if (methodAnnotationIndex.isEmpty()) {
+      this.methodAnnotationIndex = Collections.emptyMap();
+    }
+    else {
+      this.methodAnnotationIndex = new HashMap<>(methodAnnotationIndex.size());
+      for (final Map.Entry<Class<? extends Annotation>, List<Integer>> entry : methodAnnotationIndex.entrySet()) {
+        this.methodAnnotationIndex.put(entry.getKey(), toArray(entry.getValue()));
+      }
+    }
+  }
+
+  /**
+   * Only plain {@link AnnotationMethodMatcher} without inherited lookups can be
+   * answered from the annotations declared on methods.
+   */
+  protected boolean isIndexable(MethodMatcher methodMatcher) {
+    return methodMatcher.getClass() == AnnotationMethodMatcher.class
+            && !((AnnotationMethodMatcher) methodMatcher).isCheckInherited();
+  }
+
+  /**
+   * Determine the sublist of the candidate advisors that is applicable to the given class.
+   *
+   * @param clazz
+   *         the target class
+   *
+   * @return sublist of Advisors that can apply to an object of the given class
+   *
+   * @see AopUtils#filterAdvisors(List, Class)
+   */
+  public List<Advisor> filterAdvisors(Class<?> clazz) {
+    final List<Advisor> advisors = this.advisors;
+    if (advisorCount == 0) {
+      return new ArrayList<>();
+    }
+
+    final List<Advisor> eligibleAdvisors = new ArrayList<>();
+    for (final int idx : introductions) {
+      final Advisor candidate = advisors.get(idx);
+      if (AopUtils.canApply(candidate, clazz)) {
+        eligibleAdvisors.add(candidate);
+      }
+    }
+
+    final boolean hasIntroductions = !eligibleAdvisors.isEmpty();
+    final boolean[] matched = new boolean[advisorCount];
+
+    for (final int idx : classFiltered) {
+      final Advisor candidate = advisors.get(idx);
+      matched[idx] = !(candidate instanceof PointcutAdvisor)
+              || ((PointcutAdvisor) candidate).getPointcut().getClassFilter().matches(clazz);
+    }
+
+    if (!methodAnnotationIndex.isEmpty()) {
+      for (final Class<? extends Annotation> annotationType : getMethodAnnotations(clazz)) {
+        final int[] indices = methodAnnotationIndex.get(annotationType);
+        if (indices != null) {
+          for (final int idx : indices) {
+            final Pointcut pointcut = ((PointcutAdvisor) advisors.get(idx)).getPointcut();
+            matched[idx] = pointcut.getClassFilter().matches(clazz);
+          }
+        }
+      }
+    }
+
+    for (final int idx : generics) {
+      matched[idx] = AopUtils.canApply(advisors.get(idx), clazz, hasIntroductions);
+    }
+
+    for (int i = 0; i < matched.length; i++) {
+      if (matched[i]) {
+        eligibleAdvisors.add(advisors.get(i));
+      }
+    }
+    return eligibleAdvisors;
+  }
+
+  /**
+   * Collect the annotation types declared on the methods that
+   * {@link AopUtils#canApply(Pointcut, Class, boolean)} would inspect
+   *
+   * @param targetClass
+   *         the target class
+   *
+   * @return annotation types (never {@code null})
+   */
+  protected Set<Class<? extends Annotation>> getMethodAnnotations(Class<?> targetClass) {
+    Set<Class<? extends Annotation>> ret = methodAnnotations.get(targetClass);
+    if (ret == null) {
+      ret = findMethodAnnotations(targetClass);
+      final Set<Class<? extends Annotation>> previous = methodAnnotations.putIfAbsent(targetClass, ret);
+      if (previous != null) {
+        ret = previous;
+      }
+    }
+    return ret;
+  }
+
+  private static Set<Class<? extends Annotation>> findMethodAnnotations(Class<?> targetClass) {
+    final LinkedHashSet<Class<?>> classes = new LinkedHashSet<>();
+    if (!Proxy.isProxyClass(targetClass)) {
+      classes.add(ClassUtils.getUserClass(targetClass));
+    }
+    classes.addAll(ClassUtils.getAllInterfacesForClassAsSet(targetClass));
+
+    final HashSet<Class<? extends Annotation>> ret = new HashSet<>();
+    for (final Class<?> clazz : classes) {
+      for (final Method method : ReflectionUtils.getAllDeclaredMethods(clazz)) {
+        for (final Annotation annotation : method.getDeclaredAnnotations()) {
+          ret.add(annotation.annotationType());
+        }
+      }
+    }
+    return ret.isEmpty() ? Collections.emptySet() : ret;
+  }
+
+  /**
+   * Get the candidate advisors that this index built from
+   */
+  public List<Advisor> getAdvisors() {
+    return advisors;
+  }
+
+  /**
+   * Whether this index is built from the given candidate advisors and still
+   * up to date with them. The candidate list can grow after the index was
+   * built, e.g. when an advisor bean is proxied while the list is populating.
+   *
+   * @param candidateAdvisors
+   *         the candidate advisors
+   */
+  public boolean isIndexed(List<Advisor> candidateAdvisors) {
+    return advisors == candidateAdvisors && advisorCount == candidateAdvisors.size();
+  }
+
+  /**
+   * Clear the per-class cache
+   */
+  public void clearCache() {
+    methodAnnotations.clear();
+  }
+
+  private static int[] toArray(List<Integer> indices) {
+    final int[] ret = new int[indices.size()];
+    int i = 0;
+    for (final Integer index : indices) {
+      ret[i++] = index;
+    }
+    return ret;
+  }
+
+}
@@ -86,6 +86,20 @@ public class AnnotationMethodMatcher extends StaticMethodMatcher {
     return (specificMethod != method && matchesMethod(specificMethod));
   }
 
+  /**
+   * @since 3.0.3
+   */
+  public Class<? extends Annotation> getAnnotationType() {
+    return annotationType;
+  }
+
+  /**
+   * @since 3.0.3
+   */
+  public boolean isCheckInherited() {
+    return checkInherited;
+  }
+
   private boolean matchesMethod(Method method) {
     return (this.checkInherited
             ? ClassUtils.isAnnotationPresent(method, this.annotationType)
@@ -26,8 +26,8 @@ import java.io.Serializable;
 
 import cn.taketoday.aop.Advisor;
 import cn.taketoday.aop.support.DefaultPointcutAdvisor;
-import cn.taketoday.context.NamedThreadLocal;
 import cn.taketoday.context.Ordered;
+import cn.taketoday.context.factory.ScopeContext;
 
 /**
  * Interceptor that exposes the current {@link MethodInvocation}
@@ -62,8 +62,8 @@ public final class ExposeInvocationInterceptor implements MethodInterceptor, Ord
     }
   };
 
-  private static final ThreadLocal<MethodInvocation> invocation =
-          new NamedThreadLocal<>("Current AOP method invocation");
+  /** {@link ScopeContext} slot of the current AOP method invocation @since 3.0.3 */
+  private static final int invocation = ScopeContext.allocateLocalSlot();
 
   /**
    * Return the AOP Alliance MethodInvocation object associated with the current invocation.
@@ -75,7 +75,8 @@ public final class ExposeInvocationInterceptor implements MethodInterceptor, Ord
    *         or if the ExposeInvocationInterceptor was not added to this interceptor chain
    */
   public static MethodInvocation currentInvocation() throws IllegalStateException {
-    MethodInvocation mi = invocation.get();
+    final ScopeContext context = ScopeContext.current();
+    final MethodInvocation mi = context != null ? (MethodInvocation) context.get(invocation) : null;
     if (mi == null) {
       throw new IllegalStateException(
               "No MethodInvocation found: Check that an AOP invocation is in progress and that the " +
@@ -94,13 +95,13 @@ public final class ExposeInvocationInterceptor implements MethodInterceptor, Ord
 
   @Override
   public Object invoke(MethodInvocation mi) throws Throwable {
-    MethodInvocation oldInvocation = invocation.get();
-    invocation.set(mi);
+    final ScopeContext context = ScopeContext.obtain();
+    final Object oldInvocation = context.set(invocation, mi);
     try {
       return mi.proceed();
     }
     finally {
-      invocation.set(oldInvocation);
+      context.set(invocation, oldInvocation);
     }
   }
 
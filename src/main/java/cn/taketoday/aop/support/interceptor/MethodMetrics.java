@@ -0,0 +1,121 @@
+/*
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+
+package cn.taketoday.aop.support.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.LongAdder;
+
+import cn.taketoday.context.utils.Assert;
+import cn.taketoday.context.utils.LatencyHistogram;
+
+/**
+ * Invocation metrics of a method: invocation count, error count
+ * and a latency histogram (in nanoseconds) of the sampled invocations.
+ *
+ * @author TODAY 2021/3/21 17:30
+ * @see MetricsRegistry
+ * @see MetricsMonitorInterceptor
+ * @since 3.0.3
+ */
+public class MethodMetrics {
+
+  private final String name;
+  private final Method method;
+
+  private final LongAdder invocations = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  public MethodMetrics(Method method) {
+    this(method, method.getDeclaringClass().getName() + '.' + method.getName());
+  }
+
+  public MethodMetrics(Method method, String name) {
+    Assert.notNull(method, "method must not be null");
+    Assert.notNull(name, "name must not be null");
+    this.name = name;
+    this.method = method;
+  }
+
+  /**
+   * Record an invocation
+   *
+   * @param failed
+   *         whether the invocation threw an exception
+   */
+  public void recordInvocation(boolean failed) {
+    invocations.increment();
+    if (failed) {
+      errors.increment();
+    }
+  }
+
+  /**
+   * Record the latency of a sampled invocation
+   *
+   * @param nanos
+   *         elapsed nanoseconds
+   */
+  public void recordLatency(long nanos) {
+    latency.record(nanos);
+  }
+
+  /**
+   * Metric name, e.g. {@code com.example.Service.serve}
+   */
+  public String getName() {
+    return name;
+  }
+
+  public Method getMethod() {
+    return method;
+  }
+
+  public long getInvocationCount() {
+    return invocations.sum();
+  }
+
+  public long getErrorCount() {
+    return errors.sum();
+  }
+
+  /**
+   * Latency in nanoseconds of the sampled invocations
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  public void reset() {
+    invocations.reset();
+    errors.reset();
+    latency.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "MethodMetrics{name='" + name
+            + "', invocations=" + getInvocationCount()
+            + ", errors=" + getErrorCount()
+            + ", latency=" + latency + '}';
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+
+package cn.taketoday.aop.support.interceptor;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import cn.taketoday.context.utils.Assert;
+import cn.taketoday.context.utils.LatencyHistogram;
+
+/**
+ * Low overhead AOP Alliance {@code MethodInterceptor} for performance monitoring.
+ * This interceptor has no effect on the intercepted method call.
+ *
+ * <p>
+ * Unlike {@link PerformanceMonitorInterceptor} no {@code StopWatch} is created
+ * and nothing is formatted or logged per call: invocation and error counts are
+ * added to the {@link MethodMetrics} of the invoked method, and the latency of
+ * sampled invocations is recorded into its lock-free {@link LatencyHistogram}.
+ * Percentiles, counts and errors are read from the {@link MetricsRegistry}.
+ * </p>
+ *
+ * @author TODAY 2021/3/21 17:50
+ * @see MetricsRegistry
+ * @see PerformanceMonitorInterceptor
+ * @since 3.0.3
+ */
+public class MetricsMonitorInterceptor implements MethodInterceptor {
+
+  private final MetricsRegistry registry;
+
+  /** sampling rate between 0 and 1 */
+  private double samplingRate = 1;
+
+  /**
+   * Create a new MetricsMonitorInterceptor with a {@link SimpleMetricsRegistry}
+   */
+  public MetricsMonitorInterceptor() {
+    this(new SimpleMetricsRegistry());
+  }
+
+  public MetricsMonitorInterceptor(MetricsRegistry registry) {
+    Assert.notNull(registry, "MetricsRegistry must not be null");
+    this.registry = registry;
+  }
+
+  /**
+   * Set the fraction of invocations whose latency is recorded.
+   * <p>Default is 1, recording every invocation. Counts and errors
+   * are always recorded.
+   *
+   * @param samplingRate
+   *         sampling rate between 0 and 1
+   */
+  public void setSamplingRate(double samplingRate) {
+    Assert.isTrue(samplingRate >= 0 && samplingRate <= 1, "samplingRate must between 0 and 1");
+    this.samplingRate = samplingRate;
+  }
+
+  public double getSamplingRate() {
+    return samplingRate;
+  }
+
+  public MetricsRegistry getRegistry() {
+    return registry;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    final MethodMetrics metrics = registry.getMetrics(invocation.getMethod());
+    final boolean sampled = isSampled();
+    final long start = sampled ? System.nanoTime() : 0;
+    boolean failed = true;
+    try {
+      final Object ret = invocation.proceed();
+      failed = false;
+      return ret;
+    }
+    finally {
+      if (sampled) {
+        metrics.recordLatency(System.nanoTime() - start);
+      }
+      metrics.recordInvocation(failed);
+    }
+  }
+
+  /**
+   * Determine whether the latency of current invocation should be recorded
+   */
+  protected boolean isSampled() {
+    final double samplingRate = this.samplingRate;
+    return samplingRate >= 1
+            || (samplingRate > 0 && ThreadLocalRandom.current().nextDouble() < samplingRate);
+  }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+
+package cn.taketoday.aop.support.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+/**
+ * Registry of {@link MethodMetrics}, written by {@link MetricsMonitorInterceptor}
+ * and read by exporters (JMX, in-memory reports, etc.)
+ *
+ * @author TODAY 2021/3/21 17:40
+ * @see SimpleMetricsRegistry
+ * @since 3.0.3
+ */
+public interface MetricsRegistry {
+
+  /**
+   * Get or create the metrics of the given method. Called on every
+   * monitored invocation, implementations should be fast and thread-safe.
+   *
+   * @param method
+   *         the invoked method
+   *
+   * @return the metrics (never {@code null})
+   */
+  MethodMetrics getMetrics(Method method);
+
+  /**
+   * Return all registered metrics
+   */
+  Collection<MethodMetrics> getAllMetrics();
+
+}
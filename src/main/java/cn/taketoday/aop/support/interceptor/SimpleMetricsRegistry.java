@@ -0,0 +1,74 @@
+/*
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+
+package cn.taketoday.aop.support.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory {@link MetricsRegistry} keyed by {@link Method}
+ *
+ * @author TODAY 2021/3/21 17:45
+ * @since 3.0.3
+ */
+public class SimpleMetricsRegistry implements MetricsRegistry {
+
+  private final ConcurrentHashMap<Method, MethodMetrics> metrics = new ConcurrentHashMap<>();
+
+  @Override
+  public MethodMetrics getMetrics(Method method) {
+    MethodMetrics ret = metrics.get(method);
+    if (ret == null) {
+      ret = metrics.computeIfAbsent(method, this::createMetrics);
+    }
+    return ret;
+  }
+
+  /**
+   * Create the metrics of the given method, subclasses can override
+   * it to customize the metric name
+   */
+  protected MethodMetrics createMetrics(Method method) {
+    return new MethodMetrics(method);
+  }
+
+  @Override
+  public Collection<MethodMetrics> getAllMetrics() {
+    return Collections.unmodifiableCollection(metrics.values());
+  }
+
+  /**
+   * Reset all registered metrics
+   */
+  public void reset() {
+    for (final MethodMetrics methodMetrics : metrics.values()) {
+      methodMetrics.reset();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "SimpleMetricsRegistry" + metrics.values();
+  }
+
+}
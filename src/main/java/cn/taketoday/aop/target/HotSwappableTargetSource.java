@@ -37,6 +37,9 @@ import cn.taketoday.context.utils.Assert;
  * <p>This TargetSource is serializable if the target is at the time
  * of serialization.
  *
+ * <p>The target is held in a volatile field, reading it on every proxied
+ * call needs no lock. Only {@link #swap(Object)} is synchronized.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @author TODAY 2021/2/1 21:26
@@ -47,7 +50,7 @@ public class HotSwappableTargetSource implements TargetSource, Serializable {
   private static final long serialVersionUID = 1L;
 
   /** The current target object. */
-  private Object target;
+  private volatile Object target;
 
   /**
    * Create a new HotSwappableTargetSource with the given initial target object.
@@ -65,7 +68,7 @@ public class HotSwappableTargetSource implements TargetSource, Serializable {
    * <p>The returned type should usually be constant across all target objects.
    */
   @Override
-  public synchronized Class<?> getTargetClass() {
+  public Class<?> getTargetClass() {
     return this.target.getClass();
   }
 
@@ -75,7 +78,7 @@ public class HotSwappableTargetSource implements TargetSource, Serializable {
   }
 
   @Override
-  public synchronized Object getTarget() {
+  public Object getTarget() {
     return this.target;
   }
 
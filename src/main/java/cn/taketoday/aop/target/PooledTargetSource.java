@@ -0,0 +1,329 @@
+/*
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+
+package cn.taketoday.aop.target;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import cn.taketoday.context.factory.BeanFactory;
+import cn.taketoday.context.factory.DisposableBean;
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * {@link cn.taketoday.aop.TargetSource} implementation that holds
+ * prototype instances of the target bean in a bounded object pool.
+ *
+ * <p>
+ * A target is borrowed from the pool on {@link #getTarget()} and returned on
+ * {@link #releaseTarget(Object)}. The pool is lock-free: idle objects are held
+ * in a {@link ConcurrentLinkedDeque} (LIFO, to keep recently used objects warm)
+ * and the number of created objects is bounded with a CAS loop, so there is no
+ * monitor on the call path. When the pool is exhausted a caller backs off with
+ * {@link LockSupport#parkNanos} until an object is released or {@code maxWait}
+ * elapsed.
+ * </p>
+ *
+ * @author TODAY 2021/3/21 15:10
+ * @see PooledTargetSourceStats
+ * @see ThreadLocalTargetSource
+ * @since 3.0.3
+ */
+public class PooledTargetSource
+        extends AbstractPrototypeTargetSource implements PooledTargetSourceStats, DisposableBean {
+  private static final long serialVersionUID = 1L;
+
+  private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+  private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /** The maximum size of the pool, negative for no limit */
+  private int maxSize = 8;
+  /** The maximum number of idle objects, negative for no limit */
+  private int maxIdle = 8;
+  /** The minimum number of idle objects created up front */
+  private int minIdle = 0;
+  /** The maximum milliseconds to wait for an object, negative to wait indefinitely */
+  private long maxWait = -1;
+
+  private final ConcurrentLinkedDeque<Object> idleObjects = new ConcurrentLinkedDeque<>();
+
+  private final AtomicInteger idleCount = new AtomicInteger();
+  private final AtomicInteger objectCount = new AtomicInteger();
+  private final AtomicInteger activeCount = new AtomicInteger();
+
+  private final AtomicInteger hitCount = new AtomicInteger();
+  private final AtomicInteger timeoutCount = new AtomicInteger();
+  private final AtomicInteger invocationCount = new AtomicInteger();
+
+  private volatile boolean destroyed;
+
+  /**
+   * Set the maximum size of the pool. Default is 8, a negative value for no limit.
+   */
+  public void setMaxSize(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Set the maximum number of idle objects in the pool.
+   * Default is 8, a negative value for no limit.
+   */
+  public void setMaxIdle(int maxIdle) {
+    this.maxIdle = maxIdle;
+  }
+
+  public int getMaxIdle() {
+    return maxIdle;
+  }
+
+  /**
+   * Set the minimum number of idle objects in the pool, created when the
+   * {@link BeanFactory} is set or on {@link #ensureMinIdle()}. Default is 0.
+   */
+  public void setMinIdle(int minIdle) {
+    this.minIdle = minIdle;
+  }
+
+  public int getMinIdle() {
+    return minIdle;
+  }
+
+  /**
+   * Set the maximum waiting time in milliseconds for borrowing an object
+   * from an exhausted pool. Default is -1, waiting indefinitely.
+   */
+  public void setMaxWait(long maxWait) {
+    this.maxWait = maxWait;
+  }
+
+  public long getMaxWait() {
+    return maxWait;
+  }
+
+  @Override
+  public void setBeanFactory(BeanFactory beanFactory) {
+    validate();
+    super.setBeanFactory(beanFactory);
+    ensureMinIdle();
+  }
+
+  /**
+   * Reject a pool that can never hand out an object
+   *
+   * @throws IllegalStateException
+   *         if {@code maxSize} is 0 and {@code maxWait} is negative, every
+   *         borrow would wait forever
+   */
+  protected void validate() {
+    Assert.state(maxSize != 0 || maxWait >= 0,
+                 () -> "Pool of bean '" + getTargetBeanName() + "' has maxSize 0 and waits indefinitely");
+  }
+
+  /**
+   * Create idle objects until the pool holds at least {@code minIdle} of them.
+   */
+  public void ensureMinIdle() {
+    while (!destroyed && idleCount.get() < minIdle) {
+      final Object target = tryCreate();
+      if (target == null) {
+        return; // pool is full
+      }
+      idleCount.incrementAndGet();
+      idleObjects.offerLast(target);
+    }
+    if (destroyed) {
+      destroyIdle(); // destroyed meanwhile
+    }
+  }
+
+  /**
+   * Borrow an object from the pool.
+   *
+   * @throws NoSuchElementException
+   *         if no object becomes available within {@code maxWait}
+   */
+  @Override
+  public Object getTarget() {
+    invocationCount.incrementAndGet();
+    Object target = pollIdle();
+    if (target != null) {
+      hitCount.incrementAndGet();
+    }
+    else {
+      target = tryCreate();
+      if (target == null) {
+        target = awaitObject();
+      }
+    }
+    activeCount.incrementAndGet();
+    return target;
+  }
+
+  /**
+   * Return the given object to the pool, or destroy it if the pool
+   * already holds {@code maxIdle} idle objects.
+   */
+  @Override
+  public void releaseTarget(Object target) {
+    activeCount.decrementAndGet();
+    final int maxIdle = this.maxIdle;
+    if (destroyed || (maxIdle >= 0 && idleCount.incrementAndGet() > maxIdle)) {
+      if (!destroyed) {
+        idleCount.decrementAndGet();
+      }
+      objectCount.decrementAndGet();
+      destroyPrototypeInstance(target);
+    }
+    else {
+      if (maxIdle < 0) {
+        idleCount.incrementAndGet();
+      }
+      idleObjects.offerFirst(target);
+      if (destroyed) {
+        // destroy() may have drained the pool before the offer
+        destroyIdle();
+      }
+    }
+  }
+
+  private Object pollIdle() {
+    final Object target = idleObjects.pollFirst();
+    if (target != null) {
+      idleCount.decrementAndGet();
+    }
+    return target;
+  }
+
+  /**
+   * Create a new object if the pool is not full
+   *
+   * @return a new object or {@code null} if the pool is full
+   */
+  private Object tryCreate() {
+    final AtomicInteger objectCount = this.objectCount;
+    for (; ; ) {
+      final int count = objectCount.get();
+      final int maxSize = this.maxSize;
+      if (maxSize >= 0 && count >= maxSize) {
+        return null;
+      }
+      if (objectCount.compareAndSet(count, count + 1)) {
+        break;
+      }
+    }
+    try {
+      return newPrototypeInstance();
+    }
+    catch (RuntimeException | Error e) {
+      objectCount.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private Object awaitObject() {
+    validate();
+    final long maxWait = this.maxWait;
+    final long deadline = maxWait < 0 ? 0 : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWait);
+    long backoff = MIN_BACKOFF_NANOS;
+    for (; ; ) {
+      if (destroyed) {
+        throw new IllegalStateException("Pool of bean '" + getTargetBeanName() + "' has been destroyed");
+      }
+      if (maxWait >= 0 && System.nanoTime() - deadline >= 0) {
+        timeoutCount.incrementAndGet();
+        throw new NoSuchElementException(
+                "Timeout waiting for idle object of bean '" + getTargetBeanName() + "' after " + maxWait + " ms");
+      }
+      LockSupport.parkNanos(this, backoff);
+      backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+
+      Object target = pollIdle();
+      if (target == null) {
+        target = tryCreate(); // an object may have been destroyed
+      }
+      if (target != null) {
+        return target;
+      }
+    }
+  }
+
+  /**
+   * Destroy all idle objects, objects released afterwards are destroyed as well.
+   *
+   * @see #destroyPrototypeInstance
+   */
+  @Override
+  public void destroy() {
+    logger.debug("Destroying PooledTargetSource of bean '{}'", getTargetBeanName());
+    destroyed = true;
+    destroyIdle();
+  }
+
+  private void destroyIdle() {
+    Object target;
+    while ((target = pollIdle()) != null) {
+      objectCount.decrementAndGet();
+      destroyPrototypeInstance(target);
+    }
+  }
+
+  @Override
+  public int getInvocationCount() {
+    return invocationCount.get();
+  }
+
+  @Override
+  public int getHitCount() {
+    return hitCount.get();
+  }
+
+  @Override
+  public int getTimeoutCount() {
+    return timeoutCount.get();
+  }
+
+  @Override
+  public int getObjectCount() {
+    return objectCount.get();
+  }
+
+  @Override
+  public int getActiveCount() {
+    return activeCount.get();
+  }
+
+  @Override
+  public int getIdleCount() {
+    return idleCount.get();
+  }
+
+  @Override
+  public String toString() {
+    return "PooledTargetSource for target bean with name '" + getTargetBeanName() + "'";
+  }
+
+}
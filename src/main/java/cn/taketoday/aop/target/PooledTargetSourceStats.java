@@ -0,0 +1,63 @@
+/*
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+
+package cn.taketoday.aop.target;
+
+/**
+ * Statistics for a pooled TargetSource.
+ *
+ * @author TODAY 2021/3/21 15:02
+ * @see PooledTargetSource
+ * @see ThreadLocalTargetSourceStats
+ * @since 3.0.3
+ */
+public interface PooledTargetSourceStats {
+
+  /**
+   * Return the number of client invocations (borrowed targets).
+   */
+  int getInvocationCount();
+
+  /**
+   * Return the number of borrows that were satisfied by an idle object.
+   */
+  int getHitCount();
+
+  /**
+   * Return the number of borrows that timed out waiting for an object.
+   */
+  int getTimeoutCount();
+
+  /**
+   * Return the number of pooled objects currently alive (active + idle).
+   */
+  int getObjectCount();
+
+  /**
+   * Return the number of objects currently borrowed from the pool.
+   */
+  int getActiveCount();
+
+  /**
+   * Return the number of idle objects in the pool.
+   */
+  int getIdleCount();
+
+}
@@ -19,6 +19,10 @@
  */
 package cn.taketoday.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import cn.taketoday.context.EmptyObject;
 
 /**
@@ -54,7 +58,7 @@ public abstract class AbstractCache implements Cache {
   }
 
   protected static Object toRealValue(final Object cachedValue) {
-    return cachedValue == EmptyObject.INSTANCE ? null : cachedValue;
+    return RefreshableValue.unwrap(cachedValue);
   }
 
   @Override
@@ -133,4 +137,60 @@ public abstract class AbstractCache implements Cache {
    */
   protected abstract void putInternal(Object key, Object value);
 
+  @Override
+  public Map<Object, Object> getAll(final Collection<?> keys) {
+    final Map<Object, Object> values = lookupValues(keys);
+    final LinkedHashMap<Object, Object> ret = new LinkedHashMap<>(values.size());
+    for (final Map.Entry<Object, Object> entry : values.entrySet()) {
+      ret.put(entry.getKey(), toRealValue(entry.getValue()));
+    }
+    return ret;
+  }
+
+  /**
+   * Bulk lookup the stored values of the given keys, subclasses should
+   * override this method if the underlying store supports bulk reading
+   *
+   * @param keys
+   *         Cache keys
+   *
+   * @return the stored values of the keys which present in this cache
+   *
+   * @since 3.0.3
+   */
+  protected Map<Object, Object> lookupValues(final Collection<?> keys) {
+    final LinkedHashMap<Object, Object> ret = new LinkedHashMap<>();
+    for (final Object key : keys) {
+      final Object value = lookupValue(key);
+      if (value != null) {
+        ret.put(key, value);
+      }
+    }
+    return ret;
+  }
+
+  @Override
+  public final void putAll(final Map<?, ?> values) {
+    final LinkedHashMap<Object, Object> storeValues = new LinkedHashMap<>(values.size());
+    for (final Map.Entry<?, ?> entry : values.entrySet()) {
+      storeValues.put(entry.getKey(), toStoreValue(entry.getValue()));
+    }
+    putAllInternal(storeValues);
+  }
+
+  /**
+   * Put all to this cache internal, subclasses should override
+   * this method if the underlying store supports bulk writing
+   *
+   * @param values
+   *         store values
+   *
+   * @since 3.0.3
+   */
+  protected void putAllInternal(final Map<Object, Object> values) {
+    for (final Map.Entry<Object, Object> entry : values.entrySet()) {
+      putInternal(entry.getKey(), entry.getValue());
+    }
+  }
+
 }
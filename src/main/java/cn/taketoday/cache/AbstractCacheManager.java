@@ -49,6 +49,11 @@ public abstract class AbstractCacheManager implements CacheManager {
   private final HashMap<String, Cache> cacheMap = new HashMap<>(32);
   private final HashMap<String, CacheConfig> configMap = new HashMap<>();
 
+  /** @since 3.0.3 */
+  private boolean statisticsEnabled = false;
+  /** @since 3.0.3 */
+  private CacheStatisticsRegistry statisticsRegistry = new CacheStatisticsRegistry();
+
   public AbstractCacheManager() {}
 
   public AbstractCacheManager(String... cacheNames) {
@@ -207,6 +212,9 @@ public abstract class AbstractCacheManager implements CacheManager {
 
   /**
    * Decorate the given Cache object if necessary.
+   * <p>
+   * Records the statistics of the cache into the {@link CacheStatisticsRegistry}
+   * if {@link #setStatisticsEnabled(boolean) statisticsEnabled}
    *
    * @param cache
    *         the Cache object to be added to this CacheManager
@@ -217,9 +225,62 @@ public abstract class AbstractCacheManager implements CacheManager {
    * @since 3.0
    */
   protected Cache decorateCache(Cache cache) {
+    if (statisticsEnabled) {
+      CacheStatistics statistics = cache.getStatistics();
+      if (statistics == null) {
+        cache = StatisticsCache.of(cache);
+        statistics = cache.getStatistics();
+      }
+      statisticsRegistry.register(cache.getName(), statistics);
+    }
     return cache;
   }
 
+  /**
+   * Record statistics of the caches created afterwards
+   *
+   * @see StatisticsCache
+   * @since 3.0.3
+   */
+  public void setStatisticsEnabled(boolean statisticsEnabled) {
+    this.statisticsEnabled = statisticsEnabled;
+  }
+
+  /**
+   * @since 3.0.3
+   */
+  public boolean isStatisticsEnabled() {
+    return statisticsEnabled;
+  }
+
+  /**
+   * @since 3.0.3
+   */
+  public void setStatisticsRegistry(CacheStatisticsRegistry statisticsRegistry) {
+    Assert.notNull(statisticsRegistry, "statisticsRegistry must not be null");
+    this.statisticsRegistry = statisticsRegistry;
+  }
+
+  /**
+   * Return the registry of the statistics of the caches of this manager
+   *
+   * @since 3.0.3
+   */
+  public CacheStatisticsRegistry getStatisticsRegistry() {
+    return statisticsRegistry;
+  }
+
+  /**
+   * Return the statistics of the given cache
+   *
+   * @return the statistics, or {@code null} if not recorded
+   *
+   * @since 3.0.3
+   */
+  public CacheStatistics getStatistics(String name) {
+    return statisticsRegistry.getStatistics(name);
+  }
+
   /**
    * Sub classes
    *
@@ -0,0 +1,97 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * {@link Cache} with non-blocking operations
+ *
+ * @author TODAY 2021/3/22 14:05
+ * @see cn.taketoday.cache.interceptor.CacheableInterceptor
+ * @since 3.0.3
+ */
+public interface AsyncCache extends Cache {
+
+  /**
+   * Asynchronously return the value to which this cache maps the specified key.
+   *
+   * @param key
+   *         the key whose associated value is to be returned
+   *
+   * @return a future completed with the value, or with {@code null}
+   * if the cache contains no mapping for this key
+   *
+   * @see #get(Object)
+   */
+  default CompletableFuture<Object> getAsync(Object key) {
+    return getAsync(key, true);
+  }
+
+  /**
+   * Asynchronously return the value to which this cache maps the specified key.
+   *
+   * @param key
+   *         the key whose associated value is to be returned
+   * @param unWarp
+   *         unwrap the stored value of a cached {@code null}, if {@code false}
+   *         a cached {@code null} is returned as
+   *         {@link cn.taketoday.context.EmptyObject#INSTANCE} to tell it from
+   *         a missing key
+   *
+   * @return a future completed with the value, or with {@code null}
+   * if the cache contains no mapping for this key
+   *
+   * @see #get(Object, boolean)
+   */
+  CompletableFuture<Object> getAsync(Object key, boolean unWarp);
+
+  /**
+   * Asynchronously associate the specified value with the specified key in this cache.
+   *
+   * @param key
+   *         the key with which the specified value is to be associated
+   * @param value
+   *         the value to be associated with the specified key
+   *
+   * @return a future completed when the value has been stored
+   *
+   * @see #put(Object, Object)
+   */
+  CompletableFuture<Void> putAsync(Object key, Object value);
+
+  /**
+   * Asynchronously return the value to which this cache maps the specified key,
+   * obtaining that value from {@code loader} if necessary. Concurrent calls for
+   * the same key share one invocation of the {@code loader}.
+   *
+   * @param key
+   *         the key whose associated value is to be returned
+   * @param loader
+   *         asynchronous value loader
+   *
+   * @return a future completed with the value after it has been stored
+   */
+  CompletableFuture<Object> computeIfAbsentAsync(
+          Object key, Function<Object, ? extends CompletionStage<?>> loader);
+
+}
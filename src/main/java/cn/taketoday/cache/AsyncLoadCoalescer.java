@@ -0,0 +1,86 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesce concurrent asynchronous loads of the same key: while a load is in
+ * flight, further loads of that key get the same future instead of starting
+ * another one.
+ *
+ * @author TODAY 2021/3/22 14:20
+ * @see AsyncCache#computeIfAbsentAsync
+ * @since 3.0.3
+ */
+public final class AsyncLoadCoalescer {
+
+  private final ConcurrentHashMap<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+  /**
+   * Load the value of the given key, or join the load in flight
+   *
+   * @param key
+   *         the key to load
+   * @param loader
+   *         starts the load, called at most once per in-flight load
+   *
+   * @return the future of the load
+   */
+  public CompletableFuture<Object> load(final Object key, final Supplier<? extends CompletionStage<?>> loader) {
+    CompletableFuture<Object> future = loading.get(key);
+    if (future != null) {
+      return future;
+    }
+    final CompletableFuture<Object> newFuture = new CompletableFuture<>();
+    future = loading.putIfAbsent(key, newFuture);
+    if (future != null) {
+      return future;
+    }
+
+    try {
+      loader.get().whenComplete((value, ex) -> {
+        loading.remove(key, newFuture);
+        if (ex != null) {
+          newFuture.completeExceptionally(ex);
+        }
+        else {
+          newFuture.complete(value);
+        }
+      });
+    }
+    catch (Throwable e) {
+      loading.remove(key, newFuture);
+      newFuture.completeExceptionally(e);
+    }
+    return newFuture;
+  }
+
+  /**
+   * Return the number of loads in flight
+   */
+  public int getLoadingCount() {
+    return loading.size();
+  }
+
+}
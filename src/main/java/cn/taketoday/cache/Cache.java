@@ -19,6 +19,10 @@
  */
 package cn.taketoday.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * @author TODAY <br>
  * 2019-02-27 17:11
@@ -140,4 +144,73 @@ public interface Cache {
    */
   void clear();
 
+  /**
+   * Return the values to which this cache maps the specified keys, in one
+   * bulk lookup where the underlying store supports it.
+   * <p>
+   * Keys the cache contains no mapping for are absent from the result map,
+   * a cached {@code null} value is mapped to {@code null}.
+   *
+   * @param keys
+   *         the keys whose associated values are to be returned
+   *
+   * @return the found mappings (never {@code null})
+   *
+   * @since 3.0.3
+   */
+  default Map<Object, Object> getAll(Collection<?> keys) {
+    final LinkedHashMap<Object, Object> ret = new LinkedHashMap<>();
+    for (final Object key : keys) {
+      final Object value = get(key, false);
+      if (value != null) {
+        ret.put(key, RefreshableValue.unwrap(value));
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Associate all the specified key-value mappings in this cache,
+   * in one bulk operation where the underlying store supports it.
+   *
+   * @param values
+   *         the mappings to be stored in this cache
+   *
+   * @see #put(Object, Object)
+   * @since 3.0.3
+   */
+  default void putAll(Map<?, ?> values) {
+    for (final Map.Entry<?, ?> entry : values.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Evict the mappings for the specified keys from this cache,
+   * in one bulk operation where the underlying store supports it.
+   *
+   * @param keys
+   *         the keys whose mappings are to be removed from the cache
+   *
+   * @see #evict(Object)
+   * @since 3.0.3
+   */
+  default void evictAll(Collection<?> keys) {
+    for (final Object key : keys) {
+      evict(key);
+    }
+  }
+
+  /**
+   * Return the statistics of this cache
+   *
+   * @return the statistics, or {@code null} if this cache does not record them
+   *
+   * @see StatisticsCache
+   * @since 3.0.3
+   */
+  default CacheStatistics getStatistics() {
+    return null;
+  }
+
 }
@@ -0,0 +1,81 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * Invalidation message published by a {@link NearCache} after a write, so that
+ * the other instances drop the local copies of the written keys
+ *
+ * @author TODAY 2021/3/23 10:10
+ * @see CacheInvalidationChannel
+ * @since 3.0.3
+ */
+public class CacheInvalidation implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private final String origin;
+  private final String cacheName;
+  private final Collection<?> keys;
+
+  /**
+   * @param origin
+   *         identifier of the publishing instance
+   * @param cacheName
+   *         name of the cache
+   * @param keys
+   *         invalidated keys, {@code null} for all entries
+   */
+  public CacheInvalidation(String origin, String cacheName, Collection<?> keys) {
+    this.origin = origin;
+    this.cacheName = cacheName;
+    this.keys = keys;
+  }
+
+  public String getOrigin() {
+    return origin;
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  /**
+   * Return the invalidated keys, or {@code null} if the whole cache was cleared
+   */
+  public Collection<?> getKeys() {
+    return keys;
+  }
+
+  public boolean isClear() {
+    return keys == null;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheInvalidation{" +
+            "origin='" + origin + '\'' +
+            ", cacheName='" + cacheName + '\'' +
+            ", keys=" + keys +
+            '}';
+  }
+}
@@ -0,0 +1,51 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport of {@link CacheInvalidation} messages between {@link NearCacheManager}
+ * instances
+ *
+ * @author TODAY 2021/3/23 10:15
+ * @see InMemoryCacheInvalidationChannel
+ * @see RedissonCacheInvalidationChannel
+ * @since 3.0.3
+ */
+public interface CacheInvalidationChannel {
+
+  /**
+   * Publish the message to all subscribers, including the publisher itself
+   *
+   * @param invalidation
+   *         message to publish
+   */
+  void publish(CacheInvalidation invalidation);
+
+  /**
+   * Subscribe to the messages of this channel
+   *
+   * @param listener
+   *         message listener
+   */
+  void subscribe(Consumer<CacheInvalidation> listener);
+
+}
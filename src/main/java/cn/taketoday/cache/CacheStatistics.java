@@ -0,0 +1,84 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import cn.taketoday.context.utils.LatencyHistogram;
+
+/**
+ * Statistics of a {@link Cache}
+ *
+ * @author TODAY 2021/3/27 10:10
+ * @see StatisticsCache
+ * @see CacheStatisticsRegistry
+ * @since 3.0.3
+ */
+public interface CacheStatistics {
+
+  /**
+   * Return the number of lookups which found a value, including a cached {@code null}
+   */
+  long getHitCount();
+
+  /**
+   * Return the number of lookups which found no value
+   */
+  long getMissCount();
+
+  /**
+   * Return the number of values put into the cache
+   */
+  long getPutCount();
+
+  /**
+   * Return the number of explicitly evicted keys, a clear counts one
+   */
+  long getEvictionCount();
+
+  /**
+   * Return the number of values loaded by a {@link CacheCallback}
+   */
+  long getLoadSuccessCount();
+
+  /**
+   * Return the number of {@link CacheCallback}s which threw an exception
+   */
+  long getLoadFailureCount();
+
+  /**
+   * Return the histogram of the load times in nanoseconds,
+   * including the failed loads
+   */
+  LatencyHistogram getLoadTime();
+
+  /**
+   * Return the ratio of the lookups which found a value
+   */
+  default double getHitRatio() {
+    final long hits = getHitCount();
+    final long requests = hits + getMissCount();
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  /**
+   * Reset all the counters
+   */
+  void reset();
+
+}
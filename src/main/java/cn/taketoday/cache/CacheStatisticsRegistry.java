@@ -0,0 +1,73 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * In-process registry of {@link CacheStatistics} by cache name
+ *
+ * @author TODAY 2021/3/27 10:30
+ * @see AbstractCacheManager#setStatisticsEnabled(boolean)
+ * @since 3.0.3
+ */
+public class CacheStatisticsRegistry {
+
+  private final ConcurrentHashMap<String, CacheStatistics> statistics = new ConcurrentHashMap<>();
+
+  /**
+   * Register the statistics of a cache, replacing the previous one of the same name
+   */
+  public void register(String cacheName, CacheStatistics cacheStatistics) {
+    Assert.notNull(cacheName, "cacheName must not be null");
+    Assert.notNull(cacheStatistics, "cacheStatistics must not be null");
+    statistics.put(cacheName, cacheStatistics);
+  }
+
+  public void unregister(String cacheName) {
+    statistics.remove(cacheName);
+  }
+
+  /**
+   * Return the statistics of the given cache, or {@code null} if absent
+   */
+  public CacheStatistics getStatistics(String cacheName) {
+    return statistics.get(cacheName);
+  }
+
+  /**
+   * Return all statistics sorted by cache name
+   */
+  public Map<String, CacheStatistics> getStatistics() {
+    return Collections.unmodifiableMap(new TreeMap<>(statistics));
+  }
+
+  public void reset() {
+    for (final CacheStatistics cacheStatistics : statistics.values()) {
+      cacheStatistics.reset();
+    }
+  }
+
+}
@@ -0,0 +1,58 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+/**
+ * Serialize cache values for the caches which store bytes
+ *
+ * @author TODAY 2021/3/25 10:10
+ * @see OffHeapCache
+ * @see JdkSerializationCodec
+ * @since 3.0.3
+ */
+public interface CacheValueCodec {
+
+  /**
+   * Serialize the given value
+   *
+   * @param value
+   *         the value to serialize, never {@code null}
+   *
+   * @return serialized bytes
+   *
+   * @throws CacheException
+   *         if the value cannot be serialized
+   */
+  byte[] encode(Object value);
+
+  /**
+   * Deserialize the given bytes
+   *
+   * @param bytes
+   *         bytes returned from {@link #encode(Object)}
+   *
+   * @return the value
+   *
+   * @throws CacheException
+   *         if the bytes cannot be deserialized
+   */
+  Object decode(byte[] bytes);
+
+}
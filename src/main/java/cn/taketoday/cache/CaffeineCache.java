@@ -22,6 +22,11 @@ package cn.taketoday.cache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
 import cn.taketoday.context.utils.Assert;
@@ -30,9 +35,11 @@ import cn.taketoday.context.utils.Assert;
  * @author TODAY 2020-08-15 19:50
  * @since 3.0
  */
-public class CaffeineCache extends AbstractMappingFunctionCache {
+public class CaffeineCache extends AbstractMappingFunctionCache implements AsyncCache {
 
   private final Cache<Object, Object> caffeine;
+  /** @since 3.0.3 */
+  private final AsyncLoadCoalescer asyncLoads = new AsyncLoadCoalescer();
 
   /**
    * Create a {@link CaffeineCache} instance with the specified name and the given
@@ -78,4 +85,48 @@ public class CaffeineCache extends AbstractMappingFunctionCache {
     this.caffeine.put(key, value);
   }
 
+  @Override
+  protected Map<Object, Object> lookupValues(Collection<?> keys) {
+    if (this.caffeine instanceof LoadingCache) {
+      return ((LoadingCache<Object, Object>) this.caffeine).getAll(keys);
+    }
+    return this.caffeine.getAllPresent(keys);
+  }
+
+  @Override
+  protected void putAllInternal(Map<Object, Object> values) {
+    this.caffeine.putAll(values);
+  }
+
+  @Override
+  public void evictAll(Collection<?> keys) {
+    this.caffeine.invalidateAll(keys);
+  }
+
+  // AsyncCache: local operations, completed immediately
+
+  @Override
+  public CompletableFuture<Object> getAsync(Object key, boolean unWarp) {
+    return CompletableFuture.completedFuture(get(key, unWarp));
+  }
+
+  @Override
+  public CompletableFuture<Void> putAsync(Object key, Object value) {
+    put(key, value);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public CompletableFuture<Object> computeIfAbsentAsync(
+          Object key, Function<Object, ? extends CompletionStage<?>> loader) {
+    final Object value = this.caffeine.getIfPresent(key);
+    if (value != null) {
+      return CompletableFuture.completedFuture(toRealValue(value));
+    }
+    return asyncLoads.load(key, () -> loader.apply(key).thenApply(loaded -> {
+      put(key, loaded);
+      return loaded;
+    }));
+  }
+
 }
@@ -79,9 +79,13 @@ public class CaffeineCacheManager extends AbstractCacheManager {
       return adaptCaffeineCache(name, createNativeCaffeineCache());
     }
 
-    final Caffeine<Object, Object> caffeine =
-            Caffeine.newBuilder()
-                    .expireAfterWrite(cacheConfig.expire(), cacheConfig.timeUnit());
+    final Caffeine<Object, Object> caffeine = Caffeine.newBuilder();
+    if (cacheConfig.expire() > 0) {
+      caffeine.expireAfterWrite(cacheConfig.expire(), cacheConfig.timeUnit());
+    }
+    if (cacheConfig.maxIdleTime() > 0) {
+      caffeine.expireAfterAccess(cacheConfig.maxIdleTime(), cacheConfig.timeUnit());
+    }
 
     final int maxSize = cacheConfig.maxSize();
     if (maxSize != 0) {
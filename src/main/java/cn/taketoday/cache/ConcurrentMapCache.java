@@ -19,6 +19,9 @@
  */
 package cn.taketoday.cache;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.UnaryOperator;
 
 import cn.taketoday.context.Constant;
@@ -31,6 +34,8 @@ import cn.taketoday.context.utils.ConcurrentCache;
 public class ConcurrentMapCache extends AbstractMappingFunctionCache {
 
   private final ConcurrentCache<Object, Object> store;
+  /** time to live in milliseconds, 0 for never expire @since 3.0.3 */
+  private final long expire;
 
   public ConcurrentMapCache() {
     this(Constant.DEFAULT);
@@ -44,14 +49,40 @@ public class ConcurrentMapCache extends AbstractMappingFunctionCache {
     this(name, new ConcurrentCache<>(size));
   }
 
+  /**
+   * @param expire
+   *         time to live of the entries, 0 for never expire
+   *
+   * @since 3.0.3
+   */
+  public ConcurrentMapCache(String name, int size, long expire, TimeUnit timeUnit) {
+    this(name, new ConcurrentCache<>(size), timeUnit.toMillis(expire));
+  }
+
   protected ConcurrentMapCache(String name, ConcurrentCache<Object, Object> store) {
+    this(name, store, 0);
+  }
+
+  /**
+   * @since 3.0.3
+   */
+  protected ConcurrentMapCache(String name, ConcurrentCache<Object, Object> store, long expire) {
     this.setName(name);
     this.store = store;
+    this.expire = expire;
   }
 
   @Override
   protected Object getInternal(Object key, UnaryOperator<Object> mappingFunction) {
-    return store.get(key, mappingFunction);
+    if (expire == 0) {
+      return store.get(key, mappingFunction);
+    }
+    Object value = lookupValue(key);
+    if (value == null) {
+      value = mappingFunction.apply(key);
+      putInternal(key, value);
+    }
+    return value;
   }
 
   @Override
@@ -66,12 +97,51 @@ public class ConcurrentMapCache extends AbstractMappingFunctionCache {
 
   @Override
   protected Object lookupValue(Object key) {
-    return store.get(key);
+    final Object value = store.get(key);
+    if (value instanceof ExpiringValue) {
+      final ExpiringValue expiringValue = (ExpiringValue) value;
+      // expired values are left to be overwritten or evicted
+      return expiringValue.expireAt > System.currentTimeMillis() ? expiringValue.value : null;
+    }
+    return value;
   }
 
   @Override
   protected void putInternal(Object key, Object value) {
-    store.put(key, value);
+    store.put(key, toExpiringValue(value, System.currentTimeMillis()));
+  }
+
+  @Override
+  protected void putAllInternal(Map<Object, Object> values) {
+    if (expire == 0) {
+      store.putAll(values);
+    }
+    else {
+      final long now = System.currentTimeMillis();
+      final LinkedHashMap<Object, Object> expiringValues = new LinkedHashMap<>(values.size());
+      for (final Map.Entry<Object, Object> entry : values.entrySet()) {
+        expiringValues.put(entry.getKey(), toExpiringValue(entry.getValue(), now));
+      }
+      store.putAll(expiringValues);
+    }
+  }
+
+  private Object toExpiringValue(Object value, long now) {
+    return expire == 0 ? value : new ExpiringValue(value, now + expire);
+  }
+
+  public long getExpire() {
+    return expire;
+  }
+
+  static final class ExpiringValue {
+    final Object value;
+    final long expireAt;
+
+    ExpiringValue(Object value, long expireAt) {
+      this.value = value;
+      this.expireAt = expireAt;
+    }
   }
 
 }
@@ -47,6 +47,10 @@ public class DefaultCacheManager extends AbstractCacheManager implements CacheMa
 
   @Override
   protected Cache doCreate(final String name, final CacheConfig cacheConfig) {
-    return new ConcurrentMapCache(name);
+    if (isDefaultConfig(cacheConfig)) {
+      return new ConcurrentMapCache(name);
+    }
+    final int maxSize = cacheConfig.maxSize();
+    return new ConcurrentMapCache(name, maxSize > 0 ? maxSize : 256, cacheConfig.expire(), cacheConfig.timeUnit());
   }
 }
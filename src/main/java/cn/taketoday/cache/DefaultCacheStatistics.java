@@ -0,0 +1,128 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import cn.taketoday.context.utils.LatencyHistogram;
+
+/**
+ * {@link CacheStatistics} recorded in {@link LongAdder}s, which stay cheap
+ * under contention
+ *
+ * @author TODAY 2021/3/27 10:20
+ * @since 3.0.3
+ */
+public class DefaultCacheStatistics implements CacheStatistics {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder puts = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder loadSuccesses = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LatencyHistogram loadTime = new LatencyHistogram();
+
+  public void recordHits(long count) {
+    hits.add(count);
+  }
+
+  public void recordMisses(long count) {
+    misses.add(count);
+  }
+
+  public void recordPuts(long count) {
+    puts.add(count);
+  }
+
+  public void recordEvictions(long count) {
+    evictions.add(count);
+  }
+
+  public void recordLoadSuccess(long nanos) {
+    loadSuccesses.increment();
+    loadTime.record(nanos);
+  }
+
+  public void recordLoadFailure(long nanos) {
+    loadFailures.increment();
+    loadTime.record(nanos);
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public long getPutCount() {
+    return puts.sum();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  @Override
+  public long getLoadSuccessCount() {
+    return loadSuccesses.sum();
+  }
+
+  @Override
+  public long getLoadFailureCount() {
+    return loadFailures.sum();
+  }
+
+  @Override
+  public LatencyHistogram getLoadTime() {
+    return loadTime;
+  }
+
+  @Override
+  public void reset() {
+    hits.reset();
+    misses.reset();
+    puts.reset();
+    evictions.reset();
+    loadSuccesses.reset();
+    loadFailures.reset();
+    loadTime.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStatistics{" +
+            "hits=" + getHitCount() +
+            ", misses=" + getMissCount() +
+            ", hitRatio=" + getHitRatio() +
+            ", puts=" + getPutCount() +
+            ", evictions=" + getEvictionCount() +
+            ", loadSuccesses=" + getLoadSuccessCount() +
+            ", loadFailures=" + getLoadFailureCount() +
+            ", loadTime=" + loadTime +
+            '}';
+  }
+}
@@ -70,6 +70,11 @@ public class DefaultMapCache extends AbstractMappingFunctionCache {
     this.store.put(key, value);
   }
 
+  @Override
+  protected void putAllInternal(Map<Object, Object> values) {
+    this.store.putAll(values);
+  }
+
   @Override
   protected Object getInternal(Object key, UnaryOperator<Object> mappingFunction) {
     return this.store.computeIfAbsent(key, mappingFunction);
@@ -0,0 +1,52 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * {@link CacheInvalidationChannel} which delivers messages synchronously to the
+ * subscribers in the same JVM, used for tests and for several
+ * {@link NearCacheManager} in one process
+ *
+ * @author TODAY 2021/3/23 10:20
+ * @since 3.0.3
+ */
+public class InMemoryCacheInvalidationChannel implements CacheInvalidationChannel {
+
+  private final CopyOnWriteArrayList<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(final CacheInvalidation invalidation) {
+    for (final Consumer<CacheInvalidation> listener : listeners) {
+      listener.accept(invalidation);
+    }
+  }
+
+  @Override
+  public void subscribe(final Consumer<CacheInvalidation> listener) {
+    Assert.notNull(listener, "listener must not be null");
+    listeners.add(listener);
+  }
+
+}
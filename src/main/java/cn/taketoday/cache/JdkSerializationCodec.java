@@ -0,0 +1,61 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * {@link CacheValueCodec} using Java serialization, values must be
+ * {@link java.io.Serializable}
+ *
+ * @author TODAY 2021/3/25 10:15
+ * @since 3.0.3
+ */
+public class JdkSerializationCodec implements CacheValueCodec {
+
+  public static final JdkSerializationCodec INSTANCE = new JdkSerializationCodec();
+
+  @Override
+  public byte[] encode(final Object value) {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(256);
+    try (final ObjectOutputStream objectOutput = new ObjectOutputStream(output)) {
+      objectOutput.writeObject(value);
+    }
+    catch (IOException e) {
+      throw new CacheException("Cannot serialize cache value: " + value, e);
+    }
+    return output.toByteArray();
+  }
+
+  @Override
+  public Object decode(final byte[] bytes) {
+    try (final ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return objectInput.readObject();
+    }
+    catch (IOException | ClassNotFoundException e) {
+      throw new CacheException("Cannot deserialize cache value", e);
+    }
+  }
+
+}
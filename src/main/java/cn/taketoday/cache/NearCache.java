@@ -0,0 +1,340 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * Two-level {@link Cache}: a bounded local cache (L1) in front of a remote
+ * cache (L2).
+ * <p>
+ * Reads hit L1 first and fall back to L2, populating L1 on a L2 hit. Writes
+ * go to L2 and L1, then a {@link CacheInvalidation} is published so that the
+ * other instances drop their L1 copies of the written keys. A L1 entry may
+ * still be stale for a short time if a write of another instance races with
+ * the L2 read that populated it, so L1 should be given a short expire.
+ * <p>
+ * L1 is bounded by {@code localMaxSize} here, whatever the local cache
+ * enforces: beyond it the oldest local entries are evicted first.
+ *
+ * @author TODAY 2021/3/23 10:30
+ * @see NearCacheManager
+ * @since 3.0.3
+ */
+public class NearCache extends AbstractCache {
+
+  private final String origin;
+  private final Cache localCache;
+  private final Cache remoteCache;
+  private final CacheInvalidationChannel invalidationChannel;
+
+  /** max number of local entries, 0 for unbounded */
+  private final int localMaxSize;
+  /** keys of the local entries in insertion order, if bounded */
+  private final LinkedHashMap<Object, Boolean> localKeys = new LinkedHashMap<>();
+
+  private final LongAdder localHits = new LongAdder();
+  private final LongAdder remoteHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param name
+   *         cache name
+   * @param localCache
+   *         L1 cache
+   * @param remoteCache
+   *         L2 cache
+   * @param invalidationChannel
+   *         channel to publish invalidations
+   * @param origin
+   *         identifier of this instance in the published invalidations
+   */
+  public NearCache(String name, Cache localCache, Cache remoteCache,
+                   CacheInvalidationChannel invalidationChannel, String origin) {
+    this(name, localCache, remoteCache, invalidationChannel, origin, 0);
+  }
+
+  /**
+   * @param name
+   *         cache name
+   * @param localCache
+   *         L1 cache
+   * @param remoteCache
+   *         L2 cache
+   * @param invalidationChannel
+   *         channel to publish invalidations
+   * @param origin
+   *         identifier of this instance in the published invalidations
+   * @param localMaxSize
+   *         max number of L1 entries, 0 for unbounded
+   */
+  public NearCache(String name, Cache localCache, Cache remoteCache,
+                   CacheInvalidationChannel invalidationChannel, String origin, int localMaxSize) {
+    Assert.notNull(localCache, "localCache must not be null");
+    Assert.notNull(remoteCache, "remoteCache must not be null");
+    Assert.notNull(invalidationChannel, "invalidationChannel must not be null");
+    setName(name);
+    this.origin = origin;
+    this.localCache = localCache;
+    this.remoteCache = remoteCache;
+    this.invalidationChannel = invalidationChannel;
+    this.localMaxSize = Math.max(0, localMaxSize);
+  }
+
+  @Override
+  protected Object lookupValue(final Object key) {
+    Object value = localCache.get(key, false);
+    if (value != null) {
+      localHits.increment();
+      return value;
+    }
+    value = remoteCache.get(key, false);
+    if (value != null) {
+      remoteHits.increment();
+      localCache.put(key, value);
+      trackLocal(Collections.singletonList(key));
+    }
+    else {
+      misses.increment();
+    }
+    return value;
+  }
+
+  @Override
+  protected Map<Object, Object> lookupValues(final Collection<?> keys) {
+    final Map<Object, Object> local = localCache.getAll(keys);
+    localHits.add(local.size());
+    if (local.size() == keys.size()) {
+      return toStoreValues(local);
+    }
+    final ArrayList<Object> remoteKeys = new ArrayList<>(keys.size() - local.size());
+    for (final Object key : keys) {
+      if (!local.containsKey(key)) {
+        remoteKeys.add(key);
+      }
+    }
+    final Map<Object, Object> remote = remoteCache.getAll(remoteKeys);
+    remoteHits.add(remote.size());
+    misses.add(remoteKeys.size() - remote.size());
+    if (!remote.isEmpty()) {
+      localCache.putAll(remote);
+      trackLocal(remote.keySet());
+    }
+
+    final LinkedHashMap<Object, Object> ret = new LinkedHashMap<>(local.size() + remote.size());
+    for (final Object key : keys) {
+      if (local.containsKey(key)) {
+        ret.put(key, toStoreValue(local.get(key)));
+      }
+      else if (remote.containsKey(key)) {
+        ret.put(key, toStoreValue(remote.get(key)));
+      }
+    }
+    return ret;
+  }
+
+  private static Map<Object, Object> toStoreValues(final Map<Object, Object> values) {
+    final LinkedHashMap<Object, Object> ret = new LinkedHashMap<>(values.size());
+    for (final Map.Entry<Object, Object> entry : values.entrySet()) {
+      ret.put(entry.getKey(), toStoreValue(entry.getValue()));
+    }
+    return ret;
+  }
+
+  @Override
+  protected void putInternal(final Object key, final Object value) {
+    remoteCache.put(key, value);
+    localCache.put(key, value);
+    final List<Object> keys = Collections.singletonList(key);
+    trackLocal(keys);
+    publish(keys);
+  }
+
+  @Override
+  protected void putAllInternal(final Map<Object, Object> values) {
+    remoteCache.putAll(values);
+    localCache.putAll(values);
+    trackLocal(values.keySet());
+    publish(new ArrayList<>(values.keySet()));
+  }
+
+  @Override
+  public void evict(final Object key) {
+    remoteCache.evict(key);
+    localCache.evict(key);
+    final List<Object> keys = Collections.singletonList(key);
+    untrackLocal(keys);
+    publish(keys);
+  }
+
+  @Override
+  public void evictAll(final Collection<?> keys) {
+    remoteCache.evictAll(keys);
+    localCache.evictAll(keys);
+    untrackLocal(keys);
+    publish(new ArrayList<>(keys));
+  }
+
+  @Override
+  public void clear() {
+    remoteCache.clear();
+    localCache.clear();
+    untrackLocal(null);
+    publish(null);
+  }
+
+  /**
+   * Record the local entries of the given keys, evicting the oldest ones
+   * beyond {@code localMaxSize}
+   */
+  private void trackLocal(final Collection<?> keys) {
+    if (localMaxSize > 0) {
+      ArrayList<Object> evicted = null;
+      synchronized(localKeys) {
+        for (final Object key : keys) {
+          localKeys.put(key, Boolean.TRUE);
+        }
+        int excess = localKeys.size() - localMaxSize;
+        if (excess > 0) {
+          evicted = new ArrayList<>(excess);
+          final Iterator<Object> iterator = localKeys.keySet().iterator();
+          while (excess-- > 0) {
+            evicted.add(iterator.next());
+            iterator.remove();
+          }
+        }
+      }
+      if (evicted != null) {
+        localCache.evictAll(evicted);
+      }
+    }
+  }
+
+  /**
+   * Forget the local entries of the given keys, all if {@code null}
+   */
+  private void untrackLocal(final Collection<?> keys) {
+    if (localMaxSize > 0) {
+      synchronized(localKeys) {
+        if (keys == null) {
+          localKeys.clear();
+        }
+        else {
+          localKeys.keySet().removeAll(keys);
+        }
+      }
+    }
+  }
+
+  private void publish(final Collection<?> keys) {
+    invalidationChannel.publish(new CacheInvalidation(origin, getName(), keys));
+  }
+
+  /**
+   * Drop the local copies of the invalidated keys
+   *
+   * @param invalidation
+   *         invalidation published by another instance
+   */
+  public void invalidateLocal(final CacheInvalidation invalidation) {
+    if (invalidation.isClear()) {
+      localCache.clear();
+      untrackLocal(null);
+    }
+    else {
+      localCache.evictAll(invalidation.getKeys());
+      untrackLocal(invalidation.getKeys());
+    }
+  }
+
+  public Cache getLocalCache() {
+    return localCache;
+  }
+
+  public Cache getRemoteCache() {
+    return remoteCache;
+  }
+
+  public int getLocalMaxSize() {
+    return localMaxSize;
+  }
+
+  // statistics
+
+  /**
+   * Return the number of lookups served by the local cache
+   */
+  public long getLocalHitCount() {
+    return localHits.sum();
+  }
+
+  /**
+   * Return the number of lookups served by the remote cache
+   */
+  public long getRemoteHitCount() {
+    return remoteHits.sum();
+  }
+
+  /**
+   * Return the number of lookups which missed both levels
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Return the ratio of all lookups served by the local cache
+   */
+  public double getLocalHitRatio() {
+    final long localHits = getLocalHitCount();
+    return ratio(localHits, localHits + getRemoteHitCount() + getMissCount());
+  }
+
+  /**
+   * Return the ratio of the lookups reaching the remote cache that it served
+   */
+  public double getRemoteHitRatio() {
+    final long remoteHits = getRemoteHitCount();
+    return ratio(remoteHits, remoteHits + getMissCount());
+  }
+
+  private static double ratio(long hits, long requests) {
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  @Override
+  public String toString() {
+    return "NearCache{" +
+            "name='" + getName() + '\'' +
+            ", localHits=" + getLocalHitCount() +
+            ", remoteHits=" + getRemoteHitCount() +
+            ", misses=" + getMissCount() +
+            '}';
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import cn.taketoday.cache.annotation.CacheConfig;
+import cn.taketoday.cache.annotation.CacheConfiguration;
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * {@link CacheManager} of {@link NearCache}s which compose a local cache from
+ * {@code localCacheManager}, such as {@link CaffeineCacheManager}, with a
+ * remote cache from {@code remoteCacheManager}, such as
+ * {@link RedissonCacheManager}.
+ * <p>
+ * Local caches are bounded by {@link #setLocalMaxSize(int)}, enforced by the
+ * {@link NearCache} whatever the local cache manager does, and
+ * {@link #setLocalExpire(long)}, the latter bounds the staleness of a local
+ * entry when an invalidation is lost. Instances are kept coherent through the
+ * {@link CacheInvalidationChannel}, typically a
+ * {@link RedissonCacheInvalidationChannel}.
+ *
+ * <pre>
+ * &#64;Singleton
+ * public CacheManager cacheManager(RedissonClient redisson) {
+ *   return new NearCacheManager(new CaffeineCacheManager(),
+ *                               new RedissonCacheManager(redisson),
+ *                               new RedissonCacheInvalidationChannel(redisson));
+ * }
+ * </pre>
+ *
+ * @author TODAY 2021/3/23 11:00
+ * @since 3.0.3
+ */
+public class NearCacheManager extends AbstractCacheManager {
+
+  public static final int DEFAULT_LOCAL_MAX_SIZE = 10000;
+
+  /** identifier of this instance, skip own invalidations */
+  private final String origin = UUID.randomUUID().toString();
+
+  private final CacheManager localCacheManager;
+  private final CacheManager remoteCacheManager;
+  private final CacheInvalidationChannel invalidationChannel;
+  private final ConcurrentHashMap<String, NearCache> nearCaches = new ConcurrentHashMap<>();
+
+  private int localMaxSize = DEFAULT_LOCAL_MAX_SIZE;
+  /** in milliseconds, 0 to follow the cache config */
+  private long localExpire = 0;
+
+  public NearCacheManager(CacheManager localCacheManager,
+                          CacheManager remoteCacheManager,
+                          CacheInvalidationChannel invalidationChannel) {
+    Assert.notNull(localCacheManager, "localCacheManager must not be null");
+    Assert.notNull(remoteCacheManager, "remoteCacheManager must not be null");
+    Assert.notNull(invalidationChannel, "invalidationChannel must not be null");
+    this.localCacheManager = localCacheManager;
+    this.remoteCacheManager = remoteCacheManager;
+    this.invalidationChannel = invalidationChannel;
+    invalidationChannel.subscribe(this::onInvalidation);
+  }
+
+  @Override
+  protected Cache doCreate(final String name, final CacheConfig cacheConfig) {
+    final CacheConfig localConfig = createLocalCacheConfig(name, cacheConfig);
+    final Cache localCache = localCacheManager.getCache(name, localConfig);
+    final Cache remoteCache = remoteCacheManager.getCache(name, cacheConfig);
+    // bounded here too, the local cache manager may ignore the max size
+    final NearCache nearCache = new NearCache(
+            name, localCache, remoteCache, invalidationChannel, origin, localConfig.maxSize());
+    nearCaches.put(name, nearCache);
+    return nearCache;
+  }
+
+  /**
+   * Create the config of the local cache, bounded by {@code localMaxSize}
+   * and {@code localExpire}
+   */
+  protected CacheConfig createLocalCacheConfig(final String name, final CacheConfig cacheConfig) {
+    final CacheConfiguration localConfig = new CacheConfiguration(name);
+    int maxSize = localMaxSize;
+    long expire = localExpire;
+    if (cacheConfig != null) {
+      if (cacheConfig.maxSize() > 0) {
+        maxSize = maxSize > 0 ? Math.min(maxSize, cacheConfig.maxSize()) : cacheConfig.maxSize();
+      }
+      if (cacheConfig.expire() > 0) {
+        final long configExpire = cacheConfig.timeUnit().toMillis(cacheConfig.expire());
+        expire = expire > 0 ? Math.min(expire, configExpire) : configExpire;
+      }
+    }
+    localConfig.setMaxSize(maxSize);
+    localConfig.setExpire(expire);
+    localConfig.setTimeUnit(TimeUnit.MILLISECONDS);
+    return localConfig;
+  }
+
+  /**
+   * Apply an invalidation published by any instance
+   */
+  protected void onInvalidation(final CacheInvalidation invalidation) {
+    if (!origin.equals(invalidation.getOrigin())) {
+      final NearCache nearCache = nearCaches.get(invalidation.getCacheName());
+      if (nearCache != null) {
+        nearCache.invalidateLocal(invalidation);
+      }
+    }
+  }
+
+  /**
+   * Set the max size of each local cache, 0 for unbounded
+   */
+  public void setLocalMaxSize(int localMaxSize) {
+    this.localMaxSize = localMaxSize;
+  }
+
+  public int getLocalMaxSize() {
+    return localMaxSize;
+  }
+
+  /**
+   * Set the expire of each local cache in milliseconds, 0 to follow
+   * the expire of the cache config
+   */
+  public void setLocalExpire(long localExpire) {
+    this.localExpire = localExpire;
+  }
+
+  public long getLocalExpire() {
+    return localExpire;
+  }
+
+  public CacheManager getLocalCacheManager() {
+    return localCacheManager;
+  }
+
+  public CacheManager getRemoteCacheManager() {
+    return remoteCacheManager;
+  }
+
+  public CacheInvalidationChannel getInvalidationChannel() {
+    return invalidationChannel;
+  }
+
+}
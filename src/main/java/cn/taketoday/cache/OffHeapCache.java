@@ -0,0 +1,398 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import cn.taketoday.context.EmptyObject;
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * {@link Cache} which stores serialized values outside the Java heap, in
+ * direct or memory-mapped {@link ByteBuffer} segments, keeping large read-mostly
+ * data sets away from the garbage collector.
+ * <p>
+ * Keys are hashed to a segment, each segment has its own lock, an on-heap index
+ * of its keys in access order, and appends the values serialized by the
+ * {@link CacheValueCodec} to its buffer. When a segment runs out of space, the
+ * least recently used entries are evicted and the live values are compacted to
+ * the start of the buffer. Entries are also evicted beyond {@code maxSize} and
+ * after {@code expire}. A value larger than a segment is not cached.
+ *
+ * @author TODAY 2021/3/25 10:30
+ * @see OffHeapCacheManager
+ * @since 3.0.3
+ */
+public class OffHeapCache extends AbstractCache {
+
+  public static final int DEFAULT_SEGMENT_COUNT = 16;
+
+  /** length of a cached {@code null} */
+  private static final int NULL_VALUE = -1;
+  private static final byte[] NULL_BYTES = new byte[0];
+
+  private final Segment[] segments;
+  private final CacheValueCodec codec;
+  /** max entries of each segment, 0 for unbounded */
+  private final int segmentMaxSize;
+  /** time to live in milliseconds, 0 for never expire */
+  private final long expire;
+
+  /**
+   * Create a cache of the given capacity in direct memory
+   *
+   * @param capacity
+   *         capacity in bytes
+   */
+  public OffHeapCache(String name, long capacity) {
+    this(name, allocateDirect(capacity, DEFAULT_SEGMENT_COUNT), 0, 0, TimeUnit.MILLISECONDS, JdkSerializationCodec.INSTANCE);
+  }
+
+  /**
+   * @param buffers
+   *         segment buffers, see {@link #allocateDirect} and {@link #allocateMapped}
+   * @param maxSize
+   *         max entries, 0 for unbounded
+   * @param expire
+   *         time to live of the entries, 0 for never expire
+   * @param codec
+   *         value codec
+   */
+  public OffHeapCache(String name, ByteBuffer[] buffers,
+                      int maxSize, long expire, TimeUnit timeUnit, CacheValueCodec codec) {
+    Assert.notEmpty(buffers, "buffers must not be empty");
+    Assert.notNull(codec, "codec must not be null");
+    setName(name);
+    this.codec = codec;
+    this.expire = timeUnit.toMillis(expire);
+    this.segmentMaxSize = maxSize <= 0 ? 0 : Math.max(1, maxSize / buffers.length);
+    this.segments = new Segment[buffers.length];
+    for (int i = 0; i < buffers.length; i++) {
+      segments[i] = new Segment(buffers[i]);
+    }
+  }
+
+  private Segment segmentFor(final Object key) {
+    int hash = key.hashCode();
+    hash ^= (hash >>> 16);
+    return segments[(hash & Integer.MAX_VALUE) % segments.length];
+  }
+
+  @Override
+  protected Object lookupValue(final Object key) {
+    final byte[] bytes = segmentFor(key).get(key, System.currentTimeMillis());
+    if (bytes == null) {
+      return null;
+    }
+    return bytes == NULL_BYTES ? EmptyObject.INSTANCE : codec.decode(bytes);
+  }
+
+  @Override
+  protected <T> Object getInternal(final Object key, final CacheCallback<T> valueLoader) {
+    Object ret = lookupValue(key);
+    if (ret == null) {
+      ret = toStoreValue(lookupValue(key, valueLoader));
+      putInternal(key, ret);
+    }
+    return ret;
+  }
+
+  @Override
+  protected void putInternal(final Object key, final Object value) {
+    final byte[] bytes = value == EmptyObject.INSTANCE ? null : codec.encode(value);
+    final long now = System.currentTimeMillis();
+    segmentFor(key).put(key, bytes, expire == 0 ? 0 : now + expire, segmentMaxSize, now);
+  }
+
+  @Override
+  public void evict(final Object key) {
+    segmentFor(key).remove(key);
+  }
+
+  @Override
+  public void clear() {
+    for (final Segment segment : segments) {
+      segment.clear();
+    }
+  }
+
+  /**
+   * Return the number of entries, including the expired ones not evicted yet
+   */
+  public int size() {
+    int size = 0;
+    for (final Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * Return the bytes of the live values
+   */
+  public long getMemoryUsed() {
+    long used = 0;
+    for (final Segment segment : segments) {
+      used += segment.getLiveBytes();
+    }
+    return used;
+  }
+
+  public long getCapacity() {
+    long capacity = 0;
+    for (final Segment segment : segments) {
+      capacity += segment.buffer.capacity();
+    }
+    return capacity;
+  }
+
+  // buffers
+
+  /**
+   * Allocate the segment buffers in direct memory
+   *
+   * @param capacity
+   *         total capacity in bytes
+   * @param segmentCount
+   *         number of segments
+   */
+  public static ByteBuffer[] allocateDirect(final long capacity, final int segmentCount) {
+    final int segmentCapacity = segmentCapacity(capacity, segmentCount);
+    final ByteBuffer[] buffers = new ByteBuffer[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      buffers[i] = ByteBuffer.allocateDirect(segmentCapacity);
+    }
+    return buffers;
+  }
+
+  /**
+   * Map the segment buffers to the given file, which is truncated first. The
+   * file is a scratch file, its content is not reused by a later cache.
+   *
+   * @param file
+   *         file to map
+   * @param capacity
+   *         total capacity in bytes
+   * @param segmentCount
+   *         number of segments
+   *
+   * @throws CacheException
+   *         if the file cannot be mapped
+   */
+  public static ByteBuffer[] allocateMapped(final File file, final long capacity, final int segmentCount) {
+    final int segmentCapacity = segmentCapacity(capacity, segmentCount);
+    final ByteBuffer[] buffers = new ByteBuffer[segmentCount];
+    try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      randomAccessFile.setLength(0);
+      randomAccessFile.setLength((long) segmentCapacity * segmentCount);
+      final FileChannel channel = randomAccessFile.getChannel();
+      for (int i = 0; i < segmentCount; i++) {
+        buffers[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) segmentCapacity * i, segmentCapacity);
+      }
+    }
+    catch (IOException e) {
+      throw new CacheException("Cannot map cache file: " + file, e);
+    }
+    return buffers;
+  }
+
+  private static int segmentCapacity(final long capacity, final int segmentCount) {
+    Assert.isTrue(segmentCount > 0, "segmentCount must be positive");
+    final long segmentCapacity = capacity / segmentCount;
+    Assert.isTrue(segmentCapacity > 0 && segmentCapacity <= Integer.MAX_VALUE,
+                  "capacity / segmentCount must be in (0, Integer.MAX_VALUE]");
+    return (int) segmentCapacity;
+  }
+
+  static final class Entry {
+    int offset;
+    final int length;
+    final long expireAt;
+
+    Entry(int offset, int length, long expireAt) {
+      this.offset = offset;
+      this.length = length;
+      this.expireAt = expireAt;
+    }
+
+    boolean isExpired(final long now) {
+      return expireAt != 0 && expireAt <= now;
+    }
+
+    int size() {
+      return length == NULL_VALUE ? 0 : length;
+    }
+  }
+
+  /**
+   * A buffer with its own lock and key index
+   */
+  static final class Segment {
+    private static final int COPY_CHUNK = 8192;
+
+    final ByteBuffer buffer;
+    /** in access order, the eldest is the least recently used */
+    private final LinkedHashMap<Object, Entry> index = new LinkedHashMap<>(64, 0.75f, true);
+    private int writePosition;
+    private int liveBytes;
+
+    Segment(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    /**
+     * @return the value bytes, {@link #NULL_BYTES} for a cached {@code null},
+     * or {@code null} if absent
+     */
+    synchronized byte[] get(final Object key, final long now) {
+      final Entry entry = index.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.isExpired(now)) {
+        removeEntry(key);
+        return null;
+      }
+      if (entry.length == NULL_VALUE) {
+        return NULL_BYTES;
+      }
+      final byte[] bytes = new byte[entry.length];
+      buffer.position(entry.offset);
+      buffer.get(bytes);
+      return bytes;
+    }
+
+    /**
+     * @param bytes
+     *         value bytes, {@code null} for a cached {@code null}
+     */
+    synchronized void put(final Object key, final byte[] bytes,
+                          final long expireAt, final int maxSize, final long now) {
+      removeEntry(key);
+      final int length = bytes == null ? 0 : bytes.length;
+      if (length > buffer.capacity()) {
+        return; // too large to cache
+      }
+      if (buffer.capacity() - writePosition < length) {
+        evictExpired(now);
+        final Iterator<Entry> iterator = index.values().iterator();
+        while (buffer.capacity() - liveBytes < length && iterator.hasNext()) {
+          liveBytes -= iterator.next().size();
+          iterator.remove();
+        }
+        compact();
+      }
+      if (bytes == null) {
+        index.put(key, new Entry(writePosition, NULL_VALUE, expireAt));
+      }
+      else {
+        buffer.position(writePosition);
+        buffer.put(bytes);
+        index.put(key, new Entry(writePosition, length, expireAt));
+        writePosition += length;
+        liveBytes += length;
+      }
+      if (maxSize > 0 && index.size() > maxSize) {
+        final Iterator<Entry> iterator = index.values().iterator();
+        while (index.size() > maxSize) {
+          liveBytes -= iterator.next().size();
+          iterator.remove();
+        }
+      }
+    }
+
+    private void evictExpired(final long now) {
+      final Iterator<Entry> iterator = index.values().iterator();
+      while (iterator.hasNext()) {
+        final Entry entry = iterator.next();
+        if (entry.isExpired(now)) {
+          liveBytes -= entry.size();
+          iterator.remove();
+        }
+      }
+    }
+
+    /**
+     * Move the live values to the start of the buffer in offset order,
+     * values only move backward so they can be copied forward in place
+     */
+    private void compact() {
+      final ArrayList<Entry> entries = new ArrayList<>(index.size());
+      for (final Entry entry : index.values()) {
+        if (entry.length > 0) {
+          entries.add(entry);
+        }
+      }
+      entries.sort((e1, e2) -> Integer.compare(e1.offset, e2.offset));
+
+      final byte[] chunk = new byte[COPY_CHUNK];
+      int position = 0;
+      for (final Entry entry : entries) {
+        if (entry.offset != position) {
+          for (int copied = 0; copied < entry.length; copied += COPY_CHUNK) {
+            final int length = Math.min(COPY_CHUNK, entry.length - copied);
+            buffer.position(entry.offset + copied);
+            buffer.get(chunk, 0, length);
+            buffer.position(position + copied);
+            buffer.put(chunk, 0, length);
+          }
+          entry.offset = position;
+        }
+        position += entry.length;
+      }
+      writePosition = position;
+    }
+
+    synchronized void remove(final Object key) {
+      removeEntry(key);
+    }
+
+    private void removeEntry(final Object key) {
+      final Entry entry = index.remove(key);
+      if (entry != null) {
+        liveBytes -= entry.size();
+      }
+    }
+
+    synchronized void clear() {
+      index.clear();
+      writePosition = 0;
+      liveBytes = 0;
+    }
+
+    synchronized int size() {
+      return index.size();
+    }
+
+    synchronized int getLiveBytes() {
+      return liveBytes;
+    }
+  }
+
+}
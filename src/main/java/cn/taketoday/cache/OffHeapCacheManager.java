@@ -0,0 +1,108 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import cn.taketoday.cache.annotation.CacheConfig;
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * {@link CacheManager} of {@link OffHeapCache}s, each cache gets
+ * {@link #setCapacity(long) capacity} bytes of direct memory, or of a scratch
+ * file in {@link #setDirectory(File) directory} if configured.
+ * {@link CacheConfig#maxSize()} and {@link CacheConfig#expire()} are applied
+ * to the entries.
+ *
+ * @author TODAY 2021/3/25 11:30
+ * @since 3.0.3
+ */
+public class OffHeapCacheManager extends AbstractCacheManager {
+
+  public static final long DEFAULT_CAPACITY = 64 * 1024 * 1024;
+
+  private long capacity = DEFAULT_CAPACITY;
+  private int segmentCount = OffHeapCache.DEFAULT_SEGMENT_COUNT;
+  private CacheValueCodec codec = JdkSerializationCodec.INSTANCE;
+  /** memory-mapped files directory, null for direct memory */
+  private File directory;
+
+  @Override
+  protected Cache doCreate(final String name, final CacheConfig cacheConfig) {
+    return new OffHeapCache(name, allocate(name),
+                            cacheConfig.maxSize(), cacheConfig.expire(), cacheConfig.timeUnit(), codec);
+  }
+
+  protected ByteBuffer[] allocate(final String name) {
+    if (directory == null) {
+      return OffHeapCache.allocateDirect(capacity, segmentCount);
+    }
+    final File file = new File(directory, name + ".cache");
+    file.deleteOnExit();
+    return OffHeapCache.allocateMapped(file, capacity, segmentCount);
+  }
+
+  /**
+   * Set the capacity of each cache in bytes
+   */
+  public void setCapacity(long capacity) {
+    Assert.isTrue(capacity > 0, "capacity must be positive");
+    this.capacity = capacity;
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Set the number of independently locked segments of each cache
+   */
+  public void setSegmentCount(int segmentCount) {
+    Assert.isTrue(segmentCount > 0, "segmentCount must be positive");
+    this.segmentCount = segmentCount;
+  }
+
+  public int getSegmentCount() {
+    return segmentCount;
+  }
+
+  public void setCodec(CacheValueCodec codec) {
+    Assert.notNull(codec, "codec must not be null");
+    this.codec = codec;
+  }
+
+  public CacheValueCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Set the directory of the memory-mapped scratch files,
+   * {@code null} to use direct memory
+   */
+  public void setDirectory(File directory) {
+    this.directory = directory;
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+}
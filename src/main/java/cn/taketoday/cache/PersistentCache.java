@@ -0,0 +1,651 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import cn.taketoday.context.EmptyObject;
+import cn.taketoday.context.logger.Logger;
+import cn.taketoday.context.logger.LoggerFactory;
+import cn.taketoday.context.utils.Assert;
+import cn.taketoday.context.utils.ReflectionUtils;
+
+/**
+ * {@link Cache} which persists its entries in an append-only, memory-mapped
+ * file, so that a restarted application starts with a warm cache.
+ * <p>
+ * Each put or evict appends a record to the file. The on-heap index maps a
+ * key to the position of its value in the file and is recovered on opening by
+ * scanning the record headers and keys, values are read lazily on lookup.
+ * Overwritten and evicted records are garbage, the file is rewritten with the
+ * live records only in the background when garbage outweighs them, or by the
+ * writer which finds it full. The new file is built without blocking readers
+ * and writers, the records appended meanwhile are replayed into it before it
+ * replaces the cache file. A record length is written last, so a record
+ * half-written by a crash is ignored on recovery.
+ * <p>
+ * Keys and values are serialized by the {@link CacheValueCodec}, so keys must
+ * be serializable too.
+ *
+ * <pre>
+ * file   := magic version record* 0
+ * record := length type expireAt keyLength key valueLength value
+ * </pre>
+ *
+ * @author TODAY 2021/3/26 10:30
+ * @see PersistentCacheManager
+ * @since 3.0.3
+ */
+public class PersistentCache extends AbstractCache {
+  private static final Logger log = LoggerFactory.getLogger(PersistentCache.class);
+
+  public static final long DEFAULT_CAPACITY = 64 * 1024 * 1024;
+
+  private static final int MAGIC = 0x54434348;
+  private static final int VERSION = 1;
+  private static final int HEADER_LENGTH = 8;
+
+  private static final byte PUT = 1;
+  private static final byte REMOVE = 2;
+
+  /** type, expireAt, keyLength, valueLength */
+  private static final int RECORD_OVERHEAD = 1 + 8 + 4 + 4;
+  private static final int NULL_VALUE = -1;
+
+  private static volatile ExecutorService defaultCompactionExecutor;
+
+  private static final Consumer<MappedByteBuffer> UNMAPPER = createUnmapper();
+
+  private final File file;
+  private final CacheValueCodec codec;
+  private final long capacity;
+
+  /** time to live in milliseconds, 0 for never expire */
+  private volatile long expire;
+  private volatile Executor compactionExecutor;
+
+  /** replaced on compaction, readers use the state read once */
+  private volatile State state;
+
+  // guarded by this
+  private int writePosition;
+  private long liveBytes;
+  private long garbageBytes;
+
+  private final AtomicBoolean compacting = new AtomicBoolean();
+
+  /** serializes the rewrites of the file, taken before this */
+  private final Object rewriteLock = new Object();
+
+  /** readers of the mapping hold the read lock, unmapping takes the write lock */
+  private final ReentrantReadWriteLock mappingLock = new ReentrantReadWriteLock();
+
+  /**
+   * Open the cache file, recovering its entries if it exists
+   *
+   * @param file
+   *         cache file
+   * @param capacity
+   *         max length of a new file in bytes, an existing file keeps its length
+   *         if it is longer
+   * @param codec
+   *         key and value codec
+   *
+   * @throws CacheException
+   *         if the file cannot be opened
+   */
+  public PersistentCache(String name, File file, long capacity, CacheValueCodec codec) {
+    Assert.notNull(file, "file must not be null");
+    Assert.notNull(codec, "codec must not be null");
+    Assert.isTrue(capacity > HEADER_LENGTH && capacity <= Integer.MAX_VALUE,
+                  "capacity must be in (8, Integer.MAX_VALUE]");
+    setName(name);
+    this.file = file;
+    this.codec = codec;
+    this.capacity = capacity;
+    open();
+  }
+
+  private synchronized void open() {
+    final MappedByteBuffer buffer = map(file, capacity, false);
+    final ConcurrentHashMap<Object, Entry> index = new ConcurrentHashMap<>();
+    if (buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION) {
+      writePosition = replay(buffer, HEADER_LENGTH, buffer.capacity(), index);
+    }
+    else {
+      writePosition = writeHeader(buffer);
+    }
+    state = new State(buffer, index);
+    if (log.isDebugEnabled()) {
+      log.debug("Opened cache '{}' with [{}] entries from [{}]", getName(), index.size(), file);
+    }
+  }
+
+  /**
+   * Apply the records from {@code position} to {@code limit} to the index
+   *
+   * @return position after the last complete record
+   */
+  private int replay(final ByteBuffer buffer, int position, final int limit, final Map<Object, Entry> index) {
+    final long now = System.currentTimeMillis();
+    while (position + 4 <= limit) {
+      final int length = buffer.getInt(position);
+      if (length < RECORD_OVERHEAD || position + 4 + length > limit) {
+        break; // end of records or a half-written record
+      }
+      int offset = position + 4;
+      final byte type = buffer.get(offset);
+      final long expireAt = buffer.getLong(offset + 1);
+      final int keyLength = buffer.getInt(offset + 9);
+      offset += 13;
+
+      final Object key;
+      try {
+        key = codec.decode(read(buffer, offset, keyLength));
+      }
+      catch (RuntimeException e) {
+        log.warn("Skipping a record of cache '{}' with undecodable key", getName(), e);
+        garbageBytes += 4 + length;
+        position += 4 + length;
+        continue;
+      }
+      offset += keyLength;
+
+      final Entry old;
+      if (type == PUT && (expireAt == 0 || expireAt > now)) {
+        final int valueLength = buffer.getInt(offset);
+        old = index.put(key, new Entry(offset + 4, valueLength, expireAt, 4 + length));
+        liveBytes += 4 + length;
+      }
+      else {
+        old = index.remove(key);
+        garbageBytes += 4 + length;
+      }
+      if (old != null) {
+        liveBytes -= old.recordLength;
+        garbageBytes += old.recordLength;
+      }
+      position += 4 + length;
+    }
+    return position;
+  }
+
+  @Override
+  protected Object lookupValue(final Object key) {
+    final byte[] bytes;
+    final ReentrantReadWriteLock.ReadLock readLock = mappingLock.readLock();
+    readLock.lock();
+    try {
+      final State state = this.state;
+      final Entry entry = state.index.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expireAt != 0 && entry.expireAt <= System.currentTimeMillis()) {
+        return null;
+      }
+      if (entry.valueLength == NULL_VALUE) {
+        return EmptyObject.INSTANCE;
+      }
+      bytes = read(state.buffer, entry.valueOffset, entry.valueLength);
+    }
+    finally {
+      readLock.unlock();
+    }
+    return codec.decode(bytes);
+  }
+
+  @Override
+  protected <T> Object getInternal(final Object key, final CacheCallback<T> valueLoader) {
+    Object ret = lookupValue(key);
+    if (ret == null) {
+      ret = toStoreValue(lookupValue(key, valueLoader));
+      putInternal(key, ret);
+    }
+    return ret;
+  }
+
+  @Override
+  protected void putInternal(final Object key, final Object value) {
+    final byte[] keyBytes = codec.encode(key);
+    final byte[] valueBytes = value == EmptyObject.INSTANCE ? null : codec.encode(value);
+    final long expire = this.expire;
+    append(key, PUT, expire == 0 ? 0 : System.currentTimeMillis() + expire, keyBytes, valueBytes);
+  }
+
+  @Override
+  public void evict(final Object key) {
+    if (state.index.containsKey(key)) {
+      append(key, REMOVE, 0, codec.encode(key), null);
+    }
+  }
+
+  @Override
+  public void clear() {
+    synchronized(rewriteLock) {
+      synchronized(this) {
+        final State old = this.state;
+        final File compactFile = getCompactFile();
+        final MappedByteBuffer buffer = map(compactFile, old.buffer.capacity(), true);
+        final int position = writeHeader(buffer);
+        replace(old, buffer, compactFile, new ConcurrentHashMap<>(), position);
+        this.liveBytes = 0;
+        this.garbageBytes = 0;
+      }
+    }
+  }
+
+  private void append(final Object key, final byte type, final long expireAt,
+                      final byte[] keyBytes, final byte[] valueBytes) {
+    if (!tryAppend(key, type, expireAt, keyBytes, valueBytes)) {
+      synchronized(rewriteLock) {
+        // compact outside the lock of this cache, then retry once
+        compact();
+        if (!tryAppend(key, type, expireAt, keyBytes, valueBytes)) {
+          dropTooLarge(key, type, keyBytes);
+        }
+      }
+    }
+    if (isCompactionNeeded()) {
+      compactAsync();
+    }
+  }
+
+  /**
+   * @return {@code false} if the record does not fit in the file
+   */
+  private synchronized boolean tryAppend(final Object key, final byte type, final long expireAt,
+                                         final byte[] keyBytes, final byte[] valueBytes) {
+    final int valueLength = valueBytes == null ? 0 : valueBytes.length;
+    final int length = RECORD_OVERHEAD + keyBytes.length + valueLength;
+    // keep 4 bytes for the terminating 0
+    if (writePosition + 4 + length + 4 > state.buffer.capacity()) {
+      return false;
+    }
+    final ByteBuffer buffer = state.buffer;
+    final int start = writePosition;
+    int offset = start + 4;
+    buffer.put(offset, type);
+    buffer.putLong(offset + 1, expireAt);
+    buffer.putInt(offset + 9, keyBytes.length);
+    offset += 13;
+    write(buffer, offset, keyBytes);
+    offset += keyBytes.length;
+    buffer.putInt(offset, valueBytes == null ? NULL_VALUE : valueLength);
+    offset += 4;
+    if (valueBytes != null) {
+      write(buffer, offset, valueBytes);
+    }
+    // the terminating 0, bytes of a record torn by a crash may follow
+    buffer.putInt(start + 4 + length, 0);
+    // length last, the record is complete
+    buffer.putInt(start, length);
+    writePosition = start + 4 + length;
+
+    final Entry old;
+    if (type == PUT) {
+      old = state.index.put(key, new Entry(offset, valueBytes == null ? NULL_VALUE : valueLength, expireAt, 4 + length));
+      liveBytes += 4 + length;
+    }
+    else {
+      old = state.index.remove(key);
+      garbageBytes += 4 + length;
+    }
+    if (old != null) {
+      liveBytes -= old.recordLength;
+      garbageBytes += old.recordLength;
+    }
+    return true;
+  }
+
+  /**
+   * A record too large to cache: drop the stale entry
+   */
+  private synchronized void dropTooLarge(final Object key, final byte type, final byte[] keyBytes) {
+    if (state.index.containsKey(key)) {
+      if (type != PUT || !tryAppend(key, REMOVE, 0, keyBytes, null)) {
+        final Entry old = state.index.remove(key);
+        liveBytes -= old.recordLength;
+        garbageBytes += old.recordLength;
+      }
+    }
+  }
+
+  private synchronized boolean isCompactionNeeded() {
+    return garbageBytes > liveBytes && garbageBytes > capacity / 4;
+  }
+
+  private void compactAsync() {
+    if (compacting.compareAndSet(false, true)) {
+      try {
+        getCompactionExecutor().execute(() -> {
+          try {
+            compact();
+          }
+          catch (RuntimeException e) {
+            log.error("Cannot compact cache '{}'", getName(), e);
+          }
+          finally {
+            compacting.set(false);
+          }
+        });
+      }
+      catch (RejectedExecutionException e) {
+        compacting.set(false);
+      }
+    }
+  }
+
+  /**
+   * Rewrite the file with the live entries only.
+   * <p>
+   * The live entries are copied to a new file while readers and writers keep
+   * using the current one, the lock of this cache is only taken to replay the
+   * records appended meanwhile and to replace the file.
+   */
+  public void compact() {
+    synchronized(rewriteLock) {
+      final State old;
+      final int start;
+      final Map<Object, Entry> entries;
+      synchronized(this) {
+        old = this.state;
+        start = this.writePosition;
+        entries = new HashMap<>(old.index);
+      }
+      // the records before start are not modified and old is not unmapped
+      // until it is replaced, which needs the rewrite lock
+      final long now = System.currentTimeMillis();
+      final File compactFile = getCompactFile();
+      final MappedByteBuffer buffer = map(compactFile, old.buffer.capacity(), true);
+      final ConcurrentHashMap<Object, Entry> index = new ConcurrentHashMap<>();
+
+      int position = writeHeader(buffer);
+      long liveBytes = 0;
+      for (final Map.Entry<Object, Entry> mapEntry : entries.entrySet()) {
+        final Entry entry = mapEntry.getValue();
+        if (entry.expireAt != 0 && entry.expireAt <= now) {
+          continue;
+        }
+        final byte[] keyBytes = codec.encode(mapEntry.getKey());
+        final int valueLength = entry.valueLength == NULL_VALUE ? 0 : entry.valueLength;
+        final int length = RECORD_OVERHEAD + keyBytes.length + valueLength;
+        int offset = position + 4;
+        buffer.put(offset, PUT);
+        buffer.putLong(offset + 1, entry.expireAt);
+        buffer.putInt(offset + 9, keyBytes.length);
+        offset += 13;
+        write(buffer, offset, keyBytes);
+        offset += keyBytes.length;
+        buffer.putInt(offset, entry.valueLength);
+        offset += 4;
+        write(buffer, offset, read(old.buffer, entry.valueOffset, valueLength));
+        buffer.putInt(position, length);
+        index.put(mapEntry.getKey(), new Entry(offset, entry.valueLength, entry.expireAt, 4 + length));
+        position += 4 + length;
+        liveBytes += 4 + length;
+      }
+
+      synchronized(this) {
+        // the live entries of the old file are at most its records before
+        // start, so the records appended meanwhile fit in the new file
+        final int end = this.writePosition;
+        write(buffer, position, read(old.buffer, start, end - start));
+        buffer.putInt(position + end - start, 0);
+
+        final long oldLiveBytes = this.liveBytes;
+        final long oldGarbageBytes = this.garbageBytes;
+        this.liveBytes = liveBytes;
+        this.garbageBytes = 0;
+        position = replay(buffer, position, position + end - start, index);
+        try {
+          replace(old, buffer, compactFile, index, position);
+        }
+        catch (CacheException e) {
+          this.liveBytes = oldLiveBytes;
+          this.garbageBytes = oldGarbageBytes;
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * Replace the cache file with the rewritten one, both mappings are released
+   * first because a mapped file cannot be replaced on some platforms, then the
+   * new file is mapped again. Called holding this and the rewrite lock.
+   */
+  private void replace(final State old, final MappedByteBuffer buffer,
+                       final File compactFile, final ConcurrentHashMap<Object, Entry> index, final int position) {
+    final int capacity = buffer.capacity();
+    buffer.force();
+    final ReentrantReadWriteLock.WriteLock writeLock = mappingLock.writeLock();
+    writeLock.lock();
+    try {
+      unmap(buffer);
+      unmap(old.buffer);
+      try {
+        Files.move(compactFile.toPath(), file.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (IOException e) {
+        // keep the current file
+        compactFile.delete();
+        this.state = new State(map(file, old.buffer.capacity(), false), old.index);
+        throw new CacheException("Cannot replace cache file: " + file, e);
+      }
+      this.writePosition = position;
+      this.state = new State(map(file, capacity, false), index);
+    }
+    finally {
+      writeLock.unlock();
+    }
+  }
+
+  private File getCompactFile() {
+    return new File(file.getPath() + ".compact");
+  }
+
+  /**
+   * Flush the written records to the storage device
+   */
+  public void flush() {
+    final ReentrantReadWriteLock.ReadLock readLock = mappingLock.readLock();
+    readLock.lock();
+    try {
+      state.buffer.force();
+    }
+    finally {
+      readLock.unlock();
+    }
+  }
+
+  // util
+
+  private static int writeHeader(final ByteBuffer buffer) {
+    buffer.putInt(0, MAGIC);
+    buffer.putInt(4, VERSION);
+    buffer.putInt(HEADER_LENGTH, 0);
+    return HEADER_LENGTH;
+  }
+
+  private static MappedByteBuffer map(final File file, final long capacity, final boolean truncate) {
+    try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      if (truncate) {
+        randomAccessFile.setLength(0);
+      }
+      final long length = Math.max(randomAccessFile.length(), capacity);
+      randomAccessFile.setLength(length);
+      return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+    }
+    catch (IOException e) {
+      throw new CacheException("Cannot map cache file: " + file, e);
+    }
+  }
+
+  private static void unmap(final MappedByteBuffer buffer) {
+    UNMAPPER.accept(buffer);
+  }
+
+  /**
+   * Mappings are otherwise released when garbage collected
+   */
+  private static Consumer<MappedByteBuffer> createUnmapper() {
+    try {
+      // Java 9+
+      final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      final Field theUnsafe = ReflectionUtils.makeAccessible(unsafeClass.getDeclaredField("theUnsafe"));
+      final Object unsafe = ReflectionUtils.getField(theUnsafe, null);
+      return buffer -> ReflectionUtils.invokeMethod(invokeCleaner, unsafe, buffer);
+    }
+    catch (ReflectiveOperationException | RuntimeException e) {
+      try {
+        // Java 8
+        final Method cleaner = ReflectionUtils.makeAccessible(
+                Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner"));
+        final Method clean = ReflectionUtils.makeAccessible(Class.forName("sun.misc.Cleaner").getMethod("clean"));
+        return buffer -> {
+          final Object bufferCleaner = ReflectionUtils.invokeMethod(cleaner, buffer);
+          if (bufferCleaner != null) {
+            ReflectionUtils.invokeMethod(clean, bufferCleaner);
+          }
+        };
+      }
+      catch (ReflectiveOperationException | RuntimeException ex) {
+        log.warn("Cannot unmap cache files, they are released when garbage collected", ex);
+        return buffer -> { };
+      }
+    }
+  }
+
+  private static byte[] read(final ByteBuffer buffer, final int offset, final int length) {
+    final byte[] bytes = new byte[length];
+    final ByteBuffer duplicate = buffer.duplicate();
+    duplicate.position(offset);
+    duplicate.get(bytes);
+    return bytes;
+  }
+
+  private static void write(final ByteBuffer buffer, final int offset, final byte[] bytes) {
+    final ByteBuffer duplicate = buffer.duplicate();
+    duplicate.position(offset);
+    duplicate.put(bytes);
+  }
+
+  // config
+
+  /**
+   * Set the time to live of the entries put afterwards, 0 for never expire
+   */
+  public void setExpire(long expire, TimeUnit timeUnit) {
+    this.expire = timeUnit.toMillis(expire);
+  }
+
+  public void setCompactionExecutor(Executor compactionExecutor) {
+    Assert.notNull(compactionExecutor, "compactionExecutor must not be null");
+    this.compactionExecutor = compactionExecutor;
+  }
+
+  public Executor getCompactionExecutor() {
+    final Executor compactionExecutor = this.compactionExecutor;
+    if (compactionExecutor != null) {
+      return compactionExecutor;
+    }
+    ExecutorService ret = defaultCompactionExecutor;
+    if (ret == null) {
+      synchronized(PersistentCache.class) {
+        ret = defaultCompactionExecutor;
+        if (ret == null) {
+          defaultCompactionExecutor = ret = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "cache-compaction");
+            thread.setDaemon(true);
+            return thread;
+          });
+        }
+      }
+    }
+    return ret;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Return the number of entries, including the expired ones not compacted yet
+   */
+  public int size() {
+    return state.index.size();
+  }
+
+  public synchronized long getGarbageBytes() {
+    return garbageBytes;
+  }
+
+  public synchronized long getLiveBytes() {
+    return liveBytes;
+  }
+
+  static final class Entry {
+    final int valueOffset;
+    final int valueLength;
+    final long expireAt;
+    final int recordLength;
+
+    Entry(int valueOffset, int valueLength, long expireAt, int recordLength) {
+      this.valueOffset = valueOffset;
+      this.valueLength = valueLength;
+      this.expireAt = expireAt;
+      this.recordLength = recordLength;
+    }
+  }
+
+  static final class State {
+    final MappedByteBuffer buffer;
+    final ConcurrentHashMap<Object, Entry> index;
+
+    State(MappedByteBuffer buffer, ConcurrentHashMap<Object, Entry> index) {
+      this.buffer = buffer;
+      this.index = index;
+    }
+  }
+
+}
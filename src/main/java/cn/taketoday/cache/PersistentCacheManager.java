@@ -0,0 +1,169 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.taketoday.cache.annotation.CacheConfig;
+import cn.taketoday.context.factory.DisposableBean;
+import cn.taketoday.context.factory.InitializingBean;
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * {@link CacheManager} of {@link PersistentCache}s, stored as
+ * {@code <name>.data} files in {@link #getDirectory() directory}. The name is
+ * URL encoded, so that a cache name cannot address a file outside of it.
+ * <p>
+ * The caches found in the directory are recovered on
+ * {@link #afterPropertiesSet()}, which happens while the context starts, so
+ * that they are warm when first used. {@link CacheConfig#expire()} applies to
+ * the entries put afterwards.
+ *
+ * @author TODAY 2021/3/26 11:30
+ * @since 3.0.3
+ */
+public class PersistentCacheManager
+        extends AbstractCacheManager implements InitializingBean, DisposableBean {
+
+  public static final String FILE_SUFFIX = ".data";
+
+  private final File directory;
+  private long capacity = PersistentCache.DEFAULT_CAPACITY;
+  private CacheValueCodec codec = JdkSerializationCodec.INSTANCE;
+
+  /** recovered caches, not obtained yet */
+  private final ConcurrentHashMap<String, PersistentCache> recovered = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, PersistentCache> opened = new ConcurrentHashMap<>();
+
+  public PersistentCacheManager(File directory) {
+    Assert.notNull(directory, "directory must not be null");
+    Assert.isTrue(directory.isDirectory() || directory.mkdirs(),
+                  () -> "Cannot create cache directory: " + directory);
+    this.directory = directory;
+  }
+
+  /**
+   * Recover the caches in the directory
+   */
+  @Override
+  public void afterPropertiesSet() {
+    final File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+    if (files != null) {
+      for (final File file : files) {
+        final String fileName = file.getName();
+        final String name = decode(fileName.substring(0, fileName.length() - FILE_SUFFIX.length()));
+        if (name == null || !file.equals(getFile(name))) {
+          continue; // not the file of a cache
+        }
+        opened.computeIfAbsent(name, key -> {
+          final PersistentCache cache = open(key);
+          recovered.put(key, cache);
+          return cache;
+        });
+      }
+    }
+  }
+
+  @Override
+  protected Cache doCreate(final String name, final CacheConfig cacheConfig) {
+    PersistentCache cache = recovered.remove(name);
+    if (cache == null) {
+      cache = opened.computeIfAbsent(name, this::open);
+    }
+    cache.setExpire(cacheConfig.expire(), cacheConfig.timeUnit());
+    return cache;
+  }
+
+  protected PersistentCache open(final String name) {
+    return new PersistentCache(name, getFile(name), capacity, codec);
+  }
+
+  /**
+   * Return the file of the cache with the given name
+   */
+  protected File getFile(final String name) {
+    final File file = new File(directory, encode(name) + FILE_SUFFIX);
+    Assert.isTrue(directory.equals(file.getParentFile()), () -> "Illegal cache name: " + name);
+    return file;
+  }
+
+  private static String encode(final String name) {
+    try {
+      return URLEncoder.encode(name, "UTF-8");
+    }
+    catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return {@code null} if the file name is not encoded
+   */
+  private static String decode(final String fileName) {
+    try {
+      return URLDecoder.decode(fileName, "UTF-8");
+    }
+    catch (IllegalArgumentException e) {
+      return null;
+    }
+    catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Flush all caches
+   */
+  @Override
+  public void destroy() {
+    for (final PersistentCache cache : opened.values()) {
+      cache.flush();
+    }
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Set the max length of the new cache files in bytes
+   */
+  public void setCapacity(long capacity) {
+    this.capacity = capacity;
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  public void setCodec(CacheValueCodec codec) {
+    Assert.notNull(codec, "codec must not be null");
+    this.codec = codec;
+  }
+
+  public CacheValueCodec getCodec() {
+    return codec;
+  }
+
+}
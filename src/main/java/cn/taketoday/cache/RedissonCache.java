@@ -23,7 +23,13 @@ import org.redisson.api.RLock;
 import org.redisson.api.RMap;
 import org.redisson.api.RMapCache;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import cn.taketoday.cache.annotation.CacheConfig;
 import cn.taketoday.context.Constant;
@@ -33,10 +39,12 @@ import cn.taketoday.context.utils.Assert;
  * @author TODAY <br>
  * 2019-02-28 18:30
  */
-public class RedissonCache extends AbstractCache implements Cache {
+public class RedissonCache extends AbstractCache implements Cache, AsyncCache {
 
   private final CacheConfig cacheConfig;
   private final RMap<Object, Object> cache;
+  /** @since 3.0.3 */
+  private final AsyncLoadCoalescer asyncLoads = new AsyncLoadCoalescer();
 
   public RedissonCache(RMap<Object, Object> cache) {
     this(cache, Constant.DEFAULT, null);
@@ -77,6 +85,42 @@ public class RedissonCache extends AbstractCache implements Cache {
     }
   }
 
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  protected static CompletionStage<Boolean> doPutAsync(final RMap<Object, Object> cache,
+                                                       final CacheConfig cacheConfig,
+                                                       final Object key, final Object value)//
+  {
+    if (cacheConfig != null && cache instanceof RMapCache) {
+      final TimeUnit timeUnit = cacheConfig.timeUnit();
+      return ((RMapCache) cache).fastPutAsync(key,
+                                              value,
+                                              cacheConfig.expire(),
+                                              timeUnit,
+                                              cacheConfig.maxIdleTime(),
+                                              timeUnit);
+    }
+    return cache.fastPutAsync(key, value);
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  protected static void doPutAll(final RMap<Object, Object> cache,
+                                 final CacheConfig cacheConfig,
+                                 final Map<Object, Object> values)//
+  {
+    if (cacheConfig != null && cache instanceof RMapCache && cacheConfig.maxIdleTime() == 0) {
+      ((RMapCache) cache).putAll(values, cacheConfig.expire(), cacheConfig.timeUnit());
+    }
+    else if (cacheConfig != null && cache instanceof RMapCache) {
+      // no bulk operation with max idle time
+      for (final Map.Entry<Object, Object> entry : values.entrySet()) {
+        doPut(cache, cacheConfig, entry.getKey(), entry.getValue());
+      }
+    }
+    else {
+      cache.putAll(values);
+    }
+  }
+
   @Override
   public void evict(final Object key) {
     cache.fastRemove(key);
@@ -120,4 +164,59 @@ public class RedissonCache extends AbstractCache implements Cache {
     doPut(cache, cacheConfig, key, value);
   }
 
+  @Override
+  protected Map<Object, Object> lookupValues(Collection<?> keys) {
+    return cache.getAll(new LinkedHashSet<>(keys));
+  }
+
+  @Override
+  protected void putAllInternal(Map<Object, Object> values) {
+    doPutAll(cache, cacheConfig, values);
+  }
+
+  @Override
+  public void evictAll(Collection<?> keys) {
+    if (!keys.isEmpty()) {
+      cache.fastRemove(keys.toArray());
+    }
+  }
+
+  // AsyncCache
+
+  @Override
+  public CompletableFuture<Object> getAsync(Object key, boolean unWarp) {
+    final CompletionStage<Object> value = cache.getAsync(key);
+    return toCompletableFuture(unWarp ? value.thenApply(AbstractCache::toRealValue) : value);
+  }
+
+  @Override
+  public CompletableFuture<Void> putAsync(Object key, Object value) {
+    return toCompletableFuture(doPutAsync(cache, cacheConfig, key, toStoreValue(value)).thenApply(ret -> null));
+  }
+
+  @Override
+  public CompletableFuture<Object> computeIfAbsentAsync(
+          Object key, Function<Object, ? extends CompletionStage<?>> loader) {
+    return toCompletableFuture(cache.getAsync(key).thenCompose(value -> {
+      if (value != null) {
+        return CompletableFuture.completedFuture(toRealValue(value));
+      }
+      return asyncLoads.load(key, () -> loader.apply(key).thenCompose(
+              loaded -> putAsync(key, loaded).thenApply(ret -> loaded)));
+    }));
+  }
+
+  static <T> CompletableFuture<T> toCompletableFuture(CompletionStage<T> stage) {
+    final CompletableFuture<T> ret = new CompletableFuture<>();
+    stage.whenComplete((value, ex) -> {
+      if (ex != null) {
+        ret.completeExceptionally(ex);
+      }
+      else {
+        ret.complete(value);
+      }
+    });
+    return ret;
+  }
+
 }
@@ -0,0 +1,61 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+
+import java.util.function.Consumer;
+
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * {@link CacheInvalidationChannel} on top of a Redisson {@link RTopic}
+ *
+ * @author TODAY 2021/3/23 10:25
+ * @since 3.0.3
+ */
+public class RedissonCacheInvalidationChannel implements CacheInvalidationChannel {
+
+  public static final String DEFAULT_TOPIC_NAME = "cache:invalidation";
+
+  private final RTopic topic;
+
+  public RedissonCacheInvalidationChannel(RedissonClient redisson) {
+    this(redisson.getTopic(DEFAULT_TOPIC_NAME));
+  }
+
+  public RedissonCacheInvalidationChannel(RTopic topic) {
+    Assert.notNull(topic, "topic must not be null");
+    this.topic = topic;
+  }
+
+  @Override
+  public void publish(final CacheInvalidation invalidation) {
+    topic.publishAsync(invalidation);
+  }
+
+  @Override
+  public void subscribe(final Consumer<CacheInvalidation> listener) {
+    Assert.notNull(listener, "listener must not be null");
+    topic.addListener(CacheInvalidation.class, (channel, invalidation) -> listener.accept(invalidation));
+  }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.io.Serializable;
+
+import cn.taketoday.context.EmptyObject;
+
+/**
+ * Cached value of a {@link cn.taketoday.cache.annotation.Cacheable} method
+ * with refresh-after-write or stale-while-revalidate, stamped with its write
+ * time so that its age is known to every instance sharing the cache.
+ * <p>
+ * Like {@link EmptyObject#INSTANCE} for a cached {@code null}, it is a stored
+ * value: lookups return the wrapped value, only {@link Cache#get(Object, boolean)}
+ * without unwrapping returns it.
+ *
+ * @author TODAY 2021/3/24 10:10
+ * @see cn.taketoday.cache.interceptor.CacheableInterceptor
+ * @since 3.0.3
+ */
+public final class RefreshableValue implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private final Object value;
+  private final long writeTime;
+
+  public RefreshableValue(Object value, long writeTime) {
+    this.value = value;
+    this.writeTime = writeTime;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  /**
+   * Return the user value of the given stored value
+   *
+   * @param storeValue
+   *         value in the cache, may be a {@link RefreshableValue} or
+   *         {@link EmptyObject#INSTANCE}
+   */
+  public static Object unwrap(final Object storeValue) {
+    if (storeValue instanceof RefreshableValue) {
+      return ((RefreshableValue) storeValue).value;
+    }
+    return storeValue == EmptyObject.INSTANCE ? null : storeValue;
+  }
+
+  /**
+   * Return the write time in milliseconds
+   */
+  public long getWriteTime() {
+    return writeTime;
+  }
+
+  @Override
+  public String toString() {
+    return "RefreshableValue{" +
+            "value=" + value +
+            ", writeTime=" + writeTime +
+            '}';
+  }
+}
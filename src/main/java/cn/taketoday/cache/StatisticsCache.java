@@ -0,0 +1,235 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * {@link Cache} decorator which records {@link CacheStatistics} of the
+ * operations on the target cache
+ *
+ * @author TODAY 2021/3/27 10:40
+ * @see AbstractCacheManager#decorateCache(Cache)
+ * @since 3.0.3
+ */
+public class StatisticsCache implements Cache {
+
+  private final Cache delegate;
+  private final DefaultCacheStatistics statistics;
+
+  public StatisticsCache(Cache delegate) {
+    this(delegate, new DefaultCacheStatistics());
+  }
+
+  public StatisticsCache(Cache delegate, DefaultCacheStatistics statistics) {
+    Assert.notNull(delegate, "delegate must not be null");
+    Assert.notNull(statistics, "statistics must not be null");
+    this.delegate = delegate;
+    this.statistics = statistics;
+  }
+
+  /**
+   * Decorate the given cache, keeping {@link AsyncCache} operations
+   */
+  public static StatisticsCache of(Cache cache) {
+    return cache instanceof AsyncCache
+           ? new StatisticsAsyncCache((AsyncCache) cache)
+           : new StatisticsCache(cache);
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public Object get(final Object key) {
+    return RefreshableValue.unwrap(get(key, false));
+  }
+
+  @Override
+  public Object get(final Object key, final boolean unWarp) {
+    final Object value = delegate.get(key, false);
+    recordLookup(value != null);
+    return unWarp ? RefreshableValue.unwrap(value) : value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(final Object key, final Class<T> type) {
+    final Object value = get(key);
+    if (value != null && type != null && !type.isInstance(value)) {
+      throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+    }
+    return (T) value;
+  }
+
+  @Override
+  public <T> T get(final Object key, final CacheCallback<T> valueLoader) {
+    final class StatisticsCallback implements CacheCallback<T> {
+      boolean loaded;
+
+      @Override
+      public T call() throws Throwable {
+        loaded = true;
+        final long start = System.nanoTime();
+        try {
+          final T value = valueLoader.call();
+          statistics.recordLoadSuccess(System.nanoTime() - start);
+          return value;
+        }
+        catch (Throwable e) {
+          statistics.recordLoadFailure(System.nanoTime() - start);
+          throw e;
+        }
+      }
+    }
+    final StatisticsCallback callback = new StatisticsCallback();
+    try {
+      return delegate.get(key, callback);
+    }
+    finally {
+      recordLookup(!callback.loaded);
+    }
+  }
+
+  @Override
+  public void put(final Object key, final Object value) {
+    delegate.put(key, value);
+    statistics.recordPuts(1);
+  }
+
+  @Override
+  public void evict(final Object key) {
+    delegate.evict(key);
+    statistics.recordEvictions(1);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    statistics.recordEvictions(1);
+  }
+
+  @Override
+  public Map<Object, Object> getAll(final Collection<?> keys) {
+    final Map<Object, Object> values = delegate.getAll(keys);
+    statistics.recordHits(values.size());
+    statistics.recordMisses(keys.size() - values.size());
+    return values;
+  }
+
+  @Override
+  public void putAll(final Map<?, ?> values) {
+    delegate.putAll(values);
+    statistics.recordPuts(values.size());
+  }
+
+  @Override
+  public void evictAll(final Collection<?> keys) {
+    delegate.evictAll(keys);
+    statistics.recordEvictions(keys.size());
+  }
+
+  protected void recordLookup(final boolean hit) {
+    if (hit) {
+      statistics.recordHits(1);
+    }
+    else {
+      statistics.recordMisses(1);
+    }
+  }
+
+  @Override
+  public CacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  protected DefaultCacheStatistics getDefaultStatistics() {
+    return statistics;
+  }
+
+  public Cache getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public String toString() {
+    return "StatisticsCache{" +
+            "delegate=" + delegate +
+            ", statistics=" + statistics +
+            '}';
+  }
+
+  /**
+   * {@link StatisticsCache} of an {@link AsyncCache}
+   */
+  static final class StatisticsAsyncCache extends StatisticsCache implements AsyncCache {
+    private final AsyncCache delegate;
+
+    StatisticsAsyncCache(AsyncCache delegate) {
+      super(delegate);
+      this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<Object> getAsync(final Object key, final boolean unWarp) {
+      // a cached null is a hit, as in get(key, unWarp)
+      return delegate.getAsync(key, false).thenApply(value -> {
+        recordLookup(value != null);
+        return unWarp ? RefreshableValue.unwrap(value) : value;
+      });
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(final Object key, final Object value) {
+      return delegate.putAsync(key, value).whenComplete((ret, ex) -> {
+        if (ex == null) {
+          getDefaultStatistics().recordPuts(1);
+        }
+      });
+    }
+
+    @Override
+    public CompletableFuture<Object> computeIfAbsentAsync(
+            final Object key, final Function<Object, ? extends CompletionStage<?>> loader) {
+      final boolean[] loaded = new boolean[1];
+      return delegate.computeIfAbsentAsync(key, k -> {
+        loaded[0] = true;
+        final long start = System.nanoTime();
+        return loader.apply(k).whenComplete((value, ex) -> {
+          if (ex == null) {
+            getDefaultStatistics().recordLoadSuccess(System.nanoTime() - start);
+          }
+          else {
+            getDefaultStatistics().recordLoadFailure(System.nanoTime() - start);
+          }
+        });
+      }).whenComplete((value, ex) -> recordLookup(!loaded[0]));
+    }
+  }
+
+}
@@ -66,6 +66,18 @@ public @interface CacheConfig {
    */
   TimeUnit timeUnit() default TimeUnit.MILLISECONDS;
 
+  /**
+   * @since 3.0.3
+   * @see Cacheable#refreshAfterWrite()
+   */
+  long refreshAfterWrite() default 0;
+
+  /**
+   * @since 3.0.3
+   * @see Cacheable#staleWhileRevalidate()
+   */
+  long staleWhileRevalidate() default 0;
+
   CacheConfig EMPTY_CACHE_CONFIG = new CacheConfiguration();
 
 }
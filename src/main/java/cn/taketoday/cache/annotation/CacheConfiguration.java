@@ -30,7 +30,7 @@ import cn.taketoday.context.utils.StringUtils;
  * 2019-03-01 13:17
  */
 @SuppressWarnings("all")
-public class CacheConfiguration implements Cacheable, CacheEvict, CachePut, CacheConfig, Annotation {
+public class CacheConfiguration implements Cacheable, CacheableAll, CacheEvict, CachePut, CacheConfig, Annotation {
 
   private boolean sync = false;
   private boolean allEntries = false;
@@ -46,6 +46,10 @@ public class CacheConfiguration implements Cacheable, CacheEvict, CachePut, Cach
   private long expire = 0;
   private long maxIdleTime = 0;
   private TimeUnit timeUnit = TimeUnit.MILLISECONDS;
+  /** @since 3.0.3 */
+  private long refreshAfterWrite = 0;
+  /** @since 3.0.3 */
+  private long staleWhileRevalidate = 0;
 
   private final Class<? extends Annotation> annotationType;
 
@@ -135,6 +139,12 @@ public class CacheConfiguration implements Cacheable, CacheEvict, CachePut, Cach
     if (this.maxIdleTime == 0) {
       this.maxIdleTime = cacheConfig.maxIdleTime();
     }
+    if (this.refreshAfterWrite == 0) {
+      this.refreshAfterWrite = cacheConfig.refreshAfterWrite();
+    }
+    if (this.staleWhileRevalidate == 0) {
+      this.staleWhileRevalidate = cacheConfig.staleWhileRevalidate();
+    }
     if (this.timeUnit == TimeUnit.MILLISECONDS) {
       TimeUnit timeUnit = cacheConfig.timeUnit();
       if (timeUnit != TimeUnit.MILLISECONDS) {
@@ -153,6 +163,16 @@ public class CacheConfiguration implements Cacheable, CacheEvict, CachePut, Cach
     return maxIdleTime;
   }
 
+  @Override
+  public long refreshAfterWrite() {
+    return refreshAfterWrite;
+  }
+
+  @Override
+  public long staleWhileRevalidate() {
+    return staleWhileRevalidate;
+  }
+
   // setter
 
   public void setSync(boolean sync) {
@@ -199,4 +219,12 @@ public class CacheConfiguration implements Cacheable, CacheEvict, CachePut, Cach
     this.timeUnit = timeUnit;
   }
 
+  public void setRefreshAfterWrite(long refreshAfterWrite) {
+    this.refreshAfterWrite = refreshAfterWrite;
+  }
+
+  public void setStaleWhileRevalidate(long staleWhileRevalidate) {
+    this.staleWhileRevalidate = staleWhileRevalidate;
+  }
+
 }
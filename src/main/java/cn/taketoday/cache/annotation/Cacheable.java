@@ -141,4 +141,31 @@ public @interface Cacheable {
    */
   boolean sync() default false;
 
+  /**
+   * Refresh the cached value in the background once it is older than this
+   * time, while the old value is still returned. The value is refreshed once
+   * per key at a time. Use global config {@link CacheConfig} if this not present.
+   * <p>
+   * Default is {@code 0}, meaning that values are never refreshed ahead of
+   * their expiration.
+   *
+   * @return the refresh-after-write time in {@link #timeUnit()}
+   *
+   * @since 3.0.3
+   */
+  long refreshAfterWrite() default 0;
+
+  /**
+   * Keep returning an expired value for this time after {@link #expire()}
+   * while it is reloaded in the background, instead of blocking callers on
+   * the reload. Use global config {@link CacheConfig} if this not present.
+   * <p>
+   * Default is {@code 0}, meaning that expired values are never served.
+   *
+   * @return the serve-stale window in {@link #timeUnit()}
+   *
+   * @since 3.0.3
+   */
+  long staleWhileRevalidate() default 0;
+
 }
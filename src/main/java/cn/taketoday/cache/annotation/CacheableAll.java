@@ -0,0 +1,95 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import cn.taketoday.cache.Cache;
+import cn.taketoday.context.Constant;
+
+/**
+ * Bulk variant of {@link Cacheable} for methods that take a
+ * {@link java.util.Collection} of keys and return a {@link java.util.Map}
+ * of key to value.
+ *
+ * <p>
+ * The first {@code Collection} parameter holds the cache keys. Each invocation
+ * looks up all keys with one {@link Cache#getAll} call, invokes the method with
+ * the missed keys only, caches the loaded entries with one {@link Cache#putAll}
+ * call and returns the hits and the loaded entries in key order. The method is
+ * not invoked if all keys hit.
+ *
+ * <pre>
+ * &#64;CacheableAll(cacheName = "users")
+ * public Map&lt;Long, User&gt; getUsers(Collection&lt;Long&gt; ids) { ... }
+ * </pre>
+ *
+ * @author TODAY 2021/3/22 10:20
+ * @see Cacheable
+ * @see Cache#getAll(java.util.Collection)
+ * @see Cache#putAll(java.util.Map)
+ * @since 3.0.3
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface CacheableAll {
+
+  /**
+   * Name of the cache for caching operations
+   */
+  String cacheName() default Constant.BLANK;
+
+  /**
+   * Java Unified Expression Language (EL) expression used for making the
+   * caching conditional.
+   * <p>
+   * Default is {@code ""}, meaning the method is always cached.
+   *
+   * @see Cacheable#condition()
+   */
+  String condition() default Constant.BLANK;
+
+  /**
+   * Java Unified Expression Language (EL) expression used to veto caching of
+   * a loaded entry, evaluated for each loaded value as {@code result}.
+   * <p>
+   * Default is {@code ""}, meaning that caching is never vetoed.
+   *
+   * @see Cacheable#unless()
+   */
+  String unless() default Constant.BLANK;
+
+  /**
+   * The expire time.
+   *
+   * @see Cacheable#expire()
+   */
+  long expire() default 0;
+
+  /**
+   * Specify the time unit of expire.
+   */
+  TimeUnit timeUnit() default TimeUnit.MILLISECONDS;
+
+}
@@ -31,6 +31,7 @@ import cn.taketoday.cache.DefaultCacheManager;
 import cn.taketoday.cache.interceptor.CacheEvictInterceptor;
 import cn.taketoday.cache.interceptor.CacheExceptionResolver;
 import cn.taketoday.cache.interceptor.CachePutInterceptor;
+import cn.taketoday.cache.interceptor.CacheableAllInterceptor;
 import cn.taketoday.cache.interceptor.CacheableInterceptor;
 import cn.taketoday.cache.interceptor.DefaultCacheExceptionResolver;
 import cn.taketoday.context.annotation.Import;
@@ -68,6 +69,13 @@ class ProxyCachingConfiguration {
     return new CacheableInterceptor(cacheManager);
   }
 
+  @Aspect
+  @MissingBean
+  @Advice(CacheableAll.class)
+  CacheableAllInterceptor cacheableAllInterceptor(CacheManager cacheManager) {
+    return new CacheableAllInterceptor(cacheManager);
+  }
+
   @Aspect
   @MissingBean
   @Advice(CacheEvict.class)
@@ -19,7 +19,15 @@
  */
 package cn.taketoday.cache.interceptor;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import cn.taketoday.cache.AsyncCache;
 import cn.taketoday.cache.Cache;
+import cn.taketoday.cache.CacheException;
 import cn.taketoday.cache.CacheCallback;
 
 /**
@@ -44,8 +52,19 @@ public class CacheOperations {
    * @see Cache#get(Object)
    */
   public Object get(final Cache cache, final Object key) {
+    return get(cache, key, true);
+  }
+
+  /**
+   * Same as {@link #get(Cache, Object)}, the stored value is returned if
+   * {@code unWarp} is {@code false}
+   *
+   * @see Cache#get(Object, boolean)
+   * @since 3.0.3
+   */
+  public Object get(final Cache cache, final Object key, final boolean unWarp) {
     try {
-      return cache.get(key);
+      return cache.get(key, unWarp);
     }
     catch (RuntimeException ex) {
       getExceptionResolver().resolveGetException(ex, cache, key);
@@ -95,6 +114,120 @@ public class CacheOperations {
     }
   }
 
+  /**
+   * Execute {@link Cache#getAll(Collection)} on the specified {@link Cache} and
+   * invoke the error handler if an exception occurs. Return an empty map if the
+   * handler does not throw any exception, which simulates cache misses in case
+   * of error.
+   *
+   * @since 3.0.3
+   */
+  public Map<Object, Object> getAll(final Cache cache, final Collection<?> keys) {
+    try {
+      return cache.getAll(keys);
+    }
+    catch (RuntimeException ex) {
+      getExceptionResolver().resolveGetException(ex, cache, keys);
+      return Collections.emptyMap();
+    }
+  }
+
+  /**
+   * Execute {@link Cache#putAll(Map)} on the specified {@link Cache} and
+   * invoke the error handler if an exception occurs.
+   *
+   * @since 3.0.3
+   */
+  public void putAll(final Cache cache, final Map<?, ?> values) {
+    try {
+      cache.putAll(values);
+    }
+    catch (RuntimeException ex) {
+      getExceptionResolver().resolvePutException(ex, cache, values.keySet(), values);
+    }
+  }
+
+  /**
+   * Execute {@link Cache#evictAll(Collection)} on the specified {@link Cache}
+   * and invoke the error handler if an exception occurs.
+   *
+   * @since 3.0.3
+   */
+  public void evictAll(final Cache cache, final Collection<?> keys) {
+    try {
+      cache.evictAll(keys);
+    }
+    catch (RuntimeException ex) {
+      getExceptionResolver().resolveEvictException(ex, cache, keys);
+    }
+  }
+
+  /**
+   * Execute {@link AsyncCache#getAsync(Object)} on the specified {@link Cache},
+   * or {@link Cache#get(Object)} if it is not an {@link AsyncCache}, and invoke
+   * the error handler if an exception occurs. Complete with {@code null} if the
+   * handler does not throw any exception, which simulates a cache miss in case
+   * of error.
+   *
+   * @since 3.0.3
+   */
+  public CompletableFuture<Object> getAsync(final Cache cache, final Object key) {
+    return getAsync(cache, key, true);
+  }
+
+  /**
+   * Same as {@link #getAsync(Cache, Object)}, a cached {@code null} is
+   * returned as {@link cn.taketoday.context.EmptyObject#INSTANCE} if
+   * {@code unWarp} is {@code false}
+   *
+   * @since 3.0.3
+   */
+  public CompletableFuture<Object> getAsync(final Cache cache, final Object key, final boolean unWarp) {
+    try {
+      if (cache instanceof AsyncCache) {
+        return ((AsyncCache) cache).getAsync(key, unWarp).exceptionally(ex -> {
+          getExceptionResolver().resolveGetException(toRuntimeException(ex), cache, key);
+          return null;
+        });
+      }
+      return CompletableFuture.completedFuture(cache.get(key, unWarp));
+    }
+    catch (RuntimeException ex) {
+      getExceptionResolver().resolveGetException(ex, cache, key);
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+
+  /**
+   * Execute {@link AsyncCache#putAsync(Object, Object)} on the specified
+   * {@link Cache}, or {@link Cache#put(Object, Object)} if it is not an
+   * {@link AsyncCache}, and invoke the error handler if an exception occurs.
+   *
+   * @since 3.0.3
+   */
+  public CompletableFuture<Void> putAsync(final Cache cache, final Object key, final Object value) {
+    try {
+      if (cache instanceof AsyncCache) {
+        return ((AsyncCache) cache).putAsync(key, value).exceptionally(ex -> {
+          getExceptionResolver().resolvePutException(toRuntimeException(ex), cache, key, value);
+          return null;
+        });
+      }
+      cache.put(key, value);
+    }
+    catch (RuntimeException ex) {
+      getExceptionResolver().resolvePutException(ex, cache, key, value);
+    }
+    return CompletableFuture.completedFuture(null);
+  }
+
+  static RuntimeException toRuntimeException(Throwable ex) {
+    if (ex instanceof CompletionException && ex.getCause() != null) {
+      ex = ex.getCause();
+    }
+    return ex instanceof RuntimeException ? (RuntimeException) ex : new CacheException(ex);
+  }
+
   /**
    * Execute {@link Cache#clear()} on the specified {@link Cache} and invoke the
    * error handler if an exception occurs.
@@ -0,0 +1,179 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache.interceptor;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import cn.taketoday.cache.Cache;
+import cn.taketoday.cache.CacheExpressionContext;
+import cn.taketoday.cache.CacheManager;
+import cn.taketoday.cache.annotation.CacheConfiguration;
+import cn.taketoday.cache.annotation.CacheableAll;
+import cn.taketoday.context.Ordered;
+import cn.taketoday.context.utils.ConcurrentCache;
+
+import static cn.taketoday.cache.interceptor.AbstractCacheInterceptor.Operations.allowPutCache;
+import static cn.taketoday.cache.interceptor.AbstractCacheInterceptor.Operations.isConditionPassing;
+import static cn.taketoday.cache.interceptor.AbstractCacheInterceptor.Operations.prepareAnnotation;
+import static cn.taketoday.cache.interceptor.AbstractCacheInterceptor.Operations.prepareELContext;
+
+/**
+ * {@link org.aopalliance.intercept.MethodInterceptor} for {@link CacheableAll}
+ *
+ * @author TODAY 2021/3/22 10:40
+ * @since 3.0.3
+ */
+public class CacheableAllInterceptor extends AbstractCacheInterceptor {
+
+  /** the keys parameter */
+  private static final ConcurrentCache<Method, KeysParameter> KEYS_PARAMETER_CACHE = new ConcurrentCache<>(512);
+
+  public CacheableAllInterceptor() {
+    setOrder(Ordered.HIGHEST_PRECEDENCE * 2);
+  }
+
+  public CacheableAllInterceptor(CacheManager cacheManager) {
+    this();
+    setCacheManager(cacheManager);
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    final Method method = invocation.getMethod();
+    final KeysParameter keysParameter = KEYS_PARAMETER_CACHE.get(method, CacheableAllInterceptor::findKeysParameter);
+    final int keysIndex = keysParameter.index;
+    final Object[] arguments = invocation.getArguments();
+    final Collection<?> keys = (Collection<?>) arguments[keysIndex];
+    if (keys == null || keys.isEmpty()) {
+      return invocation.proceed();
+    }
+
+    final MethodKey methodKey = new MethodKey(method, CacheableAll.class);
+    final CacheConfiguration cacheableAll = prepareAnnotation(methodKey);
+    final CacheExpressionContext context = prepareELContext(methodKey, invocation);
+    if (!isConditionPassing(cacheableAll.condition(), context)) {
+      return invocation.proceed();
+    }
+
+    final Cache cache = obtainCache(method, cacheableAll);
+    final Map<Object, Object> hits = getAll(cache, keys);
+
+    final Collection<Object> misses = keysParameter.set ? new LinkedHashSet<>() : new ArrayList<>();
+    for (final Object key : keys) {
+      if (!hits.containsKey(key)) {
+        misses.add(key);
+      }
+    }
+    if (misses.isEmpty()) {
+      return inKeyOrder(keys, hits);
+    }
+
+    final Map<?, ?> loaded;
+    arguments[keysIndex] = misses;
+    try {
+      loaded = (Map<?, ?>) invocation.proceed();
+    }
+    finally {
+      arguments[keysIndex] = keys;
+    }
+    if (loaded == null) {
+      return inKeyOrder(keys, hits);
+    }
+
+    final LinkedHashMap<Object, Object> toCache = new LinkedHashMap<>(loaded.size());
+    for (final Map.Entry<?, ?> entry : loaded.entrySet()) {
+      if (allowPutCache(cacheableAll.unless(), entry.getValue(), context)) {
+        toCache.put(entry.getKey(), entry.getValue());
+      }
+    }
+    if (!toCache.isEmpty()) {
+      putAll(cache, toCache);
+    }
+
+    final LinkedHashMap<Object, Object> ret = new LinkedHashMap<>(keys.size());
+    for (final Object key : keys) {
+      if (hits.containsKey(key)) {
+        ret.put(key, hits.get(key));
+      }
+      else if (loaded.containsKey(key)) {
+        ret.put(key, loaded.get(key));
+      }
+    }
+    return ret;
+  }
+
+  private static LinkedHashMap<Object, Object> inKeyOrder(final Collection<?> keys, final Map<Object, Object> hits) {
+    final LinkedHashMap<Object, Object> ret = new LinkedHashMap<>(hits.size());
+    for (final Object key : keys) {
+      if (hits.containsKey(key)) {
+        ret.put(key, hits.get(key));
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Find the keys parameter, the misses are passed as an {@link ArrayList}
+   * or a {@link LinkedHashSet} so its declared type must accept one of them,
+   * and the result is a {@link LinkedHashMap}
+   */
+  private static KeysParameter findKeysParameter(Method method) {
+    final Class<?>[] parameterTypes = method.getParameterTypes();
+    for (int i = 0; i < parameterTypes.length; i++) {
+      final Class<?> parameterType = parameterTypes[i];
+      if (Collection.class.isAssignableFrom(parameterType)) {
+        if (!method.getReturnType().isAssignableFrom(LinkedHashMap.class)) {
+          throw new IllegalStateException(
+                  "@CacheableAll method must return a Map assignable from LinkedHashMap: " + method);
+        }
+        if (Set.class.isAssignableFrom(parameterType) && parameterType.isAssignableFrom(LinkedHashSet.class)) {
+          return new KeysParameter(i, true);
+        }
+        if (parameterType.isAssignableFrom(ArrayList.class)) {
+          return new KeysParameter(i, false);
+        }
+        throw new IllegalStateException(
+                "@CacheableAll keys parameter must be assignable from ArrayList or LinkedHashSet: " + method);
+      }
+    }
+    throw new IllegalStateException(
+            "@CacheableAll method must take a Collection of keys and return a Map: " + method);
+  }
+
+  static final class KeysParameter {
+    final int index;
+    /** pass the misses as a set */
+    final boolean set;
+
+    KeysParameter(int index, boolean set) {
+      this.index = index;
+      this.set = set;
+    }
+  }
+
+}
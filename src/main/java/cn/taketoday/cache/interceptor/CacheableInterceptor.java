@@ -22,14 +22,36 @@ package cn.taketoday.cache.interceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
 import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
+import cn.taketoday.aop.proxy.AbstractMethodInvocation;
+import cn.taketoday.cache.AsyncLoadCoalescer;
 import cn.taketoday.cache.Cache;
 import cn.taketoday.cache.CacheExpressionContext;
 import cn.taketoday.cache.CacheManager;
 import cn.taketoday.cache.CacheValueRetrievalException;
+import cn.taketoday.cache.DefaultCacheKey;
+import cn.taketoday.cache.RefreshableValue;
+import cn.taketoday.cache.annotation.CacheConfig;
 import cn.taketoday.cache.annotation.CacheConfiguration;
 import cn.taketoday.cache.annotation.Cacheable;
 import cn.taketoday.context.Ordered;
+import cn.taketoday.context.factory.ScopeContext;
+import cn.taketoday.context.logger.Logger;
+import cn.taketoday.context.logger.LoggerFactory;
+import cn.taketoday.context.utils.Assert;
+import cn.taketoday.context.utils.ConcurrentCache;
 
 import static cn.taketoday.cache.interceptor.AbstractCacheInterceptor.Operations.allowPutCache;
 import static cn.taketoday.cache.interceptor.AbstractCacheInterceptor.Operations.createKey;
@@ -40,11 +62,49 @@ import static cn.taketoday.cache.interceptor.AbstractCacheInterceptor.Operations
 /**
  * {@link org.aopalliance.intercept.MethodInterceptor} for {@link Cacheable}
  *
+ * <p>
+ * Methods returning {@link CompletableFuture} or {@link CompletionStage} are
+ * cached without blocking: the completed value is cached, lookups and puts use
+ * {@link cn.taketoday.cache.AsyncCache} if the cache supports it, and concurrent
+ * loads of the same key share one method invocation. On a miss the method is
+ * invoked on the calling thread if the lookup is already completed, otherwise
+ * on the {@link #setAsyncExecutor async executor} with the
+ * {@link ScopeContext} of the calling thread, never on the thread completing
+ * the lookup, such as an I/O thread of a remote cache.
+ * </p>
+ *
+ * <p>
+ * Methods with {@link Cacheable#refreshAfterWrite()} or
+ * {@link Cacheable#staleWhileRevalidate()} cache their values as
+ * {@link RefreshableValue}s. A value older than {@code refreshAfterWrite}, or
+ * expired but within the {@code staleWhileRevalidate} window, is returned
+ * while the method is invoked again on the {@link #setRefreshExecutor refresh
+ * executor}. Loads of such methods are always synchronized per key. Lookups
+ * of the cache, including other methods sharing it, return the wrapped value.
+ * Refreshing does not apply to methods returning {@link CompletableFuture} or
+ * {@link CompletionStage}.
+ * </p>
+ *
  * @author TODAY <br>
  * 2019-02-27 19:50
  */
 public class CacheableInterceptor extends AbstractCacheInterceptor {
 
+  /** @since 3.0.3 */
+  private final AsyncLoadCoalescer asyncLoads = new AsyncLoadCoalescer();
+
+  /** storage config of the refreshable methods @since 3.0.3 */
+  private static final ConcurrentCache<CacheConfiguration, CacheConfig> STORAGE_CONFIGS = new ConcurrentCache<>(512);
+
+  private static final Logger log = LoggerFactory.getLogger(CacheableInterceptor.class);
+
+  /** keys which are refreshing in the background @since 3.0.3 */
+  private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+  /** @since 3.0.3 */
+  private volatile Executor refreshExecutor;
+  /** resumes the misses of asynchronous lookups @since 3.0.3 */
+  private volatile Executor asyncExecutor;
+
   public CacheableInterceptor() {
     setOrder(Ordered.HIGHEST_PRECEDENCE * 2);
   }
@@ -63,6 +123,16 @@ public class CacheableInterceptor extends AbstractCacheInterceptor {
     final CacheExpressionContext context = prepareELContext(methodKey, invocation);
 
     if (isConditionPassing(cacheable.condition(), context)) {// pass the condition
+      if (isAsyncReturnType(method)) {
+        final Cache cache = obtainCache(method, cacheable);
+        final Object key = createKey(cacheable.key(), context, invocation);
+        return invokeAsync(invocation, cacheable, context, cache, key);
+      }
+      if (isRefreshable(cacheable)) {
+        final Cache cache = obtainCache(method, getStorageConfig(cacheable));
+        final Object key = createKey(cacheable.key(), context, invocation);
+        return invokeRefreshable(invocation, cacheable, context, cache, key);
+      }
       final Cache cache = obtainCache(method, cacheable);
       final Object key = createKey(cacheable.key(), context, invocation);
       if (cacheable.sync()) { // for sync
@@ -87,4 +157,227 @@ public class CacheableInterceptor extends AbstractCacheInterceptor {
     return invocation.proceed();
   }
 
+  /**
+   * @since 3.0.3
+   */
+  protected boolean isAsyncReturnType(final Method method) {
+    final Class<?> returnType = method.getReturnType();
+    return returnType == CompletableFuture.class || returnType == CompletionStage.class;
+  }
+
+  /**
+   * Cache the completed value of the future returned by the target method
+   *
+   * @since 3.0.3
+   */
+  protected CompletableFuture<Object> invokeAsync(final MethodInvocation invocation,
+                                                  final CacheConfiguration cacheable,
+                                                  final CacheExpressionContext context,
+                                                  final Cache cache, final Object key) {
+    final Function<Object, CompletionStage<Object>> loader = value -> {
+      if (value != null) { // cached null is a hit
+        return CompletableFuture.completedFuture(RefreshableValue.unwrap(value));
+      }
+      final DefaultCacheKey loadKey = new DefaultCacheKey(new Object[] { cache.getName(), key });
+      return asyncLoads.load(loadKey, () -> proceedAsync(invocation).thenCompose(result -> {
+        if (allowPutCache(cacheable.unless(), result, context)) {
+          return putAsync(cache, key, result).thenApply(ret -> result);
+        }
+        return CompletableFuture.completedFuture(result);
+      }));
+    };
+    final CompletableFuture<Object> lookup = getAsync(cache, key, false);
+    if (lookup.isDone()) {
+      // proceed on the calling thread
+      return lookup.thenCompose(loader);
+    }
+    final Executor asyncExecutor = this.asyncExecutor;
+    return asyncExecutor == null
+           ? lookup.thenComposeAsync(ScopeContext.wrapFunction(loader))
+           : lookup.thenComposeAsync(ScopeContext.wrapFunction(loader), asyncExecutor);
+  }
+
+  /**
+   * Set the executor that invokes the method when an asynchronous lookup
+   * misses, the default one is the default asynchronous execution facility of
+   * {@link CompletableFuture}
+   *
+   * @since 3.0.3
+   */
+  public void setAsyncExecutor(Executor asyncExecutor) {
+    this.asyncExecutor = asyncExecutor;
+  }
+
+  /**
+   * @since 3.0.3
+   */
+  public Executor getAsyncExecutor() {
+    return asyncExecutor;
+  }
+
+  // refresh-ahead
+
+  static boolean isRefreshable(final CacheConfig cacheConfig) {
+    return cacheConfig.refreshAfterWrite() > 0 || cacheConfig.staleWhileRevalidate() > 0;
+  }
+
+  /**
+   * Values must outlive the expire by the serve-stale window
+   */
+  static CacheConfig getStorageConfig(final CacheConfiguration cacheable) {
+    if (cacheable.expire() <= 0 || cacheable.staleWhileRevalidate() <= 0) {
+      return cacheable;
+    }
+    return STORAGE_CONFIGS.get(cacheable, config -> {
+      final CacheConfiguration storageConfig = new CacheConfiguration(config.cacheName());
+      storageConfig.mergeCacheConfigAttributes(config);
+      storageConfig.setExpire(config.expire() + config.staleWhileRevalidate());
+      return storageConfig;
+    });
+  }
+
+  /**
+   * Return the cached value, refreshing it in the background if it is due or
+   * stale, or load it synchronized per key if absent or too stale
+   *
+   * @since 3.0.3
+   */
+  protected Object invokeRefreshable(final MethodInvocation invocation,
+                                     final CacheConfiguration cacheable,
+                                     final CacheExpressionContext context,
+                                     final Cache cache, final Object key) throws Throwable {
+    final DefaultCacheKey loadKey = new DefaultCacheKey(new Object[] { cache.getName(), key });
+    final Object cached = get(cache, key, false);
+    if (cached instanceof RefreshableValue) {
+      final RefreshableValue value = (RefreshableValue) cached;
+      final TimeUnit timeUnit = cacheable.timeUnit();
+      final long age = System.currentTimeMillis() - value.getWriteTime();
+      final long expire = timeUnit.toMillis(cacheable.expire());
+      if (expire <= 0 || age < expire) {
+        final long refreshAfterWrite = timeUnit.toMillis(cacheable.refreshAfterWrite());
+        if (refreshAfterWrite > 0 && age >= refreshAfterWrite) {
+          refreshAsync(invocation, cacheable, context, cache, key, loadKey);
+        }
+        return value.getValue();
+      }
+      if (age < expire + timeUnit.toMillis(cacheable.staleWhileRevalidate())) {
+        refreshAsync(invocation, cacheable, context, cache, key, loadKey);
+        return value.getValue();
+      }
+    }
+    else if (cached != null) {
+      return RefreshableValue.unwrap(cached); // put by others, e.g. @CachePut
+    }
+
+    try {
+      return asyncLoads.load(loadKey, () -> load(invocation, cacheable, context, cache, key)).join();
+    }
+    catch (CompletionException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void refreshAsync(final MethodInvocation invocation,
+                            final CacheConfiguration cacheable,
+                            final CacheExpressionContext context,
+                            final Cache cache, final Object key, final Object loadKey) {
+    if (refreshing.add(loadKey)) {
+      // this invocation is not proceeded on the calling thread
+      final MethodInvocation refreshInvocation = invocation instanceof AbstractMethodInvocation
+                                                 ? ((AbstractMethodInvocation) invocation).invocableClone()
+                                                 : invocation;
+      try {
+        getRefreshExecutor().execute(() -> {
+          try {
+            asyncLoads.load(loadKey, () -> load(refreshInvocation, cacheable, context, cache, key))
+                    .whenComplete((value, ex) -> {
+                      if (ex != null) {
+                        log.warn("Cannot refresh cache '{}' key '{}'", cache.getName(), key, ex);
+                      }
+                    });
+          }
+          finally {
+            refreshing.remove(loadKey);
+          }
+        });
+      }
+      catch (RejectedExecutionException e) {
+        refreshing.remove(loadKey); // retried by a later request
+      }
+    }
+  }
+
+  private CompletableFuture<Object> load(final MethodInvocation invocation,
+                                         final CacheConfiguration cacheable,
+                                         final CacheExpressionContext context,
+                                         final Cache cache, final Object key) {
+    final CompletableFuture<Object> ret = new CompletableFuture<>();
+    try {
+      final Object value = invocation.proceed();
+      if (allowPutCache(cacheable.unless(), value, context)) {
+        put(cache, key, new RefreshableValue(value, System.currentTimeMillis()));
+      }
+      ret.complete(value);
+    }
+    catch (Throwable e) {
+      ret.completeExceptionally(e);
+    }
+    return ret;
+  }
+
+  /**
+   * Set the executor of the background refreshes, a refresh is skipped
+   * when the executor rejects it
+   *
+   * @since 3.0.3
+   */
+  public void setRefreshExecutor(Executor refreshExecutor) {
+    Assert.notNull(refreshExecutor, "refreshExecutor must not be null");
+    this.refreshExecutor = refreshExecutor;
+  }
+
+  /**
+   * Return the executor of the background refreshes, the default one is
+   * bounded by the number of processors and a queue of 1024 tasks
+   *
+   * @since 3.0.3
+   */
+  public Executor getRefreshExecutor() {
+    Executor refreshExecutor = this.refreshExecutor;
+    if (refreshExecutor == null) {
+      synchronized(this) {
+        refreshExecutor = this.refreshExecutor;
+        if (refreshExecutor == null) {
+          this.refreshExecutor = refreshExecutor = createDefaultRefreshExecutor();
+        }
+      }
+    }
+    return refreshExecutor;
+  }
+
+  private static Executor createDefaultRefreshExecutor() {
+    final int poolSize = Math.min(4, Runtime.getRuntime().availableProcessors());
+    final AtomicInteger threadNumber = new AtomicInteger();
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            poolSize, poolSize, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1024), runnable -> {
+      final Thread thread = new Thread(runnable, "cache-refresh-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }, new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static CompletionStage<?> proceedAsync(final MethodInvocation invocation) {
+    try {
+      final Object ret = invocation.proceed();
+      return ret == null ? CompletableFuture.completedFuture(null) : (CompletionStage<?>) ret;
+    }
+    catch (Throwable e) {
+      final CompletableFuture<Object> ret = new CompletableFuture<>();
+      ret.completeExceptionally(e);
+      return ret;
+    }
+  }
+
 }
@@ -19,20 +19,33 @@
  */
 package cn.taketoday.context;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
+import cn.taketoday.context.cglib.core.GeneratedClassScope;
 import cn.taketoday.context.env.ConfigurableEnvironment;
 import cn.taketoday.context.env.Environment;
+import cn.taketoday.context.env.PropertiesWatcher;
 import cn.taketoday.context.event.ApplicationEventCapable;
 import cn.taketoday.context.event.ApplicationListener;
 import cn.taketoday.context.event.BeanDefinitionLoadedEvent;
@@ -57,7 +70,10 @@ import cn.taketoday.context.factory.BeanFactoryPostProcessor;
 import cn.taketoday.context.factory.BeanPostProcessor;
 import cn.taketoday.context.factory.BeanReferencePropertySetter;
 import cn.taketoday.context.factory.ObjectSupplier;
+import cn.taketoday.context.factory.SingletonWarmUp;
 import cn.taketoday.context.factory.ValueExpressionContext;
+import cn.taketoday.context.io.JarFileCache;
+import cn.taketoday.context.loader.BeanDefinitionSnapshot;
 import cn.taketoday.context.loader.CandidateComponentScanner;
 import cn.taketoday.context.logger.Logger;
 import cn.taketoday.context.logger.LoggerFactory;
@@ -94,6 +110,18 @@ public abstract class AbstractApplicationContext implements ConfigurableApplicat
 
   private ArrayList<BeanFactoryPostProcessor> factoryPostProcessors;
 
+  /** @since 3.0.3 */
+  private PropertiesWatcher propertiesWatcher;
+
+  /** @since 3.0.3 */
+  private GeneratedClassScope generatedClassScope;
+
+  /** @since 3.0.3 snapshot of the loaded bean definitions, written after refresh */
+  private BeanDefinitionSnapshot beanDefinitionSnapshot;
+
+  /** @since 3.0.3 background initialization of singletons */
+  private SingletonWarmUp singletonWarmUp;
+
   /**
    * Construct with a {@link ConfigurableEnvironment}
    *
@@ -138,18 +166,28 @@ public abstract class AbstractApplicationContext implements ConfigurableApplicat
     try {
       // Prepare refresh
       prepareRefresh();
-      // Prepare BeanFactory
-      prepareBeanFactory();
-      // Initialization singletons that has already in context
-      // Initialize other special beans in specific context subclasses.
-      // for example a Web Server
-      preRefresh();
-
-      // Refresh factory, Initialize all singletons.
-      refresh();
-
-      // Finish refresh
-      finishRefresh();
+
+      final GeneratedClassScope scope = obtainGeneratedClassScope();
+      final GeneratedClassScope previousScope = scope != null ? scope.bind() : null;
+      try {
+        // Prepare BeanFactory
+        prepareBeanFactory();
+        // Initialization singletons that has already in context
+        // Initialize other special beans in specific context subclasses.
+        // for example a Web Server
+        preRefresh();
+
+        // Refresh factory, Initialize all singletons.
+        refresh();
+
+        // Finish refresh
+        finishRefresh();
+      }
+      finally {
+        if (scope != null) {
+          GeneratedClassScope.restore(previousScope);
+        }
+      }
     }
     catch (Throwable ex) {
       close();
@@ -225,6 +263,19 @@ public abstract class AbstractApplicationContext implements ConfigurableApplicat
     publishEvent(new ContextStartedEvent(this));
     applyState(State.STARTED);
 
+    if (getEnvironment().getFlag(Constant.ENABLE_PROPERTIES_WATCH)) {
+      startPropertiesWatcher();
+    }
+    if (beanDefinitionSnapshot != null) {
+      writeBeanDefinitionSnapshot(beanDefinitionSnapshot);
+      beanDefinitionSnapshot = null;
+    }
+    if (singletonWarmUp != null) {
+      startSingletonWarmUp(singletonWarmUp);
+    }
+    // @since 3.0.3 the jars are scanned, don't keep them open
+    JarFileCache.getSharedInstance().clear();
+
     log.info("Application Context Startup in {}ms", System.currentTimeMillis() - getStartupDate());
   }
 
@@ -247,16 +298,28 @@ public abstract class AbstractApplicationContext implements ConfigurableApplicat
     // register framework beans
     log.info("Registering framework beans");
     registerFrameworkBeans(env, beanFactory.getBeanNameCreator());
-    // Loading candidates components
-    log.info("Loading candidates components");
-    final Set<Class<?>> candidates = getComponentCandidates();
-    log.info("There are [{}] candidates components in [{}]", candidates.size(), this);
-    // register listener
-    registerListener(candidates, applicationListeners);
-
-    // start loading bean definitions ; publish loading bean definition event
-    publishEvent(new BeanDefinitionLoadingEvent(this, candidates)); // first event
-    loadBeanDefinitions(beanFactory, candidates);
+
+    // @since 3.0.3 restore bean definitions from the snapshot of a previous start
+    final File snapshotFile = getBeanDefinitionSnapshotFile();
+    final byte[] fingerprint = snapshotFile != null
+                               ? BeanDefinitionSnapshot.fingerprint(locations, env.getProperties())
+                               : null;
+    if (fingerprint == null || !restoreBeanDefinitions(beanFactory, snapshotFile, fingerprint)) {
+      // Loading candidates components
+      log.info("Loading candidates components");
+      final Set<Class<?>> candidates = getComponentCandidates();
+      log.info("There are [{}] candidates components in [{}]", candidates.size(), this);
+      // register listener
+      registerListener(candidates, applicationListeners);
+
+      // start loading bean definitions ; publish loading bean definition event
+      publishEvent(new BeanDefinitionLoadingEvent(this, candidates)); // first event
+      final Map<String, BeanDefinition> registered = new HashMap<>(beanFactory.getBeanDefinitions());
+      loadBeanDefinitions(beanFactory, candidates);
+      if (fingerprint != null) {
+        createBeanDefinitionSnapshot(beanFactory, fingerprint, candidates, registered);
+      }
+    }
     // bean definitions loaded
     publishEvent(new BeanDefinitionLoadedEvent(this, beanFactory.getBeanDefinitions()));
     // handle dependency : register bean dependencies definition
@@ -267,6 +330,123 @@ public abstract class AbstractApplicationContext implements ConfigurableApplicat
 
   }
 
+  /**
+   * Get the bean definition snapshot file configured by
+   * {@link Constant#BEAN_DEFINITION_SNAPSHOT}
+   *
+   * @return snapshot file, {@code null} if snapshots are disabled
+   *
+   * @since 3.0.3
+   */
+  protected File getBeanDefinitionSnapshotFile() {
+    final String location = getEnvironment().getProperty(Constant.BEAN_DEFINITION_SNAPSHOT);
+    return StringUtils.isEmpty(location) ? null : new File(location);
+  }
+
+  /**
+   * Restore bean definitions from the snapshot file, skipping component
+   * scanning and bean definition loading
+   *
+   * @return if the bean definitions have been restored, {@code false} if there
+   * is no snapshot or it was created from another class path or properties
+   *
+   * @since 3.0.3
+   */
+  protected boolean restoreBeanDefinitions(AbstractBeanFactory beanFactory, File snapshotFile, byte[] fingerprint) {
+    if (!snapshotFile.isFile()) {
+      return false;
+    }
+    final Set<Class<?>> listeners;
+    final List<BeanDefinition> definitions;
+    try (final InputStream input = new BufferedInputStream(new FileInputStream(snapshotFile))) {
+      final BeanDefinitionSnapshot snapshot = BeanDefinitionSnapshot.readFrom(input);
+      if (snapshot == null || !snapshot.matches(fingerprint)) {
+        log.info("Bean definition snapshot [{}] is out of date", snapshotFile);
+        return false;
+      }
+      listeners = snapshot.getListeners();
+      definitions = snapshot.getBeanDefinitions(beanFactory);
+    }
+    catch (IOException | ReflectiveOperationException e) {
+      log.warn("Cannot restore bean definition snapshot [" + snapshotFile + "]", e);
+      return false;
+    }
+    log.info("Restoring [{}] bean definitions from snapshot [{}]", definitions.size(), snapshotFile);
+    registerListener(listeners, applicationListeners);
+
+    final LinkedHashSet<Class<?>> candidates = new LinkedHashSet<>(definitions.size());
+    for (final BeanDefinition def : definitions) {
+      candidates.add(def.getBeanClass());
+    }
+    publishEvent(new BeanDefinitionLoadingEvent(this, candidates));
+    for (final BeanDefinition def : definitions) {
+      beanFactory.registerResolvedBeanDefinition(def.getName(), def);
+    }
+    return true;
+  }
+
+  /**
+   * Snapshot the bean definitions registered by loading, written to the
+   * snapshot file once the context started
+   *
+   * @param registered
+   *         bean definitions registered before loading, the ones loading
+   *         replaced are snapshot too
+   *
+   * @since 3.0.3
+   */
+  protected void createBeanDefinitionSnapshot(AbstractBeanFactory beanFactory, byte[] fingerprint,
+                                              Collection<Class<?>> candidates, Map<String, BeanDefinition> registered) {
+    final ArrayList<Class<?>> listeners = new ArrayList<>();
+    for (final Class<?> candidate : candidates) {
+      if (ClassUtils.isAnnotationPresent(candidate, EventListener.class)) {
+        listeners.add(candidate);
+      }
+    }
+    final ArrayList<BeanDefinition> loaded = new ArrayList<>();
+    for (final Map.Entry<String, BeanDefinition> entry : beanFactory.getBeanDefinitions().entrySet()) {
+      if (registered.get(entry.getKey()) != entry.getValue()) {
+        loaded.add(entry.getValue());
+      }
+    }
+    this.beanDefinitionSnapshot = BeanDefinitionSnapshot.of(fingerprint, listeners, loaded);
+    if (beanDefinitionSnapshot == null) {
+      log.info("Bean definitions of [{}] cannot be snapshot", this);
+    }
+  }
+
+  /**
+   * Write the snapshot to a temporary file which then replaces the snapshot
+   * file, so that a concurrent start never reads a partial snapshot
+   *
+   * @since 3.0.3
+   */
+  protected void writeBeanDefinitionSnapshot(BeanDefinitionSnapshot snapshot) {
+    final File snapshotFile = getBeanDefinitionSnapshotFile();
+    if (snapshotFile != null) {
+      final File parent = snapshotFile.getAbsoluteFile().getParentFile();
+      if (!parent.exists()) {
+        parent.mkdirs();
+      }
+      File tempFile = null;
+      try {
+        tempFile = File.createTempFile(snapshotFile.getName(), ".tmp", parent);
+        try (final OutputStream output = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+          snapshot.writeTo(output);
+        }
+        Files.move(tempFile.toPath(), snapshotFile.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Bean definition snapshot written to [{}]", snapshotFile);
+      }
+      catch (IOException e) {
+        log.warn("Cannot write bean definition snapshot [" + snapshotFile + "]", e);
+        if (tempFile != null) {
+          tempFile.delete();
+        }
+      }
+    }
+  }
+
   /**
    * check {@link ConfigurableEnvironment}
    */
@@ -500,7 +680,13 @@ public abstract class AbstractApplicationContext implements ConfigurableApplicat
     try {
       // refresh object instance
       publishEvent(new ContextRefreshEvent(this));
-      initializeSingletons();
+      if (getEnvironment().getFlag(Constant.ENABLE_SINGLETON_WARM_UP)) {
+        // @since 3.0.3 initialize singletons in background once started
+        this.singletonWarmUp = new SingletonWarmUp(getBeanFactory());
+      }
+      else {
+        initializeSingletons();
+      }
     }
     catch (Throwable ex) {
       ex = ExceptionUtils.unwrapThrowable(ex);
@@ -508,10 +694,115 @@ public abstract class AbstractApplicationContext implements ConfigurableApplicat
     }
   }
 
+  /**
+   * Start initializing the singletons in background
+   *
+   * @see Constant#ENABLE_SINGLETON_WARM_UP
+   * @since 3.0.3
+   */
+  protected void startSingletonWarmUp(SingletonWarmUp warmUp) {
+    final GeneratedClassScope scope = generatedClassScope;
+    final Runnable task = scope != null ? () -> scope.run(warmUp) : warmUp;
+    final Thread thread = new Thread(task, "singleton-warm-up");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Get the background initialization of singletons
+   *
+   * @return {@code null} if singletons are initialized on refresh
+   *
+   * @see Constant#ENABLE_SINGLETON_WARM_UP
+   * @since 3.0.3
+   */
+  public SingletonWarmUp getSingletonWarmUp() {
+    return singletonWarmUp;
+  }
+
+  /**
+   * Watch the properties files and rebind the changed properties
+   *
+   * @see Constant#ENABLE_PROPERTIES_WATCH
+   * @since 3.0.3
+   */
+  public synchronized void startPropertiesWatcher() {
+    if (propertiesWatcher == null) {
+      propertiesWatcher = new PropertiesWatcher(this);
+    }
+    try {
+      propertiesWatcher.start();
+    }
+    catch (IOException e) {
+      throw new ContextException("Can't watch the properties resources", e);
+    }
+  }
+
+  /**
+   * @since 3.0.3
+   */
+  public PropertiesWatcher getPropertiesWatcher() {
+    return propertiesWatcher;
+  }
+
+  /**
+   * Return the scope of the classes generated while loading this context,
+   * creating it if {@link Constant#ENABLE_GENERATED_CLASS_SCOPE} is set
+   *
+   * @return {@code null} if generated classes are not scoped
+   *
+   * @since 3.0.3
+   */
+  protected GeneratedClassScope obtainGeneratedClassScope() {
+    if (generatedClassScope == null && getEnvironment().getFlag(Constant.ENABLE_GENERATED_CLASS_SCOPE)) {
+      generatedClassScope = new GeneratedClassScope(toString());
+    }
+    return generatedClassScope;
+  }
+
+  /**
+   * Set the scope of the classes generated while loading this context.
+   * The scope is closed with this context.
+   *
+   * @since 3.0.3
+   */
+  public void setGeneratedClassScope(GeneratedClassScope generatedClassScope) {
+    this.generatedClassScope = generatedClassScope;
+  }
+
+  /**
+   * @return the scope of the classes generated while loading this context,
+   * or {@code null}
+   *
+   * @since 3.0.3
+   */
+  public GeneratedClassScope getGeneratedClassScope() {
+    return generatedClassScope;
+  }
+
   @Override
   public void close() {
     applyState(State.CLOSING);
+    if (propertiesWatcher != null) {
+      propertiesWatcher.stop();
+    }
+    if (singletonWarmUp != null) {
+      singletonWarmUp.cancel();
+      if (singletonWarmUp.isStarted()) {
+        // wait for the singleton in progress
+        try {
+          singletonWarmUp.await(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
     publishEvent(new ContextCloseEvent(this));
+    if (generatedClassScope != null) {
+      generatedClassScope.close();
+    }
+    JarFileCache.getSharedInstance().clear();
     applyState(State.CLOSED);
   }
 
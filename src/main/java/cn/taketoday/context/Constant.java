@@ -125,6 +125,16 @@ public interface Constant extends Opcodes, Serializable {
     //@since 2.1.6
     String	ENABLE_FULL_PROTOTYPE	= "enable.full.prototype";
     String	ENABLE_FULL_LIFECYCLE	= "enable.full.lifecycle";
+    //@since 3.0.3 watch properties files and rebind the changed properties
+    String	ENABLE_PROPERTIES_WATCH	= "enable.properties.watch";
+    //@since 3.0.3 define generated classes into a loader dropped on close
+    String	ENABLE_GENERATED_CLASS_SCOPE	= "enable.generated.class.scope";
+    //@since 3.0.3 file of the bean definition snapshot, restored when the class path is unchanged
+    String	BEAN_DEFINITION_SNAPSHOT	= "bean.definition.snapshot";
+    //@since 3.0.3 report started before singletons are created, create them in background
+    String	ENABLE_SINGLETON_WARM_UP	= "enable.singleton.warm.up";
+    //@since 3.0.3 prepare the metadata of many candidates in parallel before registering them
+    String	ENABLE_PARALLEL_LOADING	= "enable.parallel.loading";
     String[]  EMPTY_STRING_ARRAY	= new String[0];
     String  CONSTRUCTOR_NAME 		= "<init>";
     String  STATIC_CLASS_INIT 		= STATIC_NAME;
@@ -0,0 +1,271 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.cglib.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import cn.taketoday.context.asm.ClassVisitor;
+import cn.taketoday.context.asm.Type;
+import cn.taketoday.context.cglib.core.AbstractClassGenerator;
+import cn.taketoday.context.cglib.core.CglibReflectUtils;
+import cn.taketoday.context.cglib.core.ClassEmitter;
+import cn.taketoday.context.cglib.core.CodeEmitter;
+import cn.taketoday.context.cglib.core.EmitUtils;
+import cn.taketoday.context.cglib.core.KeyFactory;
+import cn.taketoday.context.cglib.core.Local;
+import cn.taketoday.context.cglib.core.MethodInfo;
+import cn.taketoday.context.cglib.core.Signature;
+import cn.taketoday.context.cglib.core.TypeUtils;
+import cn.taketoday.context.utils.GenericDescriptor;
+import cn.taketoday.context.utils.ReflectionUtils;
+
+import static cn.taketoday.context.Constant.SOURCE_FILE;
+import static cn.taketoday.context.Constant.TYPE_OBJECT;
+import static cn.taketoday.context.asm.Opcodes.ACC_PUBLIC;
+import static cn.taketoday.context.asm.Opcodes.JAVA_VERSION;
+
+/**
+ * Generated property mapper from a source class to a target class.
+ * <p>
+ * The mapping plan is compiled once per (source, target) pair: every target
+ * setter is paired with the source getter of the same name, or of the name
+ * given by {@link MapFrom} on the target field or setter. A property whose
+ * getter type is assignable to the setter type, with the same generic
+ * signature, is copied with a straight {@code target.setX(source.getX())}
+ * call. Any other property is passed through
+ * {@link ObjectMapper#convert(Object, GenericDescriptor)}, which maps nested
+ * beans, collections, maps and arrays element-wise and delegates the rest to
+ * the {@link cn.taketoday.context.conversion.ConversionService}.
+ *
+ * @author TODAY 2021/3/25 10:20
+ * @see ObjectMapper
+ * @see BeanCopier
+ * @since 3.0.3
+ */
+@SuppressWarnings("all")
+public abstract class BeanMapper {
+
+  private static final Type OBJECT_MAPPER = TypeUtils.parseType(ObjectMapper.class);
+  private static final Type BEAN_MAPPER = TypeUtils.parseType(BeanMapper.class);
+
+  private static final BeanMapperKey KEY_FACTORY = (BeanMapperKey) KeyFactory.create(BeanMapperKey.class);
+
+  private static final Signature MAP = new Signature("map", Type.VOID_TYPE, //
+                                                     Type.array(TYPE_OBJECT, TYPE_OBJECT, OBJECT_MAPPER));
+
+  private static final Signature CONVERT = new Signature("convert", TYPE_OBJECT, //
+                                                         Type.array(OBJECT_MAPPER, TYPE_OBJECT, Type.INT_TYPE));
+
+  /** target types of the converted properties, in generated order */
+  private GenericDescriptor[] descriptors;
+
+  interface BeanMapperKey {
+    public Object newInstance(String source, String target);
+  }
+
+  public static BeanMapper create(Class source, Class target) {
+    return new Generator(source, target).create();
+  }
+
+  /**
+   * Map the properties of {@code from} onto {@code to}
+   *
+   * @param from
+   *         source object
+   * @param to
+   *         target object
+   * @param mapper
+   *         engine used for the properties that are not directly assignable
+   */
+  public abstract void map(Object from, Object to, ObjectMapper mapper);
+
+  /**
+   * Called by the generated code for each converted property
+   */
+  protected final Object convert(ObjectMapper mapper, Object value, int index) {
+    return mapper.convert(value, descriptors[index]);
+  }
+
+  /**
+   * One target property of the mapping plan
+   */
+  static final class MappedProperty {
+    final Method readMethod;
+    final Method writeMethod;
+    final boolean direct;
+
+    MappedProperty(Method readMethod, Method writeMethod) {
+      this.readMethod = readMethod;
+      this.writeMethod = writeMethod;
+      this.direct = isDirect(readMethod, writeMethod);
+    }
+
+    static boolean isDirect(Method readMethod, Method writeMethod) {
+      final Class<?> setterType = writeMethod.getParameterTypes()[0];
+      if (!setterType.isAssignableFrom(readMethod.getReturnType())) {
+        return false;
+      }
+      final java.lang.reflect.Type setterGenericType = writeMethod.getGenericParameterTypes()[0];
+      return setterGenericType instanceof Class
+              || setterGenericType.equals(readMethod.getGenericReturnType());
+    }
+  }
+
+  public static class Generator extends AbstractClassGenerator {
+
+    private final Class source;
+    private final Class target;
+    private List<MappedProperty> properties;
+
+    public Generator(Class source, Class target) {
+      super(BeanMapper.class);
+
+      if (!Modifier.isPublic(source.getModifiers())) {
+        setNamePrefix(source.getName());
+      }
+
+      if (!Modifier.isPublic(target.getModifiers())) {
+        setNamePrefix(target.getName());
+      }
+
+      this.source = source;
+      this.target = target;
+    }
+
+    @Override
+    protected ClassLoader getDefaultClassLoader() {
+      return source.getClassLoader();
+    }
+
+    @Override
+    protected ProtectionDomain getProtectionDomain() {
+      return CglibReflectUtils.getProtectionDomain(source);
+    }
+
+    public BeanMapper create() {
+      return (BeanMapper) super.create(KEY_FACTORY.newInstance(source.getName(), target.getName()));
+    }
+
+    /**
+     * Compile the mapping plan
+     */
+    protected List<MappedProperty> getProperties() {
+      if (properties == null) {
+        final Map<String, PropertyDescriptor> getters = new HashMap<>();
+        for (final PropertyDescriptor getter : CglibReflectUtils.getBeanGetters(source)) {
+          getters.put(getter.getName(), getter);
+        }
+        final ArrayList<MappedProperty> properties = new ArrayList<>();
+        for (final PropertyDescriptor setter : CglibReflectUtils.getBeanSetters(target)) {
+          final PropertyDescriptor getter = getters.get(getSourceName(setter));
+          if (getter != null) {
+            properties.add(new MappedProperty(getter.getReadMethod(), setter.getWriteMethod()));
+          }
+        }
+        this.properties = properties;
+      }
+      return properties;
+    }
+
+    private String getSourceName(PropertyDescriptor setter) {
+      MapFrom mapFrom = setter.getWriteMethod().getAnnotation(MapFrom.class);
+      if (mapFrom == null) {
+        final Field field = ReflectionUtils.findField(target, setter.getName());
+        if (field != null) {
+          mapFrom = field.getAnnotation(MapFrom.class);
+        }
+      }
+      return mapFrom != null ? mapFrom.value() : setter.getName();
+    }
+
+    @Override
+    public void generateClass(ClassVisitor v) {
+      Type sourceType = Type.getType(source);
+      Type targetType = Type.getType(target);
+      ClassEmitter ce = new ClassEmitter(v);
+
+      ce.beginClass(JAVA_VERSION, ACC_PUBLIC, getClassName(), BEAN_MAPPER, null, SOURCE_FILE);
+
+      EmitUtils.nullConstructor(ce);
+      CodeEmitter e = ce.beginMethod(ACC_PUBLIC, MAP);
+
+      Local targetLocal = e.make_local();
+      Local sourceLocal = e.make_local();
+      e.load_arg(1);
+      e.checkcast(targetType);
+      e.store_local(targetLocal);
+      e.load_arg(0);
+      e.checkcast(sourceType);
+      e.store_local(sourceLocal);
+
+      int index = 0;
+      for (final MappedProperty property : getProperties()) {
+        MethodInfo read = CglibReflectUtils.getMethodInfo(property.readMethod);
+        MethodInfo write = CglibReflectUtils.getMethodInfo(property.writeMethod);
+        e.load_local(targetLocal);
+        if (property.direct) {
+          e.load_local(sourceLocal);
+          e.invoke(read);
+        }
+        else {
+          Type setterType = write.getSignature().getArgumentTypes()[0];
+          e.load_this();
+          e.load_arg(2);
+          e.load_local(sourceLocal);
+          e.invoke(read);
+          e.box(read.getSignature().getReturnType());
+          e.push(index++);
+          e.invoke_virtual(BEAN_MAPPER, CONVERT);
+          e.unbox_or_zero(setterType);
+        }
+        e.invoke(write);
+      }
+      e.return_value();
+      e.end_method();
+      ce.endClass();
+    }
+
+    @Override
+    protected Object firstInstance(Class type) {
+      final BeanMapper mapper = (BeanMapper) CglibReflectUtils.newInstance(type);
+      final ArrayList<GenericDescriptor> descriptors = new ArrayList<>();
+      for (final MappedProperty property : getProperties()) {
+        if (!property.direct) {
+          descriptors.add(GenericDescriptor.ofParameter(property.writeMethod, 0));
+        }
+      }
+      mapper.descriptors = descriptors.toArray(new GenericDescriptor[descriptors.size()]);
+      return mapper;
+    }
+
+    @Override
+    protected Object nextInstance(Object instance) {
+      return instance;
+    }
+  }
+}
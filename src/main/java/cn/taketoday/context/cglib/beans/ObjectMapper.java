@@ -0,0 +1,231 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.cglib.beans;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.taketoday.context.conversion.ConversionService;
+import cn.taketoday.context.conversion.support.DefaultConversionService;
+import cn.taketoday.context.reflect.ConstructorAccessor;
+import cn.taketoday.context.utils.Assert;
+import cn.taketoday.context.utils.ClassUtils;
+import cn.taketoday.context.utils.CollectionUtils;
+import cn.taketoday.context.utils.GenericDescriptor;
+import cn.taketoday.context.utils.ReflectionUtils;
+
+/**
+ * Deep object mapping engine built on generated {@link BeanMapper}s.
+ * <p>
+ * Nested beans are mapped recursively, collections, maps and arrays are
+ * rebuilt element by element in the declared target element type, and other
+ * type mismatches are delegated to the {@link ConversionService}. Object
+ * graphs with cycles are not supported.
+ *
+ * <pre>
+ * ObjectMapper mapper = new ObjectMapper();
+ * UserDto dto = mapper.map(user, UserDto.class);
+ * </pre>
+ *
+ * @author TODAY 2021/3/25 10:40
+ * @see BeanMapper
+ * @see MapFrom
+ * @since 3.0.3
+ */
+public class ObjectMapper {
+
+  private static final ClassValue<ConcurrentHashMap<Class<?>, BeanMapper>> beanMappers = new ClassValue<ConcurrentHashMap<Class<?>, BeanMapper>>() {
+    @Override
+    protected ConcurrentHashMap<Class<?>, BeanMapper> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  private static final ClassValue<ConstructorAccessor> constructors = new ClassValue<ConstructorAccessor>() {
+    @Override
+    protected ConstructorAccessor computeValue(Class<?> type) {
+      return ReflectionUtils.newConstructorAccessor(type);
+    }
+  };
+
+  private final ConversionService conversionService;
+
+  public ObjectMapper() {
+    this(DefaultConversionService.getSharedInstance());
+  }
+
+  public ObjectMapper(ConversionService conversionService) {
+    Assert.notNull(conversionService, "conversionService must not be null");
+    this.conversionService = conversionService;
+  }
+
+  /**
+   * Map the given source to a new instance of the target class
+   *
+   * @param source
+   *         source object, may be {@code null}
+   * @param targetClass
+   *         target class, must have a default constructor
+   *
+   * @return a new target instance or {@code null} if the source is {@code null}
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T map(Object source, Class<T> targetClass) {
+    Assert.notNull(targetClass, "targetClass must not be null");
+    if (source == null) {
+      return null;
+    }
+    final Object target = constructors.get(targetClass).newInstance();
+    getBeanMapper(source.getClass(), targetClass).map(source, target, this);
+    return (T) target;
+  }
+
+  /**
+   * Map the properties of the given source onto an existing target
+   */
+  public void map(Object source, Object target) {
+    Assert.notNull(source, "source must not be null");
+    Assert.notNull(target, "target must not be null");
+    getBeanMapper(source.getClass(), target.getClass()).map(source, target, this);
+  }
+
+  /**
+   * Convert a property value to the given target type
+   *
+   * @param value
+   *         property value, may be {@code null}
+   * @param targetType
+   *         declared type of the target property
+   *
+   * @return converted value
+   */
+  public Object convert(Object value, GenericDescriptor targetType) {
+    if (value == null) {
+      return null;
+    }
+    if (targetType.isArray()) {
+      if (value instanceof Collection || value.getClass().isArray()) {
+        return toArray(value, targetType);
+      }
+    }
+    else if (targetType.isCollection()) {
+      if (value instanceof Collection || value.getClass().isArray()) {
+        return toCollection(value, targetType);
+      }
+    }
+    else if (targetType.isMap()) {
+      if (value instanceof Map) {
+        return toMap((Map<?, ?>) value, targetType);
+      }
+    }
+    else if (targetType.isInstance(value)) {
+      return value;
+    }
+    else if (isBean(targetType.getType()) && isBean(value.getClass())) {
+      return map(value, targetType.getType());
+    }
+    return conversionService.convert(value, targetType);
+  }
+
+  protected Object toArray(Object value, GenericDescriptor targetType) {
+    final GenericDescriptor elementType = targetType.getElementDescriptor();
+    if (value instanceof Collection) {
+      final Collection<?> collection = (Collection<?>) value;
+      final Object array = Array.newInstance(targetType.getComponentType(), collection.size());
+      int i = 0;
+      for (final Object element : collection) {
+        Array.set(array, i++, convertElement(element, elementType));
+      }
+      return array;
+    }
+    final int length = Array.getLength(value);
+    final Object array = Array.newInstance(targetType.getComponentType(), length);
+    for (int i = 0; i < length; i++) {
+      Array.set(array, i, convertElement(Array.get(value, i), elementType));
+    }
+    return array;
+  }
+
+  protected Collection<Object> toCollection(Object value, GenericDescriptor targetType) {
+    final GenericDescriptor elementType = targetType.getElementDescriptor();
+    if (value instanceof Collection) {
+      final Collection<?> source = (Collection<?>) value;
+      final Collection<Object> ret = CollectionUtils.createCollection(
+              targetType.getType(), elementType != null ? elementType.getType() : null, source.size());
+      for (final Object element : source) {
+        ret.add(convertElement(element, elementType));
+      }
+      return ret;
+    }
+    final int length = Array.getLength(value);
+    final Collection<Object> ret = CollectionUtils.createCollection(
+            targetType.getType(), elementType != null ? elementType.getType() : null, length);
+    for (int i = 0; i < length; i++) {
+      ret.add(convertElement(Array.get(value, i), elementType));
+    }
+    return ret;
+  }
+
+  protected Map<Object, Object> toMap(Map<?, ?> value, GenericDescriptor targetType) {
+    final GenericDescriptor keyType = targetType.getMapKeyGenericDescriptor();
+    final GenericDescriptor valueType = targetType.getMapValueGenericDescriptor();
+    final Map<Object, Object> ret = CollectionUtils.createMap(
+            targetType.getType(), keyType != null ? keyType.getType() : null, value.size());
+    for (final Map.Entry<?, ?> entry : value.entrySet()) {
+      ret.put(convertElement(entry.getKey(), keyType), convertElement(entry.getValue(), valueType));
+    }
+    return ret;
+  }
+
+  private Object convertElement(Object element, GenericDescriptor elementType) {
+    return elementType == null ? element : convert(element, elementType);
+  }
+
+  /**
+   * Whether the given type is mapped property by property
+   */
+  protected boolean isBean(Class<?> type) {
+    if (type.isPrimitive()
+            || type.isArray()
+            || type.isEnum()
+            || type.isInterface()
+            || ClassUtils.isSimpleType(type)
+            || Collection.class.isAssignableFrom(type)
+            || Map.class.isAssignableFrom(type)) {
+      return false;
+    }
+    final String name = type.getName();
+    return !name.startsWith("java.") && !name.startsWith("javax.");
+  }
+
+  /**
+   * Get the shared {@link BeanMapper} of the given source and target classes
+   */
+  public static BeanMapper getBeanMapper(Class<?> source, Class<?> target) {
+    return beanMappers.get(target).computeIfAbsent(source, s -> BeanMapper.create(s, target));
+  }
+
+  public final ConversionService getConversionService() {
+    return conversionService;
+  }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.cglib.beans;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * Read-only {@link Map} view of the readable properties of a bean.
+ * <p>
+ * Each lookup is a call on a generated {@link BeanMap} shared per bean class,
+ * so nothing is copied and no reflection is used per access. Writes throw
+ * {@link UnsupportedOperationException}.
+ *
+ * <pre>
+ * Map&lt;String, Object&gt; view = ReadOnlyBeanMap.of(user);
+ * Object name = view.get("name");
+ * </pre>
+ *
+ * @author TODAY 2021/3/26 10:10
+ * @see BeanMap
+ * @since 3.0.3
+ */
+public final class ReadOnlyBeanMap extends AbstractMap<String, Object> {
+
+  private static final ClassValue<BeanMap> beanMaps = new ClassValue<BeanMap>() {
+    @Override
+    protected BeanMap computeValue(Class<?> type) {
+      final BeanMap.Generator generator = new BeanMap.Generator();
+      generator.setBeanClass(type);
+      generator.setRequire(BeanMap.REQUIRE_GETTER);
+      return generator.create();
+    }
+  };
+
+  private final Object bean;
+  private final BeanMap beanMap;
+  private EntrySet entrySet;
+
+  private ReadOnlyBeanMap(Object bean, BeanMap beanMap) {
+    this.bean = bean;
+    this.beanMap = beanMap;
+  }
+
+  /**
+   * Create a read-only view of the given bean
+   */
+  public static ReadOnlyBeanMap of(Object bean) {
+    Assert.notNull(bean, "bean must not be null");
+    return new ReadOnlyBeanMap(bean, beanMaps.get(bean.getClass()));
+  }
+
+  @Override
+  public Object get(Object key) {
+    return beanMap.get(bean, key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return beanMap.keySet().contains(key);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Set<String> keySet() {
+    return beanMap.keySet();
+  }
+
+  @Override
+  public int size() {
+    return beanMap.keySet().size();
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    EntrySet entrySet = this.entrySet;
+    if (entrySet == null) {
+      this.entrySet = entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  /**
+   * Get the type of a property.
+   *
+   * @return the type of the property, or null if the property does not exist
+   */
+  @SuppressWarnings("unchecked")
+  public Class<?> getPropertyType(String name) {
+    return beanMap.getPropertyType(name);
+  }
+
+  public Object getBean() {
+    return bean;
+  }
+
+  final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+    @Override
+    public Iterator<Entry<String, Object>> iterator() {
+      final Iterator<String> keys = keySet().iterator();
+      return new Iterator<Entry<String, Object>>() {
+        @Override
+        public boolean hasNext() {
+          return keys.hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+          final String key = keys.next();
+          return new SimpleImmutableEntry<>(key, get(key));
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return ReadOnlyBeanMap.this.size();
+    }
+  }
+
+}
@@ -15,12 +15,12 @@
  */
 package cn.taketoday.context.cglib.core;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.security.ProtectionDomain;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -42,7 +42,9 @@ import static cn.taketoday.context.cglib.core.CglibReflectUtils.defineClass;
 @SuppressWarnings("all")
 public abstract class AbstractClassGenerator<T> implements ClassGenerator {
 
-  private static volatile Map<ClassLoader, ClassLoaderData> CACHE = new WeakHashMap<>();
+  /** weakly keyed by class loader, lookups and inserts never take a global lock */
+  private static final ConcurrentHashMap<Object, ClassLoaderData> CACHE = new ConcurrentHashMap<>();
+  private static final ReferenceQueue<ClassLoader> STALE_LOADERS = new ReferenceQueue<>();
   private static final ThreadLocal<AbstractClassGenerator> CURRENT = new ThreadLocal<>();
 
   private GeneratorStrategy strategy = DefaultGeneratorStrategy.INSTANCE;
@@ -58,7 +60,7 @@ public abstract class AbstractClassGenerator<T> implements ClassGenerator {
 
   protected static class ClassLoaderData {
 
-    private final Set<String> reservedClassNames = new HashSet<>();
+    private final Set<String> reservedClassNames = ConcurrentHashMap.newKeySet();
 
     /**
      * {@link AbstractClassGenerator} here holds "cache key" (e.g.
@@ -78,11 +80,9 @@ public abstract class AbstractClassGenerator<T> implements ClassGenerator {
     private final LoadingCache<AbstractClassGenerator, Object, Object> generatedClasses;
 
     /**
-     * Note: ClassLoaderData object is stored as a value of
-     * {@code WeakHashMap<ClassLoader, ...>} thus this classLoader reference should
-     * be weak otherwise it would make classLoader strongly reachable and alive
-     * forever. Reference queue is not required since the cleanup is handled by
-     * {@link WeakHashMap}.
+     * Note: ClassLoaderData object is stored as a value of a map weakly keyed
+     * by the class loader thus this classLoader reference should be weak
+     * otherwise it would make classLoader strongly reachable and alive forever.
      */
     private final WeakReference<ClassLoader> classLoader;
 
@@ -99,8 +99,13 @@ public abstract class AbstractClassGenerator<T> implements ClassGenerator {
       return classLoader.get();
     }
 
-    public void reserveName(String name) {
-      reservedClassNames.add(name);
+    /**
+     * Reserve a generated class name
+     *
+     * @return {@code false} if the name has already been reserved
+     */
+    public boolean reserveName(String name) {
+      return reservedClassNames.add(name);
     }
 
     public Predicate getUniqueNamePredicate() {
@@ -157,8 +162,8 @@ public abstract class AbstractClassGenerator<T> implements ClassGenerator {
    * <code>Enhancer</code>) will try to choose an appropriate default if this is
    * unset.
    * <p>
-   * Classes are cached per-<code>ClassLoader</code> using a
-   * <code>WeakHashMap</code>, to allow the generated classes to be removed when
+   * Classes are cached per-<code>ClassLoader</code> using a weakly keyed
+   * concurrent map, to allow the generated classes to be removed when
    * the associated loader is garbage collected.
    *
    * @param classLoader
@@ -257,6 +262,20 @@ public abstract class AbstractClassGenerator<T> implements ClassGenerator {
 
   abstract protected ClassLoader getDefaultClassLoader();
 
+  /**
+   * Whether the generated class can be defined into the loader of the
+   * {@link GeneratedClassScope} bound to the current thread, instead of the
+   * {@link #getClassLoader() class loader}. Only used when no class loader has
+   * been set explicitly, or a default one. Default is {@code false}.
+   *
+   * @see GeneratedClassScope#isDefinable(Class)
+   * @see GeneratedClassScope#isReplaceable(ClassLoader)
+   * @since 3.0.3
+   */
+  protected boolean isDefinableInScope() {
+    return false;
+  }
+
   /**
    * Returns the protection domain to use when defining the class.
    * <p>
@@ -275,19 +294,12 @@ public abstract class AbstractClassGenerator<T> implements ClassGenerator {
     this.key = key;
 
     try {
-      final ClassLoader loader = getClassLoader();
-      ClassLoaderData data = CACHE.get(loader);
-      if (data == null) {
-        synchronized (AbstractClassGenerator.class) {
-          data = CACHE.get(loader);
-          if (data == null) {
-            Map<ClassLoader, ClassLoaderData> newCache = new WeakHashMap<>(CACHE);
-            newCache.put(loader, data = new ClassLoaderData(loader));
-            CACHE = newCache;
-          }
-        }
+      ClassLoader loader = getClassLoader();
+      final GeneratedClassScope scope = GeneratedClassScope.getCurrent();
+      if (scope != null && GeneratedClassScope.isReplaceable(classLoader) && isDefinableInScope()) {
+        loader = scope.getClassLoader(loader);
       }
-
+      final ClassLoaderData data = getClassLoaderData(loader);
       final Object obj = data.get(this, getUseCache());
       return obj instanceof Class
              ? firstInstance((Class<T>) obj)
@@ -301,6 +313,86 @@ public abstract class AbstractClassGenerator<T> implements ClassGenerator {
     }
   }
 
+  private static ClassLoaderData getClassLoaderData(final ClassLoader loader) {
+    ClassLoaderData data = CACHE.get(new LoaderLookup(loader));
+    if (data == null) {
+      expungeStaleLoaders();
+      data = CACHE.computeIfAbsent(new LoaderReference(loader, STALE_LOADERS), key -> new ClassLoaderData(loader));
+    }
+    return data;
+  }
+
+  /**
+   * Drop the cached classes generated into the given loader
+   *
+   * @see GeneratedClassScope#close()
+   * @since 3.0.3
+   */
+  public static void clearCache(ClassLoader loader) {
+    CACHE.remove(new LoaderLookup(loader));
+  }
+
+  private static void expungeStaleLoaders() {
+    Reference<? extends ClassLoader> reference;
+    while ((reference = STALE_LOADERS.poll()) != null) {
+      CACHE.remove(reference);
+    }
+  }
+
+  /**
+   * Weak map key of a class loader, equal to the keys and the {@link LoaderLookup}
+   * of the same loader while the loader is alive
+   */
+  static final class LoaderReference extends WeakReference<ClassLoader> {
+    private final int hash;
+
+    LoaderReference(ClassLoader loader, ReferenceQueue<ClassLoader> queue) {
+      super(loader, queue);
+      this.hash = System.identityHashCode(loader);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      final Object loader = get();
+      if (loader == null) {
+        return false;
+      }
+      if (obj instanceof LoaderLookup) {
+        return ((LoaderLookup) obj).loader == loader;
+      }
+      return obj instanceof LoaderReference && ((LoaderReference) obj).get() == loader;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Allocation-cheap strong lookup key of a class loader
+   */
+  static final class LoaderLookup {
+    private final ClassLoader loader;
+
+    LoaderLookup(ClassLoader loader) {
+      this.loader = loader;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof LoaderReference && ((LoaderReference) obj).get() == loader;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(loader);
+    }
+  }
+
   protected Class generate(ClassLoaderData data) {
 
     AbstractClassGenerator save = CURRENT.get();
@@ -314,22 +406,25 @@ public abstract class AbstractClassGenerator<T> implements ClassGenerator {
     }
 
     try {
-      synchronized (classLoader) {
-        String name = generateClassName(data.getUniqueNamePredicate());
-        data.reserveName(name);
-        this.setClassName(name);
+      String name;
+      do {
+        name = generateClassName(data.getUniqueNamePredicate());
       }
+      while (!data.reserveName(name)); // another thread took it
+      this.setClassName(name);
+
       if (isAttemptLoad()) {
         try {
           return classLoader.loadClass(getClassName());
         }
         catch (ClassNotFoundException ignored) { }
       }
+      final long start = System.nanoTime();
       final byte[] bytes = getStrategy().generate(this);
-      final String className = getClassName();
-      synchronized (classLoader) { // just in case
-        return defineClass(className, bytes, classLoader, getProtectionDomain());
-      }
+      // names are unique, the JVM serializes defining in non parallel capable loaders
+      final Class generated = defineClass(name, bytes, classLoader, getProtectionDomain());
+      GenerationStatistics.record(getClass(), System.nanoTime() - start);
+      return generated;
     }
     catch (RuntimeException | Error e) {
       throw e;
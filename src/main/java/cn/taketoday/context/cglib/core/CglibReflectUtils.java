@@ -392,7 +392,11 @@ public abstract class CglibReflectUtils {
           String className, byte[] bytes, ClassLoader loader, ProtectionDomain protection) throws Exception //
   {
     try {
-      return (Class<T>) defineClass.invoke(loader, className, bytes, 0, bytes.length, protection);
+      final Class<T> ret = (Class<T>) defineClass.invoke(loader, className, bytes, 0, bytes.length, protection);
+      if (loader instanceof GeneratedClassLoader) {
+        ((GeneratedClassLoader) loader).classDefined(className, bytes.length);
+      }
+      return ret;
     }
     catch (IllegalAccessException | InvocationTargetException e) {
       throw new ReflectionException("defineClass failed", e);
@@ -0,0 +1,90 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.cglib.core;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Child {@link ClassLoader} that generated classes of a
+ * {@link GeneratedClassScope} are defined into. It loads nothing itself and
+ * delegates to its parent, so once the scope is closed and its generated
+ * classes and instances are unreachable, the loader and all its classes can
+ * be unloaded.
+ *
+ * @author TODAY 2021/3/29 10:10
+ * @see GeneratedClassScope
+ * @since 3.0.3
+ */
+public final class GeneratedClassLoader extends ClassLoader {
+
+  static {
+    registerAsParallelCapable();
+  }
+
+  private final GeneratedClassScope scope;
+  /** class name to bytecode size */
+  private final ConcurrentHashMap<String, Integer> definedClasses = new ConcurrentHashMap<>();
+
+  GeneratedClassLoader(ClassLoader parent, GeneratedClassScope scope) {
+    super(parent);
+    this.scope = scope;
+  }
+
+  void classDefined(String className, int bytecodeSize) {
+    definedClasses.put(className, bytecodeSize);
+  }
+
+  /**
+   * Return the names of the classes defined into this loader
+   */
+  public Set<String> getDefinedClassNames() {
+    return Collections.unmodifiableSet(definedClasses.keySet());
+  }
+
+  /**
+   * Return the number of classes defined into this loader
+   */
+  public int getClassCount() {
+    return definedClasses.size();
+  }
+
+  /**
+   * Return the total bytecode size in bytes of the classes defined into this loader
+   */
+  public long getBytecodeSize() {
+    long size = 0;
+    for (final Integer bytecodeSize : definedClasses.values()) {
+      size += bytecodeSize;
+    }
+    return size;
+  }
+
+  public GeneratedClassScope getScope() {
+    return scope;
+  }
+
+  @Override
+  public String toString() {
+    return "GeneratedClassLoader: [" + scope.getName() + "] parent: [" + getParent() + "]";
+  }
+
+}
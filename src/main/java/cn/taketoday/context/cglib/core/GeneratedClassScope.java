@@ -0,0 +1,252 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.cglib.core;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.taketoday.context.utils.Assert;
+import cn.taketoday.context.utils.ClassUtils;
+
+/**
+ * Lifecycle of generated classes.
+ * <p>
+ * While a scope is bound to the current thread, generators that support it
+ * define their classes into a {@link GeneratedClassLoader} of this scope, a
+ * child of the class loader they would use otherwise, and cache them in this
+ * scope instead of the global caches. {@link #close()} drops those caches and
+ * loaders so every class generated in the scope becomes eligible for
+ * unloading once its instances are gone.
+ * <p>
+ * A class loaded by another loader can not access the package-private members
+ * of its superclass, so only classes whose generated code needs public and
+ * protected members only are defined into the scope, see
+ * {@link #isDefinable(Class)}. The others are generated as usual.
+ *
+ * <pre>
+ * GeneratedClassScope scope = new GeneratedClassScope("tenant-1");
+ * scope.run(() -&gt; ... create proxies ...);
+ * scope.close(); // generated classes can be unloaded
+ * </pre>
+ *
+ * @author TODAY 2021/3/29 10:20
+ * @see GeneratedClassLoader
+ * @see AbstractClassGenerator#isDefinableInScope()
+ * @since 3.0.3
+ */
+public class GeneratedClassScope implements AutoCloseable {
+
+  private static final ThreadLocal<GeneratedClassScope> current = new ThreadLocal<>();
+
+  private final String name;
+  private final ConcurrentHashMap<ClassLoader, GeneratedClassLoader> classLoaders = new ConcurrentHashMap<>();
+  /** generated accessors of this scope */
+  private final ConcurrentHashMap<Object, Object> accessors = new ConcurrentHashMap<>();
+  private volatile boolean closed;
+
+  public GeneratedClassScope(String name) {
+    Assert.notNull(name, "name must not be null");
+    this.name = name;
+  }
+
+  /**
+   * Return the scope bound to the current thread, or {@code null}
+   */
+  public static GeneratedClassScope getCurrent() {
+    return current.get();
+  }
+
+  /**
+   * Bind this scope to the current thread
+   *
+   * @return the previously bound scope, to be passed to {@link #restore}
+   */
+  public GeneratedClassScope bind() {
+    final GeneratedClassScope previous = current.get();
+    current.set(this);
+    return previous;
+  }
+
+  /**
+   * Restore the scope returned by {@link #bind()}
+   */
+  public static void restore(GeneratedClassScope previous) {
+    if (previous == null) {
+      current.remove();
+    }
+    else {
+      current.set(previous);
+    }
+  }
+
+  /**
+   * Run the given action with this scope bound to the current thread
+   */
+  public void run(Runnable action) {
+    final GeneratedClassScope previous = bind();
+    try {
+      action.run();
+    }
+    finally {
+      restore(previous);
+    }
+  }
+
+  /**
+   * Return the loader that classes generated for the given loader are
+   * defined into, or the given loader itself once this scope is closed
+   */
+  public ClassLoader getClassLoader(ClassLoader parent) {
+    Assert.notNull(parent, "parent ClassLoader must not be null");
+    if (closed || parent instanceof GeneratedClassLoader) {
+      return parent;
+    }
+    return classLoaders.computeIfAbsent(parent, loader -> new GeneratedClassLoader(loader, this));
+  }
+
+  /**
+   * Return the accessor generated in this scope for the given key, or {@code null}
+   */
+  public Object getAccessor(Object key) {
+    return accessors.get(key);
+  }
+
+  /**
+   * Cache the accessor generated in this scope
+   *
+   * @return the accessor cached for the key
+   */
+  public Object putAccessor(Object key, Object accessor) {
+    if (closed) {
+      return accessor;
+    }
+    final Object existing = accessors.putIfAbsent(key, accessor);
+    return existing != null ? existing : accessor;
+  }
+
+  /**
+   * Return the loaders of this scope, empty once closed
+   */
+  public List<GeneratedClassLoader> getClassLoaders() {
+    return new ArrayList<>(classLoaders.values());
+  }
+
+  /**
+   * Return the number of classes defined in this scope, 0 once closed
+   */
+  public int getClassCount() {
+    int count = 0;
+    for (final GeneratedClassLoader classLoader : classLoaders.values()) {
+      count += classLoader.getClassCount();
+    }
+    return count;
+  }
+
+  /**
+   * Return the total bytecode size in bytes of the classes defined in this
+   * scope, 0 once closed
+   */
+  public long getBytecodeSize() {
+    long size = 0;
+    for (final GeneratedClassLoader classLoader : classLoaders.values()) {
+      size += classLoader.getBytecodeSize();
+    }
+    return size;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Drop the caches and loaders of this scope. Classes generated later for
+   * this scope are defined as if no scope was bound.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (final GeneratedClassLoader classLoader : classLoaders.values()) {
+      AbstractClassGenerator.clearCache(classLoader);
+    }
+    classLoaders.clear();
+    accessors.clear();
+  }
+
+  /**
+   * Whether a class generated for the given type, such as a subclass or an
+   * accessor of it, can be defined by another class loader: the type and its
+   * superclasses are public and declare no package-private methods or
+   * constructors.
+   */
+  public static boolean isDefinable(Class<?> type) {
+    if (type == null) {
+      return true;
+    }
+    for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+      if (!Modifier.isPublic(c.getModifiers())) {
+        return false;
+      }
+      for (final Method method : c.getDeclaredMethods()) {
+        if (isPackagePrivate(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())) {
+          return false;
+        }
+      }
+      for (final Constructor<?> constructor : c.getDeclaredConstructors()) {
+        if (isPackagePrivate(constructor.getModifiers())) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Whether a generator given the class loader can define into a scope
+   * instead: no loader, or one of the default loaders that callers pass when
+   * they have no particular loader, such as {@link ClassUtils#getClassLoader()}
+   * or the thread context class loader.
+   *
+   * @param classLoader
+   *         the class loader set on a generator, may be {@code null}
+   */
+  public static boolean isReplaceable(ClassLoader classLoader) {
+    return classLoader == null
+            || classLoader == ClassUtils.getClassLoader()
+            || classLoader == Thread.currentThread().getContextClassLoader();
+  }
+
+  private static boolean isPackagePrivate(int modifiers) {
+    return (modifiers & (Modifier.PUBLIC | Modifier.PROTECTED | Modifier.PRIVATE)) == 0;
+  }
+
+  @Override
+  public String toString() {
+    return "GeneratedClassScope: [" + name + "]";
+  }
+
+}
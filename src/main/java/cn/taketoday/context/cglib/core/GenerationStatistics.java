@@ -0,0 +1,82 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.cglib.core;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.taketoday.context.utils.LatencyHistogram;
+
+/**
+ * Class generation count and time per generator type, recorded by
+ * {@link AbstractClassGenerator} for each class it generates and defines.
+ * Classes found in the cache are not counted.
+ * <p>
+ * Generator types are keyed by name so that their class loaders are not
+ * retained. Same named types of different class loaders share a histogram.
+ *
+ * @author TODAY 2021/3/28 10:30
+ * @since 3.0.3
+ */
+public final class GenerationStatistics {
+
+  private static final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+  private GenerationStatistics() { }
+
+  static void record(Class<?> generatorType, long nanos) {
+    histograms.computeIfAbsent(generatorType.getName(), name -> new LatencyHistogram()).record(nanos);
+  }
+
+  /**
+   * Return the histogram of the generation times in nanoseconds of the given
+   * generator type, or {@code null} if it generated no class yet
+   *
+   * @param generatorType
+   *         generator type such as {@code Enhancer.class}
+   */
+  public static LatencyHistogram get(Class<?> generatorType) {
+    return histograms.get(generatorType.getName());
+  }
+
+  /**
+   * Return the number of classes generated by the given generator type
+   */
+  public static long getCount(Class<?> generatorType) {
+    final LatencyHistogram histogram = histograms.get(generatorType.getName());
+    return histogram == null ? 0 : histogram.getCount();
+  }
+
+  /**
+   * Return the histograms of all generator types keyed by class name
+   */
+  public static Map<String, LatencyHistogram> getAll() {
+    return Collections.unmodifiableMap(histograms);
+  }
+
+  /**
+   * Reset all the histograms
+   */
+  public static void reset() {
+    histograms.clear();
+  }
+
+}
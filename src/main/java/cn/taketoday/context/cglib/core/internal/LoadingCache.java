@@ -78,6 +78,10 @@ public class LoadingCache<K, KK, V> {
       throw new IllegalStateException("Interrupted while loading cache item", e);
     }
     catch (ExecutionException e) {
+      if (creator) {
+        // let the next caller retry
+        map.remove(cacheKey, task);
+      }
       Throwable cause = e.getCause();
       if (cause instanceof RuntimeException) {
         throw ((RuntimeException) cause);
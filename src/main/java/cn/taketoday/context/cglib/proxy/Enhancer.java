@@ -49,6 +49,7 @@ import cn.taketoday.context.cglib.core.CodeGenerationException;
 import cn.taketoday.context.cglib.core.CglibCollectionUtils;
 import cn.taketoday.context.cglib.core.DuplicatesPredicate;
 import cn.taketoday.context.cglib.core.EmitUtils;
+import cn.taketoday.context.cglib.core.GeneratedClassScope;
 import cn.taketoday.context.cglib.core.GeneratorStrategy;
 import cn.taketoday.context.cglib.core.KeyFactory;
 import cn.taketoday.context.cglib.core.Local;
@@ -623,6 +624,21 @@ public class Enhancer extends AbstractClassGenerator<Object> {
     return super.generate(data);
   }
 
+  @Override
+  protected boolean isDefinableInScope() {
+    if (!GeneratedClassScope.isDefinable(superclass)) {
+      return false;
+    }
+    if (interfaces != null) {
+      for (final Class<?> ifc : interfaces) {
+        if (!Modifier.isPublic(ifc.getModifiers())) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
   @Override
   protected ClassLoader getDefaultClassLoader() {
     if (superclass != null) {
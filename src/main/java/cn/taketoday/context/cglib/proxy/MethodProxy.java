@@ -18,6 +18,9 @@ package cn.taketoday.context.cglib.proxy;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
 import cn.taketoday.context.cglib.core.CodeGenerationException;
 import cn.taketoday.context.cglib.core.Signature;
 import cn.taketoday.context.cglib.reflect.FastClass;
@@ -27,27 +30,39 @@ import cn.taketoday.context.cglib.reflect.FastClass;
  * {@link MethodInterceptor} objects when an intercepted method is invoked. It
  * can be used to either invoke the original method, or call the same method on
  * a different object of the same type.
+ * <p>
+ * The {@link FastClass}es are generated on the first invocation, once per
+ * enhanced class and declaring class and shared by their {@code MethodProxy}s,
+ * or in the background with {@link #setFastClassGenerator(Executor)}.
  *
  * @author TODAY <br>
  * 2019-10-21 23:49
  */
 public class MethodProxy {
 
-  private final int i1;
-  private final int i2;
-  private final FastClass f1;
-  private final FastClass f2;
+  /** @since 3.0.3 FastClasses of an enhanced class, by declaring class */
+  private static final ClassValue<ConcurrentHashMap<Class<?>, FastClassPair>> fastClassPairs
+          = new ClassValue<ConcurrentHashMap<Class<?>, FastClassPair>>() {
+    @Override
+    protected ConcurrentHashMap<Class<?>, FastClassPair> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>(4);
+    }
+  };
+
+  /** @since 3.0.3 generate FastClasses in the background */
+  private static volatile Executor fastClassGenerator;
 
   private final Signature sig1;
   private final Signature sig2;
 
-  private MethodProxy(Signature sig1, Signature sig2, int i1, int i2, FastClass f1, FastClass f2) {
+  private final FastClassPair fastClassPair;
+  /** @since 3.0.3 lazily initialized */
+  private volatile FastClassInfo fastClassInfo;
+
+  private MethodProxy(Signature sig1, Signature sig2, FastClassPair fastClassPair) {
     this.sig1 = sig1;
     this.sig2 = sig2;
-    this.f1 = f1;
-    this.f2 = f2;
-    this.i1 = i1;
-    this.i2 = i2;
+    this.fastClassPair = fastClassPair;
   }
 
   /**
@@ -58,10 +73,67 @@ public class MethodProxy {
   public static MethodProxy create(Class<?> c1, Class<?> c2, String desc, String name1, String name2) {
     final Signature sig1 = new Signature(name1, desc);
     final Signature sig2 = new Signature(name2, desc);
-    final FastClass f1 = FastClass.create(c1);
-    final FastClass f2 = FastClass.create(c2);
+    return new MethodProxy(sig1, sig2, getFastClassPair(c1, c2));
+  }
+
+  static FastClassPair getFastClassPair(final Class<?> c1, final Class<?> c2) {
+    final ConcurrentHashMap<Class<?>, FastClassPair> pairs = fastClassPairs.get(c2);
+    FastClassPair pair = pairs.get(c1);
+    if (pair == null) {
+      final FastClassPair newPair = new FastClassPair(c1, c2);
+      pair = pairs.putIfAbsent(c1, newPair);
+      if (pair == null) {
+        pair = newPair;
+        final Executor generator = fastClassGenerator;
+        if (generator != null) {
+          generator.execute(pair::init);
+        }
+      }
+    }
+    return pair;
+  }
+
+  /**
+   * Set the {@link Executor} generating the {@link FastClass}es of the
+   * enhanced classes initialized from now on in the background, so that
+   * the first invocations don't pay it. {@code null} (the default) generates
+   * them on the first invocation.
+   *
+   * @since 3.0.3
+   */
+  public static void setFastClassGenerator(Executor generator) {
+    fastClassGenerator = generator;
+  }
+
+  /**
+   * @since 3.0.3
+   */
+  public static Executor getFastClassGenerator() {
+    return fastClassGenerator;
+  }
+
+  /**
+   * Generate the {@link FastClass}es now instead of on the first invocation
+   *
+   * @since 3.0.3
+   */
+  public void init() {
+    obtainFastClassInfo();
+  }
 
-    return new MethodProxy(sig1, sig2, f1.getIndex(sig1), f2.getIndex(sig2), f1, f2);
+  private FastClassInfo obtainFastClassInfo() {
+    FastClassInfo info = fastClassInfo;
+    if (info == null) {
+      synchronized(this) {
+        info = fastClassInfo;
+        if (info == null) {
+          final FastClassPair pair = fastClassPair.init();
+          info = new FastClassInfo(pair.f1, pair.f2, pair.f1.getIndex(sig1), pair.f2.getIndex(sig2));
+          fastClassInfo = info;
+        }
+      }
+    }
+    return info;
   }
 
   /**
@@ -89,17 +161,22 @@ public class MethodProxy {
    * @see #getSuperName
    */
   public int getSuperIndex() {
-    return i2;
+    return obtainFastClassInfo().i2;
   }
 
   // For testing
   FastClass getFastClass() {
-    return f1;
+    return obtainFastClassInfo().f1;
   }
 
   // For testing
   FastClass getSuperFastClass() {
-    return f2;
+    return obtainFastClassInfo().f2;
+  }
+
+  // For testing
+  boolean isInitialized() {
+    return fastClassInfo != null;
   }
 
   /**
@@ -153,14 +230,15 @@ public class MethodProxy {
    * @see MethodInterceptor#intercept
    */
   public Object invoke(Object obj, Object[] args) throws Throwable {
+    final FastClassInfo info = obtainFastClassInfo();
     try {
-      return f1.invoke(i1, obj, args);
+      return info.f1.invoke(info.i1, obj, args);
     }
     catch (InvocationTargetException e) {
       throw e.getTargetException();
     }
     catch (IllegalArgumentException e) {
-      if (i1 < 0) {
+      if (info.i1 < 0) {
         throw new IllegalArgumentException("Protected method: " + sig1);
       }
       throw e;
@@ -184,11 +262,62 @@ public class MethodProxy {
    * @see MethodInterceptor#intercept
    */
   public Object invokeSuper(final Object obj, final Object[] args) throws Throwable {
+    final FastClassInfo info = obtainFastClassInfo();
     try {
-      return f2.invoke(i2, obj, args);
+      return info.f2.invoke(info.i2, obj, args);
     }
     catch (InvocationTargetException e) {
       throw e.getTargetException();
     }
   }
+
+  /**
+   * The FastClasses of a declaring class and of an enhanced class,
+   * generated once
+   *
+   * @since 3.0.3
+   */
+  static final class FastClassPair {
+    final Class<?> c1;
+    final Class<?> c2;
+
+    volatile FastClass f1;
+    volatile FastClass f2;
+
+    FastClassPair(Class<?> c1, Class<?> c2) {
+      this.c1 = c1;
+      this.c2 = c2;
+    }
+
+    FastClassPair init() {
+      if (f2 == null) {
+        synchronized(this) {
+          if (f2 == null) {
+            f1 = FastClass.create(c1);
+            f2 = FastClass.create(c2);
+          }
+        }
+      }
+      return this;
+    }
+  }
+
+  /**
+   * The FastClasses and the method indexes of a proxy
+   *
+   * @since 3.0.3
+   */
+  private static final class FastClassInfo {
+    final FastClass f1;
+    final FastClass f2;
+    final int i1;
+    final int i2;
+
+    FastClassInfo(FastClass f1, FastClass f2, int i1, int i2) {
+      this.f1 = f1;
+      this.f2 = f2;
+      this.i1 = i1;
+      this.i2 = i2;
+    }
+  }
 }
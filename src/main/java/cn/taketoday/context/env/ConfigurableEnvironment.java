@@ -20,9 +20,13 @@
 package cn.taketoday.context.env;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 import cn.taketoday.context.BeanNameCreator;
 import cn.taketoday.context.factory.BeanDefinitionRegistry;
+import cn.taketoday.context.io.Resource;
 import cn.taketoday.context.loader.BeanDefinitionLoader;
 import cn.taketoday.expression.ExpressionProcessor;
 
@@ -70,6 +74,47 @@ public interface ConfigurableEnvironment extends Environment {
    */
   void loadProperties() throws IOException;
 
+  /**
+   * Load the properties resources again and apply the changes to this
+   * {@code Environment}. Properties not loaded from a resource, such as
+   * system properties or the ones set with {@link #setProperty}, are kept.
+   * So are the loaded properties overridden since.
+   * <p>
+   * Does nothing by default.
+   *
+   * @return the keys which have been added, changed or removed
+   *
+   * @throws IOException
+   *         When could not access to a properties file
+   * @since 3.0.3
+   */
+  default Set<String> reloadProperties() throws IOException {
+    return Collections.emptySet();
+  }
+
+  /**
+   * Get the properties resources loaded so far
+   *
+   * @return the properties files and directories, empty by default
+   *
+   * @since 3.0.3
+   */
+  default List<Resource> getPropertiesResources() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Get the index of property keys to the bean fields bound from them
+   *
+   * @return {@link PropertyDependencyIndex}, {@code null} by default
+   * if the dependencies are not recorded
+   *
+   * @since 3.0.3
+   */
+  default PropertyDependencyIndex getPropertyDependencies() {
+    return null;
+  }
+
   /**
    * Set {@link Environment} property
    *
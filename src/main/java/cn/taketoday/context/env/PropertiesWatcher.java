@@ -0,0 +1,305 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.env;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import cn.taketoday.context.ConfigurableApplicationContext;
+import cn.taketoday.context.Constant;
+import cn.taketoday.context.event.PropertiesChangedEvent;
+import cn.taketoday.context.factory.ConfigurableBeanFactory;
+import cn.taketoday.context.factory.StandardBeanFactory;
+import cn.taketoday.context.io.Resource;
+import cn.taketoday.context.logger.Logger;
+import cn.taketoday.context.logger.LoggerFactory;
+import cn.taketoday.context.utils.Assert;
+import cn.taketoday.context.utils.ContextUtils;
+
+/**
+ * Watch the properties files of the {@link ConfigurableEnvironment} with a
+ * {@link WatchService}. When they change, the properties are reloaded, only
+ * the beans bound from the changed keys are rebound and a
+ * {@link PropertiesChangedEvent} is published. The context is never refreshed.
+ * <p>
+ * Opt-in with {@link Constant#ENABLE_PROPERTIES_WATCH}, or start it manually.
+ * Resources which are not on the file system, such as the ones in a jar,
+ * can't be watched.
+ * <p>
+ * The beans are rebound on the watcher thread, unless an {@link Executor}
+ * is set, see {@link StandardBeanFactory#rebindProperties(Set)}.
+ *
+ * @author TODAY 2021/3/23 11:40
+ * @see PropertyDependencyIndex
+ * @see StandardBeanFactory#rebindProperties(Set)
+ * @since 3.0.3
+ */
+public class PropertiesWatcher implements Runnable {
+  private static final Logger log = LoggerFactory.getLogger(PropertiesWatcher.class);
+
+  private final ConfigurableApplicationContext context;
+
+  /** wait for the other changes of a save before reloading */
+  private long delay = 200;
+  /** rebinds the beans, the watcher thread if null */
+  private volatile Executor executor;
+  private final Object reloadMonitor = new Object();
+
+  private WatchService watchService;
+  private Thread thread;
+
+  public PropertiesWatcher(ConfigurableApplicationContext context) {
+    Assert.notNull(context, "ApplicationContext must not be null");
+    this.context = context;
+  }
+
+  /**
+   * Watch the directories of the properties resources
+   *
+   * @throws IOException
+   *         if the watch service can't be created
+   */
+  public synchronized void start() throws IOException {
+    if (thread != null) {
+      return;
+    }
+    final WatchService watchService = FileSystems.getDefault().newWatchService();
+    for (final Resource resource : context.getEnvironment().getPropertiesResources()) {
+      final File file;
+      try {
+        file = resource.getFile();
+      }
+      catch (IOException | UnsupportedOperationException e) {
+        log.debug("Properties resource: [{}] is not a file, can't be watched", resource);
+        continue;
+      }
+      if (file.isDirectory()) {
+        register(file.toPath(), watchService);
+      }
+      else {
+        final File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+          parent.toPath().register(watchService, kinds());
+        }
+      }
+    }
+    this.watchService = watchService;
+    final Thread thread = new Thread(this, "properties-watcher");
+    thread.setDaemon(true);
+    thread.start();
+    this.thread = thread;
+    log.info("Watching properties resources for changes");
+  }
+
+  private static void register(final Path directory, final WatchService watchService) throws IOException {
+    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+        dir.register(watchService, kinds());
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  private static WatchEvent.Kind<?>[] kinds() {
+    return new WatchEvent.Kind<?>[] {
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_DELETE
+    };
+  }
+
+  /**
+   * Stop watching
+   */
+  public synchronized void stop() {
+    final Thread thread = this.thread;
+    if (thread != null) {
+      this.thread = null;
+      try {
+        watchService.close();
+      }
+      catch (IOException e) {
+        log.warn("Can't close the properties watch service", e);
+      }
+      thread.interrupt();
+    }
+  }
+
+  public synchronized boolean isRunning() {
+    return thread != null;
+  }
+
+  @Override
+  public void run() {
+    final WatchService watchService = this.watchService;
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        WatchKey key = watchService.take();
+        boolean changed = false;
+        do {
+          for (final WatchEvent<?> event : key.pollEvents()) {
+            final Object context = event.context();
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || (context instanceof Path && context.toString().endsWith(Constant.PROPERTIES_SUFFIX))) {
+              changed = true;
+            }
+          }
+          key.reset();
+          // coalesce the events of one save
+        } while ((key = watchService.poll(delay, TimeUnit.MILLISECONDS)) != null);
+
+        if (changed) {
+          final Executor executor = this.executor;
+          if (executor == null) {
+            reloadQuietly();
+          }
+          else {
+            executor.execute(this::reloadQuietly);
+          }
+        }
+      }
+    }
+    catch (InterruptedException | ClosedWatchServiceException e) {
+      // stopped
+    }
+  }
+
+  private void reloadQuietly() {
+    try {
+      reload();
+    }
+    catch (Throwable e) {
+      log.error("Properties reloading failed", e);
+    }
+  }
+
+  /**
+   * Reload the properties and rebind the beans bound from the changed keys
+   *
+   * @return the published event, {@code null} if no property changed
+   *
+   * @throws IOException
+   *         When could not access to a properties file
+   */
+  public PropertiesChangedEvent reload() throws IOException {
+    final PropertiesChangedEvent event;
+    synchronized(reloadMonitor) { // the executor may run several reloads at once
+      final ConfigurableEnvironment environment = context.getEnvironment();
+      final Set<String> changedKeys = environment.reloadProperties();
+      if (changedKeys.isEmpty()) {
+        return null;
+      }
+      ContextUtils.clearPropsCache();
+
+      final Set<Field> fields;
+      final PropertyDependencyIndex dependencies = environment.getPropertyDependencies();
+      if (dependencies == null) {
+        log.warn("Environment: [{}] doesn't record the property dependencies", environment);
+        fields = Collections.emptySet();
+      }
+      else {
+        fields = dependencies.getAffectedFields(getDependentKeys(changedKeys, environment.getProperties()));
+      }
+
+      final Set<String> reboundBeans;
+      final ConfigurableBeanFactory beanFactory = context.getBeanFactory();
+      if (beanFactory instanceof StandardBeanFactory) {
+        reboundBeans = ((StandardBeanFactory) beanFactory).rebindProperties(fields);
+      }
+      else {
+        log.warn("Bean factory: [{}] doesn't support rebinding properties", beanFactory);
+        reboundBeans = Collections.emptySet();
+      }
+      if (log.isInfoEnabled()) {
+        log.info("Properties changed: {}, rebound beans: {}", changedKeys, reboundBeans);
+      }
+      event = new PropertiesChangedEvent(context, changedKeys, reboundBeans);
+    }
+    context.publishEvent(event);
+    return event;
+  }
+
+  /**
+   * Add the keys whose values refer to a changed key with a placeholder
+   */
+  static Set<String> getDependentKeys(final Set<String> changedKeys, final Properties properties) {
+    final LinkedHashSet<String> ret = new LinkedHashSet<>(changedKeys);
+    boolean added;
+    do {
+      added = false;
+      for (final Map.Entry<Object, Object> entry : properties.entrySet()) {
+        final Object value = entry.getValue();
+        if (value instanceof String && !ret.contains(entry.getKey().toString())) {
+          for (final String key : ret) {
+            if (((String) value).contains(Constant.PLACE_HOLDER_PREFIX + key + Constant.PLACE_HOLDER_SUFFIX)) {
+              added = ret.add(entry.getKey().toString());
+              break;
+            }
+          }
+        }
+      }
+    } while (added);
+    return ret;
+  }
+
+  public void setDelay(long delay) {
+    this.delay = delay;
+  }
+
+  public long getDelay() {
+    return delay;
+  }
+
+  /**
+   * Set the {@link Executor} reloading the properties and rebinding the
+   * beans, such as the one of the threads using them
+   *
+   * @param executor
+   *         the executor, {@code null} to reload on the watcher thread
+   */
+  public void setExecutor(Executor executor) {
+    this.executor = executor;
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.env;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import cn.taketoday.context.Constant;
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * Index of property keys to the bean fields bound from them, recorded when
+ * {@link cn.taketoday.context.annotation.Value}, {@link cn.taketoday.context.annotation.Env}
+ * and {@link cn.taketoday.context.annotation.Props} are resolved.
+ * <p>
+ * A field depends on exact keys (placeholders), on key prefixes
+ * ({@code @Props}) or, when its expression can't be analyzed, on any key.
+ *
+ * @author TODAY 2021/3/23 10:10
+ * @see ConfigurableEnvironment#reloadProperties()
+ * @since 3.0.3
+ */
+public class PropertyDependencyIndex {
+
+  private final ConcurrentHashMap<String, Set<Field>> keys = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Set<Field>> prefixes = new ConcurrentHashMap<>();
+  private final CopyOnWriteArraySet<Field> anyKey = new CopyOnWriteArraySet<>();
+
+  /**
+   * Record that the given field is bound from the given keys
+   */
+  public void recordKeys(final Field field, final String... keys) {
+    Assert.notNull(field, "field must not be null");
+    for (final String key : keys) {
+      record(this.keys, key, field);
+    }
+  }
+
+  /**
+   * Record that the given field is bound from all the keys starting
+   * with one of the given prefixes
+   */
+  public void recordPrefixes(final Field field, final String... prefixes) {
+    Assert.notNull(field, "field must not be null");
+    for (final String prefix : prefixes) {
+      record(this.prefixes, prefix, field);
+    }
+  }
+
+  /**
+   * Record that the given field may depend on any key
+   */
+  public void recordAnyKey(final Field field) {
+    Assert.notNull(field, "field must not be null");
+    anyKey.add(field);
+  }
+
+  /**
+   * Record the placeholder keys of the given expression, an expression
+   * with EL parts depends on any key
+   */
+  public void recordExpression(final Field field, final String expression) {
+    if (expression.contains("${")) {
+      recordAnyKey(field);
+      return;
+    }
+    int prefixIndex;
+    int from = 0;
+    while ((prefixIndex = expression.indexOf(Constant.PLACE_HOLDER_PREFIX, from)) > -1) {
+      final int suffixIndex = expression.indexOf(Constant.PLACE_HOLDER_SUFFIX, prefixIndex);
+      if (suffixIndex < 0) {
+        break;
+      }
+      recordKeys(field, expression.substring(prefixIndex + 2, suffixIndex));
+      from = suffixIndex + 1;
+    }
+  }
+
+  private static void record(final Map<String, Set<Field>> index, final String key, final Field field) {
+    index.computeIfAbsent(key, k -> new CopyOnWriteArraySet<>()).add(field);
+  }
+
+  /**
+   * Return the fields bound from at least one of the given keys
+   *
+   * @param changedKeys
+   *         changed property keys
+   *
+   * @return the affected fields, never {@code null}
+   */
+  public Set<Field> getAffectedFields(final Collection<String> changedKeys) {
+    final LinkedHashSet<Field> ret = new LinkedHashSet<>();
+    if (changedKeys.isEmpty()) {
+      return ret;
+    }
+    ret.addAll(anyKey);
+    for (final String changedKey : changedKeys) {
+      final Set<Field> fields = keys.get(changedKey);
+      if (fields != null) {
+        ret.addAll(fields);
+      }
+    }
+    for (final Map.Entry<String, Set<Field>> entry : prefixes.entrySet()) {
+      final String prefix = entry.getKey();
+      for (final String changedKey : changedKeys) {
+        if (changedKey.startsWith(prefix)) {
+          ret.addAll(entry.getValue());
+          break;
+        }
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Return whether no dependency has been recorded
+   */
+  public boolean isEmpty() {
+    return keys.isEmpty() && prefixes.isEmpty() && anyKey.isEmpty();
+  }
+
+  public void clear() {
+    keys.clear();
+    prefixes.clear();
+    anyKey.clear();
+  }
+
+}
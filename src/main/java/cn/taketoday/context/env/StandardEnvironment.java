@@ -23,11 +23,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import cn.taketoday.context.BeanNameCreator;
 import cn.taketoday.context.ConcurrentProperties;
@@ -53,6 +58,12 @@ public class StandardEnvironment implements ConfigurableEnvironment {
 
   private final HashSet<String> activeProfiles = new HashSet<>(4);
   private final ConcurrentProperties properties = new ConcurrentProperties();
+  /** @since 3.0.3 properties loaded from resources, to diff on reload */
+  private Properties loadedProperties = new Properties();
+  /** @since 3.0.3 */
+  private final CopyOnWriteArrayList<Resource> propertiesResources = new CopyOnWriteArrayList<>();
+  /** @since 3.0.3 */
+  private final PropertyDependencyIndex propertyDependencies = new PropertyDependencyIndex();
   private BeanNameCreator beanNameCreator;
 
   /** resolve beanDefinition which It is marked annotation */
@@ -147,7 +158,21 @@ public class StandardEnvironment implements ConfigurableEnvironment {
       log.warn("The resource: [{}] you provided that doesn't exist", propertiesResource);
       return;
     }
+    final Properties loaded = new Properties();
+    loadProperties(propertiesResource, loaded);
+    propertiesResources.add(propertiesResource);
+    synchronized(this) {
+      loadedProperties.putAll(loaded);
+    }
+    properties.putAll(loaded);
+  }
 
+  /**
+   * Load properties from the given {@link Resource} into {@code target}
+   *
+   * @since 3.0.3
+   */
+  protected void loadProperties(final Resource propertiesResource, final Properties target) throws IOException {
     if (propertiesResource.isDirectory()) {
       log.debug("Start scanning properties resource.");
 
@@ -158,11 +183,67 @@ public class StandardEnvironment implements ConfigurableEnvironment {
         final String name = file.getName();
         return name.endsWith(Constant.PROPERTIES_SUFFIX) && !name.startsWith("pom"); // pom.properties
       };
-      doLoadFromDirectory(propertiesResource, this.properties, propertiesFileFilter);
+      doLoadFromDirectory(propertiesResource, target, propertiesFileFilter);
     }
     else {
-      doLoad(this.properties, propertiesResource);
+      doLoad(target, propertiesResource);
+    }
+  }
+
+  @Override
+  public synchronized Set<String> reloadProperties() throws IOException {
+    final Properties reloaded = new Properties();
+    for (final Resource resource : propertiesResources) {
+      if (resource.exists()) {
+        loadProperties(resource, reloaded);
+      }
     }
+
+    final LinkedHashSet<String> changed = new LinkedHashSet<>();
+    final Properties properties = this.properties;
+    final Properties loadedProperties = this.loadedProperties;
+    for (final Map.Entry<Object, Object> entry : reloaded.entrySet()) {
+      final Object key = entry.getKey();
+      final Object value = entry.getValue();
+      final Object loaded = loadedProperties.get(key);
+      if (!Objects.equals(value, loaded) && isNotOverridden(key, loaded)) {
+        properties.put(key, value);
+        changed.add(key.toString());
+      }
+    }
+    for (final Map.Entry<Object, Object> entry : loadedProperties.entrySet()) {
+      final Object key = entry.getKey();
+      if (!reloaded.containsKey(key) && isNotOverridden(key, entry.getValue())) {
+        properties.remove(key);
+        changed.add(key.toString());
+      }
+    }
+    this.loadedProperties = reloaded;
+    if (!changed.isEmpty() && log.isInfoEnabled()) {
+      log.info("Reloaded properties, changed keys: {}", changed);
+    }
+    return changed;
+  }
+
+  /**
+   * A property set with {@link #setProperty} or a system property
+   * must not be replaced by the one loaded from a resource
+   *
+   * @param loaded
+   *         the value last loaded, {@code null} if not loaded
+   */
+  private boolean isNotOverridden(final Object key, final Object loaded) {
+    return Objects.equals(properties.get(key), loaded);
+  }
+
+  @Override
+  public List<Resource> getPropertiesResources() {
+    return Collections.unmodifiableList(new ArrayList<>(propertiesResources));
+  }
+
+  @Override
+  public PropertyDependencyIndex getPropertyDependencies() {
+    return propertyDependencies;
   }
 
   @Override
@@ -22,6 +22,7 @@ package cn.taketoday.context.event;
 import java.text.SimpleDateFormat;
 import java.util.Map;
 
+import cn.taketoday.aop.proxy.AdvisedSupport;
 import cn.taketoday.context.AbstractApplicationContext;
 import cn.taketoday.context.ApplicationContext;
 import cn.taketoday.context.Constant;
@@ -82,10 +83,13 @@ public class ContextCloseListener
 
     if (context instanceof AbstractApplicationContext) {
       AbstractBeanFactory beanFactory = ((AbstractApplicationContext) context).getBeanFactory();
+      beanFactory.destroyScopes();
       beanFactory.getDependencies().clear();
       beanFactory.getPostProcessors().clear();
     }
     ClassUtils.clearCache();
+    // @since 3.0.3 don't keep the advisors and classes of this context reachable
+    AdvisedSupport.clearSharedInterceptorCache();
   }
 
 }
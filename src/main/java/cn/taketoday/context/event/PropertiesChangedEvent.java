@@ -0,0 +1,62 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.event;
+
+import java.util.Collections;
+import java.util.Set;
+
+import cn.taketoday.context.ApplicationContext;
+
+/**
+ * Published after the properties have been reloaded and the affected
+ * beans rebound
+ *
+ * @author TODAY 2021/3/23 11:20
+ * @see cn.taketoday.context.env.PropertiesWatcher
+ * @since 3.0.3
+ */
+@SuppressWarnings("serial")
+public class PropertiesChangedEvent extends ApplicationContextEvent {
+
+  /** added, changed or removed keys */
+  private final Set<String> changedKeys;
+  /** names of the beans rebound */
+  private final Set<String> reboundBeans;
+
+  public PropertiesChangedEvent(ApplicationContext context, Set<String> changedKeys, Set<String> reboundBeans) {
+    super(context);
+    this.changedKeys = Collections.unmodifiableSet(changedKeys);
+    this.reboundBeans = Collections.unmodifiableSet(reboundBeans);
+  }
+
+  public Set<String> getChangedKeys() {
+    return changedKeys;
+  }
+
+  public Set<String> getReboundBeans() {
+    return reboundBeans;
+  }
+
+  @Override
+  public String toString() {
+    return "PropertiesChangedEvent{changedKeys=" + changedKeys + ", reboundBeans=" + reboundBeans + '}';
+  }
+
+}
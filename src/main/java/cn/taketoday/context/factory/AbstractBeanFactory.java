@@ -30,6 +30,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -83,7 +85,11 @@ public abstract class AbstractBeanFactory
   /** Bean Post Processors */
   private final ArrayList<BeanPostProcessor> postProcessors = new ArrayList<>();
   /** Map of bean instance, keyed by bean name */
-  private final HashMap<String, Object> singletons = new HashMap<>(128);
+  private final ConcurrentHashMap<String, Object> singletons = new ConcurrentHashMap<>(128);
+  /** Locks of singleton creation, keyed by bean name @since 3.0.3 */
+  private final ConcurrentHashMap<String, CreationLock> creationLocks = new ConcurrentHashMap<>(128);
+  /** Creation lock a thread is waiting for @since 3.0.3 */
+  private final ConcurrentHashMap<Thread, CreationLock> waitingCreations = new ConcurrentHashMap<>();
   private final HashMap<String, Scope> scopes = new HashMap<>();
   /** Map of bean definition objects, keyed by bean name */
   private final ConcurrentHashMap<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>(64);
@@ -504,23 +510,33 @@ public abstract class AbstractBeanFactory
    */
   @SuppressWarnings("unchecked")
   protected <T> FactoryBean<T> getFactoryBean(final BeanDefinition def) {
-    final FactoryBean<T> factoryBean = getFactoryBeanInstance(def);
-    if (def.isInitialized()) {
-      return factoryBean;
+    final CreationLock lock = getCreationLock(getFactoryBeanName(def));
+    if (!lockCreation(lock)) {
+      // circular reference with a thread initializing it
+      return getFactoryBeanInstance(def);
     }
-    if (factoryBean instanceof AbstractFactoryBean) {
-      ((AbstractFactoryBean<?>) factoryBean).setSingleton(def.isSingleton());
+    try {
+      final FactoryBean<T> factoryBean = getFactoryBeanInstance(def);
+      if (def.isInitialized()) {
+        return factoryBean;
+      }
+      if (factoryBean instanceof AbstractFactoryBean) {
+        ((AbstractFactoryBean<?>) factoryBean).setSingleton(def.isSingleton());
+      }
+      // Initialize Factory
+      // Factory is always a SINGLETON bean
+      // ----------------------------------------
+      if (log.isDebugEnabled()) {
+        log.debug("Initialize FactoryBean: [{}]", def.getName());
+      }
+      final Object initBean = initializeBean(factoryBean, def);
+      def.setInitialized(true);
+      registerSingleton(getFactoryBeanName(def), initBean); // Refresh bean to the mapping
+      return (FactoryBean<T>) initBean;
     }
-    // Initialize Factory
-    // Factory is always a SINGLETON bean
-    // ----------------------------------------
-    if (log.isDebugEnabled()) {
-      log.debug("Initialize FactoryBean: [{}]", def.getName());
+    finally {
+      lock.unlock();
     }
-    final Object initBean = initializeBean(factoryBean, def);
-    def.setInitialized(true);
-    registerSingleton(getFactoryBeanName(def), initBean); // Refresh bean to the mapping
-    return (FactoryBean<T>) initBean;
   }
 
   /**
@@ -735,7 +751,112 @@ public abstract class AbstractBeanFactory
    */
   protected Object createSingleton(final BeanDefinition def) {
     Assert.isTrue(def.isSingleton(), "Bean definition must be a singleton");
+    // @since 3.0.3 singletons may be warmed up in background,
+    // only the callers of the same bean wait for each other
+    final CreationLock lock = getCreationLock(def.getName());
+    if (!lockCreation(lock)) {
+      // circular reference with a thread initializing it: like in a single
+      // thread, the instance not initialized yet is returned
+      final Object bean = getSingleton(def.getName());
+      if (bean == null) {
+        throw new BeanInstantiationException(def, "Circular reference between beans created in different threads");
+      }
+      return bean;
+    }
+    try {
+      return doCreateSingleton(def);
+    }
+    finally {
+      lock.unlock();
+    }
+  }
 
+  private CreationLock getCreationLock(final String name) {
+    return creationLocks.computeIfAbsent(name, key -> new CreationLock());
+  }
+
+  /**
+   * Run the given action once the singleton of the given name is not
+   * being created by another thread
+   *
+   * @since 3.0.3
+   */
+  void runWithCreationLock(final String name, final Runnable action) {
+    final CreationLock lock = getCreationLock(name);
+    lock.lock();
+    try {
+      action.run();
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Acquire the given creation lock, uninterruptibly
+   *
+   * @return {@code false} if its owner waits for a creation lock held by this
+   * thread, directly or not: waiting would deadlock
+   */
+  private boolean lockCreation(final CreationLock lock) {
+    if (lock.tryLock()) {
+      return true;
+    }
+    final Thread current = Thread.currentThread();
+    waitingCreations.put(current, lock);
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          if (lock.tryLock(10, TimeUnit.MILLISECONDS)) {
+            return true;
+          }
+        }
+        catch (InterruptedException e) {
+          interrupted = true;
+        }
+        if (isCircularWait(lock, current)) {
+          return false;
+        }
+      }
+    }
+    finally {
+      waitingCreations.remove(current);
+      if (interrupted) {
+        current.interrupt();
+      }
+    }
+  }
+
+  private boolean isCircularWait(final CreationLock lock, final Thread current) {
+    Thread owner = lock.getOwner();
+    // bounded by the number of waiting threads, the chain may change meanwhile
+    for (int i = waitingCreations.size(); owner != null && i >= 0; i--) {
+      if (owner == current) {
+        return true;
+      }
+      final CreationLock waiting = waitingCreations.get(owner);
+      if (waiting == null) {
+        return false;
+      }
+      owner = waiting.getOwner();
+    }
+    return false;
+  }
+
+  /**
+   * Exposes its owner to detect circular waits
+   */
+  @SuppressWarnings("serial")
+  static final class CreationLock extends ReentrantLock {
+
+    @Override
+    protected Thread getOwner() {
+      return super.getOwner();
+    }
+  }
+
+  private Object doCreateSingleton(final BeanDefinition def) {
     if (def.isFactoryBean()) {
       final Object bean = getFactoryBean(def).getBean();
       if (!containsSingleton(def.getName())) {
@@ -1195,6 +1316,38 @@ public abstract class AbstractBeanFactory
     postProcessRegisterBeanDefinition(def);
   }
 
+  /**
+   * Register a {@link BeanDefinition} that has already been processed, for
+   * example a definition restored from a
+   * {@link cn.taketoday.context.loader.BeanDefinitionSnapshot}.
+   * Unlike {@link #registerBeanDefinition(String, BeanDefinition)} the imports
+   * and component scans it declares are not processed again.
+   *
+   * @param beanName
+   *         Bean name
+   * @param def
+   *         processed {@link BeanDefinition}
+   *
+   * @since 3.0.3
+   */
+  public void registerResolvedBeanDefinition(final String beanName, final BeanDefinition def) {
+    this.beanDefinitionMap.put(beanName, def);
+
+    registerDependencies(def);
+    postProcessRegisterResolvedBeanDefinition(def);
+  }
+
+  /**
+   * Process after register a processed {@link BeanDefinition}
+   *
+   * @param targetDef
+   *         Target {@link BeanDefinition}
+   *
+   * @see #registerResolvedBeanDefinition(String, BeanDefinition)
+   * @since 3.0.3
+   */
+  protected void postProcessRegisterResolvedBeanDefinition(final BeanDefinition targetDef) {}
+
   /**
    * Process after register {@link BeanDefinition}
    *
@@ -1202,6 +1355,10 @@ public abstract class AbstractBeanFactory
    *         Target {@link BeanDefinition}
    */
   protected void postProcessRegisterBeanDefinition(final BeanDefinition targetDef) {
+    registerDependencies(targetDef);
+  }
+
+  private void registerDependencies(final BeanDefinition targetDef) {
     final PropertySetter[] propertySetters = targetDef.getPropertySetters();
     if (ObjectUtils.isNotEmpty(propertySetters)) {
       final HashSet<BeanReferencePropertySetter> dependencies = this.dependencies;
@@ -1220,6 +1377,25 @@ public abstract class AbstractBeanFactory
     scopes.put(name, scope);
   }
 
+  /**
+   * Destroy the registered scopes which are {@link DisposableBean}s
+   *
+   * @since 3.0.3
+   */
+  public void destroyScopes() {
+    for (final Map.Entry<String, Scope> entry : scopes.entrySet()) {
+      final Scope scope = entry.getValue();
+      if (scope instanceof DisposableBean) {
+        try {
+          ((DisposableBean) scope).destroy();
+        }
+        catch (Throwable e) {
+          log.warn("An Exception Occurred When Destroy scope: [{}]", entry.getKey(), e);
+        }
+      }
+    }
+  }
+
   /**
    * Destroy a bean with bean instance and bean definition
    *
@@ -1369,27 +1545,55 @@ public abstract class AbstractBeanFactory
     log.debug("Initialization of singleton objects.");
     for (final BeanDefinition def : getBeanDefinitions().values()) {
       // Trigger initialization of all non-lazy singleton beans...
-      if (def.isSingleton() && !def.isInitialized() && !def.isLazyInit()) {
-        if (def.isFactoryBean()) {
-          final FactoryBean<?> factoryBean = getFactoryBeanInstance(def);
-          final boolean isEagerInit = factoryBean instanceof SmartFactoryBean
-                  && ((SmartFactoryBean<?>) factoryBean).isEagerInit();
-          if (isEagerInit) {
-            getBean(def);
-          }
-        }
-        else {
-          createSingleton(def);
-        }
+      if (isEagerSingleton(def)) {
+        initializeSingleton(def);
       }
     }
 
     // Trigger post-initialization callback for all applicable beans...
+    postSingletonInitialization();
+
+    log.debug("The singleton objects are initialized.");
+  }
+
+  /**
+   * Is the given bean definition a non-lazy singleton that has not been initialized
+   *
+   * @since 3.0.3
+   */
+  protected boolean isEagerSingleton(final BeanDefinition def) {
+    return def.isSingleton() && !def.isInitialized() && !def.isLazyInit();
+  }
+
+  /**
+   * Initialize a non-lazy singleton, a {@link FactoryBean} is initialized only
+   * if it is an eager-init {@link SmartFactoryBean}
+   *
+   * @since 3.0.3
+   */
+  protected void initializeSingleton(final BeanDefinition def) {
+    if (def.isFactoryBean()) {
+      final FactoryBean<?> factoryBean = getFactoryBeanInstance(def);
+      final boolean isEagerInit = factoryBean instanceof SmartFactoryBean
+              && ((SmartFactoryBean<?>) factoryBean).isEagerInit();
+      if (isEagerInit) {
+        getBean(def);
+      }
+    }
+    else {
+      createSingleton(def);
+    }
+  }
+
+  /**
+   * Trigger post-initialization callback for all singletons
+   *
+   * @since 3.0.3
+   */
+  protected void postSingletonInitialization() {
     for (final Object singleton : getSingletons().values()) {
       postSingletonInitialization(singleton);
     }
-
-    log.debug("The singleton objects are initialized.");
   }
 
   protected void postSingletonInitialization(final Object singleton) {
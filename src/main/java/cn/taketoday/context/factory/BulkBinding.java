@@ -0,0 +1,151 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.factory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import cn.taketoday.context.cglib.beans.BulkBean;
+import cn.taketoday.context.utils.ConcurrentCache;
+import cn.taketoday.context.utils.ReflectionUtils;
+
+/**
+ * Cached bulk binding plan of a bean class and an ordered set of property
+ * names, used by {@link DataBinder} in bulk binding mode.
+ * <p>
+ * Simple properties with an accessible setter are set together with one
+ * generated {@link BulkBean#setPropertyValues(Object, Object[])} call. Other
+ * property paths, and simple properties whose nested paths are bound in the
+ * same batch, keep the per-property path.
+ *
+ * @author TODAY 2021/3/26 09:30
+ * @see DataBinder#setBulkBinding(boolean)
+ * @since 3.0.3
+ */
+final class BulkBinding {
+
+  private static final ConcurrentCache<Key, BulkBinding> plans = ConcurrentCache.create(256);
+
+  /** {@code null} if no property can be set in bulk */
+  final BulkBean bulkBean;
+  /** properties of the bulk slots */
+  final BeanProperty[] properties;
+  /** bulk slot of each property value, or -1 for the per-property path */
+  final int[] slots;
+
+  BulkBinding(BulkBean bulkBean, BeanProperty[] properties, int[] slots) {
+    this.bulkBean = bulkBean;
+    this.properties = properties;
+    this.slots = slots;
+  }
+
+  static BulkBinding of(BeanMetadata metadata, List<PropertyValue> propertyValues) {
+    final String[] names = new String[propertyValues.size()];
+    int i = 0;
+    for (final PropertyValue propertyValue : propertyValues) {
+      names[i++] = propertyValue.getName();
+    }
+    return plans.get(new Key(metadata, names), BulkBinding::compile);
+  }
+
+  private static BulkBinding compile(Key key) {
+    final String[] names = key.names;
+    // roots of nested paths must keep binding order
+    final HashSet<String> nestedRoots = new HashSet<>();
+    for (final String name : names) {
+      final int index = indexOfPathSeparator(name);
+      if (index != -1) {
+        nestedRoots.add(name.substring(0, index));
+      }
+    }
+
+    final BeanMetadata metadata = key.metadata;
+    final int[] slots = new int[names.length];
+    final ArrayList<BeanProperty> properties = new ArrayList<>();
+    final ArrayList<String> setters = new ArrayList<>();
+    for (int i = 0; i < names.length; i++) {
+      slots[i] = -1;
+      final String name = names[i];
+      if (indexOfPathSeparator(name) == -1 && !nestedRoots.contains(name)) {
+        final BeanProperty property = metadata.getBeanProperty(name);
+        if (property != null && !Modifier.isFinal(property.getField().getModifiers())) {
+          final Method writeMethod = ReflectionUtils.getWriteMethod(property.getField());
+          if (writeMethod != null && !Modifier.isPrivate(writeMethod.getModifiers())) {
+            slots[i] = properties.size();
+            properties.add(property);
+            setters.add(writeMethod.getName());
+          }
+        }
+      }
+    }
+
+    if (properties.isEmpty()) {
+      return new BulkBinding(null, null, slots);
+    }
+    final int size = properties.size();
+    final Class<?>[] types = new Class<?>[size];
+    for (int i = 0; i < size; i++) {
+      types[i] = properties.get(i).getType();
+    }
+    final BulkBean bulkBean = BulkBean.create(
+            metadata.getType(), new String[size], setters.toArray(new String[size]), types);
+    return new BulkBinding(bulkBean, properties.toArray(new BeanProperty[size]), slots);
+  }
+
+  private static int indexOfPathSeparator(String name) {
+    for (int i = 0; i < name.length(); i++) {
+      final char c = name.charAt(i);
+      if (c == '.' || c == '[') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  static final class Key {
+    final BeanMetadata metadata;
+    final String[] names;
+    final int hash;
+
+    Key(BeanMetadata metadata, String[] names) {
+      this.metadata = metadata;
+      this.names = names;
+      this.hash = 31 * metadata.getType().hashCode() + Arrays.hashCode(names);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      final Key key = (Key) o;
+      return metadata.getType() == key.metadata.getType() && Arrays.equals(names, key.names);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+}
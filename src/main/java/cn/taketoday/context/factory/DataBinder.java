@@ -38,6 +38,9 @@ import cn.taketoday.context.conversion.ConversionService;
 public class DataBinder extends BeanPropertyAccessor {
   protected final ArrayList<PropertyValue> propertyValues = new ArrayList<>();
 
+  /** @since 3.0.3 */
+  private boolean bulkBinding;
+
   public DataBinder() { }
 
   public DataBinder(Class<?> beanClass) {
@@ -78,12 +81,42 @@ public class DataBinder extends BeanPropertyAccessor {
   }
 
   public Object bind(Object rootObject, BeanMetadata metadata, List<PropertyValue> propertyValues) {
+    if (bulkBinding && propertyValues.size() > 1) {
+      return bindBulk(rootObject, metadata, propertyValues);
+    }
     for (final PropertyValue propertyValue : propertyValues) {
       setProperty(rootObject, metadata, propertyValue);
     }
     return rootObject;
   }
 
+  /**
+   * Convert all simple property values first, then set them with one
+   * generated {@link cn.taketoday.context.cglib.beans.BulkBean} call
+   *
+   * @since 3.0.3
+   */
+  protected Object bindBulk(Object rootObject, BeanMetadata metadata, List<PropertyValue> propertyValues) {
+    final BulkBinding binding = BulkBinding.of(metadata, propertyValues);
+    final int[] slots = binding.slots;
+    final BeanProperty[] properties = binding.properties;
+    final Object[] values = properties != null ? new Object[properties.length] : null;
+    int i = 0;
+    for (final PropertyValue propertyValue : propertyValues) {
+      final int slot = slots[i++];
+      if (slot == -1) {
+        setProperty(rootObject, metadata, propertyValue);
+      }
+      else {
+        values[slot] = convertIfNecessary(propertyValue.getValue(), properties[slot]);
+      }
+    }
+    if (values != null) {
+      binding.bulkBean.setPropertyValues(rootObject, values);
+    }
+    return rootObject;
+  }
+
   public void setProperty(final Object root, final BeanMetadata metadata, final PropertyValue propertyValue) {
     setProperty(root, metadata, propertyValue.getName(), propertyValue.getValue());
   }
@@ -131,4 +164,21 @@ public class DataBinder extends BeanPropertyAccessor {
   public List<PropertyValue> getPropertyValues() {
     return propertyValues;
   }
+
+  /**
+   * Set whether simple properties are bound in bulk: the values are
+   * converted first and then set with one generated setter call, planned
+   * once per bean class and property name list. Property paths such as
+   * {@code nested.name} or {@code list[0]} are still set one at a time.
+   * Default is {@code false}.
+   *
+   * @since 3.0.3
+   */
+  public void setBulkBinding(boolean bulkBinding) {
+    this.bulkBinding = bulkBinding;
+  }
+
+  public boolean isBulkBinding() {
+    return bulkBinding;
+  }
 }
@@ -93,7 +93,7 @@ public class DefaultBeanDefinition
    *
    * @since 2.0.0
    */
-  private boolean initialized = false;
+  private volatile boolean initialized = false;
 
   /**
    * Mark as a {@link FactoryBean}.
@@ -484,6 +484,14 @@ public class DefaultBeanDefinition
     this.instanceSupplier = instanceSupplier;
   }
 
+  /**
+   * @return bean instance supplier, {@code null} if the bean is created by its constructor
+   * @since 3.0.3
+   */
+  public Supplier<?> getSupplier() {
+    return instanceSupplier;
+  }
+
   protected Class<?> obtainBeanClass() {
     final Class<?> beanClass = getBeanClass();
     Assert.state(beanClass != null, "Bean Class is Null");
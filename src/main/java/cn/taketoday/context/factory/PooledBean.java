@@ -0,0 +1,38 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.factory;
+
+/**
+ * Bean of a {@link PooledScope} that resets its state before going back to the pool
+ *
+ * @author TODAY 2021/4/3 10:05
+ * @since 3.0.3
+ */
+public interface PooledBean {
+
+  /**
+   * Invoked when the bean is released to its pool. The bean is discarded if
+   * this method throws an exception.
+   *
+   * @throws Exception
+   *         in case of errors
+   */
+  void reset() throws Exception;
+}
@@ -0,0 +1,565 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.factory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import cn.taketoday.context.Scope;
+import cn.taketoday.context.logger.Logger;
+import cn.taketoday.context.logger.LoggerFactory;
+import cn.taketoday.context.utils.Assert;
+import cn.taketoday.context.utils.ContextUtils;
+
+/**
+ * {@link Scope} that hands out bean instances from a bounded per-bean pool, so
+ * the creation and initialization of expensive prototype-like beans is paid
+ * once per pooled instance.
+ * <p>
+ * Every {@link #get(BeanDefinition, ScopeObjectFactory) get} borrows an idle
+ * instance or creates a new one. An instance goes back to the pool with
+ * {@link #release(String, Object)}, or when the {@link #open() session} it was
+ * borrowed in is closed. Released {@link PooledBean}s are {@link PooledBean#reset() reset},
+ * instances that do not fit in the pool or stay idle longer than the
+ * {@link #setMaxIdleTime(long, TimeUnit) max idle time} are discarded and
+ * destroyed with the destroy methods of their definition.
+ * <p>
+ * An instance which is never released, such as one injected into a
+ * singleton, is simply dropped from the pool and garbage collected as usual.
+ * The idle instances are destroyed when the context is closed, or when the
+ * scope is {@link #destroy() destroyed}.
+ *
+ * <pre>
+ * beanFactory.registerScope(PooledScope.NAME, new PooledScope(32));
+ *
+ * try (PooledScope.Session session = pooledScope.open()) {
+ *   Parser parser = context.getBean(Parser.class);
+ *   ...
+ * } // parser released
+ * </pre>
+ *
+ * @author TODAY 2021/4/3 10:20
+ * @see ConfigurableBeanFactory#registerScope
+ * @see CustomScopeConfigurer
+ * @since 3.0.3
+ */
+public class PooledScope implements Scope, DisposableBean {
+  private static final Logger log = LoggerFactory.getLogger(PooledScope.class);
+
+  public static final String NAME = "pooled";
+
+  /** ScopeContext slot of the current sessions of all pooled scopes */
+  static final int sessionSlot = ScopeContext.allocateSlot();
+
+  private final int maxPoolSize;
+  private long maxIdleNanos;
+  private final ConcurrentHashMap<String, Pool> pools = new ConcurrentHashMap<>();
+  /** borrowed instances weakly keyed, to detect a double release */
+  private final ConcurrentHashMap<LeaseKey, Lease> borrowed = new ConcurrentHashMap<>();
+  private final ReferenceQueue<Object> collectedBeans = new ReferenceQueue<>();
+
+  public PooledScope() {
+    this(16);
+  }
+
+  /**
+   * @param maxPoolSize
+   *         max idle instances kept per bean
+   */
+  public PooledScope(int maxPoolSize) {
+    Assert.isTrue(maxPoolSize > 0, "maxPoolSize must be positive");
+    this.maxPoolSize = maxPoolSize;
+  }
+
+  /**
+   * Discard instances idle for longer than the given time, {@code 0} keeps idle
+   * instances forever
+   */
+  public void setMaxIdleTime(long time, TimeUnit unit) {
+    Assert.isTrue(time >= 0, "max idle time must not be negative");
+    this.maxIdleNanos = unit.toNanos(time);
+  }
+
+  public long getMaxIdleTime(TimeUnit unit) {
+    return unit.convert(maxIdleNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public int getMaxPoolSize() {
+    return maxPoolSize;
+  }
+
+  @Override
+  public Object get(final BeanDefinition def, final ScopeObjectFactory objectFactory) {
+    Session session = null;
+    final ScopeContext context = ScopeContext.current();
+    if (context != null) {
+      session = (Session) context.get(sessionSlot);
+      if (session != null && session.scope != this) {
+        session = null;
+      }
+    }
+    if (session != null && session.closed) {
+      throw new IllegalStateException("Session is closed");
+    }
+    final Pool pool = getPool(def);
+    Object bean = pool.borrow(maxIdleNanos);
+    if (bean == null) {
+      bean = objectFactory.getObject(def);
+      pool.created.increment();
+    }
+    else {
+      pool.reused.increment();
+    }
+    expungeCollected();
+    borrowed.put(new LeaseKey(bean, collectedBeans), new Lease(pool, session));
+    if (session != null && !session.add(bean)) {
+      // closed meanwhile
+      release(bean, null);
+      throw new IllegalStateException("Session is closed");
+    }
+    return bean;
+  }
+
+  private Pool getPool(BeanDefinition def) {
+    final Pool pool = pools.get(def.getName());
+    if (pool == null) {
+      return pools.computeIfAbsent(def.getName(), key -> new Pool(def, maxPoolSize));
+    }
+    return pool;
+  }
+
+  /**
+   * Return a bean instance to its pool
+   *
+   * @param name
+   *         bean name
+   * @param bean
+   *         bean instance from {@link #get(BeanDefinition, ScopeObjectFactory)}
+   *
+   * @throws IllegalStateException
+   *         if the instance is not borrowed, such as released twice
+   */
+  public void release(String name, Object bean) {
+    Assert.notNull(bean, "bean must not be null");
+    final Lease lease = borrowed.get(new LeaseKey(bean, null));
+    if (lease == null || !lease.pool.name.equals(name) || !release(bean, null)) {
+      throw new IllegalStateException("Instance of bean: [" + name + "] is not borrowed or already released");
+    }
+  }
+
+  /**
+   * @param session
+   *         release only the instance borrowed in it, {@code null} for any
+   *
+   * @return {@code false} if the instance is not borrowed
+   */
+  private boolean release(Object bean, Session session) {
+    final LeaseKey key = new LeaseKey(bean, null);
+    final Lease lease = borrowed.get(key);
+    if (lease == null || (session != null && lease.session != session)
+            || !borrowed.remove(key, lease)) {
+      return false; // released already, may be borrowed again
+    }
+    final Pool pool = lease.pool;
+    pool.released.increment();
+    if (pool.closed) {
+      // removed from the scope
+      pool.discard(bean);
+      return true;
+    }
+    if (bean instanceof PooledBean) {
+      try {
+        ((PooledBean) bean).reset();
+      }
+      catch (Exception e) {
+        log.warn("Cannot reset pooled bean [" + pool.name + "], discard it", e);
+        pool.discard(bean);
+        return true;
+      }
+    }
+    if (!pool.offer(bean)) {
+      pool.discard(bean);
+    }
+    else if (pool.closed) {
+      // removed while offering
+      pool.evict(-1);
+    }
+    return true;
+  }
+
+  /** Number of instances borrowed and not released nor collected yet */
+  int getBorrowedCount() {
+    expungeCollected();
+    return borrowed.size();
+  }
+
+  /**
+   * Forget the leases of the instances never released and collected
+   */
+  private void expungeCollected() {
+    Reference<?> collected;
+    while ((collected = collectedBeans.poll()) != null) {
+      borrowed.remove(collected);
+    }
+  }
+
+  /**
+   * Discard the idle instances of the given bean, the borrowed ones are
+   * discarded when they are released
+   *
+   * @return always {@code null}, pooled instances are not bound to the caller
+   */
+  @Override
+  public Object remove(String name) {
+    final Pool pool = pools.remove(name);
+    if (pool != null) {
+      pool.closed = true;
+      pool.evict(-1);
+    }
+    return null;
+  }
+
+  /**
+   * Remove all pools, called when the context is closed
+   *
+   * @see #remove(String)
+   */
+  @Override
+  public void destroy() {
+    for (final String name : pools.keySet()) {
+      remove(name);
+    }
+  }
+
+  /**
+   * Discard the instances idle for longer than the max idle time
+   */
+  public void evictIdle() {
+    if (maxIdleNanos > 0) {
+      for (final Pool pool : pools.values()) {
+        pool.evict(maxIdleNanos);
+      }
+    }
+  }
+
+  /**
+   * Discard all idle instances
+   */
+  public void clear() {
+    for (final Pool pool : pools.values()) {
+      pool.evict(-1);
+    }
+  }
+
+  /**
+   * Open a session in the current {@link ScopeContext}, the instances borrowed
+   * in the session are released when it is closed. The session follows tasks
+   * wrapped by {@link ScopeContext#wrap(Runnable)}.
+   */
+  public Session open() {
+    final ScopeContext context = ScopeContext.obtain();
+    final Session session = new Session(this, (Session) context.get(sessionSlot));
+    context.set(sessionSlot, session);
+    return session;
+  }
+
+  /**
+   * Get the statistics of the pool of the given bean
+   *
+   * @return statistics, {@code null} if the bean has never been got
+   */
+  public Statistics getStatistics(String name) {
+    final Pool pool = pools.get(name);
+    return pool != null ? new Statistics(pool) : null;
+  }
+
+  /**
+   * Get the statistics of all pools keyed by bean name
+   */
+  public Map<String, Statistics> getStatistics() {
+    final HashMap<String, Statistics> ret = new HashMap<>();
+    for (final Map.Entry<String, Pool> entry : pools.entrySet()) {
+      ret.put(entry.getKey(), new Statistics(entry.getValue()));
+    }
+    return ret;
+  }
+
+  /**
+   * Instances borrowed in a session are released when the session is closed
+   */
+  public static final class Session implements AutoCloseable {
+    private final PooledScope scope;
+    private final Session previous;
+    private final ArrayList<Object> borrowed = new ArrayList<>();
+    private volatile boolean closed;
+
+    Session(PooledScope scope, Session previous) {
+      this.scope = scope;
+      this.previous = previous;
+    }
+
+    /**
+     * @return {@code false} if this session is closed
+     */
+    synchronized boolean add(Object bean) {
+      if (closed) {
+        return false;
+      }
+      borrowed.add(bean);
+      return true;
+    }
+
+    @Override
+    public synchronized void close() {
+      if (!closed) {
+        closed = true;
+        final ScopeContext context = ScopeContext.current();
+        if (context != null && context.get(sessionSlot) == this) {
+          context.set(sessionSlot, previous);
+        }
+        // the ones released already are skipped
+        for (final Object bean : borrowed) {
+          scope.release(bean, this);
+        }
+        borrowed.clear();
+      }
+    }
+  }
+
+  /**
+   * Pool metrics
+   */
+  public static final class Statistics {
+    private final long created;
+    private final long reused;
+    private final long released;
+    private final long discarded;
+    private final long evicted;
+    private final int idle;
+
+    Statistics(Pool pool) {
+      this.created = pool.created.sum();
+      this.reused = pool.reused.sum();
+      this.released = pool.released.sum();
+      this.discarded = pool.discarded.sum();
+      this.evicted = pool.evicted.sum();
+      this.idle = pool.getIdleCount();
+    }
+
+    /** Number of instances created */
+    public long getCreated() {
+      return created;
+    }
+
+    /** Number of gets served by an idle instance */
+    public long getReused() {
+      return reused;
+    }
+
+    /** Number of instances returned */
+    public long getReleased() {
+      return released;
+    }
+
+    /** Number of released instances that failed to reset or did not fit in the pool */
+    public long getDiscarded() {
+      return discarded;
+    }
+
+    /** Number of idle instances discarded */
+    public long getEvicted() {
+      return evicted;
+    }
+
+    /** Number of idle instances in the pool */
+    public int getIdle() {
+      return idle;
+    }
+
+    @Override
+    public String toString() {
+      return "Statistics{created=" + created + ", reused=" + reused + ", released=" + released
+              + ", discarded=" + discarded + ", evicted=" + evicted + ", idle=" + idle + '}';
+    }
+  }
+
+  /**
+   * Weak identity key of a borrowed instance
+   */
+  static final class LeaseKey extends WeakReference<Object> {
+    private final int hash;
+
+    LeaseKey(Object bean, ReferenceQueue<Object> queue) {
+      super(bean, queue);
+      this.hash = System.identityHashCode(bean);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (!(obj instanceof LeaseKey)) {
+        return false;
+      }
+      final Object bean = get();
+      return bean != null && bean == ((LeaseKey) obj).get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  static final class Lease {
+    final Pool pool;
+    final Session session;
+
+    Lease(Pool pool, Session session) {
+      this.pool = pool;
+      this.session = session;
+    }
+  }
+
+  static final class Entry {
+    final Object bean;
+    final long releasedAt = System.nanoTime();
+
+    Entry(Object bean) {
+      this.bean = bean;
+    }
+  }
+
+  /**
+   * Lock-free bounded pool of idle instances
+   */
+  static final class Pool {
+    final String name;
+    final BeanDefinition def;
+    final AtomicReferenceArray<Entry> idle;
+    /** removed from the scope */
+    volatile boolean closed;
+
+    final LongAdder created = new LongAdder();
+    final LongAdder reused = new LongAdder();
+    final LongAdder released = new LongAdder();
+    final LongAdder discarded = new LongAdder();
+    final LongAdder evicted = new LongAdder();
+
+    Pool(BeanDefinition def, int maxPoolSize) {
+      this.def = def;
+      this.name = def.getName();
+      this.idle = new AtomicReferenceArray<>(maxPoolSize);
+    }
+
+    Object borrow(long maxIdleNanos) {
+      final AtomicReferenceArray<Entry> idle = this.idle;
+      final int length = idle.length();
+      final int start = startIndex(length);
+      for (int i = 0; i < length; i++) {
+        final int index = (start + i) % length;
+        final Entry entry = idle.get(index);
+        if (entry != null && idle.compareAndSet(index, entry, null)) {
+          if (maxIdleNanos > 0 && System.nanoTime() - entry.releasedAt > maxIdleNanos) {
+            evicted.increment();
+            destroy(entry.bean);
+            continue;
+          }
+          return entry.bean;
+        }
+      }
+      return null;
+    }
+
+    boolean offer(Object bean) {
+      final AtomicReferenceArray<Entry> idle = this.idle;
+      final int length = idle.length();
+      final int start = startIndex(length);
+      Entry entry = null;
+      for (int i = 0; i < length; i++) {
+        final int index = (start + i) % length;
+        if (idle.get(index) == null) {
+          if (entry == null) {
+            entry = new Entry(bean);
+          }
+          if (idle.compareAndSet(index, null, entry)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    /**
+     * @param maxIdleNanos
+     *         evict instances idle longer than it, negative to evict all
+     */
+    void evict(long maxIdleNanos) {
+      final AtomicReferenceArray<Entry> idle = this.idle;
+      final long now = System.nanoTime();
+      for (int i = 0; i < idle.length(); i++) {
+        final Entry entry = idle.get(i);
+        if (entry != null && (maxIdleNanos < 0 || now - entry.releasedAt > maxIdleNanos)
+                && idle.compareAndSet(i, entry, null)) {
+          evicted.increment();
+          destroy(entry.bean);
+        }
+      }
+    }
+
+    void discard(Object bean) {
+      discarded.increment();
+      destroy(bean);
+    }
+
+    void destroy(Object bean) {
+      try {
+        ContextUtils.destroyBean(bean, def);
+      }
+      catch (Throwable e) {
+        log.warn("Cannot destroy pooled bean [" + name + "]", e);
+      }
+    }
+
+    int getIdleCount() {
+      int ret = 0;
+      for (int i = 0; i < idle.length(); i++) {
+        if (idle.get(i) != null) {
+          ret++;
+        }
+      }
+      return ret;
+    }
+
+    private static int startIndex(int length) {
+      return (int) (Thread.currentThread().getId() % length);
+    }
+  }
+
+}
@@ -0,0 +1,326 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.factory;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import cn.taketoday.context.NamedThreadLocal;
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * Storage of the objects scoped to the running code, for example the beans of a
+ * {@link SimpleThreadScope} or the current AOP proxy and invocation.
+ * <p>
+ * Objects are stored in slots of an array, each user allocates its slot index
+ * once with {@link #allocateSlot()}, so slots are never reclaimed: per-instance
+ * or per-name state belongs in one slot allocated per class. The current
+ * context is kept by a {@link ScopeContextCarrier}, by default one
+ * thread-local per thread.
+ * <p>
+ * Scoped objects follow work that hops threads through the explicit
+ * {@link #capture() capture} and {@link #bind(ScopeContext) bind} API, or the
+ * {@code wrap} helpers for tasks and executors. A
+ * {@link #allocateLocalSlot() local slot}, such as the current AOP invocation,
+ * stays in the thread that set it.
+ *
+ * <pre>
+ * CompletableFuture.supplyAsync(ScopeContext.wrapSupplier(supplier), executor)
+ *         .thenApplyAsync(ScopeContext.wrapFunction(function), executor);
+ * </pre>
+ *
+ * @author TODAY 2021/4/2 10:20
+ * @since 3.0.3
+ */
+public final class ScopeContext {
+
+  private static final AtomicInteger nextSlot = new AtomicInteger();
+
+  private static volatile ScopeContextCarrier carrier = new ThreadLocalCarrier();
+
+  /** slots not captured */
+  private static volatile int[] localSlots = new int[0];
+
+  private Object[] slots;
+
+  public ScopeContext() {
+    this.slots = new Object[Math.max(8, nextSlot.get())];
+  }
+
+  private ScopeContext(Object[] slots) {
+    this.slots = slots;
+  }
+
+  /**
+   * Allocate a new slot index
+   */
+  public static int allocateSlot() {
+    return nextSlot.getAndIncrement();
+  }
+
+  /**
+   * Allocate a new slot index whose object is not {@link #capture() captured},
+   * for state bound to the running call stack
+   */
+  public static synchronized int allocateLocalSlot() {
+    final int slot = allocateSlot();
+    final int[] localSlots = Arrays.copyOf(ScopeContext.localSlots, ScopeContext.localSlots.length + 1);
+    localSlots[localSlots.length - 1] = slot;
+    ScopeContext.localSlots = localSlots;
+    return slot;
+  }
+
+  /**
+   * Get the object in the given slot
+   *
+   * @return the object, {@code null} if the slot is empty
+   */
+  public Object get(int slot) {
+    final Object[] slots = this.slots;
+    return slot < slots.length ? slots[slot] : null;
+  }
+
+  /**
+   * Set the object in the given slot
+   *
+   * @param value
+   *         object to store, {@code null} to empty the slot
+   *
+   * @return the previous object in the slot
+   */
+  public Object set(int slot, Object value) {
+    Object[] slots = this.slots;
+    if (slot >= slots.length) {
+      if (value == null) {
+        return null;
+      }
+      this.slots = slots = Arrays.copyOf(slots, Math.max(slot + 1, slots.length << 1));
+    }
+    final Object old = slots[slot];
+    slots[slot] = value;
+    return old;
+  }
+
+  /**
+   * Empty the given slot
+   *
+   * @return the object in the slot
+   */
+  public Object remove(int slot) {
+    return set(slot, null);
+  }
+
+  /**
+   * Copy this context, the copy holds the same objects
+   */
+  public ScopeContext copy() {
+    return new ScopeContext(slots.clone());
+  }
+
+  // current context
+  // ---------------------------------------
+
+  /**
+   * Get the current scope context
+   *
+   * @return current scope context, {@code null} if none
+   */
+  public static ScopeContext current() {
+    return carrier.get();
+  }
+
+  /**
+   * Get the current scope context, create one if none
+   */
+  public static ScopeContext obtain() {
+    final ScopeContextCarrier carrier = ScopeContext.carrier;
+    ScopeContext context = carrier.get();
+    if (context == null) {
+      context = new ScopeContext();
+      carrier.set(context);
+    }
+    return context;
+  }
+
+  /**
+   * Capture the current scope context to be {@link #bind(ScopeContext) bound}
+   * in another thread. The captured context holds the same objects but the
+   * ones of {@link #allocateLocalSlot() local slots}, objects stored afterwards
+   * are not shared.
+   *
+   * @return captured context, {@code null} if none
+   */
+  public static ScopeContext capture() {
+    final ScopeContext context = current();
+    if (context == null) {
+      return null;
+    }
+    final ScopeContext captured = context.copy();
+    for (final int slot : localSlots) {
+      captured.remove(slot);
+    }
+    return captured;
+  }
+
+  /**
+   * Bind a copy of the given captured context, so that each run of a wrapped
+   * task starts from the captured objects
+   */
+  private static ScopeContext bindCopy(ScopeContext captured) {
+    return bind(captured != null ? captured.copy() : null);
+  }
+
+  /**
+   * Make the given context the current one
+   *
+   * @return the previous context, to {@link #restore(ScopeContext) restore}
+   */
+  public static ScopeContext bind(ScopeContext context) {
+    final ScopeContextCarrier carrier = ScopeContext.carrier;
+    final ScopeContext previous = carrier.get();
+    carrier.set(context);
+    return previous;
+  }
+
+  /**
+   * Restore the context returned by {@link #bind(ScopeContext)}
+   */
+  public static void restore(ScopeContext previous) {
+    carrier.set(previous);
+  }
+
+  /**
+   * Wrap the given task to run with a copy of the current context
+   */
+  public static Runnable wrap(Runnable task) {
+    Assert.notNull(task, "task must not be null");
+    final ScopeContext captured = capture();
+    return () -> {
+      final ScopeContext previous = bindCopy(captured);
+      try {
+        task.run();
+      }
+      finally {
+        restore(previous);
+      }
+    };
+  }
+
+  /**
+   * Wrap the given task to run with a copy of the current context
+   */
+  public static <V> Callable<V> wrap(Callable<V> task) {
+    Assert.notNull(task, "task must not be null");
+    final ScopeContext captured = capture();
+    return () -> {
+      final ScopeContext previous = bindCopy(captured);
+      try {
+        return task.call();
+      }
+      finally {
+        restore(previous);
+      }
+    };
+  }
+
+  /**
+   * Wrap the given supplier to run with a copy of the current context
+   */
+  public static <V> Supplier<V> wrapSupplier(Supplier<V> supplier) {
+    Assert.notNull(supplier, "supplier must not be null");
+    final ScopeContext captured = capture();
+    return () -> {
+      final ScopeContext previous = bindCopy(captured);
+      try {
+        return supplier.get();
+      }
+      finally {
+        restore(previous);
+      }
+    };
+  }
+
+  /**
+   * Wrap the given function to run with a copy of the current context
+   */
+  public static <T, R> Function<T, R> wrapFunction(Function<T, R> function) {
+    Assert.notNull(function, "function must not be null");
+    final ScopeContext captured = capture();
+    return arg -> {
+      final ScopeContext previous = bindCopy(captured);
+      try {
+        return function.apply(arg);
+      }
+      finally {
+        restore(previous);
+      }
+    };
+  }
+
+  /**
+   * Wrap the given executor to run each task with the context of the thread
+   * that calls {@link Executor#execute(Runnable)}
+   */
+  public static Executor wrap(Executor executor) {
+    Assert.notNull(executor, "executor must not be null");
+    return command -> executor.execute(wrap(command));
+  }
+
+  /**
+   * Use the given carrier to keep the current context, for example a carrier
+   * that lets child threads inherit the context
+   */
+  public static void setCarrier(ScopeContextCarrier carrier) {
+    Assert.notNull(carrier, "carrier must not be null");
+    ScopeContext.carrier = carrier;
+  }
+
+  public static ScopeContextCarrier getCarrier() {
+    return carrier;
+  }
+
+  /**
+   * Default {@link ScopeContextCarrier}, one context per thread
+   */
+  static final class ThreadLocalCarrier implements ScopeContextCarrier {
+
+    private final ThreadLocal<ScopeContext> current = new NamedThreadLocal<>("Current scope context");
+
+    @Override
+    public ScopeContext get() {
+      return current.get();
+    }
+
+    @Override
+    public void set(ScopeContext context) {
+      if (context != null) {
+        current.set(context);
+      }
+      else {
+        current.remove();
+      }
+    }
+  }
+
+}
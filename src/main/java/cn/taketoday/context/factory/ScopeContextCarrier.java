@@ -0,0 +1,46 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.factory;
+
+/**
+ * Carries the current {@link ScopeContext} of the running code
+ *
+ * @author TODAY 2021/4/2 10:10
+ * @see ScopeContext#setCarrier(ScopeContextCarrier)
+ * @since 3.0.3
+ */
+public interface ScopeContextCarrier {
+
+  /**
+   * Get the current scope context
+   *
+   * @return current scope context, {@code null} if none
+   */
+  ScopeContext get();
+
+  /**
+   * Set the current scope context
+   *
+   * @param context
+   *         scope context, {@code null} to clear the current one
+   */
+  void set(ScopeContext context);
+
+}
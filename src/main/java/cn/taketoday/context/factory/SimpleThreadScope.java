@@ -19,7 +19,9 @@
  */
 package cn.taketoday.context.factory;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import cn.taketoday.context.Scope;
@@ -33,6 +35,10 @@ import cn.taketoday.context.Scope;
  * setup, either through {@link ConfigurableBeanFactory#registerScope} or
  * through a {@link CustomScopeConfigurer} bean.
  *
+ * <p>
+ * Scoped beans are stored in the current {@link ScopeContext}, they follow
+ * tasks wrapped by {@link ScopeContext#wrap(Runnable)} to other threads.
+ *
  * @author Arjen Poutsma
  * @author Juergen Hoeller
  * @author TODAY <br>
@@ -41,24 +47,64 @@ import cn.taketoday.context.Scope;
  */
 public class SimpleThreadScope implements Scope {
 
-  private final ThreadLocal<Map<String, Object>> threadScope = ThreadLocal.withInitial(HashMap::new);
+  /**
+   * @since 3.0.3 slot of the beans of all thread scopes in ScopeContext, a map
+   * of scope to its beans by name. The maps are copied on write, since the
+   * captured contexts share them.
+   */
+  private static final int beansSlot = ScopeContext.allocateSlot();
 
   @Override
   public Object remove(String name) {
-    Map<String, Object> scope = this.threadScope.get();
-    return scope.remove(name);
+    final ScopeContext context = ScopeContext.current();
+    if (context == null) {
+      return null;
+    }
+    final Map<String, Object> beans = getBeans(context);
+    if (!beans.containsKey(name)) {
+      return null;
+    }
+    final HashMap<String, Object> copy = new HashMap<>(beans);
+    final Object scopedObject = copy.remove(name);
+    setBeans(context, copy);
+    return scopedObject;
   }
 
   @Override
   public Object get(final BeanDefinition def, final ScopeObjectFactory objectFactory) {
-    Map<String, Object> scope = this.threadScope.get();
-    final String name = def.getName();
-    Object scopedObject = scope.get(name);
+    final ScopeContext context = ScopeContext.obtain();
+    final Map<String, Object> beans = getBeans(context);
+    Object scopedObject = beans.get(def.getName());
     if (scopedObject == null) {
       scopedObject = objectFactory.getObject(def);
-      scope.put(name, scopedObject);
+      final HashMap<String, Object> copy = new HashMap<>(beans);
+      copy.put(def.getName(), scopedObject);
+      setBeans(context, copy);
     }
     return scopedObject;
   }
 
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> getBeans(final ScopeContext context) {
+    final Map<SimpleThreadScope, Map<String, Object>> scopes =
+            (Map<SimpleThreadScope, Map<String, Object>>) context.get(beansSlot);
+    if (scopes != null) {
+      final Map<String, Object> beans = scopes.get(this);
+      if (beans != null) {
+        return beans;
+      }
+    }
+    return Collections.emptyMap();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void setBeans(final ScopeContext context, final Map<String, Object> beans) {
+    final Map<SimpleThreadScope, Map<String, Object>> scopes =
+            (Map<SimpleThreadScope, Map<String, Object>>) context.get(beansSlot);
+    final IdentityHashMap<SimpleThreadScope, Map<String, Object>> copy =
+            scopes != null ? new IdentityHashMap<>(scopes) : new IdentityHashMap<>();
+    copy.put(this, beans);
+    context.set(beansSlot, copy);
+  }
+
 }
@@ -0,0 +1,202 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.factory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cn.taketoday.context.logger.Logger;
+import cn.taketoday.context.logger.LoggerFactory;
+import cn.taketoday.context.utils.Assert;
+import cn.taketoday.context.utils.OrderUtils;
+
+/**
+ * Initialize the non-lazy singletons of a bean factory in background, so that
+ * a context can report started before all its singletons have been created.
+ * <p>
+ * Singletons are initialized in priority order: by {@link cn.taketoday.context.annotation.Order}
+ * first, then the ones with less dependencies. A singleton that is requested
+ * before the warm-up reached it is created by the requesting thread, singleton
+ * creation is guarded so each singleton is created exactly once.
+ *
+ * @author TODAY 2021/4/1 10:20
+ * @see cn.taketoday.context.Constant#ENABLE_SINGLETON_WARM_UP
+ * @since 3.0.3
+ */
+public class SingletonWarmUp implements Runnable {
+  private static final Logger log = LoggerFactory.getLogger(SingletonWarmUp.class);
+
+  private final AbstractBeanFactory beanFactory;
+  private final List<BeanDefinition> definitions;
+
+  private final AtomicInteger initialized = new AtomicInteger();
+  private final CountDownLatch completion = new CountDownLatch(1);
+  private final List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+  private volatile boolean started;
+  private volatile boolean cancelled;
+
+  public SingletonWarmUp(AbstractBeanFactory beanFactory) {
+    Assert.notNull(beanFactory, "beanFactory must not be null");
+    this.beanFactory = beanFactory;
+    this.definitions = sortDefinitions(beanFactory);
+  }
+
+  /**
+   * Collect the singletons to warm up in priority order
+   */
+  protected List<BeanDefinition> sortDefinitions(AbstractBeanFactory beanFactory) {
+    final ArrayList<BeanDefinition> ret = new ArrayList<>();
+    for (final BeanDefinition def : beanFactory.getBeanDefinitions().values()) {
+      if (beanFactory.isEagerSingleton(def)) {
+        ret.add(def);
+      }
+    }
+    final HashMap<String, Integer> depths = new HashMap<>();
+    for (final BeanDefinition def : ret) {
+      getDependencyDepth(def, depths, new HashSet<>());
+    }
+    final Comparator<BeanDefinition> order = Comparator.comparingInt(def -> OrderUtils.getOrder((Object) def));
+    ret.sort(order.reversed().thenComparingInt(def -> depths.get(def.getName())));
+    return ret;
+  }
+
+  private int getDependencyDepth(BeanDefinition def, Map<String, Integer> depths, HashSet<String> visiting) {
+    final String name = def.getName();
+    final Integer depth = depths.get(name);
+    if (depth != null) {
+      return depth;
+    }
+    if (!visiting.add(name)) {
+      return 0; // cycle
+    }
+    int ret = 0;
+    for (final PropertySetter setter : def.getPropertySetters()) {
+      if (setter instanceof BeanReferencePropertySetter) {
+        final BeanDefinition reference =
+                beanFactory.getBeanDefinition(((BeanReferencePropertySetter) setter).getReferenceName());
+        if (reference != null) {
+          ret = Math.max(ret, getDependencyDepth(reference, depths, visiting) + 1);
+        }
+      }
+    }
+    visiting.remove(name);
+    depths.put(name, ret);
+    return ret;
+  }
+
+  @Override
+  public void run() {
+    started = true;
+    log.info("Warming up [{}] singletons", definitions.size());
+    final long start = System.currentTimeMillis();
+    try {
+      for (final BeanDefinition def : definitions) {
+        if (cancelled) {
+          log.info("Singleton warm-up cancelled after [{}] singletons", initialized.get());
+          return;
+        }
+        if (!def.isInitialized()) {
+          try {
+            beanFactory.initializeSingleton(def);
+          }
+          catch (Throwable e) {
+            failures.add(e);
+            log.error("Cannot warm up singleton [" + def.getName() + "]", e);
+          }
+        }
+        initialized.incrementAndGet();
+      }
+      if (!cancelled) {
+        beanFactory.postSingletonInitialization();
+      }
+      log.info("Singletons warmed up in {}ms", System.currentTimeMillis() - start);
+    }
+    finally {
+      completion.countDown();
+    }
+  }
+
+  /**
+   * Stop warming up after the singleton in progress
+   */
+  public void cancel() {
+    this.cancelled = true;
+  }
+
+  /**
+   * Wait for the warm-up to finish
+   *
+   * @return {@code true} if the warm-up finished, {@code false} if the timeout elapsed
+   */
+  public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+    return completion.await(timeout, unit);
+  }
+
+  /**
+   * Is the warm-up finished, completed or cancelled
+   */
+  public boolean isDone() {
+    return completion.getCount() == 0;
+  }
+
+  public boolean isStarted() {
+    return started;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Number of singletons to warm up
+   */
+  public int getTotalCount() {
+    return definitions.size();
+  }
+
+  /**
+   * Number of singletons the warm-up has passed
+   */
+  public int getInitializedCount() {
+    return initialized.get();
+  }
+
+  /**
+   * Singleton creation failures, the failed singletons will be created again on
+   * first access
+   */
+  public List<Throwable> getFailures() {
+    return failures;
+  }
+
+  @Override
+  public String toString() {
+    return "SingletonWarmUp{" + initialized.get() + '/' + definitions.size() + (cancelled ? ", cancelled}" : "}");
+  }
+
+}
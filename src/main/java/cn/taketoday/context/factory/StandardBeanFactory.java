@@ -34,7 +34,9 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
+import cn.taketoday.aop.proxy.AopProxyUtils;
 import cn.taketoday.context.AnnotationAttributes;
 import cn.taketoday.context.ApplicationContext;
 import cn.taketoday.context.BeanNameCreator;
@@ -42,11 +44,13 @@ import cn.taketoday.context.ConfigurableApplicationContext;
 import cn.taketoday.context.Constant;
 import cn.taketoday.context.annotation.Component;
 import cn.taketoday.context.annotation.ComponentScan;
+import cn.taketoday.context.annotation.Conditional;
 import cn.taketoday.context.annotation.Configuration;
 import cn.taketoday.context.annotation.IgnoreDuplicates;
 import cn.taketoday.context.annotation.Import;
 import cn.taketoday.context.annotation.Lazy;
 import cn.taketoday.context.annotation.MissingBean;
+import cn.taketoday.context.annotation.Props;
 import cn.taketoday.context.aware.ApplicationContextAware;
 import cn.taketoday.context.aware.EnvironmentAware;
 import cn.taketoday.context.aware.ImportAware;
@@ -108,12 +112,39 @@ public class StandardBeanFactory
   /**
    * @since 2.1.7 Preventing repeated initialization of beans(Prevent duplicate
    * initialization) , Prevent Cycle Dependency
+   * <p>
+   * @since 3.0.3 per thread, singletons may be initialized concurrently
    */
-  private final HashSet<String> currentInitializingBeanName = new HashSet<>();
+  private final ThreadLocal<HashSet<String>> currentInitializingBeanName = ThreadLocal.withInitial(HashSet::new);
+
+  /**
+   * @since 3.0.3 the candidates of a {@link #load(Collection)} are prepared
+   * in parallel if there are at least this many
+   */
+  static final int PARALLEL_LOADING_THRESHOLD = 32;
+
+  /**
+   * @since 3.0.3 the parallel loading bypasses the definition hooks,
+   * the subclasses overriding them load sequentially
+   */
+  private final boolean definitionHooksOverridden;
 
   public StandardBeanFactory(ConfigurableApplicationContext context) {
     Assert.notNull(context, "applicationContext must not be null");
     this.context = context;
+    this.definitionHooksOverridden = isDefinitionHooksOverridden(getClass());
+  }
+
+  static boolean isDefinitionHooksOverridden(final Class<?> factoryClass) {
+    try {
+      return factoryClass.getMethod("createBeanDefinition", String.class, Class.class, AnnotationAttributes.class)
+              .getDeclaringClass() != StandardBeanFactory.class
+              || factoryClass.getMethod("resolvePropertyValue", Class.class)
+              .getDeclaringClass() != StandardBeanFactory.class;
+    }
+    catch (NoSuchMethodException e) {
+      return true;
+    }
   }
 
   @Override
@@ -145,13 +176,16 @@ public class StandardBeanFactory
     }
 
     final String name = def.getName();
-    if (currentInitializingBeanName.contains(name)) {
+    final HashSet<String> initializing = currentInitializingBeanName.get();
+    if (!initializing.add(name)) {
       return bean;
     }
-    currentInitializingBeanName.add(name);
-    final Object initializingBean = super.initializeBean(bean, def);
-    currentInitializingBeanName.remove(name);
-    return initializingBean;
+    try {
+      return super.initializeBean(bean, def);
+    }
+    finally {
+      initializing.remove(name);
+    }
   }
 
   // -----------------------------------------
@@ -228,7 +262,6 @@ public class StandardBeanFactory
     final Class<?> returnType = method.getReturnType();
 
     final ConfigurableEnvironment environment = getApplicationContext().getEnvironment();
-    final Properties properties = environment.getProperties();
     //final String defaultBeanName = beanNameCreator.create(returnType); // @Deprecated in v2.1.7, use method name instead
     final String defaultBeanName = method.getName(); // @since v2.1.7
     final String declaringBeanName = declaringDef.getName(); // @since v2.1.7
@@ -251,7 +284,7 @@ public class StandardBeanFactory
         stdDef.setDeclaringName(declaringBeanName)
                 .setFactoryMethod(method);
         // resolve @Props on a bean
-        stdDef.addPropertySetter(resolveProps(stdDef, properties));
+        resolveProps(stdDef, environment);
         register(name, stdDef);
         // @since 3.0.5
         if (stdDef.isAnnotationPresent(Configuration.class)) {
@@ -533,11 +566,52 @@ public class StandardBeanFactory
   @Override
   public void load(final Collection<Class<?>> candidates) {
     final ConfigurableApplicationContext context = getApplicationContext();
-    for (Class<?> candidate : candidates) {
-      // don't load abstract class
+    if (candidates.size() >= PARALLEL_LOADING_THRESHOLD
+            && !definitionHooksOverridden
+            && context.getEnvironment().getFlag(Constant.ENABLE_PARALLEL_LOADING, true)) {
+      // @since 3.0.3 prepare in parallel, register in order
+      for (final CandidateMetadata metadata : CandidateMetadata.prepare(candidates)) {
+        register(metadata, context);
+      }
+    }
+    else {
+      for (Class<?> candidate : candidates) {
+        // don't load abstract class
+        if (canRegister(candidate, context)) {
+          doRegister(candidate, null);
+        }
+      }
+    }
+  }
+
+  /**
+   * Register a prepared candidate, the same as
+   * {@link #canRegister} and {@link #doRegister(Class, Consumer)} do
+   *
+   * @since 3.0.3
+   */
+  private void register(final CandidateMetadata metadata, final ConfigurableApplicationContext context) {
+    final Class<?> candidate = metadata.beanClass;
+    if (metadata.failure != null) {
+      // the sequential path decides whether the failure matters
       if (canRegister(candidate, context)) {
         doRegister(candidate, null);
       }
+      return;
+    }
+    final AnnotationAttributes[] components = metadata.components;
+    if (components == null // abstract class
+            || (metadata.conditional && !ContextUtils.passCondition(candidate, context))
+            || components.length == 0) {
+      return;
+    }
+    final String defaultBeanName = getBeanNameCreator().create(candidate);
+    for (int i = 0; i < components.length; i++) {
+      final AnnotationAttributes attributes = components[i];
+      for (final String name : findNames(defaultBeanName, attributes.getStringArray(VALUE))) {
+        register(name, createBeanDefinition(name, candidate, attributes,
+                                            metadata.initMethods[i], resolvePropertyValue(metadata.fields)));
+      }
     }
   }
 
@@ -706,6 +780,17 @@ public class StandardBeanFactory
       componentScan(targetDef);
     }
     // load application listener @since 2.1.7
+    registerApplicationListener(targetDef);
+    // apply lazy init @since 3.0
+    applyLazyInit(targetDef);
+  }
+
+  @Override
+  protected void postProcessRegisterResolvedBeanDefinition(final BeanDefinition targetDef) {
+    registerApplicationListener(targetDef);
+  }
+
+  protected void registerApplicationListener(final BeanDefinition targetDef) {
     if (ApplicationListener.class.isAssignableFrom(targetDef.getBeanClass())) {
       Object listener = getSingleton(targetDef.getName());
       if (listener == null) {
@@ -713,8 +798,6 @@ public class StandardBeanFactory
         context.addApplicationListener((ApplicationListener<?>) listener);
       }
     }
-    // apply lazy init @since 3.0
-    applyLazyInit(targetDef);
   }
 
   protected void applyLazyInit(BeanDefinition def) {
@@ -773,18 +856,28 @@ public class StandardBeanFactory
   public BeanDefinition createBeanDefinition(
           final String beanName, final Class<?> beanClass, final AnnotationAttributes attributes
   ) {
+    final String[] initMethods = attributes == null ? null : attributes.getStringArray(Constant.INIT_METHODS);
+    return createBeanDefinition(beanName, beanClass, attributes,
+                                resolveInitMethod(initMethods, beanClass), resolvePropertyValue(beanClass));
+  }
+
+  private BeanDefinition createBeanDefinition(final String beanName,
+                                              final Class<?> beanClass,
+                                              final AnnotationAttributes attributes,
+                                              final Method[] initMethods,
+                                              final PropertySetter[] propertySetters) {
     final DefaultBeanDefinition ret = new DefaultBeanDefinition(beanName, beanClass);
     if (attributes == null) {
       ret.setDestroyMethods(Constant.EMPTY_STRING_ARRAY)
-              .setInitMethods(resolveInitMethod(null, beanClass));
+              .setInitMethods(initMethods);
     }
     else {
       ret.setScope(attributes.getString(Constant.SCOPE))
               .setDestroyMethods(attributes.getStringArray(Constant.DESTROY_METHODS))
-              .setInitMethods(resolveInitMethod(attributes.getStringArray(Constant.INIT_METHODS), beanClass));
+              .setInitMethods(initMethods);
     }
 
-    ret.setPropertyValues(resolvePropertyValue(beanClass));
+    ret.setPropertyValues(propertySetters);
     // fix missing @Props injection
     resolveProps(ret, getApplicationContext().getEnvironment());
     return ret;
@@ -806,9 +899,12 @@ public class StandardBeanFactory
    * @since 3.0
    */
   public PropertySetter[] resolvePropertyValue(final Class<?> beanClass) {
+    return resolvePropertyValue(ReflectionUtils.getFields(beanClass));
+  }
 
+  private PropertySetter[] resolvePropertyValue(final Collection<Field> fields) {
     final LinkedHashSet<PropertySetter> propertySetters = new LinkedHashSet<>(32);
-    for (final Field field : ReflectionUtils.getFields(beanClass)) {
+    for (final Field field : fields) {
       // if property is required and PropertyValue is null will throw ex in PropertyValueResolver
       final PropertySetter created = createPropertyValue(makeAccessible(field));
       // not required
@@ -840,6 +936,108 @@ public class StandardBeanFactory
     return null;
   }
 
+  /**
+   * Rebind the given fields of the singletons already created, with the
+   * current properties. The definitions are updated too, so the beans
+   * created later get the new values.
+   * <p>
+   * A field whose resolution fails, such as a required property removed,
+   * keeps its current value.
+   * <p>
+   * A singleton being created is rebound once its creation completes. The
+   * fields are written by the calling thread, such as the
+   * {@link cn.taketoday.context.env.PropertiesWatcher} one, without
+   * synchronizing with the threads using the bean: a field read by them
+   * should be {@code volatile}.
+   *
+   * @param fields
+   *         the fields bound from changed properties
+   *
+   * @return the names of the beans rebound
+   *
+   * @see cn.taketoday.context.env.PropertyDependencyIndex
+   * @since 3.0.3
+   */
+  public Set<String> rebindProperties(final Set<Field> fields) {
+    final LinkedHashSet<String> rebound = new LinkedHashSet<>();
+    if (fields.isEmpty()) {
+      return rebound;
+    }
+    final Properties properties = getApplicationContext().getEnvironment().getProperties();
+    for (final Entry<String, BeanDefinition> entry : getBeanDefinitions().entrySet()) {
+      final BeanDefinition def = entry.getValue();
+      final PropertySetter[] propertySetters = def.getPropertySetters();
+
+      List<PropertySetter> props = null; // @Props on the bean, resolved once
+      ArrayList<PropertySetter> resolved = null;
+      PropertySetter[] setters = propertySetters;
+      for (int i = 0; i < propertySetters.length; i++) {
+        final PropertySetter propertySetter = propertySetters[i];
+        if (!(propertySetter instanceof DefaultPropertySetter)) {
+          continue;
+        }
+        final Field field = ((DefaultPropertySetter) propertySetter).getField();
+        if (!fields.contains(field)) {
+          continue;
+        }
+        PropertySetter newSetter;
+        try {
+          newSetter = createPropertyValue(field);
+          if (newSetter == null && def.isAnnotationPresent(Props.class)) {
+            if (props == null) {
+              props = resolveProps(def, properties);
+            }
+            newSetter = findPropertySetter(props, field);
+          }
+        }
+        catch (ConfigurationException e) {
+          log.warn("Can't rebind property: [" + field + "] of bean: [" + def.getName() + "], keep the current value", e);
+          newSetter = null;
+        }
+        if (newSetter != null) {
+          if (resolved == null) {
+            resolved = new ArrayList<>();
+            setters = propertySetters.clone();
+          }
+          setters[i] = newSetter;
+          resolved.add(newSetter);
+        }
+      }
+
+      if (resolved != null) {
+        final PropertySetter[] newSetters = setters;
+        final ArrayList<PropertySetter> newResolved = resolved;
+        // a singleton created meanwhile could miss both the new definition and the rebinding
+        runWithCreationLock(def.getName(), () -> {
+          def.setPropertyValues(newSetters);
+          if (def.isSingleton()) {
+            Object bean = getSingleton(entry.getKey());
+            if (bean != null) {
+              final Object target = AopProxyUtils.getSingletonTarget(bean);
+              if (target != null) {
+                bean = target;
+              }
+              for (final PropertySetter propertySetter : newResolved) {
+                propertySetter.applyValue(bean, this);
+              }
+              rebound.add(entry.getKey());
+            }
+          }
+        });
+      }
+    }
+    return rebound;
+  }
+
+  private static PropertySetter findPropertySetter(final List<PropertySetter> setters, final Field field) {
+    for (final PropertySetter setter : setters) {
+      if (setter instanceof DefaultPropertySetter && ((DefaultPropertySetter) setter).getField().equals(field)) {
+        return setter;
+      }
+    }
+    return null;
+  }
+
   /**
    * @see Constant#META_INFO_property_resolvers
    * @since 3.0
@@ -886,4 +1084,74 @@ public class StandardBeanFactory
     }
   }
 
+  /**
+   * The metadata of a candidate class that doesn't depend on the registry,
+   * so the candidates can be prepared in parallel and registered in order
+   * with the same names and overriding as before.
+   * <p>
+   * Conditions and property values may evaluate expressions on the shared
+   * {@link cn.taketoday.expression.ExpressionProcessor} and run user code,
+   * they are still resolved when the candidate is registered.
+   *
+   * @since 3.0.3
+   */
+  static final class CandidateMetadata {
+
+    final Class<?> beanClass;
+    /** null if the class is abstract */
+    final AnnotationAttributes[] components;
+    /** init methods of each component */
+    final Method[][] initMethods;
+    final Collection<Field> fields;
+    /** the class has conditions */
+    final boolean conditional;
+    /** thrown while preparing, the candidate is registered as usual */
+    final Throwable failure;
+
+    CandidateMetadata(final Class<?> beanClass) {
+      this.beanClass = beanClass;
+
+      AnnotationAttributes[] components = null;
+      Method[][] initMethods = null;
+      Collection<Field> fields = null;
+      boolean conditional = false;
+      Throwable failure = null;
+      if (!Modifier.isAbstract(beanClass.getModifiers())) {
+        try {
+          conditional = ObjectUtils.isNotEmpty(getAnnotationAttributesArray(beanClass, Conditional.class));
+          components = getAnnotationAttributesArray(beanClass, Component.class);
+          initMethods = new Method[components.length][];
+          for (int i = 0; i < components.length; i++) {
+            initMethods[i] = resolveInitMethod(components[i].getStringArray(Constant.INIT_METHODS), beanClass);
+          }
+          if (components.length > 0) {
+            fields = ReflectionUtils.getFields(beanClass);
+          }
+        }
+        catch (Throwable e) {
+          failure = e;
+        }
+      }
+      this.components = components;
+      this.initMethods = initMethods;
+      this.fields = fields;
+      this.conditional = conditional;
+      this.failure = failure;
+    }
+
+    /**
+     * Prepare the given candidates on the common {@link java.util.concurrent.ForkJoinPool}
+     *
+     * @return the metadata in the order of the candidates
+     */
+    static CandidateMetadata[] prepare(final Collection<Class<?>> candidates) {
+      final Class<?>[] classes = candidates.toArray(new Class<?>[candidates.size()]);
+      final CandidateMetadata[] ret = new CandidateMetadata[classes.length];
+      IntStream.range(0, classes.length)
+              .parallel()
+              .forEach(i -> ret[i] = new CandidateMetadata(classes[i]));
+      return ret;
+    }
+  }
+
 }
@@ -20,16 +20,14 @@
 package cn.taketoday.context.io;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.FileInputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Files;
-import java.util.Enumeration;
-import java.util.HashSet;
 import java.util.Objects;
-import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
@@ -108,8 +106,19 @@ public class JarEntryResource extends UrlBasedResource implements JarResource {
       return new FileInputStream(jarFile);
     }
 
-    final JarFile jarFile = getJarFile();
-    return new JarEntryInputStream(jarFile.getInputStream(jarFile.getEntry(name)), jarFile);
+    final JarFileCache.Handle handle = acquireJarFile();
+    try {
+      final JarFile jarFile = handle.getJarFile();
+      final JarEntry jarEntry = jarFile.getJarEntry(name);
+      if (jarEntry == null) {
+        throw new FileNotFoundException("No such entry: [" + name + "] in jar file: [" + jarFile.getName() + "]");
+      }
+      return new JarEntryInputStream(jarFile.getInputStream(jarEntry), handle);
+    }
+    catch (IOException | RuntimeException e) {
+      handle.close();
+      throw e;
+    }
   }
 
   @Override
@@ -128,8 +137,8 @@ public class JarEntryResource extends UrlBasedResource implements JarResource {
     if (name.isEmpty()) {
       return jarFile.exists();
     }
-    try (final JarFile jarFile = getJarFile()) {
-      return jarFile.getEntry(name) != null;
+    try (final JarFileCache.Handle handle = acquireJarFile()) {
+      return handle.getIndex().contains(name);
     }
     catch (IOException e) {
       return false;
@@ -138,37 +147,15 @@ public class JarEntryResource extends UrlBasedResource implements JarResource {
 
   @Override
   public boolean isDirectory() throws IOException {
-    try (final JarFile jarFile = getJarFile()) {
-      return jarFile.getEntry(name).isDirectory();
+    try (final JarFileCache.Handle handle = acquireJarFile()) {
+      return handle.getIndex().isDirectory(name);
     }
   }
 
   @Override
   public String[] list() throws IOException {
-    try (final JarFile jarFile = getJarFile()) {
-
-      final String name = this.name;
-      Set<String> result = new HashSet<>();
-      final Enumeration<JarEntry> entries = jarFile.entries();
-      while (entries.hasMoreElements()) {
-        JarEntry jarEntry = entries.nextElement();
-        final String entryName = jarEntry.getName();
-        if (!entryName.equals(name) && entryName.startsWith(name)) {
-          final String substring = entryName.substring(name.length());
-          final int index = substring.indexOf(Constant.PATH_SEPARATOR);
-
-          if (index > -1) { // is dir
-            result.add(substring.substring(0, index));
-          }
-          else {
-            result.add(substring);
-          }
-        }
-      }
-      if (result.isEmpty()) {
-        return Constant.EMPTY_STRING_ARRAY;
-      }
-      return result.toArray(new String[result.size()]);
+    try (final JarFileCache.Handle handle = acquireJarFile()) {
+      return handle.getIndex().list(name);
     }
   }
 
@@ -202,17 +189,21 @@ public class JarEntryResource extends UrlBasedResource implements JarResource {
 
   private static class JarEntryInputStream extends FilterInputStream {
 
-    private final JarFile jarFile;
+    private final JarFileCache.Handle handle;
 
-    protected JarEntryInputStream(InputStream in, JarFile jarFile) {
+    protected JarEntryInputStream(InputStream in, JarFileCache.Handle handle) {
       super(in);
-      this.jarFile = jarFile;
+      this.handle = handle;
     }
 
     @Override
     public void close() throws IOException {
-      in.close();
-      jarFile.close();
+      try {
+        in.close();
+      }
+      finally {
+        handle.close();
+      }
     }
   }
 
@@ -0,0 +1,259 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.jar.JarFile;
+
+import cn.taketoday.context.logger.Logger;
+import cn.taketoday.context.logger.LoggerFactory;
+import cn.taketoday.context.utils.Assert;
+
+/**
+ * Reference-counted cache of open {@link JarFile}s with their {@link JarIndex},
+ * so resolving and scanning the same jar again never re-reads its central
+ * directory.
+ * <p>
+ * {@link #acquire(File)} returns a {@link Handle} which must be closed after
+ * use. A jar is closed when it's evicted, the least recently used first when
+ * there are more than {@link #getMaxSize()} jars, or when it changed on disk,
+ * but never while a handle on it is still open.
+ *
+ * <pre>
+ * try (JarFileCache.Handle handle = JarFileCache.getSharedInstance().acquire(file)) {
+ *   handle.getIndex().forEach("META-INF/", name -&gt; ...);
+ * }
+ * </pre>
+ *
+ * @author TODAY 2021/3/24 10:30
+ * @since 3.0.3
+ */
+public class JarFileCache {
+  private static final Logger log = LoggerFactory.getLogger(JarFileCache.class);
+
+  private static final JarFileCache sharedInstance = new JarFileCache(128);
+
+  private final int maxSize;
+  /** access ordered */
+  private final LinkedHashMap<File, CachedJarFile> jarFiles = new LinkedHashMap<>(32, 0.75f, true);
+
+  public JarFileCache(int maxSize) {
+    Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Return the cache shared by the resources and the scanner
+   */
+  public static JarFileCache getSharedInstance() {
+    return sharedInstance;
+  }
+
+  /**
+   * Acquire the open jar file, opening and indexing it if it's not cached
+   * or it changed on disk
+   *
+   * @param file
+   *         jar file
+   *
+   * @return a {@link Handle} to close after use
+   *
+   * @throws IOException
+   *         if the jar can't be opened
+   */
+  public Handle acquire(final File file) throws IOException {
+    Assert.notNull(file, "jar file must not be null");
+    final File key = file.getAbsoluteFile();
+    final long lastModified = key.lastModified();
+    final long length = key.length();
+
+    synchronized(jarFiles) {
+      CachedJarFile cached = jarFiles.get(key);
+      if (cached != null && cached.isStale(lastModified, length)) {
+        jarFiles.remove(key);
+        cached.evict();
+        cached = null;
+      }
+      if (cached != null) {
+        return cached.retain();
+      }
+    }
+    // open outside the lock, then publish unless another thread was faster
+    final CachedJarFile opened = new CachedJarFile(key, lastModified, length);
+    synchronized(jarFiles) {
+      final CachedJarFile cached = jarFiles.get(key);
+      if (cached != null && !cached.isStale(lastModified, length)) {
+        opened.evict();
+        return cached.retain();
+      }
+      if (cached != null) {
+        cached.evict();
+      }
+      jarFiles.put(key, opened);
+      final Handle ret = opened.retain();
+      evictEldest();
+      return ret;
+    }
+  }
+
+  private void evictEldest() {
+    final Iterator<CachedJarFile> iterator = jarFiles.values().iterator();
+    while (jarFiles.size() > maxSize && iterator.hasNext()) {
+      final CachedJarFile eldest = iterator.next();
+      iterator.remove();
+      eldest.evict();
+    }
+  }
+
+  /**
+   * Evict the given jar, it's closed once released by all the handles
+   */
+  public void evict(final File file) {
+    final CachedJarFile cached;
+    synchronized(jarFiles) {
+      cached = jarFiles.remove(file.getAbsoluteFile());
+    }
+    if (cached != null) {
+      cached.evict();
+    }
+  }
+
+  /**
+   * Evict all the jars
+   */
+  public void clear() {
+    synchronized(jarFiles) {
+      for (final CachedJarFile cached : jarFiles.values()) {
+        cached.evict();
+      }
+      jarFiles.clear();
+    }
+  }
+
+  public int size() {
+    synchronized(jarFiles) {
+      return jarFiles.size();
+    }
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * An open jar file, closed when evicted and no more referenced
+   */
+  static final class CachedJarFile {
+    final JarFile jarFile;
+    final JarIndex index;
+    final long lastModified;
+    final long length;
+
+    private int references;
+    private boolean evicted;
+
+    CachedJarFile(File file, long lastModified, long length) throws IOException {
+      this.jarFile = new JarFile(file);
+      try {
+        this.index = new JarIndex(jarFile);
+      }
+      catch (RuntimeException e) {
+        jarFile.close();
+        throw e;
+      }
+      this.lastModified = lastModified;
+      this.length = length;
+    }
+
+    boolean isStale(long lastModified, long length) {
+      return this.lastModified != lastModified || this.length != length;
+    }
+
+    synchronized Handle retain() {
+      references++;
+      return new Handle(this);
+    }
+
+    synchronized void release() {
+      if (--references == 0 && evicted) {
+        close();
+      }
+    }
+
+    synchronized void evict() {
+      evicted = true;
+      if (references == 0) {
+        close();
+      }
+    }
+
+    synchronized boolean isClosed() {
+      return evicted && references == 0;
+    }
+
+    private void close() {
+      try {
+        jarFile.close();
+      }
+      catch (IOException e) {
+        log.warn("Can't close jar file: [" + jarFile.getName() + "]", e);
+      }
+    }
+  }
+
+  /**
+   * A reference on a cached jar file, must be closed after use
+   */
+  public static final class Handle implements Closeable {
+    private final CachedJarFile cached;
+    private boolean closed;
+
+    Handle(CachedJarFile cached) {
+      this.cached = cached;
+    }
+
+    /**
+     * Return the open jar file, it must not be closed
+     */
+    public JarFile getJarFile() {
+      return cached.jarFile;
+    }
+
+    public JarIndex getIndex() {
+      return cached.index;
+    }
+
+    /**
+     * Release this reference
+     */
+    @Override
+    public synchronized void close() {
+      if (!closed) {
+        closed = true;
+        cached.release();
+      }
+    }
+  }
+
+}
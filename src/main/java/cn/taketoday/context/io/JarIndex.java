@@ -0,0 +1,134 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.io;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import cn.taketoday.context.Constant;
+
+/**
+ * In-memory directory of the entry names of a jar, sorted so that the
+ * entries under a path are found with a binary search instead of
+ * iterating the whole central directory.
+ *
+ * @author TODAY 2021/3/24 10:05
+ * @see JarFileCache
+ * @since 3.0.3
+ */
+public final class JarIndex {
+
+  /** sorted entry names */
+  private final String[] names;
+
+  JarIndex(JarFile jarFile) {
+    final ArrayList<String> names = new ArrayList<>(jarFile.size());
+    final Enumeration<JarEntry> entries = jarFile.entries();
+    while (entries.hasMoreElements()) {
+      names.add(entries.nextElement().getName());
+    }
+    this.names = names.toArray(new String[names.size()]);
+    Arrays.sort(this.names);
+  }
+
+  /**
+   * Return the index of the first name not less than the given prefix
+   */
+  private int lowerBound(final String prefix) {
+    final int index = Arrays.binarySearch(names, prefix);
+    return index < 0 ? -index - 1 : index;
+  }
+
+  /**
+   * Visit the names starting with the given prefix, in order
+   *
+   * @param prefix
+   *         a path prefix such as {@code "META-INF/"}, {@code ""} for all
+   * @param consumer
+   *         entry name consumer
+   */
+  public void forEach(final String prefix, final Consumer<String> consumer) {
+    final String[] names = this.names;
+    for (int i = lowerBound(prefix); i < names.length; i++) {
+      final String name = names[i];
+      if (!name.startsWith(prefix)) {
+        break;
+      }
+      consumer.accept(name);
+    }
+  }
+
+  /**
+   * Return whether the given path is an entry, or a directory with entries
+   */
+  public boolean contains(final String name) {
+    if (name.isEmpty()) {
+      return true;
+    }
+    final int index = lowerBound(name);
+    return index < names.length && names[index].startsWith(name)
+            && (names[index].length() == name.length() || isDirectory(name));
+  }
+
+  /**
+   * Return whether the given path is a directory. Jars don't always
+   * contain the directory entries, so a path having entries under it
+   * is a directory too.
+   */
+  public boolean isDirectory(final String name) {
+    if (name.isEmpty()) {
+      return true;
+    }
+    final String dir = name.charAt(name.length() - 1) == Constant.PATH_SEPARATOR
+                       ? name : name + Constant.PATH_SEPARATOR;
+    final int index = lowerBound(dir);
+    return index < names.length && names[index].startsWith(dir);
+  }
+
+  /**
+   * Return the names of the direct children of the given directory
+   */
+  public String[] list(final String name) {
+    final String dir = name.isEmpty() || name.charAt(name.length() - 1) == Constant.PATH_SEPARATOR
+                       ? name : name + Constant.PATH_SEPARATOR;
+    final Set<String> result = new LinkedHashSet<>();
+    forEach(dir, entryName -> {
+      if (entryName.length() > dir.length()) {
+        final int index = entryName.indexOf(Constant.PATH_SEPARATOR, dir.length());
+        result.add(index > -1 ? entryName.substring(dir.length(), index) : entryName.substring(dir.length()));
+      }
+    });
+    if (result.isEmpty()) {
+      return Constant.EMPTY_STRING_ARRAY;
+    }
+    return result.toArray(new String[result.size()]);
+  }
+
+  public int size() {
+    return names.length;
+  }
+
+}
@@ -33,7 +33,24 @@ public interface JarResource extends WritableResource {
   @Override
   JarOutputStream getOutputStream() throws IOException;
 
+  /**
+   * Open a new {@link JarFile}, to be closed by the caller
+   *
+   * @see #acquireJarFile()
+   */
   default JarFile getJarFile() throws IOException {
     return new JarFile(getFile());
   }
+
+  /**
+   * Acquire the jar file and its {@link JarIndex} from the shared
+   * {@link JarFileCache}, without re-reading the jar if it's already open
+   *
+   * @return a handle to close after use
+   *
+   * @since 3.0.3
+   */
+  default JarFileCache.Handle acquireJarFile() throws IOException {
+    return JarFileCache.getSharedInstance().acquire(getFile());
+  }
 }
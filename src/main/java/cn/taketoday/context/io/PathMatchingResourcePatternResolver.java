@@ -33,7 +33,6 @@ import java.util.Enumeration;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 
 import cn.taketoday.context.AntPathMatcher;
 import cn.taketoday.context.Constant;
@@ -566,11 +565,9 @@ public class PathMatchingResourcePatternResolver implements ResourceResolver {
     ResourceUtils.useCachesIfNecessary(jarCon);
     final JarEntry jarEntry = jarCon.getJarEntry();
     String rootEntryPath = (jarEntry != null ? jarEntry.getName() : BLANK);
-    final boolean closeJarFile = !jarCon.getUseCaches();
 
-    final JarFile jarFile = rootDirResource.getJarFile();
-
-    try {
+    // @since 3.0.3 shared jar file and index
+    try (final JarFileCache.Handle handle = rootDirResource.acquireJarFile()) {
       if (log.isTraceEnabled()) {
         final String jarFileUrl = jarCon.getJarFileURL().toExternalForm();
         log.trace("Looking for matching resources in jar file [{}]", jarFileUrl);
@@ -584,24 +581,44 @@ public class PathMatchingResourcePatternResolver implements ResourceResolver {
       final PathMatcher pathMatcher = getPathMatcher();
 
       final Set<Resource> result = new LinkedHashSet<>(8);
-      final Enumeration<JarEntry> entries = jarFile.entries();
-
-      while (entries.hasMoreElements()) {
-        final String entryPath = entries.nextElement().getName();
-        if (entryPath.startsWith(rootEntryPath)) {
-          final String relativePath = entryPath.substring(rootEntryPath.length());
-          if (pathMatcher.match(subPattern, relativePath)) {
+      final int rootLength = rootEntryPath.length();
+      // only the entries under the literal directories of the pattern can match
+      final String prefix = rootEntryPath.concat(getLiteralDirectories(subPattern));
+      final IOException[] error = new IOException[1];
+      handle.getIndex().forEach(prefix, entryPath -> {
+        final String relativePath = entryPath.substring(rootLength);
+        if (error[0] == null && pathMatcher.match(subPattern, relativePath)) {
+          try {
             result.add(rootDirResource.createRelative(relativePath));
           }
+          catch (IOException e) {
+            error[0] = e;
+          }
         }
+      });
+      if (error[0] != null) {
+        throw error[0];
       }
       return result;
     }
-    finally {
-      if (closeJarFile) {
-        jarFile.close();
+  }
+
+  /**
+   * Return the leading directories of the given pattern without any
+   * wildcard, {@code "a/b/"} for {@code "a/b/**&#47;*.xml"} for example
+   *
+   * @since 3.0.3
+   */
+  static String getLiteralDirectories(final String pattern) {
+    int end = pattern.length();
+    for (int i = 0; i < pattern.length(); i++) {
+      final char c = pattern.charAt(i);
+      if (c == '*' || c == '?' || c == '{') {
+        end = i;
+        break;
       }
     }
+    return pattern.substring(0, pattern.lastIndexOf('/', end - 1) + 1);
   }
 
   /**
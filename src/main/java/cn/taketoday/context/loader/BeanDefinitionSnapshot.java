@@ -0,0 +1,770 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.loader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import cn.taketoday.context.AnnotationAttributes;
+import cn.taketoday.context.Constant;
+import cn.taketoday.context.factory.AbstractBeanFactory;
+import cn.taketoday.context.factory.AbstractPropertySetter;
+import cn.taketoday.context.factory.BeanDefinition;
+import cn.taketoday.context.factory.BeanReferencePropertySetter;
+import cn.taketoday.context.factory.DefaultBeanDefinition;
+import cn.taketoday.context.factory.DefaultPropertySetter;
+import cn.taketoday.context.factory.FactoryBeanDefinition;
+import cn.taketoday.context.factory.FactoryBeanSupplier;
+import cn.taketoday.context.factory.PropertySetter;
+import cn.taketoday.context.factory.StandardBeanDefinition;
+import cn.taketoday.context.loader.ObjectSupplierPropertyResolver.ObjectSupplierPropertySetter;
+import cn.taketoday.context.utils.Assert;
+import cn.taketoday.context.utils.ClassUtils;
+import cn.taketoday.context.utils.StringUtils;
+
+/**
+ * Compact binary snapshot of the bean definitions loaded by a context.
+ * <p>
+ * A snapshot holds the bean definitions registered by loading (names, classes,
+ * scopes, init and destroy methods, factory methods, property setters and
+ * attributes such as the {@link cn.taketoday.context.annotation.Import}ing
+ * definition or the {@link cn.taketoday.context.annotation.MissingBean}
+ * metadata) and
+ * the {@link cn.taketoday.context.event.EventListener} candidates, so that a
+ * later start can rebuild the registry without scanning and loading. Conditions
+ * have already been evaluated at loading: only definitions that passed them are
+ * recorded.
+ * <p>
+ * A snapshot is bound to a {@link #fingerprint(String[], Properties) fingerprint}
+ * of the class path and properties it was created from and must not be restored
+ * if it does not match. Property values are deserialized only if they are of
+ * their field type or of common value types.
+ *
+ * @author TODAY 2021/3/30 10:20
+ * @see Constant#BEAN_DEFINITION_SNAPSHOT
+ * @since 3.0.3
+ */
+public class BeanDefinitionSnapshot {
+
+  private static final int MAGIC = 0x54424453; // TBDS
+  private static final int VERSION = 2;
+
+  private static final byte DEFAULT_DEFINITION = 0;
+  private static final byte STANDARD_DEFINITION = 1;
+  private static final byte FACTORY_DEFINITION = 2;
+
+  private static final byte VALUE_SETTER = 0;
+  private static final byte REFERENCE_SETTER = 1;
+  private static final byte SUPPLIER_SETTER = 2;
+
+  private static final byte NULL_VALUE = 0;
+  private static final byte STRING_VALUE = 1;
+  private static final byte BOOLEAN_VALUE = 2;
+  private static final byte INT_VALUE = 3;
+  private static final byte LONG_VALUE = 4;
+  private static final byte CLASS_VALUE = 5;
+  private static final byte ENUM_VALUE = 6;
+  private static final byte ARRAY_VALUE = 7;
+  private static final byte ANNOTATION_VALUE = 8;
+  /** reference to another bean definition by name */
+  private static final byte DEFINITION_VALUE = 9;
+
+  private final byte[] fingerprint;
+  private final String[] listeners;
+  /** encoded bean definitions */
+  private final byte[] definitions;
+
+  BeanDefinitionSnapshot(byte[] fingerprint, String[] listeners, byte[] definitions) {
+    this.fingerprint = fingerprint;
+    this.listeners = listeners;
+    this.definitions = definitions;
+  }
+
+  /**
+   * Create a snapshot of the given bean definitions
+   *
+   * @param fingerprint
+   *         fingerprint of the class path and properties the definitions were loaded from
+   * @param listeners
+   *         {@link cn.taketoday.context.event.EventListener} candidates
+   * @param definitions
+   *         loaded bean definitions
+   *
+   * @return a new snapshot, or {@code null} if a definition cannot be recorded,
+   * for example a definition with an instance supplier, a property value that
+   * is not {@link Serializable} or an attribute of an unsupported type
+   */
+  public static BeanDefinitionSnapshot of(
+          byte[] fingerprint, Collection<Class<?>> listeners, Collection<BeanDefinition> definitions) {
+    Assert.notNull(fingerprint, "fingerprint must not be null");
+
+    final String[] listenerNames = new String[listeners.size()];
+    int i = 0;
+    for (final Class<?> listener : listeners) {
+      listenerNames[i++] = listener.getName();
+    }
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(definitions.size() * 128);
+    try (final DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(definitions.size());
+      for (final BeanDefinition def : definitions) {
+        if (!writeDefinition(out, def)) {
+          return null;
+        }
+      }
+    }
+    catch (IOException e) {
+      return null;
+    }
+    return new BeanDefinitionSnapshot(fingerprint, listenerNames, bytes.toByteArray());
+  }
+
+  /**
+   * Compute a fingerprint of the class path and properties. The fingerprint
+   * covers the path, length and last modified time of each class path jar and
+   * of each file under the class path directories of the given locations.
+   *
+   * @param locations
+   *         scanning package locations, empty for the whole class path
+   * @param properties
+   *         context properties
+   */
+  public static byte[] fingerprint(String[] locations, Properties properties) {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    final TreeSet<String> entries = new TreeSet<>();
+    final String classPath = System.getProperty("java.class.path");
+    if (StringUtils.isNotEmpty(classPath)) {
+      for (final String path : classPath.split(Pattern.quote(File.pathSeparator))) {
+        addEntry(entries, new File(path));
+      }
+    }
+    if (locations == null || locations.length == 0) {
+      locations = new String[] { Constant.BLANK };
+    }
+    final ClassLoader classLoader = ClassUtils.getClassLoader();
+    for (final String location : locations) {
+      digest.update(location.getBytes(StandardCharsets.UTF_8));
+      try {
+        final Enumeration<URL> roots = classLoader.getResources(location.replace('.', '/'));
+        while (roots.hasMoreElements()) {
+          final URL root = roots.nextElement();
+          if ("file".equals(root.getProtocol())) {
+            addEntry(entries, new File(root.toURI()));
+          }
+          else {
+            entries.add(root.toString());
+          }
+        }
+      }
+      catch (Exception e) {
+        throw new IllegalStateException("Cannot read class path of [" + location + "]", e);
+      }
+    }
+    for (final String entry : entries) {
+      digest.update(entry.getBytes(StandardCharsets.UTF_8));
+    }
+    final TreeMap<String, String> sorted = new TreeMap<>();
+    for (final Map.Entry<Object, Object> entry : properties.entrySet()) {
+      sorted.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+    }
+    digest.update(sorted.toString().getBytes(StandardCharsets.UTF_8));
+    return digest.digest();
+  }
+
+  private static void addEntry(Set<String> entries, File file) {
+    if (file.isDirectory()) {
+      final File[] files = file.listFiles();
+      if (files != null) {
+        for (final File child : files) {
+          addEntry(entries, child);
+        }
+      }
+    }
+    else if (file.exists()) {
+      entries.add(file.getPath() + ':' + file.length() + ':' + file.lastModified());
+    }
+  }
+
+  /**
+   * Is this snapshot created from the given fingerprint
+   */
+  public boolean matches(byte[] fingerprint) {
+    return Arrays.equals(this.fingerprint, fingerprint);
+  }
+
+  /**
+   * Load the {@link cn.taketoday.context.event.EventListener} candidates
+   *
+   * @throws ClassNotFoundException
+   *         if a listener class is missing
+   */
+  public Set<Class<?>> getListeners() throws ClassNotFoundException {
+    final LinkedHashSet<Class<?>> ret = new LinkedHashSet<>(listeners.length);
+    for (final String listener : listeners) {
+      ret.add(ClassUtils.forName(listener));
+    }
+    return ret;
+  }
+
+  /**
+   * Rebuild the recorded bean definitions
+   *
+   * @param beanFactory
+   *         bean factory that will hold the definitions
+   *
+   * @return rebuilt bean definitions in recording order
+   *
+   * @throws IOException
+   *         if the snapshot is corrupted
+   * @throws ReflectiveOperationException
+   *         if a recorded class, method or field is missing
+   */
+  public List<BeanDefinition> getBeanDefinitions(AbstractBeanFactory beanFactory)
+          throws IOException, ReflectiveOperationException {
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(definitions));
+    final int size = in.readInt();
+    final ArrayList<BeanDefinition> ret = new ArrayList<>(size);
+    final HashMap<String, BeanDefinition> byName = new HashMap<>(size);
+    for (int i = 0; i < size; i++) {
+      final BeanDefinition def = readDefinition(in, beanFactory);
+      ret.add(def);
+      byName.put(def.getName(), def);
+    }
+    // referenced definitions are recorded or registered before loading
+    for (final BeanDefinition def : ret) {
+      resolveReferences(def, byName, beanFactory);
+      if (def instanceof FactoryBeanDefinition) {
+        resolveReferences(((FactoryBeanDefinition<?>) def).getFactoryDefinition(), byName, beanFactory);
+      }
+    }
+    return ret;
+  }
+
+  private static void resolveReferences(BeanDefinition def, Map<String, BeanDefinition> byName,
+                                        AbstractBeanFactory beanFactory) throws IOException {
+    for (final Map.Entry<String, Object> attribute : def.getAttributes().entrySet()) {
+      if (attribute.getValue() instanceof DefinitionReference) {
+        final String name = ((DefinitionReference) attribute.getValue()).name;
+        BeanDefinition referenced = byName.get(name);
+        if (referenced == null) {
+          referenced = beanFactory.getBeanDefinition(name);
+          if (referenced == null) {
+            throw new IOException("Bean definition [" + name + "] referenced by [" + def.getName() + "] is missing");
+          }
+        }
+        attribute.setValue(referenced);
+      }
+    }
+  }
+
+  // read and write
+  // -----------------------------------------
+
+  /**
+   * Write this snapshot to the given stream
+   */
+  public void writeTo(OutputStream output) throws IOException {
+    final DataOutputStream out = new DataOutputStream(output);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(fingerprint.length);
+    out.write(fingerprint);
+    out.writeInt(listeners.length);
+    for (final String listener : listeners) {
+      out.writeUTF(listener);
+    }
+    out.writeInt(definitions.length);
+    out.write(definitions);
+    out.flush();
+  }
+
+  /**
+   * Read a snapshot from the given stream
+   *
+   * @return the snapshot, or {@code null} if the stream does not hold a
+   * snapshot of the current version
+   */
+  public static BeanDefinitionSnapshot readFrom(InputStream input) throws IOException {
+    final DataInputStream in = new DataInputStream(input);
+    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+      return null;
+    }
+    final byte[] fingerprint = new byte[in.readInt()];
+    in.readFully(fingerprint);
+    final String[] listeners = new String[in.readInt()];
+    for (int i = 0; i < listeners.length; i++) {
+      listeners[i] = in.readUTF();
+    }
+    final byte[] definitions = new byte[in.readInt()];
+    in.readFully(definitions);
+    return new BeanDefinitionSnapshot(fingerprint, listeners, definitions);
+  }
+
+  private static boolean writeDefinition(DataOutputStream out, BeanDefinition def) throws IOException {
+    if (def instanceof FactoryBeanDefinition) {
+      final FactoryBeanDefinition<?> factoryDef = (FactoryBeanDefinition<?>) def;
+      if (!(factoryDef.getFactorySupplier() instanceof FactoryBeanSupplier)) {
+        return false;
+      }
+      out.writeByte(FACTORY_DEFINITION);
+      return writeDefinition(out, factoryDef.getFactoryDefinition()) && writeAttributes(out, def);
+    }
+    final Class<?> type = def.getClass();
+    if (type != DefaultBeanDefinition.class && type != StandardBeanDefinition.class) {
+      return false;
+    }
+    final DefaultBeanDefinition defaultDef = (DefaultBeanDefinition) def;
+    if (defaultDef.getSupplier() != null || defaultDef.getChild() != null) {
+      return false;
+    }
+
+    if (def instanceof StandardBeanDefinition) {
+      final StandardBeanDefinition stdDef = (StandardBeanDefinition) def;
+      out.writeByte(STANDARD_DEFINITION);
+      writeNullable(out, stdDef.getDeclaringName());
+      writeMethod(out, stdDef.getFactoryMethod());
+    }
+    else {
+      out.writeByte(DEFAULT_DEFINITION);
+    }
+    out.writeUTF(def.getName());
+    out.writeUTF(def.getBeanClass().getName());
+    writeNullable(out, def.getScope());
+    final Boolean lazyInit = defaultDef.getLazyInit();
+    out.writeByte(lazyInit == null ? -1 : lazyInit ? 1 : 0);
+    out.writeBoolean(def.isFactoryBean());
+
+    final Method[] initMethods = def.getInitMethods();
+    out.writeInt(initMethods.length);
+    for (final Method initMethod : initMethods) {
+      writeMethod(out, initMethod);
+    }
+    final String[] destroyMethods = def.getDestroyMethods();
+    out.writeInt(destroyMethods.length);
+    for (final String destroyMethod : destroyMethods) {
+      out.writeUTF(destroyMethod);
+    }
+
+    final PropertySetter[] setters = def.getPropertySetters();
+    out.writeInt(setters.length);
+    for (final PropertySetter setter : setters) {
+      if (!writePropertySetter(out, setter)) {
+        return false;
+      }
+    }
+    return writeAttributes(out, def);
+  }
+
+  private static boolean writeAttributes(DataOutputStream out, BeanDefinition def) throws IOException {
+    final Map<String, Object> attributes = def.getAttributes();
+    out.writeInt(attributes.size());
+    for (final Map.Entry<String, Object> attribute : attributes.entrySet()) {
+      out.writeUTF(attribute.getKey());
+      final Object value = attribute.getValue();
+      if (value instanceof BeanDefinition) {
+        out.writeByte(DEFINITION_VALUE);
+        out.writeUTF(((BeanDefinition) value).getName());
+      }
+      else if (!writeValue(out, value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void readAttributes(DataInputStream in, BeanDefinition def)
+          throws IOException, ReflectiveOperationException {
+    final int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      final String name = in.readUTF();
+      final byte kind = in.readByte();
+      def.setAttribute(name, kind == DEFINITION_VALUE ? new DefinitionReference(in.readUTF()) : readValue(in, kind));
+    }
+  }
+
+  /**
+   * Write an attribute value, annotation attributes or their values
+   *
+   * @return {@code false} if the value type is not supported
+   */
+  private static boolean writeValue(DataOutputStream out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL_VALUE);
+    }
+    else if (value instanceof String) {
+      out.writeByte(STRING_VALUE);
+      out.writeUTF((String) value);
+    }
+    else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN_VALUE);
+      out.writeBoolean((Boolean) value);
+    }
+    else if (value instanceof Integer) {
+      out.writeByte(INT_VALUE);
+      out.writeInt((Integer) value);
+    }
+    else if (value instanceof Long) {
+      out.writeByte(LONG_VALUE);
+      out.writeLong((Long) value);
+    }
+    else if (value instanceof Class) {
+      out.writeByte(CLASS_VALUE);
+      out.writeUTF(((Class<?>) value).getName());
+    }
+    else if (value instanceof Enum) {
+      out.writeByte(ENUM_VALUE);
+      out.writeUTF(((Enum<?>) value).getDeclaringClass().getName());
+      out.writeUTF(((Enum<?>) value).name());
+    }
+    else if (value.getClass().isArray()) {
+      out.writeByte(ARRAY_VALUE);
+      out.writeUTF(value.getClass().getComponentType().getName());
+      final int length = Array.getLength(value);
+      out.writeInt(length);
+      for (int i = 0; i < length; i++) {
+        if (!writeValue(out, Array.get(value, i))) {
+          return false;
+        }
+      }
+    }
+    else if (value.getClass() == AnnotationAttributes.class) {
+      final AnnotationAttributes attributes = (AnnotationAttributes) value;
+      out.writeByte(ANNOTATION_VALUE);
+      final Class<? extends Annotation> annotationType = attributes.annotationType();
+      writeNullable(out, annotationType == null ? null : annotationType.getName());
+      out.writeInt(attributes.size());
+      for (final Map.Entry<String, Object> entry : attributes.entrySet()) {
+        out.writeUTF(entry.getKey());
+        if (!writeValue(out, entry.getValue())) {
+          return false;
+        }
+      }
+    }
+    else {
+      return false;
+    }
+    return true;
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static Object readValue(DataInputStream in, byte kind) throws IOException, ReflectiveOperationException {
+    switch (kind) {
+      case NULL_VALUE:
+        return null;
+      case STRING_VALUE:
+        return in.readUTF();
+      case BOOLEAN_VALUE:
+        return in.readBoolean();
+      case INT_VALUE:
+        return in.readInt();
+      case LONG_VALUE:
+        return in.readLong();
+      case CLASS_VALUE:
+        return ClassUtils.forName(in.readUTF());
+      case ENUM_VALUE: {
+        final Class enumType = ClassUtils.forName(in.readUTF());
+        return Enum.valueOf(enumType, in.readUTF());
+      }
+      case ARRAY_VALUE: {
+        final Class<?> componentType = ClassUtils.forName(in.readUTF());
+        final Object array = Array.newInstance(componentType, in.readInt());
+        final int length = Array.getLength(array);
+        for (int i = 0; i < length; i++) {
+          Array.set(array, i, readValue(in, in.readByte()));
+        }
+        return array;
+      }
+      case ANNOTATION_VALUE: {
+        final String annotationType = readNullable(in);
+        final AnnotationAttributes attributes = annotationType == null
+                                                ? new AnnotationAttributes()
+                                                : new AnnotationAttributes((Class<? extends Annotation>) ClassUtils.forName(annotationType));
+        final int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+          final String name = in.readUTF();
+          attributes.put(name, readValue(in, in.readByte()));
+        }
+        return attributes;
+      }
+      default:
+        throw new IOException("Unknown attribute value kind: " + kind);
+    }
+  }
+
+  private static boolean writePropertySetter(DataOutputStream out, PropertySetter setter) throws IOException {
+    if (!(setter instanceof AbstractPropertySetter)) {
+      return false;
+    }
+    final Field field = ((AbstractPropertySetter) setter).getField();
+    final Class<?> type = setter.getClass();
+    if (type == DefaultPropertySetter.class) {
+      final Object value = ((DefaultPropertySetter) setter).getValue();
+      if (value != null && !(value instanceof Serializable)) {
+        return false;
+      }
+      out.writeByte(VALUE_SETTER);
+      writeField(out, field);
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (final ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+        objectOut.writeObject(value);
+      }
+      catch (IOException e) { // not serializable contents
+        return false;
+      }
+      out.writeInt(bytes.size());
+      bytes.writeTo(out);
+    }
+    else if (type == BeanReferencePropertySetter.class) {
+      final BeanReferencePropertySetter reference = (BeanReferencePropertySetter) setter;
+      out.writeByte(REFERENCE_SETTER);
+      writeField(out, field);
+      out.writeUTF(reference.getReferenceName());
+      out.writeBoolean(reference.isRequired());
+      out.writeBoolean(reference.isPrototype());
+    }
+    else if (type == ObjectSupplierPropertySetter.class) {
+      out.writeByte(SUPPLIER_SETTER);
+      writeField(out, field);
+      out.writeUTF(((ObjectSupplierPropertySetter) setter).target.getName());
+    }
+    else {
+      return false;
+    }
+    return true;
+  }
+
+  private static BeanDefinition readDefinition(DataInputStream in, AbstractBeanFactory beanFactory)
+          throws IOException, ReflectiveOperationException {
+    final byte kind = in.readByte();
+    if (kind == FACTORY_DEFINITION) {
+      final FactoryBeanDefinition<?> def = new FactoryBeanDefinition<>(readDefinition(in, beanFactory), beanFactory);
+      readAttributes(in, def);
+      return def;
+    }
+
+    final DefaultBeanDefinition def;
+    if (kind == STANDARD_DEFINITION) {
+      final String declaringName = readNullable(in);
+      final Method factoryMethod = readMethod(in);
+      def = new StandardBeanDefinition(in.readUTF(), ClassUtils.forName(in.readUTF()))
+              .setDeclaringName(declaringName)
+              .setFactoryMethod(factoryMethod);
+    }
+    else if (kind == DEFAULT_DEFINITION) {
+      def = new DefaultBeanDefinition(in.readUTF(), ClassUtils.forName(in.readUTF()));
+    }
+    else {
+      throw new IOException("Unknown bean definition kind: " + kind);
+    }
+    def.setScope(readNullable(in));
+    final byte lazyInit = in.readByte();
+    if (lazyInit != -1) {
+      def.setLazyInit(lazyInit == 1);
+    }
+    def.setFactoryBean(in.readBoolean());
+
+    final Method[] initMethods = new Method[in.readInt()];
+    for (int i = 0; i < initMethods.length; i++) {
+      initMethods[i] = readMethod(in);
+    }
+    def.setInitMethods(initMethods);
+    final String[] destroyMethods = new String[in.readInt()];
+    for (int i = 0; i < destroyMethods.length; i++) {
+      destroyMethods[i] = in.readUTF();
+    }
+    def.setDestroyMethods(destroyMethods);
+
+    final PropertySetter[] setters = new PropertySetter[in.readInt()];
+    for (int i = 0; i < setters.length; i++) {
+      setters[i] = readPropertySetter(in);
+    }
+    def.setPropertyValues(setters);
+    readAttributes(in, def);
+    return def;
+  }
+
+  private static PropertySetter readPropertySetter(DataInputStream in)
+          throws IOException, ReflectiveOperationException {
+    final byte kind = in.readByte();
+    final Field field = readField(in);
+    switch (kind) {
+      case VALUE_SETTER: {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        try (final ObjectInputStream objectIn = new ClassLoaderObjectInputStream(bytes, field.getType())) {
+          return new DefaultPropertySetter(objectIn.readObject(), field);
+        }
+      }
+      case REFERENCE_SETTER: {
+        final BeanReferencePropertySetter reference =
+                new BeanReferencePropertySetter(in.readUTF(), in.readBoolean(), field);
+        reference.setPrototype(in.readBoolean());
+        return reference;
+      }
+      case SUPPLIER_SETTER:
+        return new ObjectSupplierPropertySetter(field, ClassUtils.forName(in.readUTF()));
+      default:
+        throw new IOException("Unknown property setter kind: " + kind);
+    }
+  }
+
+  private static void writeNullable(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullable(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeMethod(DataOutputStream out, Method method) throws IOException {
+    out.writeUTF(method.getDeclaringClass().getName());
+    out.writeUTF(method.getName());
+    final Class<?>[] parameterTypes = method.getParameterTypes();
+    out.writeInt(parameterTypes.length);
+    for (final Class<?> parameterType : parameterTypes) {
+      out.writeUTF(parameterType.getName());
+    }
+  }
+
+  private static Method readMethod(DataInputStream in) throws IOException, ReflectiveOperationException {
+    final Class<?> declaringClass = ClassUtils.forName(in.readUTF());
+    final String name = in.readUTF();
+    final Class<?>[] parameterTypes = new Class<?>[in.readInt()];
+    for (int i = 0; i < parameterTypes.length; i++) {
+      parameterTypes[i] = ClassUtils.forName(in.readUTF());
+    }
+    return declaringClass.getDeclaredMethod(name, parameterTypes);
+  }
+
+  private static void writeField(DataOutputStream out, Field field) throws IOException {
+    out.writeUTF(field.getDeclaringClass().getName());
+    out.writeUTF(field.getName());
+  }
+
+  private static Field readField(DataInputStream in) throws IOException, ReflectiveOperationException {
+    final Class<?> declaringClass = ClassUtils.forName(in.readUTF());
+    return declaringClass.getDeclaredField(in.readUTF());
+  }
+
+  /**
+   * Placeholder of a referenced bean definition until all are read
+   */
+  static final class DefinitionReference {
+    final String name;
+
+    DefinitionReference(String name) {
+      this.name = name;
+    }
+  }
+
+  /**
+   * Resolves the classes of a property value: its field type and its subtypes,
+   * or common value types, others are rejected
+   */
+  static final class ClassLoaderObjectInputStream extends ObjectInputStream {
+    private final Class<?> expectedType;
+
+    ClassLoaderObjectInputStream(byte[] bytes, Class<?> expectedType) throws IOException {
+      super(new ByteArrayInputStream(bytes));
+      this.expectedType = expectedType;
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      Class<?> type;
+      try {
+        type = ClassUtils.forName(desc.getName());
+      }
+      catch (ClassNotFoundException e) {
+        type = super.resolveClass(desc);
+      }
+      if (!isExpected(type)) {
+        throw new InvalidClassException(desc.getName(), "Unexpected class of a bean definition snapshot value");
+      }
+      return type;
+    }
+
+    @Override
+    protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+      throw new InvalidClassException("Unexpected proxy class of a bean definition snapshot value");
+    }
+
+    private boolean isExpected(Class<?> type) {
+      while (type.isArray()) {
+        type = type.getComponentType();
+      }
+      if (type.isPrimitive() || type == String.class || type == Boolean.class || type == Character.class
+              || type == Enum.class || type == Number.class || type == Class.class) {
+        return true;
+      }
+      final String name = type.getName();
+      if ((Number.class.isAssignableFrom(type) && name.startsWith("java."))
+              || name.startsWith("java.util.") && !name.startsWith("java.util.concurrent.")
+              || name.startsWith("java.time.")) {
+        return true;
+      }
+      // the field type, unless it accepts anything
+      return expectedType != Object.class && expectedType != Serializable.class
+              && expectedType.isAssignableFrom(type);
+    }
+  }
+
+}
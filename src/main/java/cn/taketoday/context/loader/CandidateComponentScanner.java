@@ -20,6 +20,7 @@
 package cn.taketoday.context.loader;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
@@ -40,6 +41,7 @@ import cn.taketoday.context.Constant;
 import cn.taketoday.context.ThrowableSupplier;
 import cn.taketoday.context.exception.ContextException;
 import cn.taketoday.context.io.FileBasedResource;
+import cn.taketoday.context.io.JarFileCache;
 import cn.taketoday.context.io.JarEntryResource;
 import cn.taketoday.context.io.Resource;
 import cn.taketoday.context.io.ResourceFilter;
@@ -73,6 +75,8 @@ public class CandidateComponentScanner {
   private ClassLoader classLoader = ClassUtils.getClassLoader();
 
   private int scanningTimes = 0;
+  /** @since 3.0.3 a subclass still customizes the supplier based scanning */
+  private final boolean jarFileSupplierOverridden = isJarFileSupplierOverridden(getClass());
 
   private static CandidateComponentScanner sharedScanner = new CandidateComponentScanner();
 
@@ -279,27 +283,74 @@ public class CandidateComponentScanner {
         return;
       }
       if (resource.getName().endsWith(".jar")) {
-        scanInJarFile(resource, packageName, () -> new JarFile(resource.getFile()));
+        if (jarFileSupplierOverridden) {
+          scanInJarFile(resource, packageName, () -> new JarFile(resource.getFile()));
+        }
+        else {
+          scanInJarFile(resource, packageName, resource.getFile());
+        }
       }
     }
     else if (resource instanceof JarEntryResource) {
-      scanInJarFile(resource, packageName, ((JarEntryResource) resource)::getJarFile);
+      if (jarFileSupplierOverridden) {
+        scanInJarFile(resource, packageName, ((JarEntryResource) resource)::getJarFile);
+      }
+      else {
+        scanInJarFile(resource, packageName, resource.getFile());
+      }
+    }
+  }
+
+  static boolean isJarFileSupplierOverridden(Class<?> scannerClass) {
+    for (; scannerClass != CandidateComponentScanner.class; scannerClass = scannerClass.getSuperclass()) {
+      try {
+        scannerClass.getDeclaredMethod("scanInJarFile", Resource.class, String.class, ThrowableSupplier.class);
+        return true;
+      }
+      catch (NoSuchMethodException ignored) { }
     }
+    return false;
   }
 
+  /**
+   * Scan the classes of the given package in the jar file supplied.
+   * Called instead of {@link #scanInJarFile(Resource, String, File)} only if
+   * a subclass overrides it.
+   *
+   * @deprecated override {@link #scanInJarFile(Resource, String, File)}:
+   * by default the supplied jar file is only used to locate the file then
+   * closed, the jar is read from the shared {@link JarFileCache}
+   */
+  @Deprecated
   protected void scanInJarFile(final Resource resource,
                                final String packageName,
                                final ThrowableSupplier<JarFile, IOException> jarFileSupplier) throws IOException //
+  {
+    final File file;
+    try (final JarFile jarFile = jarFileSupplier.get()) {
+      file = new File(jarFile.getName());
+    }
+    scanInJarFile(resource, packageName, file);
+  }
+
+  /**
+   * Scan the classes of the given package in a jar file, the jar file and
+   * its index are shared through the {@link JarFileCache}
+   *
+   * @since 3.0.3
+   */
+  protected void scanInJarFile(final Resource resource,
+                               final String packageName,
+                               final File jarFile) throws IOException //
   {
     if (getJarResourceFilter().test(resource)) {
       if (log.isTraceEnabled()) {
         log.trace("Scan in jar file: [{}]", resource.getLocation());
       }
-      try (final JarFile jarFile = jarFileSupplier.get()) {
-        final Enumeration<JarEntry> jarEntries = jarFile.entries();
-        while (jarEntries.hasMoreElements()) {
-          loadClassFromJarEntry(jarEntries.nextElement(), packageName);
-        }
+      try (final JarFileCache.Handle handle = JarFileCache.getSharedInstance().acquire(jarFile)) {
+        // only the entries under the package directory
+        final String prefix = packageName.replace(PACKAGE_SEPARATOR, PATH_SEPARATOR);
+        handle.getIndex().forEach(prefix, name -> loadClassFromJarEntry(name, packageName));
       }
     }
   }
@@ -345,7 +396,18 @@ public class CandidateComponentScanner {
     if (jarEntry.isDirectory()) {
       return;
     }
-    final String jarEntryName = jarEntry.getName(); // cn/taketoday/xxx/yyy.class
+    loadClassFromJarEntry(jarEntry.getName(), packageName);
+  }
+
+  /**
+   * Load classes from the name of a jar entry
+   *
+   * @param jarEntryName
+   *         The entry name of jar, such as {@code cn/taketoday/xxx/yyy.class}
+   *
+   * @since 3.0.3
+   */
+  public void loadClassFromJarEntry(final String jarEntryName, final String packageName) {
     if (jarEntryName.endsWith(Constant.CLASS_FILE_SUFFIX)) {
 
       // fix #10 classes loading from a jar can't be load
@@ -27,6 +27,9 @@ import cn.taketoday.context.ApplicationContext;
 import cn.taketoday.context.Ordered;
 import cn.taketoday.context.annotation.Props;
 import cn.taketoday.context.aware.OrderedApplicationContextSupport;
+import cn.taketoday.context.env.ConfigurableEnvironment;
+import cn.taketoday.context.env.Environment;
+import cn.taketoday.context.env.PropertyDependencyIndex;
 import cn.taketoday.context.factory.DefaultPropertySetter;
 import cn.taketoday.context.utils.ClassUtils;
 import cn.taketoday.context.utils.ContextUtils;
@@ -60,8 +63,14 @@ public class PropsPropertyResolver
 
     Props props = ClassUtils.getAnnotation(Props.class, field);
 
-    Properties properties =
-            ContextUtils.loadProps(props, obtainApplicationContext().getEnvironment().getProperties());
+    final Environment environment = obtainApplicationContext().getEnvironment();
+    if (environment instanceof ConfigurableEnvironment) {
+      final PropertyDependencyIndex dependencies = ((ConfigurableEnvironment) environment).getPropertyDependencies();
+      if (dependencies != null) {
+        dependencies.recordPrefixes(field, props.prefix());
+      }
+    }
+    Properties properties = ContextUtils.loadProps(props, environment.getProperties());
 
     // feat: Enhance `Props`
     final Class<?> propertyClass = field.getType();
@@ -29,6 +29,9 @@ import cn.taketoday.context.annotation.Env;
 import cn.taketoday.context.annotation.Required;
 import cn.taketoday.context.annotation.Value;
 import cn.taketoday.context.aware.OrderedApplicationContextSupport;
+import cn.taketoday.context.env.ConfigurableEnvironment;
+import cn.taketoday.context.env.Environment;
+import cn.taketoday.context.env.PropertyDependencyIndex;
 import cn.taketoday.context.exception.ConfigurationException;
 import cn.taketoday.context.factory.DefaultPropertySetter;
 import cn.taketoday.context.utils.ClassUtils;
@@ -95,6 +98,7 @@ public class ValuePropertyResolver
               .append(field.getName())//
               .append(Constant.PLACE_HOLDER_SUFFIX).toString();
     }
+    recordDependency(field, expression);
     Object resolved;
     try {
       resolved = expressionEvaluator.evaluate(expression, field.getType());
@@ -108,6 +112,22 @@ public class ValuePropertyResolver
     return new DefaultPropertySetter(resolved, field);
   }
 
+  /**
+   * Record the keys of the expression so that the field can be rebound
+   * when they change
+   *
+   * @since 3.0.3
+   */
+  protected void recordDependency(final Field field, final String expression) {
+    final Environment environment = obtainApplicationContext().getEnvironment();
+    if (environment instanceof ConfigurableEnvironment) {
+      final PropertyDependencyIndex dependencies = ((ConfigurableEnvironment) environment).getPropertyDependencies();
+      if (dependencies != null) {
+        dependencies.recordExpression(field, expression);
+      }
+    }
+  }
+
   private DefaultPropertySetter fallback(final Field field,
                                          final String expression,
                                          ConfigurationException e) {
@@ -111,6 +111,11 @@ public class ConstructorAccessorGenerator
             || Modifier.isPrivate(targetConstructor.getModifiers());
   }
 
+  @Override
+  protected boolean isDefinableInScope() {
+    return super.isDefinableInScope() && Modifier.isPublic(targetConstructor.getModifiers());
+  }
+
   @Override
   protected ClassGenerator getClassGenerator() {
     return this;
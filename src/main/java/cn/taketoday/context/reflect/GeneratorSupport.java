@@ -22,6 +22,7 @@ package cn.taketoday.context.reflect;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
 
 import cn.taketoday.context.asm.ClassVisitor;
 import cn.taketoday.context.asm.Type;
@@ -32,6 +33,7 @@ import cn.taketoday.context.cglib.core.CodeEmitter;
 import cn.taketoday.context.cglib.core.CodeGenerationException;
 import cn.taketoday.context.cglib.core.DefaultGeneratorStrategy;
 import cn.taketoday.context.cglib.core.EmitUtils;
+import cn.taketoday.context.cglib.core.GeneratedClassScope;
 import cn.taketoday.context.cglib.core.TypeUtils;
 import cn.taketoday.context.exception.BeanInstantiationException;
 import cn.taketoday.context.utils.Assert;
@@ -78,9 +80,39 @@ public abstract class GeneratorSupport<T extends Accessor> {
   @SuppressWarnings("unchecked")
   public T create() {
     final Object cacheKey = cacheKey();
+    final GeneratedClassScope scope = GeneratedClassScope.getCurrent();
+    if (scope != null && GeneratedClassScope.isReplaceable(classLoader) && isDefinableInScope()) {
+      final Accessor accessor = mappings.get(cacheKey);
+      if (accessor != null) {
+        return (T) accessor;
+      }
+      return createInScope(scope, cacheKey);
+    }
     return (T) mappings.get(cacheKey, this);
   }
 
+  /**
+   * Generate into the loader of the given scope and cache the accessor in the scope
+   *
+   * @since 3.0.3
+   */
+  @SuppressWarnings("unchecked")
+  protected T createInScope(final GeneratedClassScope scope, final Object cacheKey) {
+    final Object cached = scope.getAccessor(cacheKey);
+    if (cached != null) {
+      return (T) cached;
+    }
+    T accessor;
+    try {
+      this.classLoader = scope.getClassLoader(getClassLoader());
+      accessor = createInternal();
+    }
+    catch (Exception e) {
+      accessor = fallback(e);
+    }
+    return (T) scope.putAccessor(cacheKey, accessor);
+  }
+
   protected T fallback(Exception exception) {
     if (exception instanceof InvocationTargetException) {
       if (((InvocationTargetException) exception).getTargetException() instanceof SecurityException) {
@@ -133,6 +165,17 @@ public abstract class GeneratorSupport<T extends Accessor> {
 
   protected abstract boolean cannotAccess();
 
+  /**
+   * Whether the accessor can be defined into the loader of the
+   * {@link GeneratedClassScope} bound to the current thread, by default if
+   * the target class is public
+   *
+   * @since 3.0.3
+   */
+  protected boolean isDefinableInScope() {
+    return Modifier.isPublic(targetClass.getModifiers());
+  }
+
   protected ClassLoader getClassLoader() {
     if (classLoader == null) {
       classLoader = targetClass.getClassLoader();
@@ -223,6 +223,13 @@ public abstract class MethodInvoker implements MethodAccessor, Invoker {
               || Modifier.isPrivate(targetMethod.getModifiers());
     }
 
+    @Override
+    protected boolean isDefinableInScope() {
+      return super.isDefinableInScope()
+              && Modifier.isPublic(targetMethod.getModifiers())
+              && Modifier.isPublic(targetMethod.getDeclaringClass().getModifiers());
+    }
+
     @Override
     protected ClassGenerator getClassGenerator() {
       return this;
@@ -169,8 +169,12 @@ public abstract class ClassUtils {
    * clear cache
    */
   public static void clearCache() {
-    ANNOTATIONS.clear();
-    ANNOTATION_ATTRIBUTES.clear();
+    synchronized (ANNOTATIONS) {
+      ANNOTATIONS.clear();
+    }
+    synchronized (ANNOTATION_ATTRIBUTES) {
+      ANNOTATION_ATTRIBUTES.clear();
+    }
     PARAMETER_NAMES_CACHE.clear();
   }
 
@@ -400,7 +404,10 @@ public abstract class ClassUtils {
       return null;
     }
     final AnnotationKey<T> key = new AnnotationKey<>(element, annotationClass);
-    Object ret = ANNOTATIONS.get(key);
+    Object ret;
+    synchronized (ANNOTATIONS) { // @since 3.0.3 read from loader threads
+      ret = ANNOTATIONS.get(key);
+    }
     if (ret == null) {
       final AnnotationAttributes[] annAttributes = getAnnotationAttributesArray(key);
       if (ObjectUtils.isEmpty(annAttributes)) {
@@ -414,7 +421,9 @@ public abstract class ClassUtils {
           Array.set(ret, i++, injectAttributes(attributes, annotationClass, newInstance(implClass)));
         }
       }
-      ANNOTATIONS.put(key, ret);
+      synchronized (ANNOTATIONS) {
+        ANNOTATIONS.put(key, ret);
+      }
     }
     return ret == EmptyObject.INSTANCE ? null : (T[]) ret;
   }
@@ -440,7 +449,10 @@ public abstract class ClassUtils {
       return null;
     }
     final AnnotationKey<T> key = new AnnotationKey<>(element, targetClass);
-    Object ret = ANNOTATIONS.get(key);
+    Object ret;
+    synchronized (ANNOTATIONS) { // @since 3.0.3 read from loader threads
+      ret = ANNOTATIONS.get(key);
+    }
     if (ret == null) {
       final AnnotationAttributes[] annAttributes = getAnnotationAttributesArray(key);
       if (ObjectUtils.isEmpty(annAttributes)) {
@@ -453,7 +465,9 @@ public abstract class ClassUtils {
           Array.set(ret, i++, getAnnotationProxy(targetClass, attributes));
         }
       }
-      ANNOTATIONS.put(key, ret);
+      synchronized (ANNOTATIONS) {
+        ANNOTATIONS.put(key, ret);
+      }
     }
     return ret == EmptyObject.INSTANCE ? null : (T[]) ret;
   }
@@ -771,7 +785,10 @@ public abstract class ClassUtils {
   public static <T extends Annotation> AnnotationAttributes[] getAnnotationAttributesArray(
           final AnnotationKey<T> key
   ) {
-    AnnotationAttributes[] ret = ANNOTATION_ATTRIBUTES.get(key);
+    AnnotationAttributes[] ret;
+    synchronized (ANNOTATION_ATTRIBUTES) { // @since 3.0.3 read from loader threads
+      ret = ANNOTATION_ATTRIBUTES.get(key);
+    }
     if (ret == null) {
       final Annotation[] annotations = key.element.getAnnotations();
       if (ObjectUtils.isEmpty(annotations)) {
@@ -790,7 +807,9 @@ public abstract class ClassUtils {
               ? Constant.EMPTY_ANNOTATION_ATTRIBUTES
               : result.toArray(new AnnotationAttributes[result.size()]);
       }
-      ANNOTATION_ATTRIBUTES.putIfAbsent(key, ret);
+      synchronized (ANNOTATION_ATTRIBUTES) {
+        ANNOTATION_ATTRIBUTES.putIfAbsent(key, ret);
+      }
     }
     return ret;
   }
@@ -31,7 +31,9 @@ import cn.taketoday.context.annotation.DefaultProps;
 import cn.taketoday.context.annotation.Env;
 import cn.taketoday.context.annotation.Props;
 import cn.taketoday.context.annotation.Value;
+import cn.taketoday.context.env.ConfigurableEnvironment;
 import cn.taketoday.context.env.Environment;
+import cn.taketoday.context.env.PropertyDependencyIndex;
 import cn.taketoday.context.exception.ConfigurationException;
 import cn.taketoday.context.exception.ContextException;
 import cn.taketoday.context.factory.BeanDefinition;
@@ -71,12 +73,12 @@ import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 
@@ -100,6 +102,11 @@ public abstract class ContextUtils {
    */
   private static ExpressionEvaluator expressionEvaluator = new ExpressionEvaluator();
 
+  /** indexed properties of {@link Props#value()} files @since 3.0.3 */
+  private static final ConcurrentCache<String, PropertiesIndex> PROPS_FILES = new ConcurrentCache<>(64);
+  /** accessible fields to bind of the {@link Props} classes @since 3.0.3 */
+  private static final ConcurrentCache<Class<?>, Field[]> PROPS_FIELDS = new ConcurrentCache<>(256);
+
   static {
     setParameterResolvers(new MapParameterResolver(),
             new ArrayParameterResolver(),
@@ -372,7 +379,18 @@ public abstract class ContextUtils {
    *         Application {@link Environment}
    */
   public static void resolveProps(final BeanDefinition def, final Environment env) {
-    def.addPropertySetter(resolveProps(def, env.getProperties()));
+    final List<PropertySetter> propertySetters = resolveProps(def, env.getProperties());
+    if (!propertySetters.isEmpty() && env instanceof ConfigurableEnvironment) {
+      // @since 3.0.3 record the prefixes to rebind the properties on reload
+      final PropertyDependencyIndex dependencies = ((ConfigurableEnvironment) env).getPropertyDependencies();
+      if (dependencies != null) {
+        final String[] prefixs = def.getAnnotation(Props.class).prefix();
+        for (final PropertySetter propertySetter : propertySetters) {
+          dependencies.recordPrefixes(((DefaultPropertySetter) propertySetter).getField(), prefixs);
+        }
+      }
+    }
+    def.addPropertySetter(propertySetters);
   }
 
   /**
@@ -404,16 +422,31 @@ public abstract class ContextUtils {
     final String[] prefixs = props.prefix();
     final List<Class<?>> nested = Arrays.asList(props.nested());
 
-    for (final Field declaredField : ReflectionUtils.getFields(type)) {
+    for (final Field declaredField : getPropsFields(type)) {
       final Object converted = resolveProps(declaredField, nested, prefixs, properties);
       if (converted != null) {
-        propertySetters.add(
-                new DefaultPropertySetter(converted, ReflectionUtils.makeAccessible(declaredField)));
+        propertySetters.add(new DefaultPropertySetter(converted, declaredField));
       }
     }
     return propertySetters;
   }
 
+  /**
+   * Return the accessible fields to bind of the given class,
+   * computed once per class
+   *
+   * @since 3.0.3
+   */
+  static Field[] getPropsFields(final Class<?> type) {
+    return PROPS_FIELDS.get(type, clazz -> {
+      final Collection<Field> fields = ReflectionUtils.getFields(clazz);
+      for (final Field field : fields) {
+        ReflectionUtils.makeAccessible(field);
+      }
+      return fields.toArray(new Field[fields.size()]);
+    });
+  }
+
   public static Class<?> getBeanClass(final AnnotatedElement annotated) {
     if (annotated instanceof Class) {
       return (Class<?>) annotated;
@@ -523,10 +556,10 @@ public abstract class ContextUtils {
     final String[] prefixs = props.prefix();
     final List<Class<?>> nested = Arrays.asList(props.nested());
 
-    for (final Field declaredField : ReflectionUtils.getFields(bean)) {
+    for (final Field declaredField : getPropsFields(bean.getClass())) {
       final Object converted = resolveProps(declaredField, nested, prefixs, properties);
       if (converted != null) {
-        ReflectionUtils.setField(ReflectionUtils.makeAccessible(declaredField), bean, converted);
+        ReflectionUtils.setField(declaredField, bean, converted);
       }
     }
     return bean;
@@ -543,64 +576,78 @@ public abstract class ContextUtils {
    * @since 2.1.5
    */
   public static Properties loadProps(final Props props, final Properties applicationProps) {
-    final Properties ret = new ConcurrentProperties();
     final String[] fileNames = props.value();
 
     // choose properties to use
-    final Properties propertiesToUse;
+    final PropertiesIndex index;
     if (fileNames.length == 0) {
       Assert.notNull(applicationProps, "Application properties must not be null");
-      propertiesToUse = applicationProps;
+      index = PropertiesIndex.of(applicationProps);
+    }
+    else if (fileNames.length == 1 && StringUtils.isNotEmpty(fileNames[0])) {
+      index = getPropsFile(fileNames[0]);
     }
     else {
-      propertiesToUse = new ConcurrentProperties();
+      final Properties properties = new ConcurrentProperties();
       for (String fileName : fileNames) {
         if (StringUtils.isEmpty(fileName)) {
-          propertiesToUse.putAll(applicationProps);
+          properties.putAll(applicationProps);
           break;
         }
-        try (InputStream inputStream = getResourceAsStream(StringUtils.checkPropertiesName(fileName))) {
-          propertiesToUse.load(inputStream);
-        }
-        catch (IOException e) {
-          throw new ContextException("IO exception occurred", e);
-        }
+        properties.putAll(getPropsFile(fileName).getProperties());
       }
+      index = new PropertiesIndex(properties);
     }
 
     // process -----------------
 
-    final String[] prefixs = props.prefix();
+    final Properties ret = new ConcurrentProperties();
+    final Properties propertiesToUse = index.getProperties();
     final boolean replace = props.replace();
-
-    for (final Entry<Object, Object> entry : propertiesToUse.entrySet()) {
-      final Object key_ = entry.getKey();
-      if (!(key_ instanceof String)) {
-        continue;
-      }
-
-      String key = (String) key_;
-      final String blank = Constant.BLANK;
-      for (String prefix : prefixs) {
-        if (blank.equals(prefix) || key.startsWith(prefix)) { // start with prefix
-          if (replace) {
-            // replace the prefix
-            key = key.replaceFirst(prefix, blank);
-          }
-          // resolvePlaceholder(propertiesToUse, (String) entry.getValue())
-          final Object value = entry.getValue();
-          if (value instanceof String) { // fix only support String
-            ret.put(key, resolveValue((String) value, Object.class, propertiesToUse));
-          }
-          else {
-            ret.put(key, value);
-          }
+    for (final String prefix : props.prefix()) {
+      final int prefixLength = replace ? prefix.length() : 0;
+      index.forEach(prefix, (key, value) -> {
+        if (value instanceof String) { // fix only support String
+          value = resolveValue((String) value, Object.class, propertiesToUse);
         }
-      }
+        // replace the prefix
+        ret.put(key.substring(prefixLength), value);
+      });
     }
     return ret;
   }
 
+  /**
+   * Load the given properties file once
+   *
+   * @since 3.0.3
+   */
+  private static PropertiesIndex getPropsFile(final String fileName) {
+    return PROPS_FILES.get(fileName, name -> {
+      final Properties properties = new ConcurrentProperties();
+      try (InputStream inputStream = getResourceAsStream(StringUtils.checkPropertiesName(name))) {
+        properties.load(inputStream);
+      }
+      catch (IOException e) {
+        throw new ContextException("IO exception occurred", e);
+      }
+      return new PropertiesIndex(properties);
+    });
+  }
+
+  /**
+   * Clear the cached {@link Props#value()} files and the index of the
+   * application properties, which must be called if keys of the application
+   * properties are replaced by as many other keys. Setting an existing key
+   * does not need it.
+   *
+   * @since 3.0.3
+   */
+  public static void clearPropsCache() {
+    PROPS_FILES.clear();
+    PropertiesIndex.clear();
+  }
+
   /**
    * Decide whether to load the bean
    *
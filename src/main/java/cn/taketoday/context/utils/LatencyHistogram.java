@@ -0,0 +1,173 @@
+/*
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+
+package cn.taketoday.context.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of non-negative {@code long} values
+ * (nanoseconds for example)
+ * <p>
+ * Like a HDR histogram, values are counted in buckets of which each power of two
+ * range is split into 32 linear sub-buckets, so any recorded value is reported
+ * with a relative error below about 3%. Recording is a few bit operations and a
+ * single {@link AtomicLongArray#incrementAndGet(int)}.
+ * </p>
+ *
+ * @author TODAY 2021/3/21 17:05
+ * @see cn.taketoday.aop.support.interceptor.MethodMetrics
+ * @since 3.0.3
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+  private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder total = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Record a value, negative values are recorded as 0
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts.incrementAndGet(indexOf(value));
+    count.increment();
+    total.add(value);
+
+    final AtomicLong max = this.max;
+    long current;
+    while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+      // retry
+    }
+  }
+
+  /**
+   * Return the number of recorded values
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Return the sum of the recorded values
+   */
+  public long getTotal() {
+    return total.sum();
+  }
+
+  /**
+   * Return the largest recorded value
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Return the arithmetic mean of the recorded values
+   */
+  public double getMean() {
+    final long count = getCount();
+    return count == 0 ? 0 : (double) getTotal() / count;
+  }
+
+  /**
+   * Get the value at the given percentile
+   *
+   * @param percentile
+   *         percentile between 0 and 100, e.g. 99.9
+   *
+   * @return the highest value equivalent to the bucket the percentile falls in,
+   * never larger than {@link #getMax()}; 0 if there are no values
+   */
+  public long getValueAtPercentile(double percentile) {
+    Assert.isTrue(percentile >= 0 && percentile <= 100, "percentile must between 0 and 100");
+    final AtomicLongArray counts = this.counts;
+
+    long totalCount = 0;
+    final long[] snapshot = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      totalCount += (snapshot[i] = counts.get(i));
+    }
+    if (totalCount == 0) {
+      return 0;
+    }
+
+    final long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += snapshot[i];
+      if (seen >= countAtPercentile) {
+        return Math.min(highestEquivalentValue(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * Clear all recorded values
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts.set(i, 0);
+    }
+    count.reset();
+    total.reset();
+    max.set(0);
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKET_COUNT + ((int) (value >>> shift) & SUB_BUCKET_MASK);
+  }
+
+  static long lowestEquivalentValue(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    final int shift = index / SUB_BUCKET_COUNT - 1;
+    return (long) (SUB_BUCKET_COUNT + (index & SUB_BUCKET_MASK)) << shift;
+  }
+
+  static long highestEquivalentValue(int index) {
+    if (index == BUCKET_COUNT - 1) {
+      return Long.MAX_VALUE;
+    }
+    return lowestEquivalentValue(index + 1) - 1;
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyHistogram{count=" + getCount() + ", mean=" + getMean() + ", max=" + getMax() + '}';
+  }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.utils;
+
+import java.lang.ref.SoftReference;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+/**
+ * Sorted snapshot of the {@link String} keys of a {@link Properties}, which
+ * finds the entries of a prefix in O(log n + matches) instead of scanning
+ * all entries. Values are read from the properties, so that setting an
+ * existing key is seen without rebuilding the index.
+ *
+ * @author TODAY 2021/3/28 10:10
+ * @see ContextUtils#loadProps
+ * @since 3.0.3
+ */
+final class PropertiesIndex {
+
+  /** index of the last application properties */
+  private static volatile SoftReference<PropertiesIndex> last;
+
+  private final Properties properties;
+  private final int size;
+  private final int keysHash;
+  private final TreeSet<String> sorted = new TreeSet<>();
+
+  PropertiesIndex(Properties properties) {
+    this.properties = properties;
+    this.size = properties.size();
+    this.keysHash = properties.keySet().hashCode();
+    for (final Object key : properties.keySet()) {
+      if (key instanceof String) {
+        sorted.add((String) key);
+      }
+    }
+  }
+
+  /**
+   * Return the index of the given properties, reusing the index of the last
+   * properties while neither the instance, its size nor the hash of its keys
+   * has changed. Hashing the keys is linear but much cheaper than sorting
+   * them again, and sees a key replaced by another one at the same size
+   *
+   * @see #clear()
+   */
+  static PropertiesIndex of(final Properties properties) {
+    final SoftReference<PropertiesIndex> reference = last;
+    PropertiesIndex index = reference == null ? null : reference.get();
+    if (index == null || index.properties != properties
+            || index.size != properties.size() || index.keysHash != properties.keySet().hashCode()) {
+      index = new PropertiesIndex(properties);
+      last = new SoftReference<>(index);
+    }
+    return index;
+  }
+
+  /**
+   * Drop the index of the last properties, which may have been modified
+   */
+  static void clear() {
+    last = null;
+  }
+
+  /**
+   * Apply the given action to the entries whose key starts with the given prefix
+   */
+  void forEach(final String prefix, final BiConsumer<String, Object> action) {
+    for (final String key : prefix.isEmpty() ? sorted : sorted.tailSet(prefix)) {
+      if (!key.startsWith(prefix)) {
+        break;
+      }
+      final Object value = properties.get(key);
+      if (value != null) { // removed meanwhile
+        action.accept(key, value);
+      }
+    }
+  }
+
+  Properties getProperties() {
+    return properties;
+  }
+
+  int size() {
+    return sorted.size();
+  }
+
+}
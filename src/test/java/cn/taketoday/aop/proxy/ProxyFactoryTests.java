@@ -25,8 +25,10 @@ import org.aopalliance.intercept.MethodInvocation;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import javax.accessibility.Accessible;
@@ -42,6 +44,7 @@ import cn.taketoday.aop.support.AopUtils;
 import cn.taketoday.aop.support.DefaultIntroductionAdvisor;
 import cn.taketoday.aop.support.DefaultPointcutAdvisor;
 import cn.taketoday.aop.support.interceptor.DebugInterceptor;
+import cn.taketoday.context.StandardApplicationContext;
 import cn.taketoday.context.annotation.Order;
 import cn.taketoday.context.utils.OrderUtils;
 
@@ -381,6 +384,96 @@ public class ProxyFactoryTests {
     assertThat(proxy.getName()).isEqualTo("tb");
   }
 
+  @Test
+  public void testInterceptorChainSharedAcrossConfigurations() throws Exception {
+    final Advisor advisor = new DefaultPointcutAdvisor(new NopInterceptor());
+    final Method getAge = ITestBean.class.getMethod("getAge");
+
+    ProxyFactory pf1 = new ProxyFactory(new TestBean());
+    pf1.addAdvisor(advisor);
+    ProxyFactory pf2 = new ProxyFactory(new TestBean());
+    pf2.addAdvisor(advisor);
+
+    final MethodInterceptor[] chain = pf1.getInterceptors(getAge, TestBean.class);
+    assertThat(chain).hasSize(1);
+    assertThat(pf2.getInterceptors(getAge, TestBean.class)).isSameAs(chain);
+
+    // different advisor configuration
+    ProxyFactory pf3 = new ProxyFactory(new TestBean());
+    pf3.addAdvisor(advisor);
+    pf3.addAdvice(new DebugInterceptor());
+    assertThat(pf3.getInterceptors(getAge, TestBean.class)).hasSize(2);
+
+    pf2.addAdvice(new NopInterceptor());
+    assertThat(pf2.getInterceptors(getAge, TestBean.class)).isNotSameAs(chain).hasSize(2);
+    assertThat(pf1.getInterceptors(getAge, TestBean.class)).isSameAs(chain);
+  }
+
+  @Test
+  public void testSharedInterceptorChainsClearedOnContextClose() throws Exception {
+    final Advisor advisor = new DefaultPointcutAdvisor(new NopInterceptor());
+    final Method getAge = ITestBean.class.getMethod("getAge");
+
+    ProxyFactory pf1 = new ProxyFactory(new TestBean());
+    pf1.addAdvisor(advisor);
+    final MethodInterceptor[] chain = pf1.getInterceptors(getAge, TestBean.class);
+
+    new StandardApplicationContext(new HashSet<>()).close();
+
+    ProxyFactory pf2 = new ProxyFactory(new TestBean());
+    pf2.addAdvisor(advisor);
+    assertThat(pf2.getInterceptors(getAge, TestBean.class)).isNotSameAs(chain).hasSize(1);
+  }
+
+  @Test
+  public void testOpaqueStaticTargetUsesFusedInvocation() {
+    TestBean target = new TestBean("tb");
+    target.setAge(18);
+    NopInterceptor nop1 = new NopInterceptor();
+    NopInterceptor nop2 = new NopInterceptor();
+    List<String> invocationClasses = new ArrayList<>();
+
+    ProxyFactory pf = new ProxyFactory(target);
+    pf.setOpaque(true);
+    pf.setProxyTargetClass(true);
+    pf.addAdvice(nop1);
+    pf.addAdvice((MethodInterceptor) invocation -> {
+      invocationClasses.add(invocation.getClass().getName());
+      return invocation.proceed();
+    });
+    pf.addAdvice(nop2);
+
+    TestBean proxy = (TestBean) pf.getProxy();
+    assertThat(proxy.getAge()).isEqualTo(18);
+    assertThat(proxy.getAge()).isEqualTo(18);
+    assertThat(proxy.getName()).isEqualTo("tb");
+
+    assertThat(nop1.getCount()).isEqualTo(3);
+    assertThat(nop2.getCount()).isEqualTo(3);
+    assertThat(invocationClasses).hasSize(3);
+    assertThat(invocationClasses.get(0)).contains("$$Invocation$$");
+    assertThat(invocationClasses.get(0)).isEqualTo(invocationClasses.get(1));
+    assertThat(invocationClasses.get(2)).isNotEqualTo(invocationClasses.get(0));
+  }
+
+  @Test
+  public void testOpaqueStaticTargetFusedInvocationExposesProxy() {
+    TestBean target = new TestBean("tb");
+    List<Object> currentProxies = new ArrayList<>();
+    ProxyFactory pf = new ProxyFactory(target);
+    pf.setOpaque(true);
+    pf.setExposeProxy(true);
+    pf.setProxyTargetClass(true);
+    pf.addAdvice((MethodInterceptor) invocation -> {
+      currentProxies.add(AopContext.currentProxy());
+      return invocation.proceed();
+    });
+
+    TestBean proxy = (TestBean) pf.getProxy();
+    assertThat(proxy.getName()).isEqualTo("tb");
+    assertThat(currentProxies).containsExactly(proxy);
+  }
+
   @Order(2)
   public static class A implements Runnable {
 
@@ -0,0 +1,134 @@
+/*
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+
+package cn.taketoday.aop.support;
+
+import org.junit.Test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cn.taketoday.aop.Advisor;
+import cn.taketoday.aop.ITestBean;
+import cn.taketoday.aop.NopInterceptor;
+import cn.taketoday.aop.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/3/21 11:30
+ */
+public class AdvisorIndexTests {
+
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target({ ElementType.METHOD, ElementType.TYPE })
+  @Inherited
+  @interface Logging { }
+
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target({ ElementType.METHOD, ElementType.TYPE })
+  @interface Timing { }
+
+  public interface Service {
+    @Timing
+    void serve();
+  }
+
+  public static class LoggingService implements Service {
+
+    @Logging
+    public void log() { }
+
+    @Override
+    public void serve() { }
+  }
+
+  @Logging
+  public static class SubLoggingService extends LoggingService { }
+
+  public static class PlainService {
+    public void serve() { }
+  }
+
+  private static List<Advisor> candidateAdvisors() {
+    final List<Advisor> advisors = new ArrayList<>();
+    advisors.add(new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(Timing.class), new NopInterceptor()));
+    advisors.add(new DefaultPointcutAdvisor(new NopInterceptor()));
+    advisors.add(new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(Logging.class), new NopInterceptor()));
+    advisors.add(new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forClassAnnotation(Logging.class), new NopInterceptor()));
+    advisors.add(new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, Logging.class, true), new NopInterceptor()));
+    advisors.add(new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Logging.class, Timing.class), new NopInterceptor()));
+    advisors.add(new NameMatchMethodPointcutAdvisor(new NopInterceptor()) {
+      {
+        setMappedName("serve");
+      }
+    });
+    return advisors;
+  }
+
+  @Test
+  public void sameResultAsAopUtils() {
+    final List<Advisor> candidates = candidateAdvisors();
+    final AdvisorIndex advisorIndex = new AdvisorIndex(candidates);
+
+    for (final Class<?> targetClass : Arrays.asList(LoggingService.class, SubLoggingService.class,
+                                                    PlainService.class, TestBean.class, ITestBean.class, Object.class)) {
+      assertThat(advisorIndex.filterAdvisors(targetClass))
+              .as(targetClass.getName())
+              .containsExactlyElementsOf(AopUtils.filterAdvisors(candidates, targetClass));
+    }
+  }
+
+  @Test
+  public void methodAnnotationAdvisors() {
+    final List<Advisor> candidates = candidateAdvisors();
+    final AdvisorIndex advisorIndex = new AdvisorIndex(candidates);
+
+    assertThat(advisorIndex.filterAdvisors(LoggingService.class))
+            .contains(candidates.get(0), candidates.get(1), candidates.get(2))
+            .doesNotContain(candidates.get(3), candidates.get(5));
+
+    assertThat(advisorIndex.filterAdvisors(SubLoggingService.class))
+            .contains(candidates.get(3), candidates.get(5));
+
+    assertThat(advisorIndex.filterAdvisors(PlainService.class))
+            .containsExactly(candidates.get(1), candidates.get(6));
+  }
+
+  @Test
+  public void emptyCandidates() {
+    final List<Advisor> candidates = new ArrayList<>();
+    final AdvisorIndex advisorIndex = new AdvisorIndex(candidates);
+    assertThat(advisorIndex.filterAdvisors(LoggingService.class)).isEmpty();
+    assertThat(advisorIndex.getAdvisors()).isSameAs(candidates);
+    assertThat(advisorIndex.isIndexed(candidates)).isTrue();
+
+    candidates.add(new DefaultPointcutAdvisor(new NopInterceptor()));
+    assertThat(advisorIndex.isIndexed(candidates)).isFalse();
+    assertThat(advisorIndex.isIndexed(new ArrayList<>())).isFalse();
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+
+package cn.taketoday.aop.support.interceptor;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author TODAY 2021/3/21 18:10
+ */
+public class MetricsMonitorInterceptorTests {
+
+  @Test
+  public void recordsInvocationsAndErrors() throws Throwable {
+    final Method toString = Object.class.getMethod("toString");
+    final MethodInvocation invocation = mock(MethodInvocation.class);
+    given(invocation.getMethod()).willReturn(toString);
+
+    final MetricsMonitorInterceptor interceptor = new MetricsMonitorInterceptor();
+    interceptor.invoke(invocation);
+    interceptor.invoke(invocation);
+
+    given(invocation.proceed()).willThrow(new IllegalStateException("error"));
+    assertThatIllegalStateException().isThrownBy(() -> interceptor.invoke(invocation));
+
+    final MethodMetrics metrics = interceptor.getRegistry().getMetrics(toString);
+    assertThat(interceptor.getRegistry().getAllMetrics()).containsExactly(metrics);
+    assertThat(metrics.getName()).isEqualTo("java.lang.Object.toString");
+    assertThat(metrics.getInvocationCount()).isEqualTo(3);
+    assertThat(metrics.getErrorCount()).isEqualTo(1);
+    assertThat(metrics.getLatency().getCount()).isEqualTo(3);
+  }
+
+  @Test
+  public void sampling() throws Throwable {
+    final Method toString = Object.class.getMethod("toString");
+    final MethodInvocation invocation = mock(MethodInvocation.class);
+    given(invocation.getMethod()).willReturn(toString);
+
+    final MetricsMonitorInterceptor interceptor = new MetricsMonitorInterceptor();
+    interceptor.setSamplingRate(0);
+    for (int i = 0; i < 10; i++) {
+      interceptor.invoke(invocation);
+    }
+    final MethodMetrics metrics = interceptor.getRegistry().getMetrics(toString);
+    assertThat(metrics.getInvocationCount()).isEqualTo(10);
+    assertThat(metrics.getLatency().getCount()).isZero();
+  }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+
+package cn.taketoday.aop.target;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import cn.taketoday.aop.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * @author TODAY 2021/3/21 15:40
+ */
+public class PooledTargetSourceTests {
+
+  static class TestBeanPooledTargetSource extends PooledTargetSource {
+    private static final long serialVersionUID = 1L;
+
+    int created;
+
+    @Override
+    protected Object newPrototypeInstance() {
+      created++;
+      return new TestBean();
+    }
+
+    @Override
+    protected void destroyPrototypeInstance(Object target) { }
+  }
+
+  @Test
+  public void borrowAndRelease() {
+    final TestBeanPooledTargetSource targetSource = new TestBeanPooledTargetSource();
+
+    final Object target = targetSource.getTarget();
+    assertThat(targetSource.getActiveCount()).isEqualTo(1);
+    assertThat(targetSource.getIdleCount()).isZero();
+    targetSource.releaseTarget(target);
+
+    assertThat(targetSource.getTarget()).isSameAs(target);
+    assertThat(targetSource.getInvocationCount()).isEqualTo(2);
+    assertThat(targetSource.getHitCount()).isEqualTo(1);
+    assertThat(targetSource.getObjectCount()).isEqualTo(1);
+    assertThat(targetSource.created).isEqualTo(1);
+  }
+
+  @Test
+  public void maxIdle() {
+    final TestBeanPooledTargetSource targetSource = new TestBeanPooledTargetSource();
+    targetSource.setMaxIdle(1);
+
+    final Object first = targetSource.getTarget();
+    final Object second = targetSource.getTarget();
+    targetSource.releaseTarget(first);
+    targetSource.releaseTarget(second);
+
+    assertThat(targetSource.getIdleCount()).isEqualTo(1);
+    assertThat(targetSource.getObjectCount()).isEqualTo(1);
+    assertThat(targetSource.getActiveCount()).isZero();
+  }
+
+  @Test
+  public void minIdle() {
+    final TestBeanPooledTargetSource targetSource = new TestBeanPooledTargetSource();
+    targetSource.setMinIdle(3);
+    targetSource.ensureMinIdle();
+
+    assertThat(targetSource.getIdleCount()).isEqualTo(3);
+    targetSource.getTarget();
+    assertThat(targetSource.getHitCount()).isEqualTo(1);
+    assertThat(targetSource.created).isEqualTo(3);
+  }
+
+  @Test
+  public void borrowTimeout() {
+    final TestBeanPooledTargetSource targetSource = new TestBeanPooledTargetSource();
+    targetSource.setMaxSize(1);
+    targetSource.setMaxWait(10);
+
+    targetSource.getTarget();
+    assertThatExceptionOfType(NoSuchElementException.class)
+            .isThrownBy(targetSource::getTarget);
+    assertThat(targetSource.getTimeoutCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void concurrentBorrow() throws Exception {
+    final TestBeanPooledTargetSource targetSource = new TestBeanPooledTargetSource();
+    targetSource.setMaxSize(2);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 1000; j++) {
+            final Object target = targetSource.getTarget();
+            assertThat(targetSource.getObjectCount()).isLessThanOrEqualTo(2);
+            targetSource.releaseTarget(target);
+          }
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(targetSource.getInvocationCount()).isEqualTo(8000);
+    assertThat(targetSource.getActiveCount()).isZero();
+    assertThat(targetSource.getObjectCount()).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  public void destroy() {
+    final TestBeanPooledTargetSource targetSource = new TestBeanPooledTargetSource();
+    final Object target = targetSource.getTarget();
+    targetSource.releaseTarget(targetSource.getTarget());
+    targetSource.destroy();
+    assertThat(targetSource.getIdleCount()).isZero();
+
+    targetSource.releaseTarget(target);
+    assertThat(targetSource.getIdleCount()).isZero();
+    assertThat(targetSource.getObjectCount()).isZero();
+  }
+
+  @Test
+  public void releaseRacingDestroy() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int i = 0; i < 200; i++) {
+        final TestBeanPooledTargetSource targetSource = new TestBeanPooledTargetSource();
+        targetSource.setMaxSize(-1);
+        targetSource.setMaxIdle(-1);
+        final List<Object> targets = new ArrayList<>();
+        for (int j = 0; j < 4; j++) {
+          targets.add(targetSource.getTarget());
+        }
+        final List<Future<?>> futures = new ArrayList<>();
+        for (final Object target : targets) {
+          futures.add(executor.submit(() -> targetSource.releaseTarget(target)));
+        }
+        targetSource.destroy();
+        for (final Future<?> future : futures) {
+          future.get(30, TimeUnit.SECONDS);
+        }
+        assertThat(targetSource.getIdleCount()).isZero();
+        assertThat(targetSource.getObjectCount()).isZero();
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void rejectEmptyPoolWaitingIndefinitely() {
+    final TestBeanPooledTargetSource targetSource = new TestBeanPooledTargetSource();
+    targetSource.setMaxSize(0);
+    assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(targetSource::getTarget);
+
+    targetSource.setMaxWait(10);
+    assertThatExceptionOfType(NoSuchElementException.class)
+            .isThrownBy(targetSource::getTarget);
+  }
+
+}
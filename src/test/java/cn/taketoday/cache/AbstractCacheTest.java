@@ -23,6 +23,10 @@ import junit.framework.TestCase;
 
 import org.junit.Before;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import cn.taketoday.context.EmptyObject;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -135,6 +139,30 @@ public abstract class AbstractCacheTest extends TestCase {
     assertNull(cache.get("key3"));
   }
 
+  public void testBulkOperations() {
+    final Cache cache = getCache();
+    cache.put("null", null);
+
+    final Map<Object, Object> values = cache.getAll(Arrays.asList("key1", "key", "key3", "null"));
+    assertThat(values)
+            .hasSize(3)
+            .containsEntry("key1", "value1")
+            .containsEntry("key3", 3)
+            .containsEntry("null", null)
+            .doesNotContainKey("key");
+
+    final LinkedHashMap<Object, Object> toPut = new LinkedHashMap<>();
+    toPut.put("bulk1", "v1");
+    toPut.put("bulk2", null);
+    cache.putAll(toPut);
+    assertThat(cache.get("bulk1")).isEqualTo("v1");
+    assertThat(cache.get("bulk2", false)).isEqualTo(EmptyObject.INSTANCE);
+
+    cache.evictAll(Arrays.asList("bulk1", "bulk2", "key1"));
+    assertThat(cache.getAll(Arrays.asList("bulk1", "bulk2", "key1"))).isEmpty();
+    assertThat(cache.get("key2")).isEqualTo("value2");
+  }
+
   public void testClear() {
     final Cache cache = getCache();
 
@@ -0,0 +1,125 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import cn.taketoday.context.EmptyObject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * @author TODAY 2021/3/27 11:30
+ */
+public class CacheStatisticsTests {
+
+  @Test
+  public void recordStatistics() {
+    final DefaultCacheManager cacheManager = new DefaultCacheManager();
+    cacheManager.setStatisticsEnabled(true);
+
+    final Cache users = cacheManager.getCache("users");
+    assertThat(users).isInstanceOf(StatisticsCache.class);
+
+    users.put("1", "user1");
+    users.put("null", null);
+    assertThat(users.get("1")).isEqualTo("user1");
+    assertThat(users.get("null")).isNull();
+    assertThat(users.get("2")).isNull();
+    assertThat(users.get("2", () -> "user2")).isEqualTo("user2");
+    assertThat(users.get("2", () -> "ignored")).isEqualTo("user2");
+    try {
+      users.get("3", () -> {
+        throw new IllegalStateException();
+      });
+      fail("load failure");
+    }
+    catch (CacheValueRetrievalException ignored) { }
+
+    users.putAll(Collections.singletonMap("4", "user4"));
+    assertThat(users.getAll(Arrays.asList("1", "4", "5"))).hasSize(2);
+    users.evict("1");
+    users.evictAll(Arrays.asList("2", "4"));
+
+    final CacheStatistics statistics = cacheManager.getStatistics("users");
+    assertThat(statistics).isSameAs(users.getStatistics());
+    assertThat(statistics.getHitCount()).isEqualTo(5);
+    assertThat(statistics.getMissCount()).isEqualTo(4);
+    assertThat(statistics.getPutCount()).isEqualTo(3);
+    assertThat(statistics.getEvictionCount()).isEqualTo(3);
+    assertThat(statistics.getLoadSuccessCount()).isEqualTo(1);
+    assertThat(statistics.getLoadFailureCount()).isEqualTo(1);
+    assertThat(statistics.getLoadTime().getCount()).isEqualTo(2);
+    assertThat(statistics.getHitRatio()).isEqualTo(5 / 9d);
+
+    cacheManager.getCache("orders");
+    assertThat(cacheManager.getStatisticsRegistry().getStatistics()).containsOnlyKeys("orders", "users");
+
+    cacheManager.getStatisticsRegistry().reset();
+    assertThat(statistics.getHitCount()).isZero();
+  }
+
+  @Test
+  public void keepAsyncCache() throws Exception {
+    final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    cacheManager.setStatisticsEnabled(true);
+    final Cache cache = cacheManager.getCache("async");
+    assertThat(cache).isInstanceOf(AsyncCache.class);
+
+    final AsyncCache asyncCache = (AsyncCache) cache;
+    asyncCache.putAsync("1", "value1").get();
+    assertThat(asyncCache.getAsync("1").get()).isEqualTo("value1");
+    assertThat(asyncCache.getAsync("2").get()).isNull();
+
+    final CacheStatistics statistics = cache.getStatistics();
+    assertThat(statistics.getPutCount()).isEqualTo(1);
+    assertThat(statistics.getHitCount()).isEqualTo(1);
+    assertThat(statistics.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void cachedNullIsHit() throws Exception {
+    final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    cacheManager.setStatisticsEnabled(true);
+    final Cache cache = cacheManager.getCache("nullable");
+    final AsyncCache asyncCache = (AsyncCache) cache;
+    cache.put("1", null);
+
+    assertThat(cache.get("1")).isNull();
+    assertThat(asyncCache.getAsync("1").get()).isNull();
+    assertThat(asyncCache.getAsync("1", false).get()).isSameAs(EmptyObject.INSTANCE);
+
+    final CacheStatistics statistics = cache.getStatistics();
+    assertThat(statistics.getHitCount()).isEqualTo(3);
+    assertThat(statistics.getMissCount()).isZero();
+  }
+
+  @Test
+  public void disabledByDefault() {
+    final DefaultCacheManager cacheManager = new DefaultCacheManager();
+    assertThat(cacheManager.getCache("users")).isInstanceOf(ConcurrentMapCache.class);
+    assertThat(cacheManager.getStatistics("users")).isNull();
+  }
+
+}
@@ -22,7 +22,11 @@ package cn.taketoday.cache;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * @author TODAY 2021/3/8 21:59
@@ -36,4 +40,29 @@ public class CaffeineCacheTest extends AbstractCacheTest {
             .expireAfterWrite(10, TimeUnit.SECONDS) // 10s
             .build()));
   }
+
+  public void testAsyncOperations() throws Exception {
+    final CaffeineCache cache = (CaffeineCache) getCache();
+    assertThat(cache.getAsync("key1").get()).isEqualTo("value1");
+    cache.putAsync("async", "value").get();
+    assertThat(cache.get("async")).isEqualTo("value");
+
+    final AtomicInteger loads = new AtomicInteger();
+    final CompletableFuture<Object> pending = new CompletableFuture<>();
+    final CompletableFuture<Object> first = cache.computeIfAbsentAsync("computed", key -> {
+      loads.incrementAndGet();
+      return pending;
+    });
+    final CompletableFuture<Object> second = cache.computeIfAbsentAsync("computed", key -> {
+      loads.incrementAndGet();
+      return pending;
+    });
+    assertThat(first).isSameAs(second).isNotDone();
+
+    pending.complete("computed-value");
+    assertThat(first.get()).isEqualTo("computed-value");
+    assertThat(cache.get("computed")).isEqualTo("computed-value");
+    assertThat(cache.computeIfAbsentAsync("computed", key -> null).get()).isEqualTo("computed-value");
+    assertThat(loads).hasValue(1);
+  }
 }
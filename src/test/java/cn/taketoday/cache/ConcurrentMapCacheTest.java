@@ -19,6 +19,9 @@
  */
 package cn.taketoday.cache;
 
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
 /**
  * 
  * @author TODAY <br>
@@ -29,4 +32,19 @@ public class ConcurrentMapCacheTest extends AbstractCacheTest {
     public ConcurrentMapCacheTest() {
         super(new ConcurrentMapCache());
     }
+
+    public void testExpire() throws Exception {
+        final ConcurrentMapCache cache = new ConcurrentMapCache("expire", 16, 50, TimeUnit.MILLISECONDS);
+        cache.put("key", "value");
+        cache.putAll(Collections.singletonMap("key1", null));
+        assertEquals("value", cache.get("key"));
+        assertNotNull(cache.get("key1", false));
+        assertEquals("value", cache.get("key", () -> "loaded"));
+
+        Thread.sleep(80);
+        assertNull(cache.get("key"));
+        assertNull(cache.get("key1", false));
+        assertEquals("loaded", cache.get("key", () -> "loaded"));
+        assertEquals("loaded", cache.get("key"));
+    }
 }
@@ -0,0 +1,141 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import cn.taketoday.cache.annotation.CacheConfig;
+import cn.taketoday.cache.annotation.CacheConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/3/23 11:30
+ */
+public class NearCacheTests {
+
+  final DefaultCacheManager remote = new DefaultCacheManager();
+  final InMemoryCacheInvalidationChannel channel = new InMemoryCacheInvalidationChannel();
+
+  final NearCacheManager instance1 = new NearCacheManager(new CaffeineCacheManager(), remote, channel);
+  final NearCacheManager instance2 = new NearCacheManager(new CaffeineCacheManager(), remote, channel);
+
+  @Test
+  public void readThroughLevels() {
+    final NearCache cache1 = (NearCache) instance1.getCache("users");
+    final NearCache cache2 = (NearCache) instance2.getCache("users");
+
+    cache1.put("1", "user1");
+    cache1.put("null", null);
+    assertThat(cache1.getLocalCache().get("1")).isEqualTo("user1");
+    assertThat(cache1.getRemoteCache().get("1")).isEqualTo("user1");
+
+    // L2 hit populates L1
+    assertThat(cache2.get("1")).isEqualTo("user1");
+    assertThat(cache2.get("1")).isEqualTo("user1");
+    assertThat(cache2.get("null", false)).isSameAs(cache1.get("null", false)).isNotNull();
+    assertThat(cache2.get("2")).isNull();
+
+    assertThat(cache2.getRemoteHitCount()).isEqualTo(2);
+    assertThat(cache2.getLocalHitCount()).isEqualTo(1);
+    assertThat(cache2.getMissCount()).isEqualTo(1);
+    assertThat(cache2.getLocalHitRatio()).isEqualTo(0.25);
+    assertThat(cache2.getRemoteHitRatio()).isEqualTo(2 / 3d);
+
+    assertThat(cache2.getAll(Arrays.asList("1", "null", "2")))
+            .containsOnlyKeys("1", "null")
+            .containsEntry("1", "user1");
+  }
+
+  @Test
+  public void invalidation() {
+    final NearCache cache1 = (NearCache) instance1.getCache("users");
+    final NearCache cache2 = (NearCache) instance2.getCache("users");
+
+    cache1.put("1", "user1");
+    assertThat(cache2.get("1")).isEqualTo("user1");
+
+    // put on instance1 drops the stale L1 entry of instance2
+    cache1.put("1", "user1-updated");
+    assertThat(cache2.getLocalCache().get("1")).isNull();
+    assertThat(cache2.get("1")).isEqualTo("user1-updated");
+    // own invalidation keeps own L1 entry
+    assertThat(cache1.getLocalCache().get("1")).isEqualTo("user1-updated");
+
+    cache2.evict("1");
+    assertThat(cache1.get("1")).isNull();
+
+    cache1.putAll(Collections.singletonMap("2", "user2"));
+    assertThat(cache2.get("2")).isEqualTo("user2");
+    cache1.evictAll(Collections.singletonList("2"));
+    assertThat(cache2.get("2")).isNull();
+
+    cache1.put("3", "user3");
+    assertThat(cache2.get("3")).isEqualTo("user3");
+    cache1.clear();
+    assertThat(cache2.getLocalCache().get("3")).isNull();
+    assertThat(cache2.get("3")).isNull();
+  }
+
+  @Test
+  public void localCacheConfig() {
+    final CacheConfiguration config = new CacheConfiguration("users");
+    config.setExpire(2);
+    config.setTimeUnit(TimeUnit.SECONDS);
+    instance1.setLocalExpire(1000);
+    instance1.setLocalMaxSize(100);
+
+    final CacheConfig localConfig = instance1.createLocalCacheConfig("users", config);
+    assertThat(localConfig.maxSize()).isEqualTo(100);
+    assertThat(localConfig.expire()).isEqualTo(1000);
+  }
+
+  @Test
+  public void boundLocalCache() {
+    // DefaultCacheManager does not bound its caches by max size
+    final NearCacheManager manager = new NearCacheManager(new DefaultCacheManager(), remote, channel);
+    manager.setLocalMaxSize(2);
+    final NearCache cache = (NearCache) manager.getCache("bounded");
+    assertThat(cache.getLocalMaxSize()).isEqualTo(2);
+
+    cache.put("1", "user1");
+    cache.put("2", "user2");
+    cache.put("3", "user3");
+    assertThat(cache.getLocalCache().get("1")).isNull();
+    assertThat(cache.getLocalCache().get("2")).isEqualTo("user2");
+    assertThat(cache.getLocalCache().get("3")).isEqualTo("user3");
+
+    // L2 hit populating L1 is bounded too
+    assertThat(cache.get("1")).isEqualTo("user1");
+    assertThat(cache.getLocalCache().get("1")).isEqualTo("user1");
+    assertThat(cache.getLocalCache().get("2")).isNull();
+
+    // evicted keys free their room
+    cache.evict("3");
+    cache.put("4", "user4");
+    assertThat(cache.getLocalCache().get("1")).isEqualTo("user1");
+    assertThat(cache.getLocalCache().get("4")).isEqualTo("user4");
+  }
+
+}
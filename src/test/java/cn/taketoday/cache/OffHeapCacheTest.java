@@ -0,0 +1,104 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import cn.taketoday.cache.annotation.CacheConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/3/25 12:00
+ */
+public class OffHeapCacheTest extends AbstractCacheTest {
+
+  public OffHeapCacheTest() {
+    super(new OffHeapCache("test", 1024 * 1024));
+  }
+
+  public void testValuesAreCopies() {
+    final StringBuilder value = new StringBuilder("value");
+    final OffHeapCache cache = new OffHeapCache("copies", 1024 * 1024);
+    cache.put("key", value);
+    value.append("-changed");
+    assertThat(cache.get("key").toString()).isEqualTo("value");
+    assertThat(cache.get("key")).isNotSameAs(cache.get("key"));
+  }
+
+  public void testEvictionAndCompaction() {
+    final OffHeapCache cache = new OffHeapCache(
+            "small", OffHeapCache.allocateDirect(4096, 1), 0, 0, TimeUnit.MILLISECONDS, JdkSerializationCodec.INSTANCE);
+
+    final byte[] value = new byte[1000];
+    for (int i = 0; i < 10; i++) {
+      value[0] = (byte) i;
+      cache.put(i, value);
+      // keep 0 recently used
+      assertThat(cache.get(0)).isNotNull();
+    }
+    assertThat(cache.getMemoryUsed()).isLessThanOrEqualTo(4096);
+    assertThat(cache.get(0)).isNotNull();
+    assertThat(cache.get(1)).isNull();
+    assertThat(((byte[]) cache.get(9))[0]).isEqualTo((byte) 9);
+    assertThat(((byte[]) cache.get(0))[0]).isEqualTo((byte) 0);
+
+    // too large
+    cache.put("large", new byte[8192]);
+    assertThat(cache.get("large")).isNull();
+  }
+
+  public void testMaxSizeAndExpire() throws Exception {
+    final OffHeapCache cache = new OffHeapCache(
+            "bounded", OffHeapCache.allocateDirect(64 * 1024, 2), 4, 50, TimeUnit.MILLISECONDS, JdkSerializationCodec.INSTANCE);
+    for (int i = 0; i < 100; i++) {
+      cache.put(i, "value" + i);
+    }
+    assertThat(cache.size()).isLessThanOrEqualTo(4);
+    assertThat(cache.get(99)).isEqualTo("value99");
+
+    Thread.sleep(80);
+    assertThat(cache.get(99)).isNull();
+    assertThat(cache.get("key", () -> "loaded")).isEqualTo("loaded");
+    assertThat(cache.get("key")).isEqualTo("loaded");
+  }
+
+  public void testMappedCacheManager() throws Exception {
+    final File directory = new File(System.getProperty("java.io.tmpdir"));
+    final OffHeapCacheManager cacheManager = new OffHeapCacheManager();
+    cacheManager.setDirectory(directory);
+    cacheManager.setCapacity(64 * 1024);
+    cacheManager.setSegmentCount(4);
+
+    final CacheConfiguration config = new CacheConfiguration("mapped");
+    config.setMaxSize(100);
+    final OffHeapCache cache = (OffHeapCache) cacheManager.getCache("mapped", config);
+    assertThat(cache.getCapacity()).isEqualTo(64 * 1024);
+    assertThat(new File(directory, "mapped.cache")).exists();
+
+    cache.put("key", "value");
+    cache.put("null", null);
+    assertThat(cache.get("key")).isEqualTo("value");
+    assertThat(cache.get("null", false)).isNotNull();
+    assertThat(cache.get("null")).isNull();
+  }
+
+}
@@ -0,0 +1,261 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import cn.taketoday.cache.annotation.CacheConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/3/26 12:00
+ */
+public class PersistentCacheTest extends AbstractCacheTest {
+
+  public PersistentCacheTest() throws IOException {
+    super(new PersistentCache("test", tempFile(), 1024 * 1024, JdkSerializationCodec.INSTANCE));
+  }
+
+  static File tempFile() throws IOException {
+    final File file = File.createTempFile("persistent-cache", PersistentCacheManager.FILE_SUFFIX);
+    file.deleteOnExit();
+    return file;
+  }
+
+  public void testRecover() throws Exception {
+    final File file = tempFile();
+    final PersistentCache cache = new PersistentCache("recover", file, 64 * 1024, JdkSerializationCodec.INSTANCE);
+    cache.put("key1", "value1");
+    cache.put("key2", "value2");
+    cache.put("key2", "value2-updated");
+    cache.put("null", null);
+    cache.put(new DefaultCacheKey(new Object[] { "a", 1 }), 1);
+    cache.evict("key1");
+    cache.setExpire(1, TimeUnit.MILLISECONDS);
+    cache.put("expired", "expired");
+    cache.flush();
+    Thread.sleep(5);
+
+    final PersistentCache reopened = new PersistentCache("recover", file, 64 * 1024, JdkSerializationCodec.INSTANCE);
+    assertThat(reopened.size()).isEqualTo(3);
+    assertThat(reopened.get("key1")).isNull();
+    assertThat(reopened.get("key2")).isEqualTo("value2-updated");
+    assertThat(reopened.get("null", false)).isNotNull();
+    assertThat(reopened.get(new DefaultCacheKey(new Object[] { "a", 1 }))).isEqualTo(1);
+    assertThat(reopened.get("expired")).isNull();
+  }
+
+  public void testHalfWrittenRecordIgnored() throws Exception {
+    final File file = tempFile();
+    final PersistentCache cache = new PersistentCache("crash", file, 64 * 1024, JdkSerializationCodec.INSTANCE);
+    cache.put("key1", "value1");
+    cache.flush();
+    final int end = 8 + (int) cache.getLiveBytes();
+
+    // a record whose length was not written yet
+    try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      randomAccessFile.seek(end + 4);
+      randomAccessFile.write(new byte[] { 1, 2, 3, 4, 5 });
+    }
+    final PersistentCache reopened = new PersistentCache("crash", file, 64 * 1024, JdkSerializationCodec.INSTANCE);
+    assertThat(reopened.size()).isEqualTo(1);
+    reopened.put("key2", "value2");
+    assertThat(reopened.get("key1")).isEqualTo("value1");
+    assertThat(reopened.get("key2")).isEqualTo("value2");
+  }
+
+  public void testTornAppendNotReplayed() throws Exception {
+    // a complete record to leave behind a torn one
+    final File ghostFile = tempFile();
+    final PersistentCache ghost = new PersistentCache("ghost", ghostFile, 64 * 1024, JdkSerializationCodec.INSTANCE);
+    ghost.put("ghost", "value");
+    ghost.flush();
+    final byte[] ghostRecord = new byte[(int) ghost.getLiveBytes()];
+    try (final RandomAccessFile randomAccessFile = new RandomAccessFile(ghostFile, "r")) {
+      randomAccessFile.seek(8);
+      randomAccessFile.readFully(ghostRecord);
+    }
+
+    final File file = tempFile();
+    final PersistentCache cache = new PersistentCache("torn", file, 64 * 1024, JdkSerializationCodec.INSTANCE);
+    cache.put("key1", "value1");
+    cache.flush();
+    final int recordLength = (int) cache.getLiveBytes();
+    final int end = 8 + recordLength;
+
+    // killed while appending a longer record: body written, length not yet
+    try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      randomAccessFile.seek(end + 4);
+      randomAccessFile.write(new byte[recordLength - 4]);
+      randomAccessFile.write(ghostRecord);
+    }
+    final PersistentCache reopened = new PersistentCache("torn", file, 64 * 1024, JdkSerializationCodec.INSTANCE);
+    assertThat(reopened.size()).isEqualTo(1);
+    // as long as the first record, ends right before the torn bytes
+    reopened.put("key2", "value2");
+    reopened.flush();
+
+    final PersistentCache restarted = new PersistentCache("torn", file, 64 * 1024, JdkSerializationCodec.INSTANCE);
+    assertThat(restarted.size()).isEqualTo(2);
+    assertThat(restarted.get("ghost")).isNull();
+    assertThat(restarted.get("key1")).isEqualTo("value1");
+    assertThat(restarted.get("key2")).isEqualTo("value2");
+  }
+
+  public void testCompaction() throws Exception {
+    final File file = tempFile();
+    final PersistentCache cache = new PersistentCache("compact", file, 16 * 1024, JdkSerializationCodec.INSTANCE);
+    cache.setCompactionExecutor(Runnable::run);
+    for (int i = 0; i < 1000; i++) {
+      cache.put(i % 10, "value" + i);
+    }
+    assertThat(cache.size()).isEqualTo(10);
+    assertThat(cache.getGarbageBytes()).isLessThanOrEqualTo(16 * 1024);
+    for (int i = 0; i < 10; i++) {
+      assertThat(cache.get(i)).isEqualTo("value" + (990 + i));
+    }
+
+    cache.compact();
+    assertThat(cache.getGarbageBytes()).isZero();
+    assertThat(new File(file.getPath() + ".compact")).doesNotExist();
+
+    final PersistentCache reopened = new PersistentCache("compact", file, 16 * 1024, JdkSerializationCodec.INSTANCE);
+    assertThat(reopened.get(5)).isEqualTo("value995");
+
+    // too large
+    cache.put(5, new byte[32 * 1024]);
+    assertThat(cache.get(5)).isNull();
+
+    cache.clear();
+    assertThat(cache.size()).isZero();
+    assertThat(new PersistentCache("compact", file, 16 * 1024, JdkSerializationCodec.INSTANCE).size()).isZero();
+  }
+
+  public void testCompactionDoesNotBlockWriters() throws Exception {
+    final File file = tempFile();
+    final CountDownLatch compacting = new CountDownLatch(1);
+    final CountDownLatch written = new CountDownLatch(1);
+    final CacheValueCodec codec = new CacheValueCodec() {
+      @Override
+      public byte[] encode(Object value) {
+        if (Thread.currentThread().getName().equals("compaction") && "blocking".equals(value)) {
+          compacting.countDown();
+          try {
+            written.await();
+          }
+          catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+        }
+        return JdkSerializationCodec.INSTANCE.encode(value);
+      }
+
+      @Override
+      public Object decode(byte[] bytes) {
+        return JdkSerializationCodec.INSTANCE.decode(bytes);
+      }
+    };
+    final PersistentCache cache = new PersistentCache("concurrent", file, 64 * 1024, codec);
+    cache.put("blocking", "value");
+    cache.put("key1", "value1");
+    cache.put("key2", "value2");
+
+    final Thread compaction = new Thread(cache::compact, "compaction");
+    compaction.start();
+    compacting.await();
+
+    // appended and read while the live entries are copied
+    cache.put("key1", "value1-updated");
+    cache.evict("key2");
+    cache.put("key3", "value3");
+    assertThat(cache.get("key1")).isEqualTo("value1-updated");
+    written.countDown();
+    compaction.join();
+
+    assertThat(cache.size()).isEqualTo(3);
+    assertThat(cache.get("blocking")).isEqualTo("value");
+    assertThat(cache.get("key1")).isEqualTo("value1-updated");
+    assertThat(cache.get("key2")).isNull();
+    assertThat(cache.get("key3")).isEqualTo("value3");
+    cache.put("key4", "value4");
+    cache.flush();
+
+    final PersistentCache reopened = new PersistentCache("concurrent", file, 64 * 1024, codec);
+    assertThat(reopened.size()).isEqualTo(4);
+    assertThat(reopened.get("key1")).isEqualTo("value1-updated");
+    assertThat(reopened.get("key2")).isNull();
+    assertThat(reopened.get("key4")).isEqualTo("value4");
+  }
+
+  public void testCacheNameEncoded() throws Exception {
+    final File directory = Files.createTempDirectory("persistent-caches").toFile();
+    final PersistentCacheManager cacheManager = new PersistentCacheManager(directory);
+    cacheManager.setCapacity(64 * 1024);
+    cacheManager.afterPropertiesSet();
+    cacheManager.getCache("../escaped").put("1", "value");
+    cacheManager.getCache("a/b").put("1", "value");
+    cacheManager.destroy();
+
+    assertThat(directory.getParentFile().list()).doesNotContain("escaped.data");
+    assertThat(directory.list()).containsOnly("..%2Fescaped.data", "a%2Fb.data");
+
+    final PersistentCacheManager restarted = new PersistentCacheManager(directory);
+    restarted.setCapacity(64 * 1024);
+    restarted.afterPropertiesSet();
+    assertThat(restarted.getCache("../escaped").get("1")).isEqualTo("value");
+    assertThat(restarted.getCache("a/b").get("1")).isEqualTo("value");
+
+    for (final File file : directory.listFiles()) {
+      file.deleteOnExit();
+    }
+    directory.deleteOnExit();
+  }
+
+  public void testCacheManagerRecovery() throws Exception {
+    final File directory = Files.createTempDirectory("persistent-caches").toFile();
+    final PersistentCacheManager cacheManager = new PersistentCacheManager(directory);
+    cacheManager.setCapacity(64 * 1024);
+    cacheManager.afterPropertiesSet();
+    cacheManager.getCache("users").put("1", "user1");
+    cacheManager.destroy();
+
+    final PersistentCacheManager restarted = new PersistentCacheManager(directory);
+    restarted.setCapacity(64 * 1024);
+    restarted.afterPropertiesSet();
+
+    final CacheConfiguration config = new CacheConfiguration("users");
+    config.setExpire(1);
+    config.setTimeUnit(TimeUnit.HOURS);
+    final Cache users = restarted.getCache("users", config);
+    assertThat(users.get("1")).isEqualTo("user1");
+
+    for (final File file : directory.listFiles()) {
+      file.deleteOnExit();
+    }
+    directory.deleteOnExit();
+  }
+
+}
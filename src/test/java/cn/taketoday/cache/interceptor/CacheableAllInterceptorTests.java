@@ -0,0 +1,149 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.cache.interceptor;
+
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import cn.taketoday.aop.proxy.ProxyFactory;
+import cn.taketoday.cache.Cache;
+import cn.taketoday.cache.CaffeineCacheManager;
+import cn.taketoday.cache.annotation.CacheableAll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author TODAY 2021/3/22 11:20
+ */
+public class CacheableAllInterceptorTests {
+
+  public static class NameService {
+    final List<Collection<Long>> invocations = new ArrayList<>();
+
+    @CacheableAll(cacheName = "names", unless = "${result == null}")
+    public Map<Long, String> getNames(Collection<Long> ids) {
+      invocations.add(new ArrayList<>(ids));
+      final LinkedHashMap<Long, String> ret = new LinkedHashMap<>();
+      for (final Long id : ids) {
+        ret.put(id, id < 0 ? null : "name" + id);
+      }
+      return ret;
+    }
+  }
+
+  @Test
+  public void loadsMissesOnly() {
+    final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    final CacheableAllInterceptor interceptor = new CacheableAllInterceptor(cacheManager);
+    interceptor.setExceptionResolver(new DefaultCacheExceptionResolver());
+
+    final NameService target = new NameService();
+    final ProxyFactory proxyFactory = new ProxyFactory(target);
+    proxyFactory.addAdvice(interceptor);
+    final NameService nameService = (NameService) proxyFactory.getProxy();
+
+    assertThat(nameService.getNames(Arrays.asList(1L, 2L)))
+            .containsExactly(entry(1L, "name1"), entry(2L, "name2"));
+
+    assertThat(nameService.getNames(Arrays.asList(3L, 1L, 2L, -1L)))
+            .containsExactly(entry(3L, "name3"), entry(1L, "name1"), entry(2L, "name2"), entry(-1L, null));
+
+    assertThat(nameService.getNames(Arrays.asList(2L, 3L)))
+            .containsExactly(entry(2L, "name2"), entry(3L, "name3"));
+
+    assertThat(target.invocations)
+            .containsExactly(Arrays.asList(1L, 2L), Arrays.asList(3L, -1L));
+
+    final Cache names = cacheManager.getCache("names");
+    assertThat(names.getAll(Arrays.asList(1L, 2L, 3L, -1L))).containsOnlyKeys(1L, 2L, 3L);
+  }
+
+  public static class TypedService {
+    final List<Collection<Long>> invocations = new ArrayList<>();
+
+    @CacheableAll(cacheName = "hashSet")
+    public HashMap<Long, String> byHashSet(HashSet<Long> ids) {
+      return load(ids);
+    }
+
+    @CacheableAll(cacheName = "list")
+    public Map<Long, String> byList(List<Long> ids) {
+      return load(ids);
+    }
+
+    @CacheableAll(cacheName = "treeSet")
+    public Map<Long, String> byTreeSet(TreeSet<Long> ids) {
+      return load(ids);
+    }
+
+    LinkedHashMap<Long, String> load(Collection<Long> ids) {
+      invocations.add(ids);
+      final LinkedHashMap<Long, String> ret = new LinkedHashMap<>();
+      for (final Long id : ids) {
+        ret.put(id, "name" + id);
+      }
+      return ret;
+    }
+  }
+
+  @Test
+  public void declaredKeysType() {
+    final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    final CacheableAllInterceptor interceptor = new CacheableAllInterceptor(cacheManager);
+    interceptor.setExceptionResolver(new DefaultCacheExceptionResolver());
+
+    final TypedService target = new TypedService();
+    final ProxyFactory proxyFactory = new ProxyFactory(target);
+    proxyFactory.addAdvice(interceptor);
+    final TypedService service = (TypedService) proxyFactory.getProxy();
+
+    service.byHashSet(new HashSet<>(Arrays.asList(1L, 2L)));
+    assertThat(service.byHashSet(new HashSet<>(Arrays.asList(1L, 2L, 3L)))).containsOnlyKeys(1L, 2L, 3L);
+    assertThat(target.invocations.get(1)).isInstanceOf(HashSet.class).containsExactly(3L);
+
+    service.byList(new ArrayList<>(Arrays.asList(1L, 2L)));
+    assertThat(service.byList(new ArrayList<>(Arrays.asList(3L, 1L)))).containsOnlyKeys(3L, 1L);
+    assertThat(target.invocations.get(3)).isInstanceOf(List.class).containsExactly(3L);
+
+    // all hit, in key order
+    assertThat(service.byList(Arrays.asList(2L, 3L, 1L)).keySet()).containsExactly(2L, 3L, 1L);
+    assertThat(target.invocations).hasSize(4);
+
+    assertThatThrownBy(() -> service.byTreeSet(new TreeSet<>(Arrays.asList(1L, 2L))))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("ArrayList or LinkedHashSet");
+  }
+
+  static Map.Entry<Long, String> entry(Long key, String value) {
+    return new AbstractMap.SimpleEntry<>(key, value);
+  }
+
+}
@@ -20,20 +20,35 @@
 
 package cn.taketoday.cache.interceptor;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import org.junit.Test;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import cn.taketoday.aop.proxy.ProxyFactory;
 import cn.taketoday.aop.support.AnnotationMatchingPointcut;
 import cn.taketoday.aop.support.DefaultPointcutAdvisor;
 import cn.taketoday.aop.support.annotation.AspectAutoProxyCreator;
 import cn.taketoday.cache.Cache;
+import cn.taketoday.cache.CacheManager;
 import cn.taketoday.cache.CaffeineCache;
 import cn.taketoday.cache.CaffeineCacheManager;
+import cn.taketoday.cache.DefaultCacheKey;
 import cn.taketoday.cache.NoSuchCacheException;
+import cn.taketoday.cache.RefreshableValue;
+import cn.taketoday.cache.annotation.CacheConfig;
 import cn.taketoday.cache.annotation.CacheConfiguration;
 import cn.taketoday.cache.annotation.Cacheable;
 import cn.taketoday.cache.interceptor.AbstractCacheInterceptor.MethodKey;
@@ -92,6 +107,241 @@ public class CacheableInterceptorTests {
     catch (NoSuchCacheException ignored) { }
   }
 
+  public static class RefreshService {
+    final AtomicInteger invocations = new AtomicInteger();
+
+    @Cacheable(cacheName = "refresh", expire = 10000, refreshAfterWrite = 50)
+    public String refresh(String id) {
+      return id + invocations.incrementAndGet();
+    }
+
+    @Cacheable(cacheName = "stale", expire = 50, staleWhileRevalidate = 10000)
+    public String stale(String id) {
+      return id + invocations.incrementAndGet();
+    }
+
+    @Cacheable(cacheName = "expired", expire = 50, staleWhileRevalidate = 50)
+    public String expired(String id) {
+      return id + invocations.incrementAndGet();
+    }
+
+    @Cacheable(cacheName = "refresh")
+    public String plain(String id) {
+      return id + invocations.incrementAndGet();
+    }
+
+    @Cacheable(cacheName = "refreshAsync", refreshAfterWrite = 50)
+    public CompletableFuture<String> refreshAsync(String id) {
+      return CompletableFuture.completedFuture(id + invocations.incrementAndGet());
+    }
+  }
+
+  @Test
+  public void refreshAhead() throws Exception {
+    interceptor.setRefreshExecutor(Runnable::run);
+    final RefreshService target = new RefreshService();
+    final ProxyFactory proxyFactory = new ProxyFactory(target);
+    proxyFactory.addAdvice(interceptor);
+    final RefreshService refreshService = (RefreshService) proxyFactory.getProxy();
+
+    assertThat(refreshService.refresh("a")).isEqualTo("a1");
+    assertThat(refreshService.refresh("a")).isEqualTo("a1");
+    assertThat(target.invocations).hasValue(1);
+    final Cache cache = cacheManager.getCache("refresh");
+    final DefaultCacheKey key = new DefaultCacheKey(new Object[] { "a" });
+    assertThat(cache.get(key, false)).isInstanceOf(RefreshableValue.class);
+    // other readers get the value
+    assertThat(cache.get(key)).isEqualTo("a1");
+    assertThat(cache.getAll(Collections.singleton(key))).containsEntry(key, "a1");
+    assertThat(refreshService.plain("a")).isEqualTo("a1");
+
+    Thread.sleep(80);
+    // old value is returned while refreshing
+    assertThat(refreshService.refresh("a")).isEqualTo("a1");
+    assertThat(target.invocations).hasValue(2);
+    assertThat(refreshService.refresh("a")).isEqualTo("a2");
+  }
+
+  @Test
+  public void refreshableAsyncReturnType() throws Exception {
+    final RefreshService target = new RefreshService();
+    final ProxyFactory proxyFactory = new ProxyFactory(target);
+    proxyFactory.addAdvice(interceptor);
+    final RefreshService refreshService = (RefreshService) proxyFactory.getProxy();
+
+    assertThat(refreshService.refreshAsync("a").get()).isEqualTo("a1");
+    assertThat(refreshService.refreshAsync("a").get()).isEqualTo("a1");
+    assertThat(cacheManager.getCache("refreshAsync").get(new DefaultCacheKey(new Object[] { "a" })))
+            .isEqualTo("a1");
+  }
+
+  @Test
+  public void staleWhileRevalidate() throws Exception {
+    interceptor.setRefreshExecutor(Runnable::run);
+    final RefreshService target = new RefreshService();
+    final ProxyFactory proxyFactory = new ProxyFactory(target);
+    proxyFactory.addAdvice(interceptor);
+    final RefreshService refreshService = (RefreshService) proxyFactory.getProxy();
+
+    assertThat(refreshService.stale("a")).isEqualTo("a1");
+    Thread.sleep(80);
+    // expired but in the stale window
+    assertThat(refreshService.stale("a")).isEqualTo("a1");
+    assertThat(refreshService.stale("a")).isEqualTo("a2");
+
+    assertThat(refreshService.expired("b")).isEqualTo("b3");
+    Thread.sleep(120);
+    // beyond the stale window
+    assertThat(refreshService.expired("b")).isEqualTo("b4");
+    assertThat(target.invocations).hasValue(4);
+  }
+
+  @Test
+  public void refreshRejected() throws Exception {
+    interceptor.setRefreshExecutor(command -> {
+      throw new RejectedExecutionException();
+    });
+    final RefreshService target = new RefreshService();
+    final ProxyFactory proxyFactory = new ProxyFactory(target);
+    proxyFactory.addAdvice(interceptor);
+    final RefreshService refreshService = (RefreshService) proxyFactory.getProxy();
+
+    assertThat(refreshService.refresh("c")).isEqualTo("c1");
+    Thread.sleep(80);
+    assertThat(refreshService.refresh("c")).isEqualTo("c1");
+    assertThat(refreshService.refresh("c")).isEqualTo("c1");
+    assertThat(target.invocations).hasValue(1);
+  }
+
+  public static class AsyncService {
+    final AtomicInteger invocations = new AtomicInteger();
+    CompletableFuture<String> pending;
+
+    @Cacheable(cacheName = "async")
+    public CompletableFuture<String> load(String id) {
+      invocations.incrementAndGet();
+      return pending = new CompletableFuture<>();
+    }
+  }
+
+  @Test
+  public void asyncReturnType() throws Exception {
+    final AsyncService target = new AsyncService();
+    final ProxyFactory proxyFactory = new ProxyFactory(target);
+    proxyFactory.addAdvice(interceptor);
+    final AsyncService asyncService = (AsyncService) proxyFactory.getProxy();
+
+    final CompletableFuture<String> first = asyncService.load("1");
+    final CompletableFuture<String> second = asyncService.load("1");
+    assertThat(first).isNotDone();
+    assertThat(second).isNotDone();
+    // coalesced
+    assertThat(target.invocations).hasValue(1);
+
+    target.pending.complete("value1");
+    assertThat(first.get()).isEqualTo("value1");
+    assertThat(second.get()).isEqualTo("value1");
+
+    // cached completed value
+    assertThat(asyncService.load("1").get()).isEqualTo("value1");
+    assertThat(target.invocations).hasValue(1);
+    assertThat(cacheManager.getCache("async").get(new DefaultCacheKey(new Object[] { "1" })))
+            .isEqualTo("value1");
+
+    // failed loads are not cached
+    final CompletableFuture<String> failed = asyncService.load("2");
+    target.pending.completeExceptionally(new IllegalStateException("error"));
+    assertThat(failed).isCompletedExceptionally();
+    asyncService.load("2");
+    assertThat(target.invocations).hasValue(3);
+  }
+
+  public static class NullableService {
+    final AtomicInteger invocations = new AtomicInteger();
+    volatile Thread invoker;
+
+    @Cacheable(cacheName = "nullable")
+    public CompletableFuture<String> load(String id) {
+      invocations.incrementAndGet();
+      invoker = Thread.currentThread();
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+
+  /** completes lookups on its own thread, like the I/O thread of a remote cache */
+  static final class RemoteCache extends CaffeineCache {
+    final ExecutorService io = Executors.newSingleThreadExecutor(r -> new Thread(r, "io"));
+    final CountDownLatch lookups = new CountDownLatch(1);
+
+    RemoteCache(String name) {
+      super(name, Caffeine.newBuilder().build());
+    }
+
+    @Override
+    public CompletableFuture<Object> getAsync(Object key, boolean unWarp) {
+      final CompletableFuture<Object> ret = new CompletableFuture<>();
+      io.execute(() -> {
+        try {
+          lookups.await();
+        }
+        catch (InterruptedException ignored) { }
+        ret.complete(get(key, unWarp));
+      });
+      return ret;
+    }
+  }
+
+  @Test
+  public void asyncMissIsNotProceededOnLookupThread() throws Exception {
+    final RemoteCache cache = new RemoteCache("nullable");
+    final CacheableInterceptor interceptor = new CacheableInterceptor(new CacheManager() {
+      @Override
+      public Cache getCache(String name, CacheConfig cacheConfig) {
+        return cache;
+      }
+
+      @Override
+      public Collection<String> getCacheNames() {
+        return Collections.singleton(cache.getName());
+      }
+    });
+    interceptor.setExceptionResolver(new DefaultCacheExceptionResolver());
+    final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "resume"));
+    interceptor.setAsyncExecutor(executor);
+    try {
+      final NullableService target = new NullableService();
+      final ProxyFactory proxyFactory = new ProxyFactory(target);
+      proxyFactory.addAdvice(interceptor);
+      final NullableService service = (NullableService) proxyFactory.getProxy();
+
+      final CompletableFuture<String> loaded = service.load("1");
+      assertThat(loaded).isNotDone();
+      cache.lookups.countDown();
+      assertThat(loaded.get()).isNull();
+      assertThat(target.invoker.getName()).isEqualTo("resume");
+      // cached null is a hit
+      assertThat(service.load("1").get()).isNull();
+      assertThat(target.invocations).hasValue(1);
+    }
+    finally {
+      executor.shutdown();
+      cache.io.shutdown();
+    }
+  }
+
+  @Test
+  public void asyncMissIsProceededOnCallingThread() throws Exception {
+    final NullableService target = new NullableService();
+    final ProxyFactory proxyFactory = new ProxyFactory(target);
+    proxyFactory.addAdvice(interceptor);
+    final NullableService service = (NullableService) proxyFactory.getProxy();
+
+    assertThat(service.load("1").get()).isNull();
+    assertThat(target.invoker).isSameAs(Thread.currentThread());
+    assertThat(service.load("1").get()).isNull();
+    assertThat(target.invocations).hasValue(1);
+  }
+
   @Test
   public void testContext() throws Exception {
 
@@ -0,0 +1,206 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.cglib.beans;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/3/25 11:20
+ */
+public class ObjectMapperTests {
+
+  public static class Address {
+    private String city;
+    private int zip;
+
+    public Address() { }
+
+    public Address(String city, int zip) {
+      this.city = city;
+      this.zip = zip;
+    }
+
+    public String getCity() { return city; }
+
+    public void setCity(String city) { this.city = city; }
+
+    public int getZip() { return zip; }
+
+    public void setZip(int zip) { this.zip = zip; }
+  }
+
+  public static class AddressDto {
+    private String city;
+    private String zip;
+
+    public String getCity() { return city; }
+
+    public void setCity(String city) { this.city = city; }
+
+    public String getZip() { return zip; }
+
+    public void setZip(String zip) { this.zip = zip; }
+  }
+
+  public static class User {
+    private long id;
+    private String name;
+    private Address address;
+    private List<Address> history = new ArrayList<>();
+    private Map<String, Address> named = new LinkedHashMap<>();
+    private int[] scores;
+    private List<String> tags;
+
+    public long getId() { return id; }
+
+    public void setId(long id) { this.id = id; }
+
+    public String getName() { return name; }
+
+    public void setName(String name) { this.name = name; }
+
+    public Address getAddress() { return address; }
+
+    public void setAddress(Address address) { this.address = address; }
+
+    public List<Address> getHistory() { return history; }
+
+    public void setHistory(List<Address> history) { this.history = history; }
+
+    public Map<String, Address> getNamed() { return named; }
+
+    public void setNamed(Map<String, Address> named) { this.named = named; }
+
+    public int[] getScores() { return scores; }
+
+    public void setScores(int[] scores) { this.scores = scores; }
+
+    public List<String> getTags() { return tags; }
+
+    public void setTags(List<String> tags) { this.tags = tags; }
+  }
+
+  public static class UserDto {
+    private String id;
+    @MapFrom("name")
+    private String username;
+    private AddressDto address;
+    private AddressDto[] history;
+    private Map<String, AddressDto> named;
+    private List<Integer> scores;
+    private Set<String> tags;
+
+    public String getId() { return id; }
+
+    public void setId(String id) { this.id = id; }
+
+    public String getUsername() { return username; }
+
+    public void setUsername(String username) { this.username = username; }
+
+    public AddressDto getAddress() { return address; }
+
+    public void setAddress(AddressDto address) { this.address = address; }
+
+    public AddressDto[] getHistory() { return history; }
+
+    public void setHistory(AddressDto[] history) { this.history = history; }
+
+    public Map<String, AddressDto> getNamed() { return named; }
+
+    public void setNamed(Map<String, AddressDto> named) { this.named = named; }
+
+    public List<Integer> getScores() { return scores; }
+
+    public void setScores(List<Integer> scores) { this.scores = scores; }
+
+    public Set<String> getTags() { return tags; }
+
+    public void setTags(Set<String> tags) { this.tags = tags; }
+  }
+
+  @Test
+  public void deepMapping() {
+    final User user = new User();
+    user.setId(42);
+    user.setName("today");
+    user.setAddress(new Address("Chongqing", 400000));
+    user.getHistory().add(new Address("Beijing", 100000));
+    user.getNamed().put("home", new Address("Chengdu", 610000));
+    user.setScores(new int[] { 1, 2 });
+    user.setTags(Arrays.asList("a", "b", "a"));
+
+    final ObjectMapper mapper = new ObjectMapper();
+    final UserDto dto = mapper.map(user, UserDto.class);
+
+    assertThat(dto.getId()).isEqualTo("42");
+    assertThat(dto.getUsername()).isEqualTo("today");
+    assertThat(dto.getAddress().getCity()).isEqualTo("Chongqing");
+    assertThat(dto.getAddress().getZip()).isEqualTo("400000");
+    assertThat(dto.getHistory()).hasSize(1);
+    assertThat(dto.getHistory()[0].getCity()).isEqualTo("Beijing");
+    assertThat(dto.getNamed()).containsOnlyKeys("home");
+    assertThat(dto.getNamed().get("home").getZip()).isEqualTo("610000");
+    assertThat(dto.getScores()).containsExactly(1, 2);
+    assertThat(dto.getTags()).containsExactly("a", "b");
+
+    final User back = mapper.map(dto, User.class);
+    assertThat(back.getId()).isEqualTo(42);
+    assertThat(back.getName()).isNull(); // no @MapFrom on User
+    assertThat(back.getAddress().getZip()).isEqualTo(400000);
+    assertThat(back.getHistory()).hasSize(1);
+    assertThat(back.getHistory().get(0).getCity()).isEqualTo("Beijing");
+    assertThat(back.getScores()).containsExactly(1, 2);
+  }
+
+  @Test
+  public void directProperties() {
+    final Address address = new Address("Chongqing", 400000);
+    final Address copy = new ObjectMapper().map(address, Address.class);
+    assertThat(copy).isNotSameAs(address);
+    assertThat(copy.getCity()).isEqualTo("Chongqing");
+    assertThat(copy.getZip()).isEqualTo(400000);
+
+    final User user = new User();
+    user.setAddress(address);
+    final User target = new User();
+    new ObjectMapper().map(user, target);
+    // same declared type: copied by reference like hand-written code
+    assertThat(target.getAddress()).isSameAs(address);
+    assertThat(target.getScores()).isNull();
+  }
+
+  @Test
+  public void sharedMapper() {
+    assertThat(ObjectMapper.getBeanMapper(User.class, UserDto.class))
+            .isSameAs(ObjectMapper.getBeanMapper(User.class, UserDto.class));
+    assertThat(new ObjectMapper().map(null, Address.class)).isNull();
+  }
+
+}
@@ -125,6 +125,24 @@ public class TestBeanMap extends cn.taketoday.context.cglib.CodeGenTestCase {
         assertTrue(((Map) bean).get("foo").equals("hello"));
     }
 
+    public void testReadOnlyView() {
+        TestBeanMapBean bean = new TestBeanMapBean();
+        bean.setFoo("x");
+        Map view = ReadOnlyBeanMap.of(bean);
+        assertEquals("x", view.get("foo"));
+        bean.setFoo("y");
+        assertEquals("y", view.get("foo"));
+        assertEquals(4, view.size());
+        assertFalse(view.containsKey("baz"));
+        assertEquals(view.size(), view.entrySet().size());
+        try {
+            view.put("foo", "z");
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+        }
+        assertEquals("y", bean.getFoo());
+    }
+
     public void testRequire() {
         BeanMap.Generator gen = new BeanMap.Generator();
         gen.setBeanClass(TestBeanMapBean.class);
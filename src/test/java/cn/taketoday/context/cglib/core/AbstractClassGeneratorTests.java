@@ -0,0 +1,107 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.cglib.core;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cn.taketoday.context.cglib.beans.BeanCopier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/3/28 11:00
+ */
+public class AbstractClassGeneratorTests {
+
+  public static class Source {
+    private String name;
+
+    public String getName() { return name; }
+
+    public void setName(String name) { this.name = name; }
+  }
+
+  public static class Target {
+    private String name;
+
+    public String getName() { return name; }
+
+    public void setName(String name) { this.name = name; }
+  }
+
+  @Test
+  public void concurrentGenerationIsSingleFlight() throws Exception {
+    final long count = GenerationStatistics.getCount(BeanCopier.Generator.class);
+    final int threads = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<BeanCopier>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return BeanCopier.create(Source.class, Target.class, false);
+        }));
+      }
+      start.countDown();
+      final Class<?> generated = futures.get(0).get().getClass();
+      for (final Future<BeanCopier> future : futures) {
+        assertThat(future.get().getClass()).isSameAs(generated);
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+    assertThat(GenerationStatistics.getCount(BeanCopier.Generator.class)).isEqualTo(count + 1);
+    assertThat(GenerationStatistics.get(BeanCopier.Generator.class).getTotal()).isPositive();
+  }
+
+  @Test
+  public void cachePerClassLoader() throws Exception {
+    final ClassLoader parent = getClass().getClassLoader();
+    final URLClassLoader first = new URLClassLoader(new URL[0], parent);
+    final URLClassLoader second = new URLClassLoader(new URL[0], parent);
+
+    final Callable<Class<?>> inFirst = () -> create(first).getClass();
+    assertThat(inFirst.call()).isSameAs(inFirst.call());
+    assertThat(inFirst.call().getClassLoader()).isSameAs(first);
+
+    final Class<?> inSecond = create(second).getClass();
+    assertThat(inSecond.getClassLoader()).isSameAs(second);
+    assertThat(inSecond).isNotSameAs(inFirst.call());
+  }
+
+  private static BeanCopier create(ClassLoader classLoader) {
+    final BeanCopier.Generator generator = new BeanCopier.Generator(Target.class, Source.class, false);
+    generator.setClassLoader(classLoader);
+    return generator.create();
+  }
+
+}
@@ -0,0 +1,155 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.cglib.core;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+
+import cn.taketoday.aop.proxy.ProxyFactory;
+import cn.taketoday.context.cglib.proxy.Enhancer;
+import cn.taketoday.context.cglib.proxy.MethodInterceptor;
+import cn.taketoday.context.reflect.MethodInvoker;
+import cn.taketoday.context.utils.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/3/29 11:00
+ */
+public class GeneratedClassScopeTests {
+
+  public static class Greeter {
+    public String greet(String name) {
+      return "Hello " + name;
+    }
+  }
+
+  public static class PackageGreeter {
+    String greet(String name) {
+      return "Hello " + name;
+    }
+  }
+
+  @Test
+  public void defineIntoScope() throws Exception {
+    final GeneratedClassScope scope = new GeneratedClassScope("test");
+    final Greeter[] proxy = new Greeter[1];
+    final MethodInvoker[] invoker = new MethodInvoker[1];
+    final Method greet = Greeter.class.getMethod("greet", String.class);
+    scope.run(() -> {
+      proxy[0] = createProxy(Greeter.class);
+      invoker[0] = MethodInvoker.create(greet);
+    });
+
+    assertThat(GeneratedClassScope.getCurrent()).isNull();
+    assertThat(proxy[0].greet("TODAY")).isEqualTo("Hello TODAY!");
+    assertThat(proxy[0].getClass().getClassLoader()).isInstanceOf(GeneratedClassLoader.class);
+    assertThat(invoker[0].getClass().getClassLoader()).isInstanceOf(GeneratedClassLoader.class);
+    assertThat(invoker[0].invoke(new Greeter(), new Object[] { "TODAY" })).isEqualTo("Hello TODAY");
+
+    GeneratedClassLoader classLoader = (GeneratedClassLoader) proxy[0].getClass().getClassLoader();
+    assertThat(classLoader.getScope()).isSameAs(scope);
+    assertThat(scope.getClassLoaders()).containsExactly(classLoader);
+    // proxy, invoker and the FastClass of the proxy
+    assertThat(scope.getClassCount()).isEqualTo(3);
+    assertThat(classLoader.getDefinedClassNames())
+            .contains(proxy[0].getClass().getName(), invoker[0].getClass().getName());
+    assertThat(scope.getBytecodeSize()).isPositive();
+
+    // cached in the scope
+    scope.run(() -> assertThat(MethodInvoker.create(greet)).isSameAs(invoker[0]));
+
+    final WeakReference<ClassLoader> reference = new WeakReference<>(classLoader);
+    scope.close();
+    assertThat(scope.getClassCount()).isZero();
+    scope.run(() -> assertThat(createProxy(Greeter.class).getClass().getClassLoader())
+            .isNotInstanceOf(GeneratedClassLoader.class));
+
+    proxy[0] = null;
+    invoker[0] = null;
+    classLoader = null;
+    for (int i = 0; i < 10 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertThat(reference.get()).isNull();
+  }
+
+  @Test
+  public void packageAccessStaysInParent() {
+    final GeneratedClassScope scope = new GeneratedClassScope("test");
+    final PackageGreeter[] proxy = new PackageGreeter[1];
+    scope.run(() -> proxy[0] = createProxy(PackageGreeter.class));
+    assertThat(proxy[0].getClass().getClassLoader()).isSameAs(PackageGreeter.class.getClassLoader());
+    assertThat(scope.getClassCount()).isZero();
+
+    assertThat(GeneratedClassScope.isDefinable(Greeter.class)).isTrue();
+    assertThat(GeneratedClassScope.isDefinable(PackageGreeter.class)).isFalse();
+    scope.close();
+  }
+
+  @Test
+  public void defaultClassLoaderReplacedByScope() {
+    final GeneratedClassScope scope = new GeneratedClassScope("test");
+    final Object[] proxies = new Object[2];
+    scope.run(() -> {
+      // both pass ClassUtils.getClassLoader() explicitly
+      proxies[0] = createAopProxy(false);
+      proxies[1] = createAopProxy(true);
+    });
+    for (final Object proxy : proxies) {
+      assertThat(((Greeter) proxy).greet("TODAY")).isEqualTo("Hello TODAY!");
+      final ClassLoader classLoader = proxy.getClass().getClassLoader();
+      assertThat(classLoader).isInstanceOf(GeneratedClassLoader.class);
+      assertThat(((GeneratedClassLoader) classLoader).getScope()).isSameAs(scope);
+      assertThat(classLoader.getParent()).isSameAs(ClassUtils.getClassLoader());
+    }
+
+    final ClassLoader other = new ClassLoader(ClassUtils.getClassLoader()) { };
+    assertThat(GeneratedClassScope.isReplaceable(null)).isTrue();
+    assertThat(GeneratedClassScope.isReplaceable(ClassUtils.getClassLoader())).isTrue();
+    assertThat(GeneratedClassScope.isReplaceable(other)).isFalse();
+    scope.close();
+  }
+
+  static Object createAopProxy(boolean usingCglib) {
+    final ProxyFactory proxyFactory = new ProxyFactory(new Greeter(), usingCglib);
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAdvice((org.aopalliance.intercept.MethodInterceptor) invocation -> {
+      final Object ret = invocation.proceed();
+      return ret instanceof String ? ret + "!" : ret;
+    });
+    return proxyFactory.getProxy();
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> T createProxy(Class<T> type) {
+    final Enhancer enhancer = new Enhancer();
+    enhancer.setSuperclass(type);
+    enhancer.setCallback((MethodInterceptor) (obj, method, args, proxy) -> {
+      final Object ret = proxy.invokeSuper(obj, args);
+      return ret instanceof String ? ret + "!" : ret;
+    });
+    return (T) enhancer.create();
+  }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.cglib.proxy;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import cn.taketoday.context.cglib.core.Signature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/3/24 16:30
+ */
+public class MethodProxyTest {
+
+  public static class Lazy {
+    public String hello() { return "hello"; }
+
+    public String world() { return "world"; }
+  }
+
+  public static class Background {
+    public String hello() { return "hello"; }
+  }
+
+  static class RecordingInterceptor implements MethodInterceptor {
+    final List<MethodProxy> proxies = new ArrayList<>();
+
+    @Override
+    public Object intercept(Object obj, Method method, Object[] args, MethodProxy proxy) throws Throwable {
+      proxies.add(proxy);
+      return proxy.invokeSuper(obj, args);
+    }
+  }
+
+  @After
+  public void reset() {
+    MethodProxy.setFastClassGenerator(null);
+  }
+
+  @Test
+  public void generatedOnFirstInvocationAndShared() {
+    final RecordingInterceptor interceptor = new RecordingInterceptor();
+    final Lazy lazy = (Lazy) Enhancer.create(Lazy.class, interceptor);
+
+    final MethodProxy world = MethodProxy.find(lazy.getClass(), new Signature("world", "()Ljava/lang/String;"));
+    assertThat(world.isInitialized()).isFalse();
+
+    assertThat(lazy.hello()).isEqualTo("hello");
+    final MethodProxy hello = interceptor.proxies.get(0);
+    assertThat(hello.isInitialized()).isTrue();
+    assertThat(world.isInitialized()).isFalse();
+
+    assertThat(lazy.world()).isEqualTo("world");
+    assertThat(world.isInitialized()).isTrue();
+    assertThat(world.getSuperFastClass()).isSameAs(hello.getSuperFastClass());
+    assertThat(world.getFastClass()).isSameAs(hello.getFastClass());
+  }
+
+  @Test
+  public void generatedInBackground() {
+    final List<Runnable> tasks = new ArrayList<>();
+    final Executor executor = tasks::add;
+    MethodProxy.setFastClassGenerator(executor);
+
+    final RecordingInterceptor interceptor = new RecordingInterceptor();
+    final Background background = (Background) Enhancer.create(Background.class, interceptor);
+    // one task per declaring class: Background and Object
+    assertThat(tasks).hasSize(2);
+
+    final MethodProxy hello = MethodProxy.find(background.getClass(), new Signature("hello", "()Ljava/lang/String;"));
+    final MethodProxy.FastClassPair pair = MethodProxy.getFastClassPair(Background.class, background.getClass());
+    assertThat(pair.f2).isNull();
+    tasks.forEach(Runnable::run);
+    assertThat(pair.f2).isNotNull();
+
+    assertThat(background.hello()).isEqualTo("hello");
+    assertThat(hello.getSuperFastClass()).isSameAs(pair.f2);
+  }
+
+}
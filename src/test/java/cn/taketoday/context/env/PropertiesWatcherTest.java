@@ -0,0 +1,191 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.env;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import cn.taketoday.context.StandardApplicationContext;
+import cn.taketoday.context.annotation.Env;
+import cn.taketoday.context.annotation.Props;
+import cn.taketoday.context.annotation.Singleton;
+import cn.taketoday.context.annotation.Value;
+import cn.taketoday.context.event.ApplicationListener;
+import cn.taketoday.context.event.PropertiesChangedEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/3/23 14:10
+ */
+public class PropertiesWatcherTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Singleton
+  public static class SiteConfig {
+    @Value("#{site.name}")
+    String name;
+    @Env("site.title")
+    String title;
+    @Props(prefix = "db.")
+    Properties db;
+  }
+
+  @Singleton
+  public static class PortConfig {
+    @Value("#{server.port}")
+    int port;
+  }
+
+  @Singleton
+  @Props(prefix = "pool.")
+  public static class PoolConfig {
+    int size;
+  }
+
+  private File write(File file, String... lines) throws IOException {
+    final Properties properties = new Properties();
+    for (final String line : lines) {
+      final int index = line.indexOf('=');
+      properties.setProperty(line.substring(0, index), line.substring(index + 1));
+    }
+    try (OutputStream out = Files.newOutputStream(file.toPath())) {
+      properties.store(out, null);
+    }
+    return file;
+  }
+
+  @Test
+  public void reloadRebindsAffectedBeans() throws IOException {
+    final File file = write(folder.newFile("app.properties"),
+                            "site.name=today", "site.title=#{site.name} site", "db.url=jdbc:one",
+                            "server.port=8080", "pool.size=10");
+
+    try (StandardApplicationContext context = new StandardApplicationContext(file.toURI().toString())) {
+      context.load(Arrays.asList(SiteConfig.class, PortConfig.class, PoolConfig.class));
+
+      final SiteConfig site = context.getBean(SiteConfig.class);
+      final PortConfig port = context.getBean(PortConfig.class);
+      final PoolConfig pool = context.getBean(PoolConfig.class);
+      assertThat(site.name).isEqualTo("today");
+      assertThat(site.title).isEqualTo("today site");
+      assertThat(site.db).containsEntry("db.url", "jdbc:one");
+      assertThat(port.port).isEqualTo(8080);
+      assertThat(pool.size).isEqualTo(10);
+
+      final PropertiesWatcher watcher = new PropertiesWatcher(context);
+      assertThat(watcher.reload()).isNull();
+
+      write(file, "site.name=TODAY", "site.title=#{site.name} site", "db.url=jdbc:two",
+            "server.port=8080", "pool.size=20");
+
+      final PropertiesChangedEvent event = watcher.reload();
+      assertThat(event.getChangedKeys()).containsOnly("site.name", "db.url", "pool.size");
+      assertThat(event.getReboundBeans()).containsOnly("siteConfig", "poolConfig");
+
+      assertThat(context.getEnvironment().getProperty("site.name")).isEqualTo("TODAY");
+      assertThat(site.name).isEqualTo("TODAY");
+      assertThat(site.title).isEqualTo("TODAY site");
+      assertThat(site.db).containsEntry("db.url", "jdbc:two");
+      assertThat(pool.size).isEqualTo(20);
+      assertThat(port.port).isEqualTo(8080);
+
+      // removed key is resolved as it would be on startup
+      write(file, "site.name=TODAY", "site.title=#{site.name} site", "db.url=jdbc:two", "pool.size=20");
+      final PropertiesChangedEvent removed = watcher.reload();
+      assertThat(removed.getChangedKeys()).containsOnly("server.port");
+      assertThat(removed.getReboundBeans()).containsOnly("portConfig");
+      assertThat(context.getEnvironment().containsProperty("server.port")).isFalse();
+      assertThat(port.port).isZero();
+    }
+  }
+
+  @Test
+  public void reloadKeepsOverriddenProperties() throws IOException {
+    final File file = write(folder.newFile("app.properties"), "site.name=today", "server.port=8080");
+
+    try (StandardApplicationContext context = new StandardApplicationContext(file.toURI().toString())) {
+      context.load(Arrays.asList(PortConfig.class));
+      final ConfigurableEnvironment environment = context.getEnvironment();
+      environment.setProperty("site.name", "custom");
+      environment.setProperty("site.title", "custom title");
+
+      write(file, "site.name=TODAY", "site.title=loaded title", "server.port=9090");
+      assertThat(environment.reloadProperties()).containsOnly("server.port");
+      assertThat(environment.getProperty("site.name")).isEqualTo("custom");
+      assertThat(environment.getProperty("site.title")).isEqualTo("custom title");
+      assertThat(environment.getProperty("server.port")).isEqualTo("9090");
+
+      write(file, "server.port=9090");
+      assertThat(environment.reloadProperties()).isEmpty();
+      assertThat(environment.getProperty("site.name")).isEqualTo("custom");
+      assertThat(environment.getProperty("site.title")).isEqualTo("custom title");
+    }
+  }
+
+  @Test
+  public void watchPropertiesFiles() throws Exception {
+    final File dir = folder.newFolder("config");
+    write(new File(dir, "app.properties"), "site.name=today");
+
+    try (StandardApplicationContext context = new StandardApplicationContext(dir.toURI().toString())) {
+      context.load(Arrays.asList(SiteConfig.class));
+      final BlockingQueue<PropertiesChangedEvent> events = new ArrayBlockingQueue<>(4);
+      context.addApplicationListener(new ApplicationListener<PropertiesChangedEvent>() {
+        @Override
+        public void onApplicationEvent(PropertiesChangedEvent event) {
+          events.add(event);
+        }
+      });
+      final SiteConfig site = context.getBean(SiteConfig.class);
+      assertThat(site.name).isEqualTo("today");
+
+      final BlockingQueue<Thread> threads = new ArrayBlockingQueue<>(4);
+      context.startPropertiesWatcher();
+      context.getPropertiesWatcher().setExecutor(command -> {
+        threads.add(Thread.currentThread());
+        command.run();
+      });
+      assertThat(context.getPropertiesWatcher().isRunning()).isTrue();
+
+      write(new File(dir, "app.properties"), "site.name=TODAY");
+
+      final PropertiesChangedEvent event = events.poll(30, TimeUnit.SECONDS);
+      assertThat(event).isNotNull();
+      assertThat(event.getChangedKeys()).containsOnly("site.name");
+      assertThat(site.name).isEqualTo("TODAY");
+      assertThat(threads.poll()).isNotNull();
+    }
+  }
+
+}
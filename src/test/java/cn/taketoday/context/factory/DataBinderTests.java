@@ -135,6 +135,45 @@ public class DataBinderTests {
     assertThat(dataBinder.getProperty("nested.map[age]", Integer.class)).isEqualTo(23);
   }
 
+  @Setter
+  @Getter
+  static class BulkBean {
+    String name;
+    int age;
+    Double[] doubles;
+    Nested nested;
+    final String fixed = "fixed";
+  }
+
+  @Test
+  public void bulkBinding() {
+    final DataBinder dataBinder = new DataBinder(BulkBean.class);
+    dataBinder.setBulkBinding(true);
+    dataBinder.addPropertyValue("name", "TODAY");
+    dataBinder.addPropertyValue("age", "23");
+    dataBinder.addPropertyValue("doubles", new double[] { 10.0D, 20.0D });
+    dataBinder.addPropertyValue("nested", new Nested());
+    dataBinder.addPropertyValue("nested.name", "nested-TODAY");
+    dataBinder.addPropertyValue("unknown", "ignored");
+
+    final BulkBean bean = (BulkBean) dataBinder.bind();
+    assertThat(bean.name).isEqualTo("TODAY");
+    assertThat(bean.age).isEqualTo(23);
+    assertThat(bean.doubles).containsExactly(10d, 20d);
+    // nested root keeps binding order
+    assertThat(bean.nested.name).isEqualTo("nested-TODAY");
+
+    final BulkBinding binding = BulkBinding.of(dataBinder.getMetadata(), dataBinder.getPropertyValues());
+    assertThat(binding.slots).containsExactly(0, 1, 2, -1, -1, -1);
+    assertThat(BulkBinding.of(dataBinder.getMetadata(), dataBinder.getPropertyValues())).isSameAs(binding);
+
+    final DataBinder readOnly = new DataBinder(BulkBean.class);
+    readOnly.setBulkBinding(true);
+    readOnly.addPropertyValue("name", "TODAY");
+    readOnly.addPropertyValue("fixed", "changed");
+    assertThatThrownBy(readOnly::bind).isInstanceOf(PropertyReadOnlyException.class);
+  }
+
   static class UnknownProperty {
 
   }
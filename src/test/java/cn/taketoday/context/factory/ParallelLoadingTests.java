@@ -0,0 +1,177 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.factory;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import cn.taketoday.context.AnnotationAttributes;
+import cn.taketoday.context.ConfigurableApplicationContext;
+import cn.taketoday.context.Constant;
+import cn.taketoday.context.StandardApplicationContext;
+import cn.taketoday.context.annotation.Component;
+import cn.taketoday.context.annotation.Value;
+import cn.taketoday.context.annotation.condition.ConditionalOnProperty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/4/4 10:30
+ */
+public class ParallelLoadingTests {
+
+  @Component("service")
+  public static class ServiceA {
+    @Value("#{1 + 1}")
+    int two;
+
+    @PostConstruct
+    public void init() { }
+  }
+
+  @Component("service")
+  public static class ServiceB { }
+
+  @Component({ "a", "b" })
+  public static class MultiNamed { }
+
+  @Component
+  @ConditionalOnProperty("parallel.loading.missing")
+  public static class MissingService { }
+
+  @Component
+  public static abstract class AbstractService { }
+
+  static LinkedHashSet<Class<?>> candidates() {
+    final LinkedHashSet<Class<?>> ret = new LinkedHashSet<>(Arrays.asList(
+            ServiceA.class, ServiceB.class, MultiNamed.class, MissingService.class, AbstractService.class
+    ));
+    // not components, there must be enough candidates to prepare in parallel
+    ret.addAll(Arrays.asList(
+            Object.class, String.class, Integer.class, Long.class, Short.class, Byte.class, Character.class,
+            Boolean.class, Double.class, Float.class, Number.class, Math.class, StrictMath.class, System.class,
+            Thread.class, Runtime.class, StringBuilder.class, StringBuffer.class, Void.class, Enum.class,
+            Throwable.class, Exception.class, RuntimeException.class, Error.class, Package.class,
+            Iterable.class, Comparable.class, CharSequence.class, Runnable.class, AutoCloseable.class
+    ));
+    assertThat(ret).hasSizeGreaterThanOrEqualTo(StandardBeanFactory.PARALLEL_LOADING_THRESHOLD);
+    return ret;
+  }
+
+  static Map<String, BeanDefinition> load(boolean parallel) {
+    try (StandardApplicationContext context = new StandardApplicationContext(Constant.BLANK)) {
+      context.getEnvironment().getProperties()
+              .setProperty(Constant.ENABLE_PARALLEL_LOADING, Boolean.toString(parallel));
+      context.load(candidates());
+      return new HashMap<>(context.getBeanDefinitions());
+    }
+  }
+
+  @Test
+  public void registerAsSequentialLoading() {
+    final Map<String, BeanDefinition> sequential = load(false);
+    final Map<String, BeanDefinition> parallel = load(true);
+
+    assertThat(parallel).containsOnlyKeys(sequential.keySet());
+    for (final Map.Entry<String, BeanDefinition> entry : sequential.entrySet()) {
+      final BeanDefinition expected = entry.getValue();
+      final BeanDefinition def = parallel.get(entry.getKey());
+      assertThat(def.getBeanClass()).isEqualTo(expected.getBeanClass());
+      assertThat(def.getScope()).isEqualTo(expected.getScope());
+      assertThat(def.getInitMethods()).isEqualTo(expected.getInitMethods());
+      assertThat(def.getPropertySetters()).hasSameSizeAs(expected.getPropertySetters());
+    }
+
+    assertThat(parallel.get("service").getBeanClass()).isEqualTo(ServiceA.class);
+    assertThat(parallel.get(ServiceB.class.getName()).getBeanClass()).isEqualTo(ServiceB.class);
+    assertThat(parallel.get("a").getBeanClass()).isEqualTo(MultiNamed.class);
+    assertThat(parallel.get("b").getBeanClass()).isEqualTo(MultiNamed.class);
+    assertThat(parallel.get("service").getInitMethods()).hasSize(1);
+    assertThat(parallel.get("service").getPropertySetters()).hasSize(1);
+    assertThat(parallel.values())
+            .extracting(BeanDefinition::getBeanClass)
+            .doesNotContain(MissingService.class, AbstractService.class);
+  }
+
+  static class MarkingBeanFactory extends StandardBeanFactory {
+
+    MarkingBeanFactory(ConfigurableApplicationContext context) {
+      super(context);
+    }
+
+    @Override
+    public BeanDefinition createBeanDefinition(String beanName, Class<?> beanClass, AnnotationAttributes attributes) {
+      final BeanDefinition def = super.createBeanDefinition(beanName, beanClass, attributes);
+      def.setAttribute("marked", true);
+      return def;
+    }
+  }
+
+  static class PropertyBeanFactory extends StandardBeanFactory {
+
+    PropertyBeanFactory(ConfigurableApplicationContext context) {
+      super(context);
+    }
+
+    @Override
+    public PropertySetter[] resolvePropertyValue(Class<?> beanClass) {
+      return BeanDefinition.EMPTY_PROPERTY_VALUE;
+    }
+  }
+
+  @Test
+  public void overriddenHooksLoadSequentially() {
+    assertThat(StandardBeanFactory.isDefinitionHooksOverridden(StandardBeanFactory.class)).isFalse();
+    assertThat(StandardBeanFactory.isDefinitionHooksOverridden(MarkingBeanFactory.class)).isTrue();
+    assertThat(StandardBeanFactory.isDefinitionHooksOverridden(PropertyBeanFactory.class)).isTrue();
+
+    try (StandardApplicationContext context = new StandardApplicationContext(Constant.BLANK)) {
+      final MarkingBeanFactory beanFactory = new MarkingBeanFactory(context);
+      beanFactory.load(candidates());
+      assertThat(beanFactory.getBeanDefinitions()).containsKeys("service", "a", "b");
+      assertThat(beanFactory.getBeanDefinitions().values())
+              .allMatch(def -> Boolean.TRUE.equals(def.getAttribute("marked")));
+    }
+  }
+
+  @Test
+  public void prepareCandidates() {
+    final StandardBeanFactory.CandidateMetadata[] prepared =
+            StandardBeanFactory.CandidateMetadata.prepare(candidates());
+
+    assertThat(prepared[0].beanClass).isEqualTo(ServiceA.class);
+    assertThat(prepared[0].components).hasSize(1);
+    assertThat(prepared[0].initMethods[0]).hasSize(1);
+    assertThat(prepared[0].conditional).isFalse();
+    assertThat(prepared[3].beanClass).isEqualTo(MissingService.class);
+    assertThat(prepared[3].conditional).isTrue();
+    assertThat(prepared[4].components).isNull(); // abstract
+    assertThat(prepared[5].beanClass).isEqualTo(Object.class);
+    assertThat(prepared[5].components).isEmpty();
+    assertThat(prepared).allMatch(metadata -> metadata.failure == null);
+  }
+
+}
@@ -0,0 +1,301 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.factory;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cn.taketoday.context.Scope;
+import cn.taketoday.context.StandardApplicationContext;
+import cn.taketoday.context.annotation.Component;
+
+import javax.annotation.PreDestroy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author TODAY 2021/4/3 11:10
+ */
+public class PooledScopeTests {
+
+  static final AtomicInteger destroyed = new AtomicInteger();
+
+  @Component(scope = PooledScope.NAME)
+  public static class Buffer implements PooledBean, DisposableBean {
+    int position;
+    int resets;
+
+    @Override
+    public void reset() {
+      position = 0;
+      resets++;
+    }
+
+    @Override
+    public void destroy() {
+      destroyed.incrementAndGet();
+    }
+  }
+
+  public static class Connection {
+    int closed;
+    int preDestroyed;
+
+    public void close() {
+      closed++;
+    }
+
+    @PreDestroy
+    void preDestroy() {
+      preDestroyed++;
+    }
+  }
+
+  static final class CountingFactory implements Scope.ScopeObjectFactory {
+    int created;
+
+    @Override
+    public Object getObject(BeanDefinition def) {
+      created++;
+      return new Buffer();
+    }
+  }
+
+  final DefaultBeanDefinition def = new DefaultBeanDefinition("buffer", Buffer.class);
+
+  @Test
+  public void reuseReleasedInstances() {
+    final PooledScope scope = new PooledScope(2);
+    final CountingFactory factory = new CountingFactory();
+
+    final Buffer buffer = (Buffer) scope.get(def, factory);
+    buffer.position = 10;
+    final Buffer other = (Buffer) scope.get(def, factory);
+    assertThat(other).isNotSameAs(buffer);
+    assertThat(factory.created).isEqualTo(2);
+
+    scope.release("buffer", buffer);
+    assertThat(buffer.position).isZero();
+    assertThat(buffer.resets).isEqualTo(1);
+
+    assertThat(scope.get(def, factory)).isSameAs(buffer);
+    assertThat(factory.created).isEqualTo(2);
+
+    final PooledScope.Statistics statistics = scope.getStatistics("buffer");
+    assertThat(statistics.getCreated()).isEqualTo(2);
+    assertThat(statistics.getReused()).isEqualTo(1);
+    assertThat(statistics.getReleased()).isEqualTo(1);
+    assertThat(statistics.getIdle()).isZero();
+    assertThat(scope.getStatistics()).containsOnlyKeys("buffer");
+  }
+
+  @Test
+  public void boundedPool() {
+    destroyed.set(0);
+    final PooledScope scope = new PooledScope(1);
+    final CountingFactory factory = new CountingFactory();
+
+    final Object first = scope.get(def, factory);
+    final Object second = scope.get(def, factory);
+    scope.release("buffer", first);
+    scope.release("buffer", second);
+
+    final PooledScope.Statistics statistics = scope.getStatistics("buffer");
+    assertThat(statistics.getIdle()).isEqualTo(1);
+    assertThat(statistics.getDiscarded()).isEqualTo(1);
+    assertThat(destroyed.get()).isEqualTo(1);
+
+    scope.remove("buffer");
+    assertThat(destroyed.get()).isEqualTo(2);
+    assertThat(scope.getStatistics("buffer")).isNull();
+  }
+
+  @Test
+  public void evictIdleInstances() throws InterruptedException {
+    destroyed.set(0);
+    final PooledScope scope = new PooledScope(4);
+    scope.setMaxIdleTime(1, TimeUnit.MILLISECONDS);
+    final CountingFactory factory = new CountingFactory();
+
+    scope.release("buffer", scope.get(def, factory));
+    scope.release("buffer", scope.get(def, factory));
+    final Object fresh = scope.get(def, factory);
+    scope.release("buffer", fresh);
+    TimeUnit.MILLISECONDS.sleep(10);
+
+    scope.evictIdle();
+    final PooledScope.Statistics statistics = scope.getStatistics("buffer");
+    assertThat(statistics.getIdle()).isZero();
+    assertThat(statistics.getEvicted()).isEqualTo(1);
+    assertThat(destroyed.get()).isEqualTo(1);
+    assertThat(scope.get(def, factory)).isNotSameAs(fresh);
+  }
+
+  @Test
+  public void releaseAtSessionClose() throws Exception {
+    final PooledScope scope = new PooledScope();
+    try (StandardApplicationContext context = new StandardApplicationContext(new HashSet<>())) {
+      context.getBeanFactory().registerScope(PooledScope.NAME, scope);
+      context.importBeans(Buffer.class);
+
+      final Buffer buffer;
+      try (PooledScope.Session session = scope.open()) {
+        buffer = context.getBean(Buffer.class);
+        assertThat(context.getBean(Buffer.class)).isNotSameAs(buffer);
+      }
+      assertThat(buffer.resets).isEqualTo(1);
+      assertThat(scope.getStatistics().values().iterator().next().getIdle()).isEqualTo(2);
+
+      final Buffer reused = context.getBean(Buffer.class);
+      assertThat(reused.resets).isEqualTo(1); // from the pool
+      assertThat(scope.getStatistics().values().iterator().next().getCreated()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void doubleRelease() {
+    final PooledScope scope = new PooledScope(2);
+    final CountingFactory factory = new CountingFactory();
+
+    final Object buffer = scope.get(def, factory);
+    scope.release("buffer", buffer);
+    assertThatThrownBy(() -> scope.release("buffer", buffer))
+            .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> scope.release("buffer", new Buffer()))
+            .isInstanceOf(IllegalStateException.class);
+    assertThat(scope.getStatistics("buffer").getIdle()).isEqualTo(1);
+    assertThat(scope.get(def, factory)).isSameAs(buffer);
+    assertThat(scope.get(def, factory)).isNotSameAs(buffer);
+  }
+
+  @Test
+  public void unreleasedInstancesNotRetained() throws InterruptedException {
+    final PooledScope scope = new PooledScope(2);
+    final CountingFactory factory = new CountingFactory();
+
+    final WeakReference<Object> reference = new WeakReference<>(scope.get(def, factory));
+    assertThat(scope.getBorrowedCount()).isEqualTo(1);
+    for (int i = 0; i < 100 && (reference.get() != null || scope.getBorrowedCount() > 0); i++) {
+      System.gc();
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    assertThat(reference.get()).isNull();
+    assertThat(scope.getBorrowedCount()).isZero();
+  }
+
+  @Test
+  public void sessionSkipsReleasedInstances() {
+    final PooledScope scope = new PooledScope(2);
+    final CountingFactory factory = new CountingFactory();
+
+    final Object buffer;
+    try (PooledScope.Session session = scope.open()) {
+      buffer = scope.get(def, factory);
+      scope.release("buffer", buffer);
+      // borrowed again out of the session
+      final ScopeContext previous = ScopeContext.bind(new ScopeContext());
+      try {
+        assertThat(scope.get(def, factory)).isSameAs(buffer);
+      }
+      finally {
+        ScopeContext.restore(previous);
+      }
+    }
+    // not released by the session
+    assertThat(scope.getStatistics("buffer").getIdle()).isZero();
+    scope.release("buffer", buffer);
+    assertThat(scope.getStatistics("buffer").getIdle()).isEqualTo(1);
+  }
+
+  @Test
+  public void closedSessionRejectsGet() {
+    final PooledScope scope = new PooledScope(2);
+    final CountingFactory factory = new CountingFactory();
+
+    final ScopeContext context = ScopeContext.obtain();
+    final PooledScope.Session session = scope.open();
+    session.close();
+    // a task bound to the context of the closed session
+    context.set(PooledScope.sessionSlot, session);
+    try {
+      assertThatThrownBy(() -> scope.get(def, factory))
+              .isInstanceOf(IllegalStateException.class);
+    }
+    finally {
+      context.set(PooledScope.sessionSlot, null);
+    }
+    assertThat(factory.created).isZero();
+  }
+
+  @Test
+  public void releaseAfterRemove() {
+    destroyed.set(0);
+    final PooledScope scope = new PooledScope(2);
+    final CountingFactory factory = new CountingFactory();
+
+    final Object buffer = scope.get(def, factory);
+    scope.remove("buffer");
+    scope.release("buffer", buffer);
+    assertThat(destroyed.get()).isEqualTo(1);
+    assertThat(scope.getStatistics("buffer")).isNull();
+  }
+
+  @Test
+  public void destroyWithDefinition() {
+    final PooledScope scope = new PooledScope(1);
+    final DefaultBeanDefinition def = new DefaultBeanDefinition("connection", Connection.class);
+    def.setDestroyMethods("close");
+    final Scope.ScopeObjectFactory factory = definition -> new Connection();
+
+    final Connection first = (Connection) scope.get(def, factory);
+    final Connection second = (Connection) scope.get(def, factory);
+    scope.release("connection", first);
+    scope.release("connection", second); // does not fit
+    assertThat(second.closed).isEqualTo(1);
+    assertThat(second.preDestroyed).isEqualTo(1);
+
+    scope.destroy();
+    assertThat(first.closed).isEqualTo(1);
+    assertThat(first.preDestroyed).isEqualTo(1);
+    assertThat(scope.getStatistics()).isEmpty();
+  }
+
+  @Test
+  public void destroyedOnContextClose() throws Exception {
+    destroyed.set(0);
+    final PooledScope scope = new PooledScope();
+    try (StandardApplicationContext context = new StandardApplicationContext(new HashSet<>())) {
+      context.getBeanFactory().registerScope(PooledScope.NAME, scope);
+      context.importBeans(Buffer.class);
+      try (PooledScope.Session session = scope.open()) {
+        context.getBean(Buffer.class);
+      }
+      assertThat(destroyed.get()).isZero();
+    }
+    assertThat(destroyed.get()).isEqualTo(1);
+    assertThat(scope.getStatistics()).isEmpty();
+  }
+
+}
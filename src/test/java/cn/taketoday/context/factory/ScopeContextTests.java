@@ -0,0 +1,167 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.factory;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import cn.taketoday.context.Scope;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/4/2 11:30
+ */
+public class ScopeContextTests {
+
+  @After
+  public void clear() {
+    ScopeContext.restore(null);
+  }
+
+  @Test
+  public void slots() {
+    final ScopeContext context = new ScopeContext();
+    final int slot = ScopeContext.allocateSlot();
+    final int farSlot = slot + 100;
+
+    assertThat(context.get(farSlot)).isNull();
+    assertThat(context.remove(farSlot)).isNull();
+    assertThat(context.set(slot, "value")).isNull();
+    assertThat(context.set(farSlot, "far")).isNull();
+    assertThat(context.get(slot)).isEqualTo("value");
+    assertThat(context.get(farSlot)).isEqualTo("far");
+
+    final ScopeContext copy = context.copy();
+    assertThat(copy.get(slot)).isEqualTo("value");
+    copy.set(slot, "changed");
+    assertThat(context.get(slot)).isEqualTo("value");
+    assertThat(context.remove(slot)).isEqualTo("value");
+    assertThat(context.get(slot)).isNull();
+  }
+
+  @Test
+  public void bindAndRestore() {
+    ScopeContext.restore(null);
+    assertThat(ScopeContext.current()).isNull();
+    final ScopeContext context = ScopeContext.obtain();
+    assertThat(ScopeContext.current()).isSameAs(context);
+
+    final ScopeContext other = new ScopeContext();
+    final ScopeContext previous = ScopeContext.bind(other);
+    assertThat(previous).isSameAs(context);
+    assertThat(ScopeContext.current()).isSameAs(other);
+    ScopeContext.restore(previous);
+    assertThat(ScopeContext.current()).isSameAs(context);
+  }
+
+  @Test
+  public void eachRunStartsFromCapture() {
+    final int slot = ScopeContext.allocateSlot();
+    ScopeContext.obtain().set(slot, "captured");
+    final Runnable task = ScopeContext.wrap(() -> {
+      assertThat(ScopeContext.current().get(slot)).isEqualTo("captured");
+      ScopeContext.current().set(slot, "changed");
+    });
+    ScopeContext.restore(null);
+    task.run();
+    task.run();
+    assertThat(ScopeContext.current()).isNull();
+  }
+
+  @Test
+  public void localSlotsNotCaptured() {
+    final int slot = ScopeContext.allocateSlot();
+    final int localSlot = ScopeContext.allocateLocalSlot();
+    final ScopeContext context = ScopeContext.obtain();
+    context.set(slot, "captured");
+    context.set(localSlot, "local");
+
+    final ScopeContext captured = ScopeContext.capture();
+    assertThat(captured.get(slot)).isEqualTo("captured");
+    assertThat(captured.get(localSlot)).isNull();
+    assertThat(context.copy().get(localSlot)).isEqualTo("local");
+    ScopeContext.wrap(() -> assertThat(ScopeContext.current().get(localSlot)).isNull()).run();
+  }
+
+  @Test
+  public void threadScopeUsesOneSlot() {
+    final int before = ScopeContext.allocateSlot();
+    final Scope scope = new SimpleThreadScope();
+    final Scope other = new SimpleThreadScope();
+    for (int i = 0; i < 10; i++) {
+      final DefaultBeanDefinition def = new DefaultBeanDefinition("bean" + i, Object.class);
+      assertThat(scope.get(def, d -> "scope")).isEqualTo("scope");
+      assertThat(other.get(def, d -> "other")).isEqualTo("other");
+    }
+    assertThat(ScopeContext.allocateSlot()).isEqualTo(before + 1);
+    assertThat(scope.remove("bean1")).isEqualTo("scope");
+    assertThat(scope.remove("bean1")).isNull();
+    assertThat(other.remove("bean1")).isEqualTo("other");
+  }
+
+  @Test
+  public void threadScopeFollowsWrappedTasks() throws Exception {
+    final Scope scope = new SimpleThreadScope();
+    final DefaultBeanDefinition def = new DefaultBeanDefinition("bean", Object.class);
+    final Object bean = scope.get(def, d -> new Object());
+    assertThat(scope.get(def, d -> new Object())).isSameAs(bean);
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      // not wrapped: another thread, another bean
+      final Object own = executor.submit(() -> scope.get(def, d -> new Object())).get();
+      assertThat(own).isNotSameAs(bean);
+
+      assertThat(executor.submit(ScopeContext.wrap(() -> scope.get(def, d -> new Object()))).get())
+              .isSameAs(bean);
+
+      final Object[] executed = new Object[1];
+      final CompletableFuture<Void> future = new CompletableFuture<>();
+      ScopeContext.wrap(executor).execute(() -> {
+        executed[0] = scope.get(def, d -> new Object());
+        future.complete(null);
+      });
+      future.get(10, TimeUnit.SECONDS);
+      assertThat(executed[0]).isSameAs(bean);
+
+      final Object chained = CompletableFuture
+              .supplyAsync(ScopeContext.wrapSupplier(() -> scope.get(def, d -> new Object())), executor)
+              .thenApplyAsync(ScopeContext.wrapFunction(ret -> scope.get(def, d -> new Object())), executor)
+              .get(10, TimeUnit.SECONDS);
+      assertThat(chained).isSameAs(bean);
+
+      // the executor thread context is restored
+      assertThat(executor.submit(() -> scope.get(def, d -> new Object())).get()).isSameAs(own);
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(scope.remove("bean")).isSameAs(bean);
+    assertThat(scope.get(def, d -> "new")).isEqualTo("new");
+  }
+
+}
@@ -0,0 +1,274 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.factory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+
+import cn.taketoday.context.ApplicationContext;
+import cn.taketoday.context.Constant;
+import cn.taketoday.context.Ordered;
+import cn.taketoday.context.StandardApplicationContext;
+import cn.taketoday.context.annotation.Autowired;
+import cn.taketoday.context.annotation.Lazy;
+import cn.taketoday.context.annotation.Order;
+import cn.taketoday.context.annotation.Singleton;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/4/1 11:05
+ */
+public class SingletonWarmUpTests {
+
+  static final List<Class<?>> created = Collections.synchronizedList(new ArrayList<>());
+  static final AtomicInteger slowInstances = new AtomicInteger();
+  static volatile CountDownLatch slowGate = new CountDownLatch(0);
+
+  @Singleton
+  public static class SlowBean {
+    public SlowBean() throws InterruptedException {
+      slowGate.await();
+      slowInstances.incrementAndGet();
+      created.add(SlowBean.class);
+    }
+  }
+
+  @Singleton
+  public static class DependentBean {
+    @Autowired
+    SlowBean slowBean;
+
+    public DependentBean() {
+      created.add(DependentBean.class);
+    }
+  }
+
+  @Singleton
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public static class FirstBean {
+    public FirstBean() {
+      created.add(FirstBean.class);
+    }
+  }
+
+  @Lazy
+  @Singleton
+  public static class LazyBean { }
+
+  static final CountDownLatch initStarted = new CountDownLatch(1);
+  static final CountDownLatch initGate = new CountDownLatch(1);
+
+  @Singleton
+  public static class BlockingInitBean {
+    @Autowired
+    FirstBean firstBean;
+    int initialized;
+
+    @PostConstruct
+    public void init() throws InterruptedException {
+      if (initialized++ == 0 && initStarted.getCount() > 0) {
+        // the warm-up initializing it
+        initStarted.countDown();
+        initGate.await();
+      }
+    }
+  }
+
+  static final CountDownLatch circularGate = new CountDownLatch(2);
+
+  @Lazy
+  @Singleton
+  public static class CircularA {
+    @Autowired
+    CircularB b;
+
+    public CircularA() throws InterruptedException {
+      circularGate.countDown();
+      circularGate.await();
+    }
+  }
+
+  @Lazy
+  @Singleton
+  public static class CircularB {
+    @Autowired
+    CircularA a;
+
+    public CircularB() throws InterruptedException {
+      circularGate.countDown();
+      circularGate.await();
+    }
+  }
+
+  static StandardApplicationContext createContext() {
+    final StandardApplicationContext context = new StandardApplicationContext(Constant.BLANK);
+    context.getEnvironment().getProperties().setProperty(Constant.ENABLE_SINGLETON_WARM_UP, "true");
+    return context;
+  }
+
+  @Test
+  public void startedBeforeSingletonsCreated() throws Exception {
+    created.clear();
+    slowInstances.set(0);
+    slowGate = new CountDownLatch(1);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try (StandardApplicationContext context = createContext()) {
+      context.load(Arrays.asList(SlowBean.class, DependentBean.class, FirstBean.class));
+      assertThat(context.getState()).isEqualTo(ApplicationContext.State.STARTED);
+
+      final SingletonWarmUp warmUp = context.getSingletonWarmUp();
+      assertThat(warmUp).isNotNull();
+      assertThat(warmUp.getTotalCount()).isEqualTo(3);
+      assertThat(warmUp.isDone()).isFalse();
+
+      final ArrayList<Future<SlowBean>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(executor.submit(() -> context.getBean(SlowBean.class)));
+      }
+      slowGate.countDown();
+
+      final SlowBean slowBean = futures.get(0).get(10, TimeUnit.SECONDS);
+      for (final Future<SlowBean> future : futures) {
+        assertThat(future.get(10, TimeUnit.SECONDS)).isSameAs(slowBean);
+      }
+      assertThat(warmUp.await(10, TimeUnit.SECONDS)).isTrue();
+      assertThat(warmUp.getInitializedCount()).isEqualTo(3);
+      assertThat(warmUp.getFailures()).isEmpty();
+
+      assertThat(slowInstances.get()).isEqualTo(1);
+      assertThat(context.getBean(DependentBean.class).slowBean).isSameAs(slowBean);
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void otherBeansNotBlockedByCreation() throws Exception {
+    slowGate = new CountDownLatch(1);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (StandardApplicationContext context = createContext()) {
+      context.load(Arrays.asList(SlowBean.class, LazyBean.class));
+      final Future<SlowBean> slowBean = executor.submit(() -> context.getBean(SlowBean.class));
+      // the warm-up or the caller is creating SlowBean
+      assertThat(executor.submit(() -> context.getBean(LazyBean.class)).get(10, TimeUnit.SECONDS)).isNotNull();
+      assertThat(slowBean.isDone()).isFalse();
+
+      slowGate.countDown();
+      assertThat(slowBean.get(10, TimeUnit.SECONDS)).isSameAs(context.getBean(SlowBean.class));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void initializeOtherBeansWhileWarmingUp() throws Exception {
+    slowGate = new CountDownLatch(0);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(1);
+    try (StandardApplicationContext context = createContext()) {
+      context.load(Arrays.asList(FirstBean.class, BlockingInitBean.class, LazyBean.class,
+                                 SlowBean.class, DependentBean.class));
+      assertThat(initStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+      // the warm-up thread is in the middle of initializing 'blockingInitBean'
+      final Future<BlockingInitBean> initialized = executor.submit(() -> {
+        context.getBean(LazyBean.class);
+        context.getBean(DependentBean.class);
+        final AbstractBeanFactory beanFactory = context.getBeanFactory();
+        final BeanDefinition def = beanFactory.getBeanDefinition(BlockingInitBean.class);
+        return (BlockingInitBean) beanFactory.initializeBean(new BlockingInitBean(), def);
+      });
+      final BlockingInitBean bean = initialized.get(10, TimeUnit.SECONDS);
+      assertThat(bean.firstBean).isNotNull();
+      assertThat(bean.initialized).isEqualTo(1);
+
+      initGate.countDown();
+      assertThat(context.getSingletonWarmUp().await(10, TimeUnit.SECONDS)).isTrue();
+      assertThat(context.getBean(BlockingInitBean.class).firstBean).isNotNull();
+      assertThat(context.getBean(DependentBean.class).slowBean).isNotNull();
+    }
+    finally {
+      initGate.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void circularReferenceCreatedInDifferentThreads() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (StandardApplicationContext context = createContext()) {
+      context.load(Arrays.asList(CircularA.class, CircularB.class));
+      final Future<CircularA> a = executor.submit(() -> context.getBean(CircularA.class));
+      final Future<CircularB> b = executor.submit(() -> context.getBean(CircularB.class));
+
+      assertThat(a.get(10, TimeUnit.SECONDS).b).isSameAs(b.get(10, TimeUnit.SECONDS));
+      assertThat(b.get().a).isSameAs(a.get());
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void warmUpInPriorityOrder() throws Exception {
+    created.clear();
+    slowGate = new CountDownLatch(0);
+
+    try (StandardApplicationContext context = createContext()) {
+      context.load(Arrays.asList(DependentBean.class, SlowBean.class, FirstBean.class));
+      assertThat(context.getSingletonWarmUp().await(10, TimeUnit.SECONDS)).isTrue();
+      // @Order first, then the bean without dependencies
+      assertThat(created).containsExactly(FirstBean.class, SlowBean.class, DependentBean.class);
+    }
+  }
+
+  @Test
+  public void closeCancelsWarmUp() throws Exception {
+    created.clear();
+    slowGate = new CountDownLatch(1);
+
+    final SingletonWarmUp warmUp;
+    try (StandardApplicationContext context = createContext()) {
+      context.load(Arrays.asList(SlowBean.class, DependentBean.class));
+      warmUp = context.getSingletonWarmUp();
+      slowGate.countDown();
+    }
+    assertThat(warmUp.isCancelled()).isTrue();
+    assertThat(warmUp.isDone() || !warmUp.isStarted()).isTrue();
+  }
+
+}
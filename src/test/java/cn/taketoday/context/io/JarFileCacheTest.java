@@ -0,0 +1,191 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import cn.taketoday.context.StandardApplicationContext;
+import cn.taketoday.context.utils.StringUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/3/24 14:20
+ */
+public class JarFileCacheTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File createJar(String name, String... entries) throws IOException {
+    final File file = new File(folder.getRoot(), name);
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(file.toPath()))) {
+      for (final String entry : entries) {
+        out.putNextEntry(new JarEntry(entry));
+        if (!entry.endsWith("/")) {
+          out.write(entry.getBytes(StandardCharsets.UTF_8));
+        }
+        out.closeEntry();
+      }
+    }
+    return file;
+  }
+
+  private File createJar() throws IOException {
+    return createJar("test.jar",
+                     "META-INF/", "META-INF/beans.xml", "META-INF/spring/context.xml",
+                     "cn/taketoday/A.class", "cn/taketoday/b/B.class", "cn/other/C.class");
+  }
+
+  @Test
+  public void index() throws IOException {
+    final JarFileCache cache = new JarFileCache(4);
+    try (JarFileCache.Handle handle = cache.acquire(createJar())) {
+      final JarIndex index = handle.getIndex();
+      assertThat(index.size()).isEqualTo(6);
+
+      final List<String> names = new ArrayList<>();
+      index.forEach("cn/taketoday/", names::add);
+      assertThat(names).containsExactly("cn/taketoday/A.class", "cn/taketoday/b/B.class");
+
+      // no directory entries for 'cn/'
+      assertThat(index.isDirectory("cn")).isTrue();
+      assertThat(index.isDirectory("cn/taketoday/")).isTrue();
+      assertThat(index.isDirectory("cn/taketoday/A.class")).isFalse();
+      assertThat(index.contains("cn/taketoday")).isTrue();
+      assertThat(index.contains("cn/taketoday/A.class")).isTrue();
+      assertThat(index.contains("cn/taketo")).isFalse();
+      assertThat(index.contains("cn/missing")).isFalse();
+
+      assertThat(index.list("cn/taketoday")).containsExactly("A.class", "b");
+      assertThat(index.list("")).containsExactly("META-INF", "cn");
+      assertThat(index.list("missing/")).isEmpty();
+    }
+  }
+
+  @Test
+  public void sharedAndReferenceCounted() throws IOException {
+    final JarFileCache cache = new JarFileCache(1);
+    final File file = createJar();
+
+    final JarFileCache.Handle handle = cache.acquire(file);
+    final JarFile jarFile = handle.getJarFile();
+    try (JarFileCache.Handle other = cache.acquire(file)) {
+      assertThat(other.getJarFile()).isSameAs(jarFile);
+      assertThat(other.getIndex()).isSameAs(handle.getIndex());
+    }
+    assertThat(cache.size()).isEqualTo(1);
+
+    // evicting the eldest doesn't close a jar in use
+    try (JarFileCache.Handle other = cache.acquire(createJar("other.jar", "a.txt"))) {
+      assertThat(cache.size()).isEqualTo(1);
+      assertThat(jarFile.getEntry("META-INF/beans.xml")).isNotNull();
+      handle.close();
+      handle.close(); // released once
+      assertThat(other.getIndex().contains("a.txt")).isTrue();
+    }
+
+    try (JarFileCache.Handle reopened = cache.acquire(file)) {
+      assertThat(reopened.getJarFile()).isNotSameAs(jarFile);
+    }
+    cache.clear();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void clearedOnContextClose() throws IOException {
+    final JarFileCache cache = JarFileCache.getSharedInstance();
+    final File file = createJar();
+    try (StandardApplicationContext context = new StandardApplicationContext(new HashSet<>())) {
+      cache.acquire(file).close();
+      assertThat(cache.size()).isPositive();
+    }
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void reopenWhenChanged() throws IOException {
+    final JarFileCache cache = new JarFileCache(4);
+    final File file = createJar("changing.jar", "a.txt");
+    try (JarFileCache.Handle handle = cache.acquire(file)) {
+      assertThat(handle.getIndex().contains("b.txt")).isFalse();
+    }
+    createJar("changing.jar", "a.txt", "b.txt");
+    assertThat(file.setLastModified(file.lastModified() + 2000)).isTrue();
+    try (JarFileCache.Handle handle = cache.acquire(file)) {
+      assertThat(handle.getIndex().contains("b.txt")).isTrue();
+    }
+  }
+
+  @Test
+  public void jarEntryResource() throws IOException {
+    final File file = createJar();
+    final URL url = new URL("jar:" + file.toURI() + "!/cn/taketoday/");
+    final JarEntryResource resource = new JarEntryResource(url);
+
+    assertThat(resource.exists()).isTrue();
+    assertThat(resource.isDirectory()).isTrue();
+    assertThat(resource.list()).containsExactly("A.class", "b");
+
+    final JarEntryResource a = resource.createRelative("A.class");
+    assertThat(a.exists()).isTrue();
+    assertThat(a.isDirectory()).isFalse();
+    try (InputStream inputStream = a.getInputStream()) {
+      assertThat(StringUtils.readAsText(inputStream)).isEqualTo("cn/taketoday/A.class");
+    }
+    assertThat(resource.createRelative("missing.class").exists()).isFalse();
+  }
+
+  @Test
+  public void findPathMatchingJarResources() throws IOException {
+    final File file = createJar();
+    final JarEntryResource root = new JarEntryResource(new URL("jar:" + file.toURI() + "!/META-INF/"));
+    final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+
+    final List<String> names = new ArrayList<>();
+    for (final Resource resource : resolver.doFindPathMatchingJarResources(root, "**/*.xml")) {
+      names.add(resource.getName());
+    }
+    assertThat(names).containsExactly("META-INF/beans.xml", "META-INF/spring/context.xml");
+
+    assertThat(resolver.doFindPathMatchingJarResources(root, "spring/*.xml")).hasSize(1);
+
+    assertThat(PathMatchingResourcePatternResolver.getLiteralDirectories("**/*.xml")).isEmpty();
+    assertThat(PathMatchingResourcePatternResolver.getLiteralDirectories("a/b/**/*.xml")).isEqualTo("a/b/");
+    assertThat(PathMatchingResourcePatternResolver.getLiteralDirectories("a/b/c.xml")).isEqualTo("a/b/");
+    assertThat(PathMatchingResourcePatternResolver.getLiteralDirectories("a/b?/c.xml")).isEqualTo("a/");
+  }
+
+}
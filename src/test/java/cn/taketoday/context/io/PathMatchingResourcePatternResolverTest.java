@@ -48,6 +48,10 @@ public class PathMatchingResourcePatternResolverTest {
         "FileBasedResource.class", //
         "JarEntryResource.class", //
         "JarResource.class", //
+        "JarIndex.class", //
+        "JarFileCache.class", //
+        "JarFileCache$Handle.class", //
+        "JarFileCache$CachedJarFile.class", //
         "PathMatchingResourcePatternResolver.class", // 
         "Readable.class", //
         "Resource.class", //
@@ -61,6 +65,7 @@ public class PathMatchingResourcePatternResolverTest {
         "ResourceTests$2.class", //
         "ResourceTests$1.class", //
         "EncodedResourceTests.class", //
+        "JarFileCacheTest.class", //
         "JarEntryResource$JarEntryInputStream.class", //
     };
 
@@ -0,0 +1,230 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.loader;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import cn.taketoday.context.AnnotationAttributes;
+import cn.taketoday.context.Constant;
+import cn.taketoday.context.StandardApplicationContext;
+import cn.taketoday.context.annotation.MissingBean;
+import cn.taketoday.context.factory.AbstractBeanFactory;
+import cn.taketoday.context.factory.BeanDefinition;
+import cn.taketoday.context.factory.DefaultBeanDefinition;
+import cn.taketoday.context.factory.DefaultPropertySetter;
+import cn.taketoday.context.factory.PropertySetter;
+import test.demo.service.impl.DefaultUserService;
+import test.demo.config.User;
+import test.demo.repository.UserRepository;
+import test.demo.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author TODAY 2021/3/30 11:40
+ */
+public class BeanDefinitionSnapshotTests {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  static class CountingContext extends StandardApplicationContext {
+    int scanned;
+
+    CountingContext(File snapshot) {
+      super(Constant.BLANK);
+      getEnvironment().getProperties().setProperty(Constant.BEAN_DEFINITION_SNAPSHOT, snapshot.getPath());
+    }
+
+    @Override
+    protected Set<Class<?>> getComponentCandidates() {
+      scanned++;
+      return super.getComponentCandidates();
+    }
+  }
+
+  @Test
+  public void restoresBeanDefinitions() throws Exception {
+    final File snapshot = new File(folder.getRoot(), "beans.snapshot");
+
+    final HashMap<String, BeanDefinition> loaded = new HashMap<>();
+    try (CountingContext context = new CountingContext(snapshot)) {
+      context.load("test.demo.service.impl", "test.demo.repository.impl");
+      assertThat(context.scanned).isEqualTo(1);
+      loaded.putAll(context.getBeanDefinitions());
+    }
+    assertThat(snapshot).isFile();
+
+    try (CountingContext context = new CountingContext(snapshot)) {
+      context.load("test.demo.service.impl", "test.demo.repository.impl");
+      assertThat(context.scanned).isZero();
+
+      final Map<String, BeanDefinition> restored = context.getBeanDefinitions();
+      assertThat(restored).containsOnlyKeys(loaded.keySet());
+      for (final Map.Entry<String, BeanDefinition> entry : loaded.entrySet()) {
+        final BeanDefinition def = entry.getValue();
+        final BeanDefinition restoredDef = restored.get(entry.getKey());
+        assertThat(restoredDef).isNotSameAs(def);
+        assertThat(restoredDef.getBeanClass()).isEqualTo(def.getBeanClass());
+        assertThat(restoredDef.getScope()).isEqualTo(def.getScope());
+        assertThat(restoredDef.getInitMethods()).isEqualTo(def.getInitMethods());
+        assertThat(restoredDef.getDestroyMethods()).isEqualTo(def.getDestroyMethods());
+        assertThat(restoredDef.getPropertySetters()).isEqualTo(def.getPropertySetters());
+      }
+
+      final UserService userService = context.getBean(UserService.class);
+      assertThat(context.getBean(UserRepository.class)).isNotNull();
+      assertThat(userService.login(new User(1, "TODAY", 20, "666", "666", "男", new Date()))).isNotNull();
+    }
+  }
+
+  @Test
+  public void recordsOverridingDefinitions() throws Exception {
+    final File snapshot = new File(folder.getRoot(), "beans.snapshot");
+
+    final String name;
+    try (CountingContext context = new CountingContext(snapshot)) {
+      name = context.getBeanFactory().getBeanNameCreator().create(DefaultUserService.class);
+      context.registerBeanDefinition(name, new DefaultBeanDefinition(name, DefaultUserService.class));
+      context.load("test.demo.service.impl", "test.demo.repository.impl");
+      assertThat(context.getBeanDefinition(name).getPropertySetters()).isNotEmpty();
+    }
+    assertThat(folder.getRoot().list()).containsExactly("beans.snapshot");
+
+    try (CountingContext context = new CountingContext(snapshot)) {
+      context.registerBeanDefinition(name, new DefaultBeanDefinition(name, DefaultUserService.class));
+      context.load("test.demo.service.impl", "test.demo.repository.impl");
+      assertThat(context.scanned).isZero();
+      assertThat(context.getBeanDefinition(name).getPropertySetters()).isNotEmpty();
+      assertThat(context.getBean(UserService.class)).isNotNull();
+    }
+  }
+
+  public static class Payload implements Serializable {
+    private static final long serialVersionUID = 1L;
+  }
+
+  public static class Fixture {
+    Object any;
+    Payload payload;
+    List<String> names;
+  }
+
+  static BeanDefinitionSnapshot roundTrip(BeanDefinition... definitions) throws IOException {
+    final BeanDefinitionSnapshot snapshot = BeanDefinitionSnapshot.of(new byte[0], Collections.emptyList(), Arrays.asList(definitions));
+    assertThat(snapshot).isNotNull();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    snapshot.writeTo(output);
+    return BeanDefinitionSnapshot.readFrom(new ByteArrayInputStream(output.toByteArray()));
+  }
+
+  @Test
+  public void recordsAttributes() throws Exception {
+    try (StandardApplicationContext context = new StandardApplicationContext(Constant.BLANK)) {
+      final AbstractBeanFactory beanFactory = context.getBeanFactory();
+      final DefaultBeanDefinition registered = new DefaultBeanDefinition("registered", Fixture.class);
+      beanFactory.registerBeanDefinition("registered", registered);
+
+      final DefaultBeanDefinition importing = new DefaultBeanDefinition("importing", Fixture.class);
+      final DefaultBeanDefinition imported = new DefaultBeanDefinition("imported", Fixture.class);
+      imported.setAttribute("import", importing);
+      imported.setAttribute("registered", registered);
+      final AnnotationAttributes missingBean = new AnnotationAttributes(MissingBean.class);
+      missingBean.put("value", "missing");
+      missingBean.put("type", void.class);
+      missingBean.put("equals", false);
+      missingBean.put("destroyMethods", new String[] { "close" });
+      imported.setAttribute("missingBean", missingBean);
+
+      final List<BeanDefinition> restored = roundTrip(importing, imported).getBeanDefinitions(beanFactory);
+      final BeanDefinition restoredImported = restored.get(1);
+      assertThat(restoredImported.getAttribute("import")).isSameAs(restored.get(0));
+      assertThat(restoredImported.getAttribute("registered")).isSameAs(registered);
+      final AnnotationAttributes restoredMissingBean = (AnnotationAttributes) restoredImported.getAttribute("missingBean");
+      assertThat(restoredMissingBean.annotationType()).isEqualTo(MissingBean.class);
+      assertThat(restoredMissingBean.getString("value")).isEqualTo("missing");
+      assertThat(restoredMissingBean.get("type")).isEqualTo(void.class);
+      assertThat(restoredMissingBean.get("equals")).isEqualTo(false);
+      assertThat(restoredMissingBean.getStringArray("destroyMethods")).containsExactly("close");
+
+      // not supported
+      imported.setAttribute("other", new Object());
+      assertThat(BeanDefinitionSnapshot.of(new byte[0], Collections.emptyList(), Collections.singletonList(imported)))
+              .isNull();
+    }
+  }
+
+  @Test
+  public void onlyExpectedValueClassesDeserialized() throws Exception {
+    try (StandardApplicationContext context = new StandardApplicationContext(Constant.BLANK)) {
+      final AbstractBeanFactory beanFactory = context.getBeanFactory();
+      final DefaultBeanDefinition def = new DefaultBeanDefinition("fixture", Fixture.class);
+      def.setPropertyValues(new DefaultPropertySetter(new Payload(), Fixture.class.getDeclaredField("payload")),
+                            new DefaultPropertySetter(Arrays.asList("a", "b"), Fixture.class.getDeclaredField("names")),
+                            new DefaultPropertySetter(1, Fixture.class.getDeclaredField("any")));
+      final PropertySetter[] setters = roundTrip(def).getBeanDefinitions(beanFactory).get(0).getPropertySetters();
+      assertThat(((DefaultPropertySetter) setters[0]).getValue()).isInstanceOf(Payload.class);
+      assertThat(((DefaultPropertySetter) setters[1]).getValue()).isEqualTo(Arrays.asList("a", "b"));
+
+      // a Payload is not expected by an Object field
+      def.setPropertyValues(new DefaultPropertySetter(new Payload(), Fixture.class.getDeclaredField("any")));
+      final BeanDefinitionSnapshot snapshot = roundTrip(def);
+      try {
+        snapshot.getBeanDefinitions(beanFactory);
+        throw new AssertionError("expected InvalidClassException");
+      }
+      catch (InvalidClassException e) {
+        assertThat(e.getMessage()).contains(Payload.class.getName());
+      }
+    }
+  }
+
+  @Test
+  public void ignoresOutOfDateSnapshot() throws Exception {
+    final File snapshot = new File(folder.getRoot(), "beans.snapshot");
+
+    try (CountingContext context = new CountingContext(snapshot)) {
+      context.load("test.demo.service.impl", "test.demo.repository.impl");
+    }
+    // another scanning location changes the fingerprint
+    try (CountingContext context = new CountingContext(snapshot)) {
+      context.load("test.demo.service.impl", "test.demo.repository.impl", "test.demo.config");
+      assertThat(context.scanned).isEqualTo(1);
+      assertThat(context.getBean(UserService.class)).isNotNull();
+    }
+  }
+
+}
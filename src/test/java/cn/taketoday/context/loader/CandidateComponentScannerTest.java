@@ -25,9 +25,13 @@ import org.junit.Test;
 import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.jar.JarFile;
 
+import cn.taketoday.context.ThrowableSupplier;
 import cn.taketoday.context.io.ClassPathResource;
+import cn.taketoday.context.io.Resource;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -83,4 +87,34 @@ public class CandidateComponentScannerTest {
     assertThat(candidates).hasSize(7);
   }
 
+  @Test
+  @SuppressWarnings("deprecation")
+  public void scanInJarFileSupplied() throws IOException {
+    final ClassPathResource classPathResource = new ClassPathResource("test.jar");
+    final CandidateComponentScanner componentScanner = new CandidateComponentScanner();
+    componentScanner.setClassLoader(new URLClassLoader(new URL[] { classPathResource.getLocation() }));
+
+    componentScanner.scanInJarFile(classPathResource, "com.sun.el.util",
+                                   () -> new JarFile(classPathResource.getFile()));
+    assertThat(componentScanner.getCandidates()).hasSize(7);
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void overriddenScanInJarFileSupplierCalled() throws IOException {
+    final ClassPathResource classPathResource = new ClassPathResource("test.jar");
+    final Set<String> scannedJars = new HashSet<>();
+    final CandidateComponentScanner componentScanner = new CandidateComponentScanner() {
+      @Override
+      protected void scanInJarFile(Resource resource, String packageName,
+                                   ThrowableSupplier<JarFile, IOException> jarFileSupplier) throws IOException {
+        scannedJars.add(resource.getName());
+      }
+    };
+    componentScanner.setClassLoader(new URLClassLoader(new URL[] { classPathResource.getLocation() }));
+
+    assertThat(componentScanner.scan("com.sun.el.util")).isEmpty();
+    assertThat(scannedJars).containsExactly("com/sun/el/util");
+  }
+
 }
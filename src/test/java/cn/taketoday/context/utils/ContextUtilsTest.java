@@ -42,6 +42,7 @@ import java.util.Set;
 import cn.taketoday.context.ApplicationContext;
 import cn.taketoday.context.StandardApplicationContext;
 import cn.taketoday.context.annotation.Env;
+import cn.taketoday.context.annotation.DefaultProps;
 import cn.taketoday.context.annotation.Props;
 import cn.taketoday.context.annotation.Singleton;
 import cn.taketoday.context.annotation.Value;
@@ -55,6 +56,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 
 /**
@@ -119,6 +121,56 @@ public class ContextUtilsTest {
     assert "TODAY BLOG".equals(properties.getProperty("site.name"));
   }
 
+  @Test
+  public void testLoadProps() {
+    final Properties properties = new Properties();
+    properties.setProperty("site.host", "https://taketoday.cn");
+    properties.setProperty("site.name", "TODAY BLOG");
+    properties.setProperty("site.admin.name", "#{site.name} admin");
+    properties.setProperty("site-name", "ignored");
+    properties.setProperty("siteXhost", "ignored");
+    properties.setProperty("sitf", "ignored");
+    properties.setProperty("other", "other");
+
+    final Properties site = ContextUtils.loadProps(new DefaultProps().setPrefix("site.").setReplace(true), properties);
+    assertThat(site).hasSize(3)
+            .containsEntry("host", "https://taketoday.cn")
+            .containsEntry("admin.name", "TODAY BLOG admin");
+
+    final Properties notReplaced = ContextUtils.loadProps(
+            new DefaultProps().setPrefix("site.admin.", "other").setReplace(false), properties);
+    assertThat(notReplaced).hasSize(2)
+            .containsEntry("site.admin.name", "TODAY BLOG admin")
+            .containsEntry("other", "other");
+
+    // index rebuilt on modification
+    properties.setProperty("site.icp", "icp");
+    assertThat(ContextUtils.loadProps(new DefaultProps().setPrefix("site.").setReplace(true), properties))
+            .containsEntry("icp", "icp");
+    // values are read live
+    properties.setProperty("site.icp", "changed");
+    assertThat(ContextUtils.loadProps(new DefaultProps().setPrefix("site.").setReplace(true), properties))
+            .containsEntry("icp", "changed");
+    // a key replaced by another one keeps the size
+    properties.remove("site.icp");
+    properties.setProperty("site.beian", "beian");
+    assertThat(ContextUtils.loadProps(new DefaultProps().setPrefix("site.").setReplace(true), properties))
+            .containsEntry("beian", "beian")
+            .doesNotContainKey("icp");
+
+    assertThat(ContextUtils.loadProps(new DefaultProps().setPrefix(""), properties))
+            .hasSize(properties.size());
+
+    // from file
+    final Properties info = ContextUtils.loadProps(
+            new DefaultProps().setValue("info").setPrefix("site.").setReplace(true), properties);
+    assertThat(info).containsEntry("host", "https://taketoday.cn")
+            .doesNotContainKey("admin.name");
+    assertThat(ContextUtils.loadProps(new DefaultProps().setValue("info", "").setPrefix("site.").setReplace(true), properties))
+            .containsEntry("admin.name", "TODAY BLOG admin")
+            .containsEntry("cdn", "https://cdn.taketoday.cn");
+  }
+
   @Props(prefix = "site.")
   Config test;
 
@@ -0,0 +1,63 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2021 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.context.utils;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * @author TODAY 2021/3/21 18:10
+ * @since 3.0.3
+ */
+public class LatencyHistogramTests {
+
+  @Test
+  public void histogramPercentiles() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    assertThat(histogram.getValueAtPercentile(99)).isZero();
+
+    for (long i = 1; i <= 10000; i++) {
+      histogram.record(i * 1000);
+    }
+    assertThat(histogram.getCount()).isEqualTo(10000);
+    assertThat(histogram.getMax()).isEqualTo(10_000_000);
+    assertThat(histogram.getMean()).isCloseTo(5_000_500, within(0.1));
+
+    assertThat((double) histogram.getValueAtPercentile(50)).isCloseTo(5_000_000, within(5_000_000 * 0.04));
+    assertThat((double) histogram.getValueAtPercentile(99)).isCloseTo(9_900_000, within(9_900_000 * 0.04));
+    assertThat(histogram.getValueAtPercentile(100)).isEqualTo(10_000_000);
+
+    histogram.reset();
+    assertThat(histogram.getCount()).isZero();
+    assertThat(histogram.getMax()).isZero();
+  }
+
+  @Test
+  public void bucketBoundaries() {
+    for (final long value : new long[] { 0, 1, 31, 32, 33, 63, 64, 1000, 1 << 20, Long.MAX_VALUE }) {
+      final int index = LatencyHistogram.indexOf(value);
+      assertThat(LatencyHistogram.lowestEquivalentValue(index)).isLessThanOrEqualTo(value);
+      assertThat(LatencyHistogram.highestEquivalentValue(index)).isGreaterThanOrEqualTo(value);
+    }
+  }
+
+}